@@ -0,0 +1,119 @@
+package com.janeapp.clinicscheduling;
+
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Patient;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PatientFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.PatientRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import com.janeapp.clinicscheduling.service.AppointmentService;
+import com.janeapp.clinicscheduling.service.AvailabilityCache;
+import com.janeapp.clinicscheduling.service.TimeSlot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the available spots of a date with each availability engine, for a growing number of practitioners, against
+ * a Postgres container. Requires docker, as the integration tests do.
+ * <p>
+ * Every practitioner is booked every other hour, so half of the candidate slots are free. The availability cache is
+ * cleared before each lookup, so the in-JVM engine loads the occupancy of the day every time, as on a cache miss. The
+ * in-JVM engine transfers every appointment of the day and derives the free slots in memory, whereas the database engine
+ * transfers the free slots only, at the cost of generating and anti-joining the candidates of every practitioner.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 2, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class AvailabilityEngineBenchmark {
+
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("America/Vancouver");
+
+    @Param( {"JVM", "DATABASE"} )
+    private AvailabilityConfig.Engine engine;
+
+    @Param( {"10", "100", "1000"} )
+    private int practitionerCount;
+
+    private PostgreSQLContainer<?> container;
+
+    private ConfigurableApplicationContext context;
+
+    private AppointmentService appointmentService;
+
+    private AvailabilityCache availabilityCache;
+
+    private LocalDate date;
+
+    @Setup( Level.Trial )
+    public void setUp() {
+        container = new PostgreSQLContainer<>("postgres:16");
+        container.start();
+        context = new SpringApplicationBuilder(ClinicSchedulingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + container.getJdbcUrl(),
+                        "spring.datasource.username=" + container.getUsername(),
+                        "spring.datasource.password=" + container.getPassword(),
+                        "app.availability.engine=" + engine.name(),
+                        "logging.level.root=WARN"
+                )
+                .run();
+        appointmentService = context.getBean(AppointmentService.class);
+        availabilityCache = context.getBean(AvailabilityCache.class);
+
+        // A weekday past the notice hours, so the whole clinic day is searched
+        date = LocalDate.now(CLINIC_ZONE).plusDays(2);
+        while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.plusDays(1);
+        }
+
+        List<Practitioner> practitioners = new ArrayList<>();
+        for (int i = 0; i < practitionerCount; i++) {
+            practitioners.add(PractitionerFixture.randomPractitioner());
+        }
+        practitioners = context.getBean(PractitionerRepository.class).saveAll(practitioners);
+        Patient patient = context.getBean(PatientRepository.class).save(PatientFixture.randomPatient());
+
+        List<Appointment> appointments = new ArrayList<>();
+        for (Practitioner practitioner : practitioners) {
+            for (LocalDateTime start = date.atTime(9, 0); start.getHour() < 17; start = start.plusHours(2)) {
+                appointments.add(AppointmentFixture.withAllDetails(start.atZone(CLINIC_ZONE).toInstant(), AppointmentType.STANDARD,
+                        patient, practitioner));
+            }
+        }
+        context.getBean(AppointmentRepository.class).saveAll(appointments);
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() {
+        context.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public Map<Practitioner, List<TimeSlot>> availableSpots() {
+        availabilityCache.invalidateAll();
+        return appointmentService.getAvailableSpotsByTypeAndDate(AppointmentType.STANDARD, date);
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.janeapp.clinicscheduling;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Patient;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PatientFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.PatientRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerDayOccupancyRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import com.janeapp.clinicscheduling.service.AppointmentService;
+import com.janeapp.clinicscheduling.service.AppointmentValidationException;
+import com.janeapp.clinicscheduling.service.AvailabilityCache;
+import com.janeapp.clinicscheduling.service.SlotInventory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Books appointments from concurrent threads for a few practitioners, with each booking mode, against a Postgres container.
+ * Requires docker, as the integration tests do.
+ * <p>
+ * Bookings overlap their neighbours, as they start every half-hour and last one hour, so most of them conflict once the
+ * calendars fill up. Booked and rejected bookings are reported as secondary results.
+ * Within a single node the in-memory practitioner locks already queue the bookings, so this measures the cost of each mode
+ * rather than the cross-node contention the advisory locks address. With group commit, bookings of practitioners on other
+ * lock stripes share transactions. In slot inventory mode, the slots are generated once per trial and reset to match
+ * the cleared appointments on every iteration.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 2, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+@Threads( 8 )
+public class ContendedBookingBenchmark {
+
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("America/Vancouver");
+
+    private static final int BOOKING_DAYS = 20;
+
+    @Param( {"QUERY", "CONSTRAINT", "ADVISORY_LOCK", "OCCUPANCY_TABLE", "SLOT_INVENTORY"} )
+    private BookingConfig.Mode mode;
+
+    @Param( {"1", "4"} )
+    private int practitionerCount;
+
+    /**
+     * Only applies to the constraint mode, e.g. {@code -p mode=CONSTRAINT -p groupCommit=false,true}.
+     */
+    @Param( {"false", "true"} )
+    private boolean groupCommit;
+
+    private PostgreSQLContainer<?> container;
+
+    private ConfigurableApplicationContext context;
+
+    private AppointmentService appointmentService;
+
+    private AppointmentRepository appointmentRepository;
+
+    private PractitionerDayOccupancyRepository dayOccupancyRepository;
+
+    private AvailabilityCache availabilityCache;
+
+    private SlotInventory slotInventory;
+
+    private List<Practitioner> practitioners;
+
+    private Patient patient;
+
+    private List<Instant> starts;
+
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.EVENTS )
+    public static class Outcomes {
+
+        public long booked;
+
+        public long rejected;
+
+        @Setup( Level.Iteration )
+        public void reset() {
+            booked = 0;
+            rejected = 0;
+        }
+
+    }
+
+    @Setup( Level.Trial )
+    public void setUp() {
+        container = new PostgreSQLContainer<>("postgres:16");
+        container.start();
+        context = new SpringApplicationBuilder(ClinicSchedulingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + container.getJdbcUrl(),
+                        "spring.datasource.username=" + container.getUsername(),
+                        "spring.datasource.password=" + container.getPassword(),
+                        "app.booking.mode=" + mode.name(),
+                        "app.booking.group-commit.enabled=" + groupCommit,
+                        "logging.level.root=WARN"
+                )
+                .run();
+        appointmentService = context.getBean(AppointmentService.class);
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        dayOccupancyRepository = context.getBean(PractitionerDayOccupancyRepository.class);
+        availabilityCache = context.getBean(AvailabilityCache.class);
+        slotInventory = context.getBean(SlotInventory.class);
+
+        PractitionerRepository practitionerRepository = context.getBean(PractitionerRepository.class);
+        practitioners = new ArrayList<>();
+        for (int i = 0; i < practitionerCount; i++) {
+            practitioners.add(practitionerRepository.save(PractitionerFixture.randomPractitioner()));
+        }
+        patient = context.getBean(PatientRepository.class).save(PatientFixture.randomPatient());
+        slotInventory.generate();
+
+        starts = new ArrayList<>();
+        LocalDate date = LocalDate.now(CLINIC_ZONE).plusDays(1);
+        for (int days = 0; days < BOOKING_DAYS; date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (LocalDateTime start = date.atTime(9, 0); start.getHour() < 16; start = start.plusMinutes(30)) {
+                starts.add(start.atZone(CLINIC_ZONE).toInstant());
+            }
+            days++;
+        }
+    }
+
+    @Setup( Level.Iteration )
+    public void clearAppointments() {
+        appointmentRepository.deleteAllInBatch();
+        dayOccupancyRepository.deleteAllInBatch();
+        slotInventory.check();
+        availabilityCache.invalidateAll();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() {
+        context.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public void book(final Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Appointment appointment = AppointmentFixture.withAllDetails(starts.get(random.nextInt(starts.size())), AppointmentType.STANDARD,
+                patient, practitioners.get(random.nextInt(practitioners.size())));
+        try {
+            appointmentService.addAppointment(appointment);
+            outcomes.booked++;
+        } catch (AppointmentValidationException e) {
+            outcomes.rejected++;
+        }
+    }
+
+}
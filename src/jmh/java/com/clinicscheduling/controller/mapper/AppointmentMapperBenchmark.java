@@ -0,0 +1,81 @@
+package com.janeapp.clinicscheduling.controller.mapper;
+
+import com.janeapp.clinicscheduling.controller.json.AppointmentAvailabilityResponse;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.service.TimeSlot;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the available spots of a clinic day to the response, for a growing number of practitioners and share of busy slots.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AppointmentMapperBenchmark {
+
+    private static final String TIME_ZONE = "America/Vancouver";
+
+    @Param( {"10", "100", "1000"} )
+    private int practitionerCount;
+
+    @Param( {"0.1", "0.5", "0.9"} )
+    private double busyDensity;
+
+    private final AppointmentMapper appointmentMapper = new AppointmentMapper();
+
+    private Map<Practitioner, List<TimeSlot>> availableSpots;
+
+    private Instant time;
+
+    @Setup
+    public void setUp() {
+        AppointmentType appointmentType = AppointmentType.STANDARD;
+        time = LocalDate.now().plusWeeks(1).atTime(9, 0).atZone(ZoneId.of(TIME_ZONE)).toInstant();
+        availableSpots = new HashMap<>();
+
+        Random random = new Random(42);
+        for (long id = 1; id <= practitionerCount; id++) {
+            Practitioner practitioner = new Practitioner();
+            practitioner.setId(id);
+            practitioner.setFirstName("Practitioner");
+            practitioner.setLastName(String.valueOf(id));
+            practitioner.setEmail("practitioner" + id + "@clinic.com");
+            practitioner.setPhone("604-555-0100");
+
+            List<TimeSlot> slots = new ArrayList<>();
+            for (int slot = 0; slot < 8; slot++) {
+                if (random.nextDouble() >= busyDensity) {
+                    Instant start = time.plus(slot, ChronoUnit.HOURS);
+                    slots.add(new TimeSlot(start, start.plus(appointmentType.amount(), appointmentType.unit())));
+                }
+            }
+            availableSpots.put(practitioner, slots);
+        }
+    }
+
+    @Benchmark
+    public List<AppointmentAvailabilityResponse> toResponse() {
+        return appointmentMapper.toResponse(availableSpots, TIME_ZONE);
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        return appointmentMapper.formatDateTime(time, TIME_ZONE);
+    }
+
+}
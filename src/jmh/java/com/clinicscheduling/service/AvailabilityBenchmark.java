@@ -0,0 +1,102 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the available spots of a clinic day, for a growing number of practitioners and share of busy slots.
+ * <p>
+ * {@link #overlapsWith(Blackhole)} replays the slot-by-slot overlap checks against the busy intervals, to compare with the
+ * occupancy bitmaps used by {@link #availableSpots()} and {@link #generateTimeSlots(Blackhole)}.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AvailabilityBenchmark {
+
+    @Param( {"10", "100", "1000"} )
+    private int practitionerCount;
+
+    @Param( {"0.1", "0.5", "0.9"} )
+    private double busyDensity;
+
+    private final AppointmentType appointmentType = AppointmentType.STANDARD;
+
+    private AppointmentService appointmentService;
+
+    private TimeSlot searchRange;
+
+    private ClinicDayOccupancy occupancy;
+
+    private List<Practitioner> practitioners;
+
+    private List<List<TimeSlot>> busyIntervals;
+
+    @Setup
+    public void setUp() {
+        appointmentService = BenchmarkFixtures.appointmentService();
+        Instant opening = BenchmarkFixtures.clinicDay().atTime(BenchmarkFixtures.OPENING_HOUR, 0)
+                .atZone(BenchmarkFixtures.CLINIC_ZONE).toInstant();
+        Instant closing = opening.plus(BenchmarkFixtures.CLOSING_HOUR - BenchmarkFixtures.OPENING_HOUR, ChronoUnit.HOURS);
+        searchRange = new TimeSlot(opening, closing);
+        occupancy = new ClinicDayOccupancy(opening.getEpochSecond());
+        practitioners = new ArrayList<>(practitionerCount);
+        busyIntervals = new ArrayList<>(practitionerCount);
+
+        Random random = new Random(42);
+        for (long id = 1; id <= practitionerCount; id++) {
+            practitioners.add(BenchmarkFixtures.practitioner(id));
+            List<TimeSlot> busy = new ArrayList<>();
+            for (Instant start = opening; start.isBefore(closing); start = start.plus(DayOccupancy.SLOT_MINUTES, ChronoUnit.MINUTES)) {
+                if (random.nextDouble() < busyDensity) {
+                    Instant end = start.plus(DayOccupancy.SLOT_MINUTES, ChronoUnit.MINUTES);
+                    busy.add(new TimeSlot(start, end));
+                    occupancy.mark(id, start, end);
+                }
+            }
+            busyIntervals.add(busy);
+        }
+    }
+
+    @Benchmark
+    public Map<Practitioner, List<TimeSlot>> availableSpots() {
+        return appointmentService.getAvailableSpots(appointmentType, searchRange, occupancy, practitioners);
+    }
+
+    @Benchmark
+    public void generateTimeSlots(final Blackhole blackhole) {
+        for (Practitioner practitioner : practitioners) {
+            blackhole.consume(appointmentService.generateTimeSlots(searchRange.start(), searchRange.end(),
+                    occupancy.origin(), occupancy.occupancy(practitioner.getId()), appointmentType));
+        }
+    }
+
+    @Benchmark
+    public void overlapsWith(final Blackhole blackhole) {
+        for (List<TimeSlot> busy : busyIntervals) {
+            List<TimeSlot> slots = new ArrayList<>();
+            for (Instant start = searchRange.start(); start.isBefore(searchRange.end());
+                 start = start.plus(appointmentType.amount(), appointmentType.unit())) {
+                TimeSlot candidate = new TimeSlot(start, start.plus(appointmentType.amount(), appointmentType.unit()));
+                if (busy.stream().noneMatch(candidate::overlapsWith)) {
+                    slots.add(candidate);
+                }
+            }
+            blackhole.consume(slots);
+        }
+    }
+
+}
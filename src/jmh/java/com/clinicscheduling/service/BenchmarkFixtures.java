@@ -0,0 +1,131 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.ClinicClosureRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRuleRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerWorkingHoursRepository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Builds the objects shared by the benchmarks, outside of the Spring context.
+ */
+final class BenchmarkFixtures {
+
+    static final String CLINIC_TIMEZONE = "America/Vancouver";
+
+    static final ZoneId CLINIC_ZONE = ZoneId.of(CLINIC_TIMEZONE);
+
+    static final int OPENING_HOUR = 9;
+
+    static final int CLOSING_HOUR = 17;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return a service with the clinic business hours, without repositories or caches.
+     */
+    static AppointmentService appointmentService() {
+        AppointmentService service = new AppointmentService();
+        set(service, "config", businessHoursConfig());
+        set(service, "clinicCalendar", new ClinicCalendar(businessHoursConfig(), Clock.systemUTC()));
+        set(service, "clinicClosures", clinicClosures());
+        set(service, "workingHours", workingHours());
+        set(service, "unavailabilityRules", unavailabilityRules());
+        return service;
+    }
+
+    /**
+     * @return a service loading the occupancy from repositories answering the given unavailability, and no appointment,
+     * to every range query. Nothing is cached, so every call loads the occupancy again.
+     */
+    static AppointmentService appointmentService(final List<PractitionerInterval> unavailability) {
+        AppointmentService service = appointmentService();
+        set(service, "appointmentRepository", Proxy.newProxyInstance(AppointmentRepository.class.getClassLoader(),
+                new Class<?>[] {AppointmentRepository.class}, (proxy, method, args) -> List.of()));
+        set(service, "practitionerUnavailabilityRepository", Proxy.newProxyInstance(PractitionerUnavailabilityRepository.class.getClassLoader(),
+                new Class<?>[] {PractitionerUnavailabilityRepository.class}, (proxy, method, args) -> unavailability));
+        AvailabilityCache availabilityCache = new AvailabilityCache();
+        set(availabilityCache, "config", new AvailabilityConfig(31, 0, Duration.ZERO, 90, AvailabilityConfig.Engine.JVM));
+        set(service, "availabilityCache", availabilityCache);
+        return service;
+    }
+
+    /**
+     * @return closures without any closed day, their repository only answering {@code findAll}.
+     */
+    static ClinicClosures clinicClosures() {
+        ClinicClosures closures = new ClinicClosures();
+        set(closures, "clinicClosureRepository", Proxy.newProxyInstance(ClinicClosureRepository.class.getClassLoader(),
+                new Class<?>[] {ClinicClosureRepository.class}, (proxy, method, args) -> List.of()));
+        return closures;
+    }
+
+    /**
+     * @return working hours without any template, their repository only answering {@code findAllIntervals}.
+     */
+    static WorkingHours workingHours() {
+        WorkingHours workingHours = new WorkingHours();
+        set(workingHours, "config", businessHoursConfig());
+        set(workingHours, "workingHoursRepository", Proxy.newProxyInstance(PractitionerWorkingHoursRepository.class.getClassLoader(),
+                new Class<?>[] {PractitionerWorkingHoursRepository.class}, (proxy, method, args) -> List.of()));
+        return workingHours;
+    }
+
+    /**
+     * @return unavailability rules without any rule, their repository only answering {@code findRulesEndingFrom}.
+     */
+    static UnavailabilityRules unavailabilityRules() {
+        UnavailabilityRules rules = new UnavailabilityRules();
+        set(rules, "clinicCalendar", new ClinicCalendar(businessHoursConfig(), Clock.systemUTC()));
+        set(rules, "ruleRepository", Proxy.newProxyInstance(PractitionerUnavailabilityRuleRepository.class.getClassLoader(),
+                new Class<?>[] {PractitionerUnavailabilityRuleRepository.class}, (proxy, method, args) -> List.of()));
+        return rules;
+    }
+
+    static BusinessHoursConfig businessHoursConfig() {
+        return new BusinessHoursConfig(CLINIC_TIMEZONE, OPENING_HOUR, CLOSING_HOUR, CLOSING_HOUR - 12, false, 2);
+    }
+
+    /**
+     * @return a clinic day at least a week ahead, so booking validations are not affected by the notice hours.
+     */
+    static LocalDate clinicDay() {
+        return LocalDate.now(CLINIC_ZONE).plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY));
+    }
+
+    private static void set(final Object target, final String name, final Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Practitioner practitioner(final long id) {
+        Practitioner practitioner = new Practitioner();
+        practitioner.setId(id);
+        practitioner.setFirstName("Practitioner");
+        practitioner.setLastName(String.valueOf(id));
+        practitioner.setEmail("practitioner" + id + "@clinic.com");
+        practitioner.setPhone("604-555-0100");
+        return practitioner;
+    }
+
+}
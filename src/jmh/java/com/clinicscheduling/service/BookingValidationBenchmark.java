@@ -0,0 +1,70 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the checks made on every booking request, before any query is sent to the database.
+ * <p>
+ * {@link #validateScheduleTimeZoned()} repeats the checks on the zoned date-times, as they were made before the
+ * {@link ClinicCalendar}, as a baseline for {@link #validateScheduleTime()}.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BookingValidationBenchmark {
+
+    private AppointmentService appointmentService;
+
+    private Instant start;
+
+    private Instant end;
+
+    private Instant unaligned;
+
+    private BusinessHoursConfig config;
+
+    @Setup
+    public void setUp() {
+        appointmentService = BenchmarkFixtures.appointmentService();
+        start = BenchmarkFixtures.clinicDay().atTime(BenchmarkFixtures.OPENING_HOUR + 1, 0)
+                .atZone(BenchmarkFixtures.CLINIC_ZONE).toInstant();
+        end = start.plus(1, ChronoUnit.HOURS);
+        unaligned = start.plus(17, ChronoUnit.MINUTES).plus(42, ChronoUnit.SECONDS);
+        config = BenchmarkFixtures.businessHoursConfig();
+    }
+
+    @Benchmark
+    public void validateScheduleTime() {
+        appointmentService.validateScheduleTime(start, end);
+    }
+
+    @Benchmark
+    public boolean validateScheduleTimeZoned() {
+        ZoneId clinicZoneId = ZoneId.of(config.timezone());
+        ZonedDateTime startZoned = start.atZone(clinicZoneId);
+        ZonedDateTime endZoned = end.atZone(clinicZoneId);
+        DayOfWeek dayOfWeek = startZoned.getDayOfWeek();
+        boolean weekend = ! config.weekends() && (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY);
+        boolean notice = Duration.between(Instant.now().plus(5, ChronoUnit.SECONDS), start).toHours() < config.appointmentNoticeHours();
+        int minute = startZoned.getMinute();
+        LocalTime opening = ZonedDateTime.now(clinicZoneId).withHour(config.ampmStart()).truncatedTo(ChronoUnit.HOURS).toLocalTime();
+        LocalTime closing = ZonedDateTime.now(clinicZoneId).withHour(config.ampmEnd()).truncatedTo(ChronoUnit.HOURS).toLocalTime();
+        boolean hours = startZoned.toLocalTime().truncatedTo(ChronoUnit.MINUTES).isBefore(opening)
+                || endZoned.toLocalTime().truncatedTo(ChronoUnit.MINUTES).isAfter(closing);
+        return weekend || notice || (minute != 0 && minute != 30) || hours;
+    }
+
+    @Benchmark
+    public Instant roundMinutes() {
+        return appointmentService.roundMinutes(unaligned);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the occupancy of a clinic day for practitioners on leaves that started a growing number of years ago.
+ * <p>
+ * The overlap query returns those leaves along with the unavailability of the day, while the rest of the history is
+ * left out by the GiST index, so the repositories answer the same rows whatever the history length.
+ * {@link #clinicDayOccupancy()} only walks the queried day of each leave, whereas
+ * {@link #groupByEveryDayOfTheRecords(Blackhole)} replays the grouping by every day of each record, as it was before,
+ * as a baseline.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class UnavailabilityHistoryBenchmark {
+
+    private static final int PRACTITIONER_COUNT = 100;
+
+    @Param( {"1", "5", "10"} )
+    private int historyYears;
+
+    private AppointmentService appointmentService;
+
+    private ClinicCalendar clinicCalendar;
+
+    private LocalDate date;
+
+    private List<PractitionerInterval> unavailability;
+
+    @Setup
+    public void setUp() {
+        date = BenchmarkFixtures.clinicDay();
+        clinicCalendar = new ClinicCalendar(BenchmarkFixtures.businessHoursConfig(), Clock.systemUTC());
+        Instant opening = date.atTime(BenchmarkFixtures.OPENING_HOUR, 0).atZone(BenchmarkFixtures.CLINIC_ZONE).toInstant();
+        unavailability = new ArrayList<>();
+        for (long id = 1; id <= PRACTITIONER_COUNT; id++) {
+            if (id % 2 == 0) {
+                // On leave since years ago, until noon of the day
+                Instant leaveStart = date.minusYears(historyYears).atStartOfDay(BenchmarkFixtures.CLINIC_ZONE).toInstant();
+                unavailability.add(new PractitionerInterval(id, leaveStart, opening.plus(3, ChronoUnit.HOURS)));
+            } else {
+                unavailability.add(new PractitionerInterval(id, opening.plus(1, ChronoUnit.HOURS), opening.plus(2, ChronoUnit.HOURS)));
+            }
+        }
+        appointmentService = BenchmarkFixtures.appointmentService(unavailability);
+    }
+
+    @Benchmark
+    public Map<LocalDate, ClinicDayOccupancy> clinicDayOccupancy() {
+        return appointmentService.getClinicDaysOccupancy(List.of(date));
+    }
+
+    @Benchmark
+    public void groupByEveryDayOfTheRecords(final Blackhole blackhole) {
+        Map<LocalDate, List<PractitionerInterval>> intervalsByDate = new HashMap<>();
+        for (PractitionerInterval interval : unavailability) {
+            LocalDate lastDate = clinicCalendar.dayOf(interval.endAt()).date();
+            for (LocalDate day = clinicCalendar.dayOf(interval.startAt()).date(); ! day.isAfter(lastDate); day = day.plusDays(1)) {
+                intervalsByDate.computeIfAbsent(day, key -> new ArrayList<>()).add(interval);
+            }
+        }
+        blackhole.consume(intervalsByDate);
+    }
+
+}
@@ -3,9 +3,11 @@ package com.janeapp.clinicscheduling;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan // Scans and registers @ConfigurationProperties beans
+@EnableScheduling
 public class ClinicSchedulingApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,28 @@
+package com.janeapp.clinicscheduling.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties( prefix = "app.availability" )
+public record AvailabilityConfig(int maxRangeDays, int cacheMaxEntries, Duration cacheTtl,
+                                 int nextAvailableHorizonDays, Engine engine) {
+
+    /**
+     * How the available spots by date, type and date range are computed. The next available spot is always searched in
+     * the in-memory {@code FreeIntervalIndex}.
+     */
+    public enum Engine {
+        /**
+         * Appointments and unavailability of the day are loaded, and the free slots are derived in memory from the
+         * occupancy bitmaps, which are cached.
+         */
+        JVM,
+        /**
+         * The candidate slots are generated by Postgres and anti-joined against the appointments and unavailability, so
+         * only the free slots are transferred. Nothing is cached.
+         */
+        DATABASE
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.janeapp.clinicscheduling.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties( prefix = "app.booking" )
+public record BookingConfig(int maxBatchSize, Mode mode, int lockStripes, Duration lockTimeout, GroupCommit groupCommit,
+                            OccupancyTable occupancyTable, SlotInventory slotInventory) {
+
+    public enum Mode {
+        /**
+         * Availability is queried before inserting the appointment.
+         */
+        QUERY,
+        /**
+         * The appointment is inserted right away, overlaps being rejected by the database constraints.
+         */
+        CONSTRAINT,
+        /**
+         * A transaction-scoped advisory lock on the practitioner-day is taken before querying availability and inserting,
+         * so conflicting bookings queue across every node instead of failing on the insert.
+         */
+        ADVISORY_LOCK,
+        /**
+         * The slots of the appointment are set in the practitioner-day row of the {@code practitioner_day_occupancy}
+         * table by a conditional bitwise upsert, which is the conflict check, before inserting the appointment. The
+         * availability of a day is read from those rows.
+         */
+        OCCUPANCY_TABLE,
+        /**
+         * The row of the appointment slot in the {@code slot_inventory} table, generated ahead, is claimed with
+         * {@code FOR UPDATE SKIP LOCKED} before inserting the appointment, so bookings never wait for each other. The
+         * available spots are read from the free rows whatever the {@link AvailabilityConfig.Engine}.
+         */
+        SLOT_INVENTORY
+    }
+
+    /**
+     * Bookings of {@link Mode#CONSTRAINT} mode queued and inserted in micro-batches, one transaction per batch.
+     *
+     * @param queueCapacity bookings waiting to be written, further bookings are rejected.
+     * @param maxBatchSize  bookings written by a single transaction.
+     * @param maxLinger     how long the first booking of a batch waits for others to join it.
+     */
+    public record GroupCommit(boolean enabled, int queueCapacity, int maxBatchSize, Duration maxLinger) {
+    }
+
+    /**
+     * Rebuild of the {@code practitioner_day_occupancy} table of {@link Mode#OCCUPANCY_TABLE} mode.
+     *
+     * @param rebuildDays     dates from today regenerated by each rebuild.
+     * @param rebuildInterval how often the rows are regenerated from the appointments and unavailability.
+     */
+    public record OccupancyTable(int rebuildDays, Duration rebuildInterval) {
+    }
+
+    /**
+     * Slot inventory of {@link Mode#SLOT_INVENTORY} mode.
+     *
+     * @param horizonDays      days from today the slots are generated for.
+     * @param generateInterval how often the slots of new days and practitioners are generated.
+     * @param checkInterval    how often the slots are checked against the appointments and unavailability.
+     */
+    public record SlotInventory(int horizonDays, Duration generateInterval, Duration checkInterval) {
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.janeapp.clinicscheduling.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties( prefix = "app.idempotency" )
+public record IdempotencyConfig(int maxEntries, Duration ttl, Duration purgeInterval) {
+}
@@ -0,0 +1,9 @@
+package com.janeapp.clinicscheduling.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties( prefix = "app.slot-hold" )
+public record SlotHoldConfig(Duration defaultTtl, Duration maxTtl, Duration tick, int wheelSize) {
+}
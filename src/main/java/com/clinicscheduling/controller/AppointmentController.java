@@ -1,26 +1,52 @@
 package com.janeapp.clinicscheduling.controller;
 
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.config.SlotHoldConfig;
 import com.janeapp.clinicscheduling.controller.json.AppointmentAvailabilityResponse;
+import com.janeapp.clinicscheduling.controller.json.AppointmentBatchItemResponse;
+import com.janeapp.clinicscheduling.controller.json.AppointmentDateAvailabilityResponse;
 import com.janeapp.clinicscheduling.controller.json.AppointmentRequest;
 import com.janeapp.clinicscheduling.controller.json.AppointmentResponse;
+import com.janeapp.clinicscheduling.controller.json.AppointmentTypeAvailabilityResponse;
+import com.janeapp.clinicscheduling.controller.json.NextAvailableSpotResponse;
+import com.janeapp.clinicscheduling.controller.json.SlotHoldRequest;
+import com.janeapp.clinicscheduling.controller.json.SlotHoldResponse;
 import com.janeapp.clinicscheduling.controller.mapper.AppointmentMapper;
 import com.janeapp.clinicscheduling.controller.mapper.AppointmentTypeMapper;
+import com.janeapp.clinicscheduling.controller.mapper.PractitionerMapper;
 import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Patient;
 import com.janeapp.clinicscheduling.entity.Practitioner;
 import com.janeapp.clinicscheduling.service.AppointmentService;
+import com.janeapp.clinicscheduling.service.BookingResult;
+import com.janeapp.clinicscheduling.service.DailyTimeWindow;
+import com.janeapp.clinicscheduling.service.IdempotencyStore;
 import com.janeapp.clinicscheduling.service.TimeSlot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.SortedMap;
 
 @RestController
 @RequestMapping( "/appointments" )
 public class AppointmentController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     @Autowired
     private AppointmentService appointmentService;
 
@@ -30,6 +56,18 @@ public class AppointmentController {
     @Autowired
     private AppointmentTypeMapper appointmentTypeMapper;
 
+    @Autowired
+    private PractitionerMapper practitionerMapper;
+
+    @Autowired
+    private BookingConfig bookingConfig;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private SlotHoldConfig slotHoldConfig;
+
     @GetMapping
     public List<AppointmentAvailabilityResponse> getAppointments(
             @RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
@@ -40,13 +78,124 @@ public class AppointmentController {
         return appointmentMapper.toResponse(availableSpotsByTypeAndDate, timeZone);
     }
 
+    @GetMapping( params = {"date", "!type"} )
+    public List<AppointmentTypeAvailabilityResponse> getAppointmentsOfAllTypes(
+            @RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
+            @RequestParam @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate date) {
+        Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> availableSpotsByDate = appointmentService.getAvailableSpotsByDate(date);
+        return appointmentMapper.toAllTypesResponse(availableSpotsByDate, timeZone);
+    }
+
+    @GetMapping( params = {"from", "to"} )
+    public List<AppointmentDateAvailabilityResponse> getAppointmentsByRange(
+            @RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
+            @RequestParam( "type" ) String appointmentType,
+            @RequestParam @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate from,
+            @RequestParam @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate to) {
+        SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> availableSpotsByTypeAndDateRange = appointmentService
+                .getAvailableSpotsByTypeAndDateRange(appointmentTypeMapper.fromString(appointmentType), from, to);
+        return appointmentMapper.toRangeResponse(availableSpotsByTypeAndDateRange, timeZone);
+    }
+
+    @GetMapping( "/next-available" )
+    public NextAvailableSpotResponse getNextAvailableSpot(
+            @RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
+            @RequestParam( value = "type", required = false ) String appointmentType,
+            @RequestParam( required = false ) Long practitionerId,
+            @RequestParam( required = false ) Instant after,
+            @RequestParam( required = false ) @DateTimeFormat( iso = DateTimeFormat.ISO.TIME ) LocalTime fromTime,
+            @RequestParam( required = false ) @DateTimeFormat( iso = DateTimeFormat.ISO.TIME ) LocalTime toTime) {
+        if ((fromTime == null) != (toTime == null)) {
+            throw new RequestValidationException("Both fromTime and toTime should be informed");
+        }
+        DailyTimeWindow window = fromTime != null ? new DailyTimeWindow(fromTime, toTime, ZoneId.of(timeZone)) : null;
+        return appointmentMapper.toResponse(appointmentService.getNextAvailableSpot(
+                appointmentType != null ? appointmentTypeMapper.fromString(appointmentType) : null,
+                practitionerId != null ? practitionerMapper.fromId(practitionerId) : null,
+                after, window
+        ), timeZone);
+    }
+
+    /**
+     * Books the appointment of the request. A request repeating the {@code Idempotency-Key} of a previous one gets the
+     * appointment created by the previous request, without booking again, unless it books something else: the key is
+     * then rejected with 422.
+     */
     @PostMapping
     public AppointmentResponse addAppointment(@RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
+                                              @RequestHeader( value = "Idempotency-Key", required = false ) String idempotencyKey,
                                               @RequestBody AppointmentRequest request) {
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new RequestValidationException(String.format("The Idempotency-Key should have between 1 and %d characters", MAX_IDEMPOTENCY_KEY_LENGTH));
+            }
+            Optional<Long> appointmentId = idempotencyStore.find(idempotencyKey, appointmentMapper.fingerprintOf(request, timeZone));
+            if (appointmentId.isPresent()) {
+                return appointmentMapper.toResponse(appointmentId.get());
+            }
+        }
         Appointment appointment = appointmentMapper.fromRequest(request, timeZone);
         return appointmentMapper.toResponse(
-                appointmentService.addAppointment(appointment)
+                appointmentService.addAppointment(appointment, idempotencyKey)
         );
     }
 
+    /**
+     * Holds the slot of the request for its patient, so that it is neither offered to nor booked by other patients until
+     * the hold expires or the patient books it.
+     */
+    @PostMapping( "/holds" )
+    public SlotHoldResponse holdSlot(@RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
+                                     @RequestBody SlotHoldRequest request) {
+        Duration ttl = request.minutes() != null ? Duration.ofMinutes(request.minutes()) : slotHoldConfig.defaultTtl();
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(slotHoldConfig.maxTtl()) > 0) {
+            throw new RequestValidationException(String.format("A slot can be held between 1 and %d minutes", slotHoldConfig.maxTtl().toMinutes()));
+        }
+        Appointment appointment = appointmentMapper.fromHoldRequest(request, timeZone);
+        return appointmentMapper.toResponse(appointmentService.holdSlot(appointment, ttl), timeZone);
+    }
+
+    /**
+     * Releases the hold of the patient, so that the slot is offered again without waiting for the hold to expire.
+     */
+    @DeleteMapping( "/holds/{id}" )
+    @ResponseStatus( HttpStatus.NO_CONTENT )
+    public void releaseHold(@PathVariable String id,
+                            @RequestParam( required = false ) Long patientId) {
+        if (patientId == null) {
+            throw new RequestValidationException("The patientId of the hold should be informed");
+        }
+        appointmentService.releaseHold(id, patientId);
+    }
+
+    /**
+     * Books every appointment of the request, each one being accepted or rejected on its own.
+     * Requests that cannot be mapped (unknown patient, practitioner or type, invalid time) are rejected without reaching the service.
+     */
+    @PostMapping( "/batch" )
+    public List<AppointmentBatchItemResponse> addAppointments(@RequestHeader( value = "Time-Zone", defaultValue = "UTC" ) String timeZone,
+                                                              @RequestBody List<AppointmentRequest> requests) {
+        if (requests.isEmpty() || requests.size() > bookingConfig.maxBatchSize()) {
+            throw new RequestValidationException(String.format("A batch should have between 1 and %d appointments", bookingConfig.maxBatchSize()));
+        }
+        Map<Long, Patient> patients = appointmentMapper.findPatients(requests);
+        AppointmentBatchItemResponse[] responses = new AppointmentBatchItemResponse[requests.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                appointments.add(appointmentMapper.fromRequest(requests.get(i), timeZone, patients));
+                indexes.add(i);
+            } catch (RequestValidationException | NoSuchElementException e) {
+                responses[i] = new AppointmentBatchItemResponse(i, null, e.getMessage());
+            }
+        }
+
+        List<BookingResult> results = appointmentService.addAppointments(appointments);
+        for (int i = 0; i < results.size(); i++) {
+            responses[indexes.get(i)] = appointmentMapper.toResponse(indexes.get(i), results.get(i));
+        }
+        return Arrays.asList(responses);
+    }
+
 }
@@ -0,0 +1,54 @@
+package com.janeapp.clinicscheduling.controller;
+
+import com.janeapp.clinicscheduling.controller.json.ClinicClosureRequest;
+import com.janeapp.clinicscheduling.controller.json.ClinicClosureResponse;
+import com.janeapp.clinicscheduling.controller.mapper.ClinicClosureMapper;
+import com.janeapp.clinicscheduling.service.ClinicClosures;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping( "/closures" )
+public class ClinicClosureController {
+
+    private static final int MAX_REASON_LENGTH = 255;
+
+    @Autowired
+    private ClinicClosures clinicClosures;
+
+    @Autowired
+    private ClinicClosureMapper clinicClosureMapper;
+
+    @GetMapping
+    public List<ClinicClosureResponse> getClosures(@RequestParam @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate from,
+                                                   @RequestParam @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RequestValidationException("The date range should end after it starts");
+        }
+        return clinicClosureMapper.toResponse(clinicClosures.getClosures(from, to));
+    }
+
+    /**
+     * Closes the clinic on the date, so that it is neither offered in the availability nor bookable.
+     */
+    @PutMapping( "/{date}" )
+    public ClinicClosureResponse close(@PathVariable @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate date,
+                                       @RequestBody ClinicClosureRequest request) {
+        if (request.reason() != null && request.reason().length() > MAX_REASON_LENGTH) {
+            throw new RequestValidationException(String.format("The reason should have up to %d characters", MAX_REASON_LENGTH));
+        }
+        return clinicClosureMapper.toResponse(clinicClosures.close(date, request.reason()));
+    }
+
+    @DeleteMapping( "/{date}" )
+    @ResponseStatus( HttpStatus.NO_CONTENT )
+    public void reopen(@PathVariable @DateTimeFormat( iso = DateTimeFormat.ISO.DATE ) LocalDate date) {
+        clinicClosures.reopen(date);
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.janeapp.clinicscheduling.controller;
 
 import com.janeapp.clinicscheduling.service.AppointmentValidationException;
+import com.janeapp.clinicscheduling.service.IdempotencyKeyReusedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -34,10 +35,21 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.BAD_REQUEST.value());
         response.put("message", ex.getMessage());
 
-        logger.error("Error to validate an appointment", ex);
+        // Rejections are expected (e.g. a time taken in the meantime), so they are not logged as errors with the stack trace
+        logger.warn("Error to validate an appointment: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler( IdempotencyKeyReusedException.class )
+    public ResponseEntity<Map<String, Object>> idempotencyKeyReusedException(Exception ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        response.put("message", ex.getMessage());
+
+        logger.warn("Idempotency key reused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
     @ExceptionHandler( DataIntegrityViolationException.class )
     public ResponseEntity<Map<String, Object>> dataIntegrityViolationException(Exception ex) {
         Map<String, Object> response = new HashMap<>();
@@ -1,9 +1,12 @@
 package com.janeapp.clinicscheduling.controller;
 
 import com.janeapp.clinicscheduling.controller.json.AppointmentPractitionerResponse;
+import com.janeapp.clinicscheduling.controller.json.WorkingHoursRequest;
+import com.janeapp.clinicscheduling.controller.json.WorkingHoursResponse;
 import com.janeapp.clinicscheduling.controller.mapper.AppointmentMapper;
 import com.janeapp.clinicscheduling.controller.mapper.PractitionerMapper;
 import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.Practitioner;
 import com.janeapp.clinicscheduling.service.PractitionerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -30,4 +33,20 @@ public class PractitionerController {
         return mapper.toResponse(appointments, timeZone);
     }
 
+    @GetMapping( "/{id}/working-hours" )
+    public List<WorkingHoursResponse> getWorkingHours(@PathVariable Long id) {
+        return practitionerMapper.toWorkingHoursResponse(practitionerService.getWorkingHours(practitionerMapper.fromId(id)));
+    }
+
+    /**
+     * Replaces the weekly working hours of the practitioner, in the clinic time zone. An empty list makes the
+     * practitioner work the whole clinic hours.
+     */
+    @PutMapping( "/{id}/working-hours" )
+    public List<WorkingHoursResponse> replaceWorkingHours(@PathVariable Long id, @RequestBody List<WorkingHoursRequest> request) {
+        Practitioner practitioner = practitionerMapper.fromId(id);
+        return practitionerMapper.toWorkingHoursResponse(
+                practitionerService.replaceWorkingHours(practitioner, practitionerMapper.toWorkingHours(request)));
+    }
+
 }
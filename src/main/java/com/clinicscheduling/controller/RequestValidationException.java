@@ -2,6 +2,10 @@ package com.janeapp.clinicscheduling.controller;
 
 public class RequestValidationException extends RuntimeException {
 
+    public RequestValidationException(String message) {
+        super(message);
+    }
+
     public RequestValidationException(String message, Throwable cause) {
         super(message, cause);
     }
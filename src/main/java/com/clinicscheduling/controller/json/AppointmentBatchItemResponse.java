@@ -0,0 +1,7 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+public record AppointmentBatchItemResponse(int index,
+                                           Long id,
+                                           String error) {
+
+}
@@ -0,0 +1,8 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+import java.util.List;
+
+public record AppointmentDateAvailabilityResponse(String date,
+                                                  List<AppointmentAvailabilityResponse> availability) {
+
+}
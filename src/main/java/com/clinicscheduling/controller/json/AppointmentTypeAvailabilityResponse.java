@@ -0,0 +1,10 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+
+import java.util.List;
+
+public record AppointmentTypeAvailabilityResponse(AppointmentType type,
+                                                  List<AppointmentAvailabilityResponse> availability) {
+
+}
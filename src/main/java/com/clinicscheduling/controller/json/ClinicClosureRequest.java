@@ -0,0 +1,5 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+public record ClinicClosureRequest(String reason) {
+
+}
@@ -0,0 +1,9 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+
+public record NextAvailableSpotResponse(PractitionerResponse practitioner,
+                                        AppointmentType type,
+                                        TimeSlotResponse slot) {
+
+}
@@ -0,0 +1,10 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+public record SlotHoldRequest(
+        long patientId,
+        long practitionerId,
+        String time,
+        String type,
+        Integer minutes) {
+
+}
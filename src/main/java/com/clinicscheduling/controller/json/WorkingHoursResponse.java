@@ -0,0 +1,5 @@
+package com.janeapp.clinicscheduling.controller.json;
+
+public record WorkingHoursResponse(String dayOfWeek, String start, String end) {
+
+}
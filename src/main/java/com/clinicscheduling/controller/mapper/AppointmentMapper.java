@@ -8,17 +8,25 @@ import com.janeapp.clinicscheduling.entity.Patient;
 import com.janeapp.clinicscheduling.entity.Practitioner;
 import com.janeapp.clinicscheduling.repository.PatientRepository;
 import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import com.janeapp.clinicscheduling.service.BookingResult;
+import com.janeapp.clinicscheduling.service.IdempotencyStore;
+import com.janeapp.clinicscheduling.service.NextAvailableSpot;
+import com.janeapp.clinicscheduling.service.SlotHold;
 import com.janeapp.clinicscheduling.service.TimeSlot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -37,10 +45,46 @@ public class AppointmentMapper {
     private PatientRepository patientRepository;
 
     public Appointment fromRequest(final AppointmentRequest request, final String timezone) {
+        return fromRequest(request, timezone, patientRepository.findById(request.patientId()));
+    }
+
+    /**
+     * @return the {@link IdempotencyStore#fingerprint(Appointment) fingerprint} of the appointment of the request,
+     * without loading its patient and practitioner.
+     */
+    public String fingerprintOf(final AppointmentRequest request, final String timezone) {
+        Instant scheduleTime = convertScheduleToInstant(request.time()).atZone(ZoneId.of(timezone)).toInstant();
+        return IdempotencyStore.fingerprint(request.patientId(), request.practitionerId(), appointmentTypeMapper.fromString(request.type()), scheduleTime);
+    }
+
+    /**
+     * Maps the slot to hold into the appointment that would be booked.
+     */
+    public Appointment fromHoldRequest(final SlotHoldRequest request, final String timezone) {
+        return fromRequest(new AppointmentRequest(request.patientId(), request.practitionerId(), request.time(), request.type(), null), timezone);
+    }
+
+    /**
+     * @param patients the patients of the requests, see {@link #findPatients(List)}.
+     */
+    public Appointment fromRequest(final AppointmentRequest request, final String timezone, final Map<Long, Patient> patients) {
+        return fromRequest(request, timezone, Optional.ofNullable(patients.get(request.patientId())));
+    }
+
+    /**
+     * Loads the patients of every request in a single query.
+     */
+    public Map<Long, Patient> findPatients(final List<AppointmentRequest> requests) {
+        return patientRepository.findAllById(requests.stream().map(AppointmentRequest::patientId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+    }
+
+    private Appointment fromRequest(final AppointmentRequest request, final String timezone, final Optional<Patient> patientFound) {
         Instant scheduleTime = convertScheduleToInstant(request.time()).atZone(ZoneId.of(timezone)).toInstant();
         AppointmentType appointmentType = appointmentTypeMapper.fromString(request.type());
         Practitioner practitioner = practitionerMapper.fromId(request.practitionerId());
-        Patient patient = patientRepository.findById(request.patientId())
+        Patient patient = patientFound
                 .orElseThrow(() -> new NoSuchElementException("Patient not found"));
 
         Appointment appointment = new Appointment();
@@ -54,7 +98,17 @@ public class AppointmentMapper {
     }
 
     public AppointmentResponse toResponse(final Appointment appointment) {
-        return new AppointmentResponse(appointment.getId());
+        return toResponse(appointment.getId());
+    }
+
+    public AppointmentResponse toResponse(final Long appointmentId) {
+        return new AppointmentResponse(appointmentId);
+    }
+
+    public AppointmentBatchItemResponse toResponse(final int index, final BookingResult result) {
+        return result.isBooked()
+                ? new AppointmentBatchItemResponse(index, result.appointment().getId(), null)
+                : new AppointmentBatchItemResponse(index, null, result.error());
     }
 
     public List<AppointmentPractitionerResponse> toResponse(final List<Appointment> appointments, final String timeZone) {
@@ -82,6 +136,34 @@ public class AppointmentMapper {
                 .collect(Collectors.toList());
     }
 
+    public List<AppointmentDateAvailabilityResponse> toRangeResponse(final SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> appointments,
+                                                                     final String timeZone) {
+        return appointments.entrySet()
+                .stream()
+                .map(a -> new AppointmentDateAvailabilityResponse(a.getKey().format(DateTimeFormatter.ISO_DATE), toResponse(a.getValue(), timeZone)))
+                .collect(Collectors.toList());
+    }
+
+    public List<AppointmentTypeAvailabilityResponse> toAllTypesResponse(final Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> appointments,
+                                                                         final String timeZone) {
+        return appointments.entrySet()
+                .stream()
+                .map(a -> new AppointmentTypeAvailabilityResponse(a.getKey(), toResponse(a.getValue(), timeZone)))
+                .collect(Collectors.toList());
+    }
+
+    public NextAvailableSpotResponse toResponse(final NextAvailableSpot spot, final String timeZone) {
+        Practitioner p = spot.practitioner();
+        PractitionerResponse practitionerResponse = new PractitionerResponse(p.getId(), p.fullName(), p.getEmail(), p.getPhone());
+        TimeSlotResponse slot = new TimeSlotResponse(formatDateTime(spot.timeSlot().start(), timeZone), formatDateTime(spot.timeSlot().end(), timeZone));
+        return new NextAvailableSpotResponse(practitionerResponse, spot.appointmentType(), slot);
+    }
+
+    public SlotHoldResponse toResponse(final SlotHold hold, final String timeZone) {
+        TimeSlotResponse slot = new TimeSlotResponse(formatDateTime(hold.startAt(), timeZone), formatDateTime(hold.endAt(), timeZone));
+        return new SlotHoldResponse(hold.id(), slot, hold.expiresAt().toString());
+    }
+
     public String formatDateTime(final Instant time, final String timezone) {
         return time.atZone(ZoneId.of(timezone)).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
     }
@@ -0,0 +1,20 @@
+package com.janeapp.clinicscheduling.controller.mapper;
+
+import com.janeapp.clinicscheduling.controller.json.ClinicClosureResponse;
+import com.janeapp.clinicscheduling.entity.ClinicClosure;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ClinicClosureMapper {
+
+    public ClinicClosureResponse toResponse(final ClinicClosure closure) {
+        return new ClinicClosureResponse(closure.getDate().toString(), closure.getReason());
+    }
+
+    public List<ClinicClosureResponse> toResponse(final List<ClinicClosure> closures) {
+        return closures.stream().map(this::toResponse).toList();
+    }
+
+}
@@ -1,21 +1,60 @@
 package com.janeapp.clinicscheduling.controller.mapper;
 
+import com.janeapp.clinicscheduling.controller.RequestValidationException;
+import com.janeapp.clinicscheduling.controller.json.WorkingHoursRequest;
+import com.janeapp.clinicscheduling.controller.json.WorkingHoursResponse;
 import com.janeapp.clinicscheduling.entity.Practitioner;
-import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
+import com.janeapp.clinicscheduling.service.PractitionerDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 @Component
 public class PractitionerMapper {
 
+    private static final String INVALID_WORKING_HOURS_MSG = "Working hours should have a day of week and times as HH:mm";
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
     @Autowired
-    private PractitionerRepository practitionerRepository;
+    private PractitionerDirectory practitionerDirectory;
 
     public Practitioner fromId(final Long id) {
-        return practitionerRepository.findById(id)
+        return practitionerDirectory.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Practitioner not found"));
     }
 
+    public List<PractitionerWorkingHours> toWorkingHours(final List<WorkingHoursRequest> requests) {
+        return requests.stream().map(this::toWorkingHours).toList();
+    }
+
+    public List<WorkingHoursResponse> toWorkingHoursResponse(final List<PractitionerWorkingHours> template) {
+        return template.stream()
+                .map(workingHours -> new WorkingHoursResponse(workingHours.getDayOfWeek().name(),
+                        TIME_FORMATTER.format(workingHours.getStartTime()), TIME_FORMATTER.format(workingHours.getEndTime())))
+                .toList();
+    }
+
+    private PractitionerWorkingHours toWorkingHours(final WorkingHoursRequest request) {
+        if (request.dayOfWeek() == null || request.start() == null || request.end() == null) {
+            throw new RequestValidationException(INVALID_WORKING_HOURS_MSG);
+        }
+        try {
+            PractitionerWorkingHours workingHours = new PractitionerWorkingHours();
+            workingHours.setDayOfWeek(DayOfWeek.valueOf(request.dayOfWeek()));
+            workingHours.setStartTime(LocalTime.parse(request.start(), TIME_FORMATTER));
+            workingHours.setEndTime(LocalTime.parse(request.end(), TIME_FORMATTER));
+            return workingHours;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RequestValidationException(INVALID_WORKING_HOURS_MSG, e);
+        }
+    }
+
 }
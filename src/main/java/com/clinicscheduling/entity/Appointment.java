@@ -1,12 +1,31 @@
 package com.janeapp.clinicscheduling.entity;
 
+import com.janeapp.clinicscheduling.repository.FreeSlotStart;
 import jakarta.persistence.*;
 import org.hibernate.annotations.ColumnTransformer;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
+/**
+ * Appointment of a patient with a practitioner.
+ * <p>
+ * Free slots can be computed by the database: candidate starts are generated over the searched range, one appointment
+ * length apart, and anti-joined against the appointments and the unavailability of every practitioner with the
+ * {@code tstzrange} overlap operator, served by the GiST exclusion constraint and indexes. Only the free
+ * {@link FreeSlotStart} pairs are returned.
+ * <p>
+ * The table is partitioned by month of {@link #startAt}, and its primary key is {@code (id, start_at)}, ids staying unique
+ * through their sequence. Appointments of archived months are not mapped.
+ */
 @Entity
+@SqlResultSetMapping(
+        name = "FreeSlotStart",
+        classes = @ConstructorResult( targetClass = FreeSlotStart.class, columns = {
+                @ColumnResult( name = "practitioner_id", type = Long.class ),
+                @ColumnResult( name = "start_at", type = Instant.class )
+        } )
+)
 @Table(
         uniqueConstraints = @UniqueConstraint( name = "unique_practitioner_schedule", columnNames = {"practitioner_id", "start_at", "end_at"} )
 )
@@ -26,11 +45,11 @@ public class Appointment extends BaseEntity {
     private String comment;
 
     @OneToOne
-    @JoinColumn( name = "patient_id", referencedColumnName = "id", nullable = false )
+    @JoinColumn( name = "patient_id", referencedColumnName = "id", nullable = false, foreignKey = @ForeignKey( name = "fk_appointment_patient" ) )
     private Patient patient;
 
     @OneToOne
-    @JoinColumn( name = "practitioner_id", nullable = false, unique = true )
+    @JoinColumn( name = "practitioner_id", nullable = false, unique = true, foreignKey = @ForeignKey( name = "fk_appointment_practitioner" ) )
     private Practitioner practitioner;
 
     @Version
@@ -0,0 +1,65 @@
+package com.janeapp.clinicscheduling.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Idempotency key informed by the client when creating an appointment, pointing to the appointment it created.
+ */
+@Entity
+public class AppointmentIdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column( name = "idempotency_key" )
+    private String key;
+
+    @Column( nullable = false )
+    private Long appointmentId;
+
+    @Column( nullable = false )
+    private Instant createdAt;
+
+    /**
+     * Fingerprint of the request which created the appointment, {@code null} for keys stored before it was recorded.
+     */
+    private String requestFingerprint;
+
+    protected AppointmentIdempotencyKey() {
+    }
+
+    public AppointmentIdempotencyKey(final String key, final String requestFingerprint, final Long appointmentId, final Instant createdAt) {
+        this.key = key;
+        this.requestFingerprint = requestFingerprint;
+        this.appointmentId = appointmentId;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    /**
+     * Keys are only ever inserted, so that saving a key that already exists fails instead of being merged.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+}
@@ -8,8 +8,12 @@ import java.time.LocalDateTime;
 @MappedSuperclass
 public class BaseEntity {
 
+    /**
+     * Taken from the entity's {@code <table>_seq} sequence, allocated 50 at a time, so inserts can be sent in JDBC
+     * batches instead of one round trip per row.
+     */
     @Id
-    @GeneratedValue( strategy = GenerationType.IDENTITY )
+    @GeneratedValue( strategy = GenerationType.SEQUENCE )
     private Long id;
 
     private LocalDateTime createdAt;
@@ -0,0 +1,36 @@
+package com.janeapp.clinicscheduling.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.LocalDate;
+
+/**
+ * A clinic date the whole clinic is closed on, for every practitioner.
+ */
+@Entity
+public class ClinicClosure {
+
+    @Id
+    @Column( name = "closure_date" )
+    private LocalDate date;
+
+    private String reason;
+
+    protected ClinicClosure() {
+    }
+
+    public ClinicClosure(final LocalDate date, final String reason) {
+        this.date = date;
+        this.reason = reason;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
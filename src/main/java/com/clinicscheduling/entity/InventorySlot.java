@@ -0,0 +1,105 @@
+package com.janeapp.clinicscheduling.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.dialect.PostgreSQLEnumJdbcType;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A bookable slot of a practitioner in the {@code slot_inventory} table, generated ahead for every appointment type and
+ * half-hour start.
+ * <p>
+ * Rows are only written by native statements, so that claiming a slot takes a single update. Free slot lookups select
+ * the {@code FreeSlotStart} columns only, from the partial index on the free rows.
+ */
+@Entity
+@IdClass( InventorySlot.Key.class )
+@Table( name = "slot_inventory" )
+public class InventorySlot {
+
+    public enum Status {
+        FREE,
+        /**
+         * Claimed by an appointment of the slot type and time.
+         */
+        BOOKED,
+        /**
+         * Overlapping an appointment of another slot or an unavailability of the practitioner.
+         */
+        BLOCKED
+    }
+
+    @Id
+    private Long practitionerId;
+
+    @Id
+    @Enumerated( EnumType.STRING )
+    @Column( name = "appointment_type", columnDefinition = "appointment_type_enum" )
+    @JdbcType( PostgreSQLEnumJdbcType.class ) // Part of the key, so bound as the database enum in the where clauses too
+    private AppointmentType type;
+
+    @Id
+    private Instant startAt;
+
+    @Column( nullable = false )
+    private Instant endAt;
+
+    @Enumerated( EnumType.STRING )
+    @Column( nullable = false )
+    private Status status;
+
+    protected InventorySlot() {
+    }
+
+    public Long getPractitionerId() {
+        return practitionerId;
+    }
+
+    public AppointmentType getType() {
+        return type;
+    }
+
+    public Instant getStartAt() {
+        return startAt;
+    }
+
+    public Instant getEndAt() {
+        return endAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long practitionerId;
+
+        private AppointmentType type;
+
+        private Instant startAt;
+
+        protected Key() {
+        }
+
+        public Key(final Long practitionerId, final AppointmentType type, final Instant startAt) {
+            this.practitionerId = practitionerId;
+            this.type = type;
+            this.startAt = startAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(practitionerId, key.practitionerId) && type == key.type
+                    && Objects.equals(startAt, key.startAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(practitionerId, type, startAt);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.janeapp.clinicscheduling.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Booked and unavailable half-hour slots of a practitioner on a clinic date, as bitmaps whose bit {@code i} stands for
+ * the slot starting {@code i * 30} minutes after the clinic opening.
+ */
+@Entity
+@IdClass( PractitionerDayOccupancy.Key.class )
+public class PractitionerDayOccupancy implements Persistable<PractitionerDayOccupancy.Key> {
+
+    @Id
+    private LocalDate clinicDate;
+
+    @Id
+    private Long practitionerId;
+
+    @Column( nullable = false )
+    private long booked;
+
+    @Column( nullable = false )
+    private long unavailable;
+
+    protected PractitionerDayOccupancy() {
+    }
+
+    public PractitionerDayOccupancy(final LocalDate clinicDate, final Long practitionerId) {
+        this.clinicDate = clinicDate;
+        this.practitionerId = practitionerId;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(clinicDate, practitionerId);
+    }
+
+    /**
+     * Rows are only written with native upserts and updates, so an entity saved as a row is never merged.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public LocalDate getClinicDate() {
+        return clinicDate;
+    }
+
+    public Long getPractitionerId() {
+        return practitionerId;
+    }
+
+    public long getBooked() {
+        return booked;
+    }
+
+    public void setBooked(long booked) {
+        this.booked = booked;
+    }
+
+    public long getUnavailable() {
+        return unavailable;
+    }
+
+    public void setUnavailable(long unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    public static class Key implements Serializable {
+
+        private LocalDate clinicDate;
+
+        private Long practitionerId;
+
+        protected Key() {
+        }
+
+        public Key(final LocalDate clinicDate, final Long practitionerId) {
+            this.clinicDate = clinicDate;
+            this.practitionerId = practitionerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(clinicDate, key.clinicDate) && Objects.equals(practitionerId, key.practitionerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clinicDate, practitionerId);
+        }
+    }
+}
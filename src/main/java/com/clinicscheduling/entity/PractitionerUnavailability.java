@@ -1,10 +1,26 @@
 package com.janeapp.clinicscheduling.entity;
 
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
 import jakarta.persistence.*;
 
 import java.time.Instant;
 
+/**
+ * Time a practitioner is not available.
+ * <p>
+ * Overlap lookups are native queries on the {@code tstzrange} overlap operator, so that they are served by the GiST
+ * indexes on the time range. They select the {@link PractitionerInterval} columns only, mapped by the result set
+ * mapping below.
+ */
 @Entity
+@SqlResultSetMapping(
+        name = "PractitionerInterval",
+        classes = @ConstructorResult( targetClass = PractitionerInterval.class, columns = {
+                @ColumnResult( name = "practitioner_id", type = Long.class ),
+                @ColumnResult( name = "start_at", type = Instant.class ),
+                @ColumnResult( name = "end_at", type = Instant.class )
+        } )
+)
 @Table(
         uniqueConstraints = @UniqueConstraint( name = "unique_practitioner_unavailability", columnNames = {"practitioner_id", "start_at", "end_at"} )
 )
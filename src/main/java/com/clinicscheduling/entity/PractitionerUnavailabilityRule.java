@@ -0,0 +1,129 @@
+package com.janeapp.clinicscheduling.entity;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Unavailability of a practitioner repeating every few weeks or months, in the clinic time zone. Weekly rules repeat on
+ * {@link #dayOfWeek} and monthly ones on {@link #dayOfMonth}, skipping the months without that day.
+ */
+@Entity
+public class PractitionerUnavailabilityRule extends BaseEntity {
+
+    public enum Frequency {
+        WEEKLY, MONTHLY
+    }
+
+    @ManyToOne( fetch = FetchType.LAZY )
+    @JoinColumn( name = "practitioner_id", nullable = false )
+    private Practitioner practitioner;
+
+    @Enumerated( EnumType.STRING )
+    @Column( nullable = false )
+    private Frequency frequency;
+
+    @Column( nullable = false )
+    private int repeatInterval = 1;
+
+    @Enumerated( EnumType.STRING )
+    private DayOfWeek dayOfWeek;
+
+    private Integer dayOfMonth;
+
+    @Column( nullable = false )
+    private LocalTime startTime;
+
+    @Column( nullable = false )
+    private LocalTime endTime;
+
+    @Column( nullable = false )
+    private LocalDate startsOn;
+
+    private LocalDate endsOn;
+
+    private String reason;
+
+    public Practitioner getPractitioner() {
+        return practitioner;
+    }
+
+    public void setPractitioner(Practitioner practitioner) {
+        this.practitioner = practitioner;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public void setRepeatInterval(int repeatInterval) {
+        this.repeatInterval = repeatInterval;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public Integer getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    public void setDayOfMonth(Integer dayOfMonth) {
+        this.dayOfMonth = dayOfMonth;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public LocalDate getStartsOn() {
+        return startsOn;
+    }
+
+    public void setStartsOn(LocalDate startsOn) {
+        this.startsOn = startsOn;
+    }
+
+    public LocalDate getEndsOn() {
+        return endsOn;
+    }
+
+    public void setEndsOn(LocalDate endsOn) {
+        this.endsOn = endsOn;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.janeapp.clinicscheduling.entity;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Time of a weekday a practitioner works, in the clinic time zone. A practitioner may have several per weekday.
+ */
+@Entity
+public class PractitionerWorkingHours extends BaseEntity {
+
+    @ManyToOne( fetch = FetchType.LAZY )
+    @JoinColumn( name = "practitioner_id", nullable = false )
+    private Practitioner practitioner;
+
+    @Enumerated( EnumType.STRING )
+    @Column( nullable = false )
+    private DayOfWeek dayOfWeek;
+
+    @Column( nullable = false )
+    private LocalTime startTime;
+
+    @Column( nullable = false )
+    private LocalTime endTime;
+
+    public Practitioner getPractitioner() {
+        return practitioner;
+    }
+
+    public void setPractitioner(Practitioner practitioner) {
+        this.practitioner = practitioner;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
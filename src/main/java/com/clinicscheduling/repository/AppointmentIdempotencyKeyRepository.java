@@ -0,0 +1,45 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.AppointmentIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface AppointmentIdempotencyKeyRepository extends JpaRepository<AppointmentIdempotencyKey, String> {
+
+    @Query( "SELECT k FROM AppointmentIdempotencyKey k WHERE k.key = :key AND k.createdAt > :createdAfter" )
+    Optional<AppointmentIdempotencyKey> findByKeyCreatedAfter(@Param( "key" ) String key,
+                                                              @Param( "createdAfter" ) Instant createdAfter);
+
+    /**
+     * Inserts the key, or replaces it when the stored one was created before {@code expiredBefore}, so that an expired
+     * key reused before it is purged does not fail on the primary key.
+     *
+     * @return {@code 0} if the key exists and has not expired, {@code 1} otherwise.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "INSERT INTO appointment_idempotency_key (idempotency_key, request_fingerprint, appointment_id, created_at) " +
+            "VALUES (:key, :requestFingerprint, :appointmentId, :createdAt) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET request_fingerprint = EXCLUDED.request_fingerprint, " +
+            "appointment_id = EXCLUDED.appointment_id, created_at = EXCLUDED.created_at " +
+            "WHERE appointment_idempotency_key.created_at <= :expiredBefore", nativeQuery = true )
+    int insertOrReplaceExpired(@Param( "key" ) String key,
+                               @Param( "requestFingerprint" ) String requestFingerprint,
+                               @Param( "appointmentId" ) Long appointmentId,
+                               @Param( "createdAt" ) Instant createdAt,
+                               @Param( "expiredBefore" ) Instant expiredBefore);
+
+    @Transactional
+    @Modifying
+    @Query( "DELETE FROM AppointmentIdempotencyKey k WHERE k.createdAt <= :createdBefore" )
+    int deleteCreatedBefore(@Param( "createdBefore" ) Instant createdBefore);
+
+}
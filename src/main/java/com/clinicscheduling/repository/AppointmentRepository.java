@@ -3,11 +3,15 @@ package com.janeapp.clinicscheduling.repository;
 import com.janeapp.clinicscheduling.entity.Appointment;
 import com.janeapp.clinicscheduling.entity.Practitioner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,7 +23,13 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     boolean existsAppointmentInTimeRange(@Param( "date" ) Instant date,
                                          @Param( "practitioner" ) Practitioner practitioner);
 
+    /**
+     * Patient and practitioner are fetched in the same statement, so mapping the appointments does not cost an extra
+     * select per row.
+     */
     @Query( "SELECT a FROM Appointment a " +
+            "JOIN FETCH a.patient " +
+            "JOIN FETCH a.practitioner " +
             "WHERE a.practitioner = :practitioner AND (" +
             " (a.startAt BETWEEN :start AND :end) " +
             " OR (a.endAt BETWEEN :start AND :end) " +
@@ -29,6 +39,14 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                                                               @Param( "end" ) Instant end,
                                                               @Param( "practitioner" ) Practitioner practitioner);
 
+    /**
+     * Takes a transaction-scoped advisory lock on the practitioner-day, waiting for the transaction holding it if any.
+     * The lock is released on commit or rollback.
+     */
+    @Query( value = "SELECT 1 FROM pg_advisory_xact_lock(:practitionerKey, :dayKey)", nativeQuery = true )
+    int lockPractitionerDay(@Param( "practitionerKey" ) int practitionerKey,
+                            @Param( "dayKey" ) int dayKey);
+
     @Query( value = "SELECT a.* FROM appointment a " +
             "WHERE a.start_at >= :start AND a.end_at <= :end " +
             "AND a.appointment_type = CAST(:type AS appointment_type_enum) ",
@@ -37,4 +55,67 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                                                      @Param( "start" ) Instant start,
                                                      @Param( "end" ) Instant end);
 
+    @Query( "SELECT new com.janeapp.clinicscheduling.repository.PractitionerInterval(a.practitioner.id, a.startAt, a.endAt) " +
+            "FROM Appointment a " +
+            "WHERE a.startAt < :end AND a.endAt > :start " )
+    List<PractitionerInterval> findPractitionerIntervalsByRange(@Param( "start" ) Instant start,
+                                                                @Param( "end" ) Instant end);
+
+    @Query( "SELECT new com.janeapp.clinicscheduling.repository.PractitionerInterval(a.practitioner.id, a.startAt, a.endAt) " +
+            "FROM Appointment a " +
+            "WHERE a.startAt < :end AND a.endAt > :start " +
+            "AND a.practitioner.id IN :practitionerIds " )
+    List<PractitionerInterval> findPractitionerIntervalsByRange(@Param( "start" ) Instant start,
+                                                                @Param( "end" ) Instant end,
+                                                                @Param( "practitionerIds" ) Collection<Long> practitionerIds);
+
+    /**
+     * @return the starts from {@code firstStart} to {@code lastStart}, {@code lengthMinutes} apart, at which each
+     * practitioner has neither an appointment nor an unavailability for {@code lengthMinutes}, ordered by practitioner
+     * and start. Mapped by the {@code FreeSlotStart} result set mapping declared on {@link Appointment}.
+     */
+    @NativeQuery( value = "SELECT p.id AS practitioner_id, s.start_at FROM practitioner p " +
+            "CROSS JOIN generate_series(CAST(:firstStart AS timestamptz), CAST(:lastStart AS timestamptz), " +
+            "make_interval(mins => :lengthMinutes)) AS s(start_at) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM appointment a WHERE a.practitioner_id = p.id " +
+            "AND tstzrange(a.start_at, a.end_at, '[)') && tstzrange(s.start_at, s.start_at + make_interval(mins => :lengthMinutes), '[)')) " +
+            "AND NOT EXISTS (SELECT 1 FROM practitioner_unavailability pu WHERE pu.practitioner_id = p.id " +
+            "AND tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(s.start_at, s.start_at + make_interval(mins => :lengthMinutes), '[)')) " +
+            "ORDER BY p.id, s.start_at",
+            sqlResultSetMapping = "FreeSlotStart" )
+    List<FreeSlotStart> findFreeSlotStarts(@Param( "firstStart" ) Instant firstStart,
+                                           @Param( "lastStart" ) Instant lastStart,
+                                           @Param( "lengthMinutes" ) int lengthMinutes);
+
+    /**
+     * Creates the partition of the month, bounded by midnight in the time zone, unless it exists. Appointments of the
+     * month stored in the default partition are moved to it.
+     *
+     * @return whether the partition was created.
+     */
+    @Transactional
+    @Query( value = "SELECT create_appointment_partition(CAST(:month AS date), :zone)", nativeQuery = true )
+    boolean createPartition(@Param( "month" ) LocalDate month,
+                            @Param( "zone" ) String zone);
+
+    /**
+     * Detaches the partitions of the months before {@code before}, which only takes a brief lock on the table.
+     *
+     * @return the number of partitions detached.
+     */
+    @Transactional
+    @Query( value = "SELECT detach_appointment_partitions(CAST(:before AS date))", nativeQuery = true )
+    int detachPartitionsBefore(@Param( "before" ) LocalDate before);
+
+    /**
+     * Moves the detached partitions, and the appointments before {@code before} of the default partition, to the
+     * {@code appointment_archive} table.
+     *
+     * @return the number of partitions archived.
+     */
+    @Transactional
+    @Query( value = "SELECT archive_detached_appointment_partitions(CAST(:before AS date), :zone)", nativeQuery = true )
+    int archiveDetachedPartitions(@Param( "before" ) LocalDate before,
+                                  @Param( "zone" ) String zone);
+
 }
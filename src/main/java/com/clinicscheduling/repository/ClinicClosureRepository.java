@@ -0,0 +1,15 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.ClinicClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ClinicClosureRepository extends JpaRepository<ClinicClosure, LocalDate> {
+
+    List<ClinicClosure> findByDateBetweenOrderByDate(LocalDate from, LocalDate to);
+
+}
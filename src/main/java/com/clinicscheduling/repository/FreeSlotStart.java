@@ -0,0 +1,9 @@
+package com.janeapp.clinicscheduling.repository;
+
+import java.time.Instant;
+
+/**
+ * Read-only projection of a slot a practitioner is free to start an appointment at, as computed by the database.
+ */
+public record FreeSlotStart(Long practitionerId, Instant startAt) {
+}
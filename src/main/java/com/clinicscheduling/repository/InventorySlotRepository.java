@@ -0,0 +1,128 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.InventorySlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface InventorySlotRepository extends JpaRepository<InventorySlot, InventorySlot.Key> {
+
+    /**
+     * Generates the slots of the type starting every half-hour from {@code firstStart} to {@code lastStart} for every
+     * practitioner, keeping the slots already generated. Slots overlapping an appointment or an unavailability are
+     * generated as blocked.
+     *
+     * @return the number of slots generated.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "INSERT INTO slot_inventory (practitioner_id, appointment_type, start_at, end_at, status) " +
+            "SELECT p.id, CAST(:type AS appointment_type_enum), s.start_at, s.start_at + make_interval(mins => :lengthMinutes), " +
+            "CASE WHEN EXISTS (SELECT 1 FROM appointment a WHERE a.practitioner_id = p.id " +
+            "AND tstzrange(a.start_at, a.end_at, '[)') && tstzrange(s.start_at, s.start_at + make_interval(mins => :lengthMinutes), '[)')) " +
+            "OR EXISTS (SELECT 1 FROM practitioner_unavailability pu WHERE pu.practitioner_id = p.id " +
+            "AND tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(s.start_at, s.start_at + make_interval(mins => :lengthMinutes), '[)')) " +
+            "THEN 'BLOCKED' ELSE 'FREE' END " +
+            "FROM practitioner p CROSS JOIN generate_series(CAST(:firstStart AS timestamptz), CAST(:lastStart AS timestamptz), " +
+            "INTERVAL '30 minutes') AS s(start_at) " +
+            "ON CONFLICT (practitioner_id, appointment_type, start_at) DO NOTHING",
+            nativeQuery = true )
+    int generate(@Param( "type" ) String type,
+                 @Param( "firstStart" ) Instant firstStart,
+                 @Param( "lastStart" ) Instant lastStart,
+                 @Param( "lengthMinutes" ) int lengthMinutes);
+
+    /**
+     * Books the slot if it is free, skipping it if another booking holds its row.
+     *
+     * @return {@code 1} when the slot was claimed, {@code 0} when it is not free, locked or was never generated.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "UPDATE slot_inventory SET status = 'BOOKED' " +
+            "WHERE (practitioner_id, appointment_type, start_at) IN (" +
+            "SELECT i.practitioner_id, i.appointment_type, i.start_at FROM slot_inventory i " +
+            "WHERE i.practitioner_id = :practitionerId AND i.appointment_type = CAST(:type AS appointment_type_enum) " +
+            "AND i.start_at = :startAt AND i.status = 'FREE' FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true )
+    int claim(@Param( "practitionerId" ) long practitionerId,
+              @Param( "type" ) String type,
+              @Param( "startAt" ) Instant startAt);
+
+    /**
+     * Blocks the free slots of the practitioner overlapping the range, skipping the ones other bookings hold.
+     *
+     * @return the number of slots blocked.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "UPDATE slot_inventory SET status = 'BLOCKED' " +
+            "WHERE (practitioner_id, appointment_type, start_at) IN (" +
+            "SELECT i.practitioner_id, i.appointment_type, i.start_at FROM slot_inventory i " +
+            "WHERE i.practitioner_id = :practitionerId AND i.status = 'FREE' " +
+            "AND tstzrange(i.start_at, i.end_at, '[)') && tstzrange(CAST(:start AS timestamptz), CAST(:end AS timestamptz), '[)') " +
+            "FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true )
+    int blockOverlapping(@Param( "practitionerId" ) long practitionerId,
+                         @Param( "start" ) Instant start,
+                         @Param( "end" ) Instant end);
+
+    /**
+     * @return the free slots of the type starting from {@code start} to {@code end}, in start order. Mapped by the
+     * {@code FreeSlotStart} result set mapping declared on {@link Appointment}.
+     */
+    @NativeQuery( value = "SELECT i.practitioner_id, i.start_at FROM slot_inventory i " +
+            "WHERE i.appointment_type = CAST(:type AS appointment_type_enum) AND i.start_at >= :start AND i.start_at <= :end " +
+            "AND i.status = 'FREE' ORDER BY i.start_at",
+            sqlResultSetMapping = "FreeSlotStart" )
+    List<FreeSlotStart> findFreeSlotStarts(@Param( "type" ) String type,
+                                           @Param( "start" ) Instant start,
+                                           @Param( "end" ) Instant end);
+
+    /**
+     * Blocks the free slots from {@code from} on overlapping an appointment or an unavailability.
+     *
+     * @return the number of slots blocked.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "UPDATE slot_inventory s SET status = 'BLOCKED' " +
+            "WHERE s.status = 'FREE' AND s.start_at >= :from " +
+            "AND (EXISTS (SELECT 1 FROM appointment a WHERE a.practitioner_id = s.practitioner_id " +
+            "AND tstzrange(a.start_at, a.end_at, '[)') && tstzrange(s.start_at, s.end_at, '[)')) " +
+            "OR EXISTS (SELECT 1 FROM practitioner_unavailability pu WHERE pu.practitioner_id = s.practitioner_id " +
+            "AND tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(s.start_at, s.end_at, '[)')))",
+            nativeQuery = true )
+    int blockTaken(@Param( "from" ) Instant from);
+
+    /**
+     * Frees the booked or blocked slots from {@code from} on overlapping neither an appointment nor an unavailability.
+     *
+     * @return the number of slots freed.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "UPDATE slot_inventory s SET status = 'FREE' " +
+            "WHERE s.status <> 'FREE' AND s.start_at >= :from " +
+            "AND NOT EXISTS (SELECT 1 FROM appointment a WHERE a.practitioner_id = s.practitioner_id " +
+            "AND tstzrange(a.start_at, a.end_at, '[)') && tstzrange(s.start_at, s.end_at, '[)')) " +
+            "AND NOT EXISTS (SELECT 1 FROM practitioner_unavailability pu WHERE pu.practitioner_id = s.practitioner_id " +
+            "AND tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(s.start_at, s.end_at, '[)'))",
+            nativeQuery = true )
+    int freeReleased(@Param( "from" ) Instant from);
+
+    @Transactional
+    @Modifying
+    @Query( value = "DELETE FROM slot_inventory WHERE start_at < :before", nativeQuery = true )
+    int deleteStartingBefore(@Param( "before" ) Instant before);
+
+}
@@ -0,0 +1,59 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.PractitionerDayOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PractitionerDayOccupancyRepository extends JpaRepository<PractitionerDayOccupancy, PractitionerDayOccupancy.Key> {
+
+    /**
+     * Sets the slots as booked, unless any of them is already booked or unavailable. The row of the practitioner-day is
+     * created when missing, and concurrent bookings of the same row wait for each other and re-check the slots.
+     *
+     * @return {@code 1} when the slots were booked, {@code 0} when any of them was taken.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "INSERT INTO practitioner_day_occupancy AS o (clinic_date, practitioner_id, booked, unavailable) " +
+            "VALUES (:clinicDate, :practitionerId, :slots, 0) " +
+            "ON CONFLICT (clinic_date, practitioner_id) DO UPDATE SET booked = o.booked | EXCLUDED.booked " +
+            "WHERE (o.booked | o.unavailable) & EXCLUDED.booked = 0",
+            nativeQuery = true )
+    int book(@Param( "clinicDate" ) LocalDate clinicDate,
+             @Param( "practitionerId" ) long practitionerId,
+             @Param( "slots" ) long slots);
+
+    List<PractitionerDayOccupancy> findByClinicDateBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Creates the row of the practitioner-day unless it exists, and locks it until the current transaction completes.
+     * Bookings of the practitioner-day in progress complete before the lock is granted, and later ones wait for it.
+     */
+    @Transactional
+    @Modifying
+    @Query( value = "INSERT INTO practitioner_day_occupancy AS o (clinic_date, practitioner_id, booked, unavailable) " +
+            "VALUES (:clinicDate, :practitionerId, 0, 0) " +
+            "ON CONFLICT (clinic_date, practitioner_id) DO UPDATE SET booked = o.booked",
+            nativeQuery = true )
+    int lockDay(@Param( "clinicDate" ) LocalDate clinicDate,
+                @Param( "practitionerId" ) long practitionerId);
+
+    @Transactional
+    @Modifying
+    @Query( value = "UPDATE practitioner_day_occupancy SET booked = :booked, unavailable = :unavailable " +
+            "WHERE clinic_date = :clinicDate AND practitioner_id = :practitionerId",
+            nativeQuery = true )
+    int updateDay(@Param( "clinicDate" ) LocalDate clinicDate,
+                  @Param( "practitionerId" ) long practitionerId,
+                  @Param( "booked" ) long booked,
+                  @Param( "unavailable" ) long unavailable);
+
+}
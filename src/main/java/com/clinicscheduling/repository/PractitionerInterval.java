@@ -0,0 +1,12 @@
+package com.janeapp.clinicscheduling.repository;
+
+import java.time.Instant;
+
+/**
+ * Read-only projection of the time a practitioner is busy, either with an appointment or unavailable.
+ * <p>
+ * Availability queries only need these three columns, so they select them directly instead of hydrating the entities
+ * and their associations into the persistence context.
+ */
+public record PractitionerInterval(Long practitionerId, Instant startAt, Instant endAt) {
+}
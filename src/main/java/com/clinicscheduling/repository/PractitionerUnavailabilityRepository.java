@@ -3,11 +3,13 @@ package com.janeapp.clinicscheduling.repository;
 import com.janeapp.clinicscheduling.entity.Practitioner;
 import com.janeapp.clinicscheduling.entity.PractitionerUnavailability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,4 +26,25 @@ public interface PractitionerUnavailabilityRepository extends JpaRepository<Prac
     List<PractitionerUnavailability> findUnavailabilityForTimeRange(@Param( "start" ) Instant start,
                                                                     @Param( "end" ) Instant end);
 
+    /**
+     * @return the unavailability overlapping the range, including the one starting before or ending after it. Mapped by
+     * the {@code PractitionerInterval} result set mapping declared on {@link PractitionerUnavailability}.
+     */
+    @NativeQuery( value = "SELECT pu.practitioner_id, pu.start_at, pu.end_at FROM practitioner_unavailability pu " +
+            "WHERE tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(CAST(:start AS timestamptz), CAST(:end AS timestamptz), '[)')",
+            sqlResultSetMapping = "PractitionerInterval" )
+    List<PractitionerInterval> findPractitionerIntervalsOverlapping(@Param( "start" ) Instant start,
+                                                                    @Param( "end" ) Instant end);
+
+    /**
+     * Same as {@link #findPractitionerIntervalsOverlapping(Instant, Instant)}, for the given practitioners only.
+     */
+    @NativeQuery( value = "SELECT pu.practitioner_id, pu.start_at, pu.end_at FROM practitioner_unavailability pu " +
+            "WHERE tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(CAST(:start AS timestamptz), CAST(:end AS timestamptz), '[)') " +
+            "AND pu.practitioner_id IN (:practitionerIds)",
+            sqlResultSetMapping = "PractitionerInterval" )
+    List<PractitionerInterval> findPractitionerIntervalsOverlappingByPractitioners(@Param( "start" ) Instant start,
+                                                                                   @Param( "end" ) Instant end,
+                                                                                   @Param( "practitionerIds" ) Collection<Long> practitionerIds);
+
 }
@@ -0,0 +1,21 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.PractitionerUnavailabilityRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PractitionerUnavailabilityRuleRepository extends JpaRepository<PractitionerUnavailabilityRule, Long> {
+
+    @Query( "SELECT new com.janeapp.clinicscheduling.repository.RecurringUnavailability(r.practitioner.id, r.frequency, " +
+            "r.repeatInterval, r.dayOfWeek, r.dayOfMonth, r.startTime, r.endTime, r.startsOn, r.endsOn) " +
+            "FROM PractitionerUnavailabilityRule r " +
+            "WHERE r.endsOn IS NULL OR r.endsOn >= :from" )
+    List<RecurringUnavailability> findRulesEndingFrom(@Param( "from" ) LocalDate from);
+
+}
@@ -0,0 +1,26 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PractitionerWorkingHoursRepository extends JpaRepository<PractitionerWorkingHours, Long> {
+
+    @Query( "SELECT new com.janeapp.clinicscheduling.repository.WorkingHoursInterval(wh.practitioner.id, wh.dayOfWeek, wh.startTime, wh.endTime) " +
+            "FROM PractitionerWorkingHours wh" )
+    List<WorkingHoursInterval> findAllIntervals();
+
+    List<PractitionerWorkingHours> findByPractitioner(Practitioner practitioner);
+
+    @Modifying
+    @Query( "DELETE FROM PractitionerWorkingHours wh WHERE wh.practitioner = :practitioner" )
+    int deleteByPractitioner(@Param( "practitioner" ) Practitioner practitioner);
+
+}
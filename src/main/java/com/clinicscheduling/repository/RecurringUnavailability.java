@@ -0,0 +1,16 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.entity.PractitionerUnavailabilityRule.Frequency;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Read-only projection of a {@link com.janeapp.clinicscheduling.entity.PractitionerUnavailabilityRule}, without the
+ * reason and auditing columns.
+ */
+public record RecurringUnavailability(Long practitionerId, Frequency frequency, int repeatInterval, DayOfWeek dayOfWeek,
+                                      Integer dayOfMonth, LocalTime startTime, LocalTime endTime, LocalDate startsOn,
+                                      LocalDate endsOn) {
+}
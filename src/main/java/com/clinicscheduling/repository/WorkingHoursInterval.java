@@ -0,0 +1,10 @@
+package com.janeapp.clinicscheduling.repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Read-only projection of the working hours of a practitioner on a weekday, enough to compile the weekly masks.
+ */
+public record WorkingHoursInterval(Long practitionerId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+}
@@ -0,0 +1,44 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * {@link BookingConfig.Mode#ADVISORY_LOCK} mode: the practitioner-days of the appointments are locked across nodes
+ * before querying the availability like {@link QueryBookingStrategy} and inserting, so that conflicting bookings queue
+ * instead of failing on the insert.
+ */
+@Component
+public class AdvisoryLockBookingStrategy extends QueryBookingStrategy {
+
+    @Autowired
+    private ClinicCalendar clinicCalendar;
+
+    @Override
+    public BookingConfig.Mode mode() {
+        return BookingConfig.Mode.ADVISORY_LOCK;
+    }
+
+    /**
+     * Takes the transaction-scoped advisory locks of the practitioner-days, in key order so that batches sharing
+     * practitioner-days cannot deadlock across nodes. Practitioner ids beyond the {@code int} range share keys, which
+     * only makes some unrelated bookings wait.
+     */
+    @Override
+    protected void reserve(final List<Appointment> appointments) {
+        SortedSet<Long> keys = new TreeSet<>();
+        for (Appointment appointment : appointments) {
+            LocalDate clinicDate = clinicCalendar.dayOf(appointment.getStartAt()).date();
+            keys.add(((long) Long.hashCode(appointment.getPractitioner().getId()) << Integer.SIZE) | (int) clinicDate.toEpochDay());
+        }
+        keys.forEach(key -> appointmentRepository.lockPractitionerDay((int) (key >> Integer.SIZE), key.intValue()));
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Published by {@link AppointmentService} when an appointment is booked, so that in-memory views of the practitioners'
+ * availability can be updated once the booking transaction commits.
+ *
+ * @param clinicDate the appointment date in the clinic timezone.
+ */
+public record AppointmentBookedEvent(Long practitionerId, AppointmentType type, LocalDate clinicDate, Instant startAt, Instant endAt) {
+}
@@ -0,0 +1,62 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.AppointmentPartitionsConfig;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Monthly partitions of the {@code appointment} table, bounded by midnight in the clinic time zone.
+ * <p>
+ * Every {@code app.appointment-partitions.maintenance-interval}, starting with the application, the partitions of the
+ * current month and the {@code app.appointment-partitions.months-ahead} next ones are created, and the partitions of
+ * the months more than {@code app.appointment-partitions.retention-months} before the current one are detached and
+ * moved to the {@code appointment_archive} table. Archived appointments are no longer returned by the repository
+ * queries, which keep scanning the indexes of a bounded number of months.
+ * <p>
+ * Each step runs in its own transaction and gives up when it cannot take its locks within a few seconds, rather than
+ * holding bookings back. It is retried on the next run.
+ */
+@Component
+public class AppointmentPartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentPartitions.class);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentPartitionsConfig config;
+
+    @Autowired
+    private ClinicCalendar clinicCalendar;
+
+    @Scheduled( fixedDelayString = "${app.appointment-partitions.maintenance-interval}" )
+    public void maintain() {
+        LocalDate currentMonth = clinicCalendar.today().date().withDayOfMonth(1);
+        String zone = clinicCalendar.zone().getId();
+        LocalDate archiveBefore = currentMonth.minusMonths(config.retentionMonths());
+        try {
+            int created = 0;
+            for (int months = 0; months <= config.monthsAhead(); months++) {
+                if (appointmentRepository.createPartition(currentMonth.plusMonths(months), zone)) {
+                    created++;
+                }
+            }
+            int detached = appointmentRepository.detachPartitionsBefore(archiveBefore);
+            int archived = appointmentRepository.archiveDetachedPartitions(archiveBefore, zone);
+            if (created > 0 || detached > 0 || archived > 0) {
+                logger.info("Appointment partitions maintained: {} created, {} detached, {} archived", created, detached, archived);
+            }
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("Appointment partitions could not be locked, retried on the next run", e);
+        }
+    }
+
+}
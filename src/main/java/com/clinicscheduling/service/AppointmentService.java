@@ -1,25 +1,27 @@
 package com.janeapp.clinicscheduling.service;
 
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import com.janeapp.clinicscheduling.config.BookingConfig;
 import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
 import com.janeapp.clinicscheduling.entity.Appointment;
 import com.janeapp.clinicscheduling.entity.AppointmentType;
 import com.janeapp.clinicscheduling.entity.Practitioner;
-import com.janeapp.clinicscheduling.entity.PractitionerUnavailability;
 import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.FreeSlotStart;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
 import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.*;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +29,8 @@ public class AppointmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
 
+    private static final long NOTICE_MARGIN_MILLIS = 5_000;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -39,89 +43,512 @@ public class AppointmentService {
     @Autowired
     private PractitionerService practitionerService;
 
+    @Autowired
+    private AvailabilityConfig availabilityConfig;
+
+    @Autowired
+    private BookingConfig bookingConfig;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private FreeIntervalCache freeIntervalCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PractitionerBookingLocks bookingLocks;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private SlotHolds slotHolds;
+
+    @Autowired
+    private List<BookingStrategy> bookingStrategies;
+
+    @Autowired
+    private ClinicCalendar clinicCalendar;
+
+    @Autowired
+    private ClinicClosures clinicClosures;
+
+    @Autowired
+    private WorkingHours workingHours;
+
+    @Autowired
+    private UnavailabilityRules unavailabilityRules;
+
+    @Autowired
+    private DayOccupancyTable dayOccupancyTable;
+
+    @Autowired
+    private SlotInventory slotInventory;
+
+    /**
+     * Returns the available spots of the given {@link AppointmentType} for the given date, computed by the
+     * {@link AvailabilityConfig#engine()}, or from the free rows of the {@link SlotInventory} in
+     * {@link BookingConfig.Mode#SLOT_INVENTORY} mode.
+     *
+     * @throws AppointmentValidationException if the date is out of the search range or the clinic is closed on it
+     */
     public Map<Practitioner, List<TimeSlot>> getAvailableSpotsByTypeAndDate(final AppointmentType appointmentType, final LocalDate date) {
-        ZoneId clinicZoneId = ZoneId.of(config.timezone());
-        ZonedDateTime clinicZonedDateTime = ZonedDateTime.now(ZoneId.of(config.timezone()));
-        Instant startSearch = clinicZonedDateTime.toLocalDate().equals(date)
-                ? clinicZonedDateTime.plus(config.appointmentNoticeHours(), ChronoUnit.HOURS).toInstant()
-                : date.atTime(config.ampmStart(), 0).atZone(clinicZoneId).toInstant();
-        Instant endSearch = clinicZonedDateTime.toLocalDate().equals(date)
-                ? clinicZonedDateTime.withHour(config.ampmEnd()).toInstant()
-                : date.atTime(config.ampmEnd(), 0).atZone(clinicZoneId).toInstant();
-
-        if (startSearch.equals(endSearch) || isPastDate(startSearch, clinicZoneId)) {
+        TimeSlot searchRange = getValidSearchRange(date, appointmentType);
+
+        List<Practitioner> practitioners = practitionerService.getAllPractitioners();
+        Map<Practitioner, List<TimeSlot>> practitionerSlots = withoutHeldSlots(isAvailabilityFromDatabase()
+                ? getAvailableSpotsFromDatabase(appointmentType, searchRange, practitioners)
+                : getAvailableSpots(appointmentType, searchRange, getClinicDaysOccupancy(List.of(date)).get(date), practitioners));
+
+        logger.debug("{} records found for date {} and type {}", practitionerSlots.size(), date, appointmentType);
+        return practitionerSlots;
+    }
+
+    /**
+     * Returns the available spots of every {@link AppointmentType} for the given date.
+     * <p>
+     * The occupancy of the day is loaded (or taken from the {@link AvailabilityCache}) once, and the available spots of
+     * each type are derived from it. With the {@link AvailabilityConfig.Engine#DATABASE} engine or in
+     * {@link BookingConfig.Mode#SLOT_INVENTORY} mode, the free slots of each type are queried instead.
+     *
+     * @param date the date.
+     * @return the available spots of each practitioner grouped by appointment type.
+     * @throws AppointmentValidationException if the date is out of the search range or the clinic is closed on it
+     */
+    public Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> getAvailableSpotsByDate(final LocalDate date) {
+        TimeSlot searchRange = getValidSearchRange(date, null);
+
+        boolean fromDatabase = isAvailabilityFromDatabase();
+        ClinicDayOccupancy occupancy = fromDatabase ? null : getClinicDaysOccupancy(List.of(date)).get(date);
+        List<Practitioner> practitioners = practitionerService.getAllPractitioners();
+        Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> practitionerSlotsByType = new EnumMap<>(AppointmentType.class);
+        for (AppointmentType appointmentType : AppointmentType.values()) {
+            practitionerSlotsByType.put(appointmentType, withoutHeldSlots(fromDatabase
+                    ? getAvailableSpotsFromDatabase(appointmentType, searchRange, practitioners)
+                    : getAvailableSpots(appointmentType, searchRange, occupancy, practitioners)));
+        }
+
+        logger.debug("{} records found for date {} and every type", practitioners.size(), date);
+        return practitionerSlotsByType;
+    }
+
+    private TimeSlot getValidSearchRange(final LocalDate date, final AppointmentType appointmentType) {
+        ClinicDay today = clinicCalendar.today();
+        TimeSlot searchRange = getSearchRange(clinicCalendar.day(date), today);
+        Instant startSearch = searchRange.start();
+        Instant endSearch = searchRange.end();
+
+        if (startSearch.equals(endSearch) || date.isBefore(today.date()) || clinicClosures.isClosed(date)) {
             logger.error("Date specified is out of range. Input date: {} and type: {}, " +
                     "Search star and end range: {} - {},  Id: {}", date, appointmentType, startSearch, endSearch);
             throw new AppointmentValidationException("No appointments available for the given date");
         }
+        return searchRange;
+    }
+
+    /**
+     * Returns the available spots of every day within the given date range.
+     * <p>
+     * Appointments and unavailability of the days missing from the {@link AvailabilityCache} are loaded with a single
+     * query each, and the available spots of each day are computed in parallel from the in-memory occupancy. With the
+     * {@link AvailabilityConfig.Engine#DATABASE} engine or in {@link BookingConfig.Mode#SLOT_INVENTORY} mode, the free
+     * slots of each day are queried one day after the other instead. Days out of the search range (past days, days the
+     * clinic is closed on or days whose business hours are already out of the notice range) are not returned.
+     *
+     * @param appointmentType the appointment type.
+     * @param from            first day of the range (inclusive).
+     * @param to              last day of the range (inclusive).
+     * @return the available spots of each practitioner grouped by day, in chronological order.
+     * @throws AppointmentValidationException if the range is invalid or exceeds the configured maximum number of days
+     * @see AvailabilityConfig#maxRangeDays()
+     */
+    public SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> getAvailableSpotsByTypeAndDateRange(final AppointmentType appointmentType,
+                                                                                                      final LocalDate from,
+                                                                                                      final LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= availabilityConfig.maxRangeDays()) {
+            throw new AppointmentValidationException(String.format(
+                    "The date range should have between 1 and %d days", availabilityConfig.maxRangeDays()
+            ));
+        }
+
+        ClinicDay today = clinicCalendar.today();
+        SortedMap<LocalDate, TimeSlot> searchRanges = new TreeMap<>();
+        for (LocalDate date = from; ! date.isAfter(to); date = date.plusDays(1)) {
+            TimeSlot searchRange = getSearchRange(clinicCalendar.day(date), today);
+            if (searchRange.start().isBefore(searchRange.end()) && ! date.isBefore(today.date()) && ! clinicClosures.isClosed(date)) {
+                searchRanges.put(date, searchRange);
+            }
+        }
+
+        SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> practitionerSlotsByDate = new TreeMap<>();
+        if (searchRanges.isEmpty()) {
+            return practitionerSlotsByDate;
+        }
+
+        List<Practitioner> practitioners = practitionerService.getAllPractitioners();
+        if (isAvailabilityFromDatabase()) {
+            searchRanges.forEach((date, searchRange) -> practitionerSlotsByDate.put(date,
+                    withoutHeldSlots(getAvailableSpotsFromDatabase(appointmentType, searchRange, practitioners))));
+            logger.debug("{} days found for range {} - {} and type {}", practitionerSlotsByDate.size(), from, to, appointmentType);
+            return practitionerSlotsByDate;
+        }
 
-        Map<Practitioner, List<Appointment>> practitionersAppointments = getAppointmentsSlots(appointmentType, startSearch, endSearch);
-        Map<Practitioner, List<PractitionerUnavailability>> practitionersUnavailability = getPractitionersUnavailability(startSearch, endSearch);
+        Map<LocalDate, ClinicDayOccupancy> occupancyByDate = getClinicDaysOccupancy(searchRanges.keySet());
+
+        // Only in-memory data is used from here on, so the days can be computed in parallel in the common fork-join pool
+        practitionerSlotsByDate.putAll(searchRanges.entrySet()
+                .parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> withoutHeldSlots(getAvailableSpots(appointmentType, entry.getValue(),
+                        occupancyByDate.get(entry.getKey()), practitioners)))));
+
+        logger.debug("{} days found for range {} - {} and type {}", practitionerSlotsByDate.size(), from, to, appointmentType);
+        return practitionerSlotsByDate;
+    }
+
+    /**
+     * @return whether the free slots are queried from the database by {@link #getAvailableSpotsFromDatabase} rather
+     * than derived from the in-memory occupancy.
+     */
+    private boolean isAvailabilityFromDatabase() {
+        return availabilityConfig.engine() == AvailabilityConfig.Engine.DATABASE
+                || bookingConfig.mode() == BookingConfig.Mode.SLOT_INVENTORY;
+    }
+
+    /**
+     * Returns the business hours of the day, starting from the notice hours when the day is today.
+     */
+    private TimeSlot getSearchRange(final ClinicDay day, final ClinicDay today) {
+        Instant startSearch = day.equals(today) ? Instant.ofEpochMilli(clinicCalendar.noticeCutoffMillis()) : day.open();
+        return new TimeSlot(startSearch, day.close());
+    }
+
+    /**
+     * Returns the occupancy of the whole business hours of the given days, taken from the {@link AvailabilityCache}
+     * when possible. The days missing from the cache are loaded together with a single query for appointments and
+     * another one for unavailability, or in {@link BookingConfig.Mode#OCCUPANCY_TABLE} mode with a single query for
+     * the rows of the {@link DayOccupancyTable}.
+     * <p>
+     * Appointments of every type are loaded, since a practitioner is busy during any appointment regardless of the
+     * type being searched.
+     */
+    Map<LocalDate, ClinicDayOccupancy> getClinicDaysOccupancy(final Collection<LocalDate> dates) {
+        Map<LocalDate, ClinicDayOccupancy> occupancyByDate = new HashMap<>();
+        SortedSet<LocalDate> missingDates = new TreeSet<>();
+        for (LocalDate date : dates) {
+            ClinicDayOccupancy occupancy = availabilityCache.getIfPresent(date);
+            if (occupancy != null) {
+                occupancyByDate.put(date, occupancy);
+            } else {
+                missingDates.add(date);
+            }
+        }
+        if (missingDates.isEmpty()) {
+            return occupancyByDate;
+        }
+
+        long cacheVersion = availabilityCache.version();
+        Instant start = clinicCalendar.day(missingDates.first()).open();
+        Instant end = clinicCalendar.day(missingDates.last()).close();
+        List<PractitionerInterval> busyIntervals = new ArrayList<>(unavailabilityRules.expand(start, end));
+        Map<LocalDate, ClinicDayOccupancy> storedOccupancy = Map.of();
+        if (bookingConfig.mode() == BookingConfig.Mode.OCCUPANCY_TABLE) {
+            // Appointments and unavailability are already marked in one row per practitioner-day
+            storedOccupancy = dayOccupancyTable.load(missingDates.first(), missingDates.last());
+        } else {
+            busyIntervals.addAll(appointmentRepository.findPractitionerIntervalsByRange(start, end));
+            busyIntervals.addAll(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(start, end));
+        }
+        Map<LocalDate, List<PractitionerInterval>> busyIntervalsByDate = groupByDate(busyIntervals, missingDates.first(), missingDates.last());
+
+        for (LocalDate date : missingDates) {
+            Instant opening = clinicCalendar.day(date).open();
+            ClinicDayOccupancy occupancy = storedOccupancy.containsKey(date)
+                    ? storedOccupancy.get(date)
+                    : new ClinicDayOccupancy(roundMinutes(opening).getEpochSecond());
+            for (PractitionerInterval interval : busyIntervalsByDate.getOrDefault(date, List.of())) {
+                occupancy.mark(interval.practitionerId(), interval.startAt(), interval.endAt());
+            }
+            availabilityCache.put(date, occupancy, cacheVersion);
+            occupancyByDate.put(date, occupancy);
+        }
+        return occupancyByDate;
+    }
+
+    /**
+     * Generates the available slots of each practitioner, out of the day occupancy and the {@link WorkingHours} of the
+     * practitioner on that weekday. Both bitmaps share the clinic opening time as their origin.
+     */
+    Map<Practitioner, List<TimeSlot>> getAvailableSpots(final AppointmentType appointmentType, final TimeSlot searchRange,
+                                                        final ClinicDayOccupancy occupancy,
+                                                        final List<Practitioner> practitioners) {
+        DayOfWeek dayOfWeek = clinicCalendar.dayOf(occupancy.origin()).date().getDayOfWeek();
         Map<Practitioner, List<TimeSlot>> practitionerSlots = new HashMap<>();
-        for (Practitioner practitioner : practitionerService.getAllPractitioners()) {
-            List<TimeSlot> unavailableSlots = new ArrayList<>();
-            unavailableSlots.addAll(transformPractitionersAppointmentsInTimeSlot(practitionersAppointments, practitioner));
-            unavailableSlots.addAll(transformPractitionersUnavailabilityInTimeSlot(practitionersUnavailability, practitioner));
+        for (Practitioner practitioner : practitioners) {
+            long taken = occupancy.occupancy(practitioner.getId()) | workingHours.offHours(practitioner.getId(), dayOfWeek);
+            practitionerSlots.put(practitioner, generateTimeSlots(searchRange.start(), searchRange.end(),
+                    occupancy.origin(), taken, appointmentType));
+        }
+        return practitionerSlots;
+    }
 
-            List<TimeSlot> availableSlots = generateTimeSlots(startSearch, endSearch, unavailableSlots, appointmentType);
-            practitionerSlots.put(practitioner, availableSlots);
+    /**
+     * Generates the available slots of each practitioner like {@link #getAvailableSpots}, with the candidate slots
+     * anti-joined against the appointments and unavailability by the database, so only the free ones are loaded. The
+     * {@link WorkingHours} and {@link UnavailabilityRules}, which only live in memory, are checked on the free slots.
+     * In {@link BookingConfig.Mode#SLOT_INVENTORY} mode, the free slots are read from the {@link SlotInventory} instead.
+     */
+    Map<Practitioner, List<TimeSlot>> getAvailableSpotsFromDatabase(final AppointmentType appointmentType, final TimeSlot searchRange,
+                                                                    final List<Practitioner> practitioners) {
+        long searchOrigin = roundMinutes(searchRange.start()).getEpochSecond();
+        int toSlot = (int) Math.max((roundMinutes(searchRange.end()).getEpochSecond() - searchOrigin) / DayOccupancy.SLOT_SECONDS, 0);
+        int length = DayOccupancy.slotsOf(appointmentType);
+        long lengthSeconds = (long) length * DayOccupancy.SLOT_SECONDS;
+
+        Map<Long, Practitioner> practitionersById = new HashMap<>();
+        Map<Practitioner, List<TimeSlot>> practitionerSlots = new HashMap<>();
+        for (Practitioner practitioner : practitioners) {
+            practitionersById.put(practitioner.getId(), practitioner);
+            practitionerSlots.put(practitioner, new ArrayList<>());
+        }
+        if (toSlot == 0) {
+            return practitionerSlots;
         }
 
-        logger.debug("{} records found for date {} and type {}", practitionerSlots.size(), date, appointmentType);
+        // Same candidates as generateTimeSlots: back to back from the search origin, starting before the search end
+        long lastStart = searchOrigin + (toSlot - 1) / length * lengthSeconds;
+        ClinicDay day = clinicCalendar.dayOf(searchOrigin);
+        List<FreeSlotStart> freeStarts = bookingConfig.mode() == BookingConfig.Mode.SLOT_INVENTORY
+                ? slotInventory.getFreeSlotStarts(appointmentType, Instant.ofEpochSecond(searchOrigin), Instant.ofEpochSecond(lastStart))
+                : appointmentRepository.findFreeSlotStarts(Instant.ofEpochSecond(searchOrigin),
+                        Instant.ofEpochSecond(lastStart), length * DayOccupancy.SLOT_MINUTES);
+        for (FreeSlotStart freeStart : freeStarts) {
+            Practitioner practitioner = practitionersById.get(freeStart.practitionerId());
+            if (practitioner == null) {
+                continue;
+            }
+            long start = freeStart.startAt().getEpochSecond();
+            long slots = DayOccupancy.mark(0L, day.openSecond(), start, start + lengthSeconds);
+            Instant endAt = Instant.ofEpochSecond(start + lengthSeconds);
+            if ((slots & workingHours.offHours(practitioner.getId(), day.date().getDayOfWeek())) == 0L
+                    && ! unavailabilityRules.overlaps(practitioner.getId(), freeStart.startAt(), endAt)) {
+                practitionerSlots.get(practitioner).add(new TimeSlot(freeStart.startAt(), endAt));
+            }
+        }
         return practitionerSlots;
     }
 
-    private boolean isPastDate(final Instant start, final ZoneId clinicZoneId) {
-        LocalDate localDateStart = start.atZone(clinicZoneId).toLocalDate();
-        LocalDate localDateNow = Instant.now().atZone(clinicZoneId).toLocalDate();
-        return localDateStart.isBefore(localDateNow);
+    /**
+     * Removes the slots overlapping the active {@link SlotHolds} of each practitioner, which are not available to
+     * anyone but the patient holding them.
+     */
+    private Map<Practitioner, List<TimeSlot>> withoutHeldSlots(final Map<Practitioner, List<TimeSlot>> practitionerSlots) {
+        if (slotHolds.isEmpty()) {
+            return practitionerSlots;
+        }
+        practitionerSlots.replaceAll((practitioner, slots) -> {
+            List<SlotHold> holds = slotHolds.getActiveHolds(practitioner.getId());
+            return holds.isEmpty() ? slots : slots.stream()
+                    .filter(slot -> holds.stream().noneMatch(hold -> hold.overlaps(slot.start(), slot.end())))
+                    .toList();
+        });
+        return practitionerSlots;
     }
 
-    private List<TimeSlot> transformPractitionersUnavailabilityInTimeSlot(final Map<Practitioner, List<PractitionerUnavailability>> practitionersUnavailability,
-                                                                          final Practitioner practitioner) {
-        return practitionersUnavailability.getOrDefault(practitioner, List.of())
-                .stream().map(pu -> new TimeSlot(pu.getStartAt(), pu.getEndAt()))
-                .collect(Collectors.toList());
+    /**
+     * Groups the records by every clinic day they touch between {@code from} and {@code to}, so that a multi-day record
+     * is considered on each one of its days. Days out of the range are skipped, so a leave of several years only costs
+     * the queried days.
+     */
+    private Map<LocalDate, List<PractitionerInterval>> groupByDate(final List<PractitionerInterval> intervals,
+                                                                   final LocalDate from, final LocalDate to) {
+        Map<LocalDate, List<PractitionerInterval>> intervalsByDate = new HashMap<>();
+        for (PractitionerInterval interval : intervals) {
+            LocalDate firstDate = clinicCalendar.dayOf(interval.startAt()).date();
+            LocalDate lastDate = clinicCalendar.dayOf(interval.endAt()).date();
+            firstDate = firstDate.isBefore(from) ? from : firstDate;
+            lastDate = lastDate.isAfter(to) ? to : lastDate;
+            for (LocalDate date = firstDate; ! date.isAfter(lastDate); date = date.plusDays(1)) {
+                intervalsByDate.computeIfAbsent(date, key -> new ArrayList<>()).add(interval);
+            }
+        }
+        return intervalsByDate;
     }
 
-    private List<TimeSlot> transformPractitionersAppointmentsInTimeSlot(final Map<Practitioner, List<Appointment>> practitionersAppointments,
-                                                                        final Practitioner practitioner) {
-        return practitionersAppointments.getOrDefault(practitioner, List.of())
-                .stream().map(appointment -> new TimeSlot(appointment.getStartAt(), appointment.getEndAt()))
-                .collect(Collectors.toList());
+    /**
+     * Generates the available slots of the search range, laid out back to back from its start with the appointment type length.
+     *
+     * @param origin    epoch second of the origin of the occupancy bitmap.
+     * @param occupancy the practitioner occupancy bitmap.
+     * @see DayOccupancy
+     */
+    List<TimeSlot> generateTimeSlots(final Instant start, final Instant end, final long origin, final long occupancy,
+                                     final AppointmentType appointmentType) {
+        long searchOrigin = roundMinutes(start).getEpochSecond();
+        int toSlot = (int) Math.max((roundMinutes(end).getEpochSecond() - searchOrigin) / DayOccupancy.SLOT_SECONDS, 0);
+        int length = DayOccupancy.slotsOf(appointmentType);
+
+        long searchOccupancy = DayOccupancy.rebase(occupancy, (int) ((searchOrigin - origin) / DayOccupancy.SLOT_SECONDS));
+        long freeStarts = DayOccupancy.freeStarts(searchOccupancy, 0, toSlot, length);
+        return DayOccupancy.toTimeSlots(freeStarts, searchOrigin, length);
     }
 
-    private Map<Practitioner, List<Appointment>> getAppointmentsSlots(final AppointmentType appointmentType, final Instant start,
-                                                                      final Instant end) {
-        return appointmentRepository
-                .findAppointmentsByRangeAndType(appointmentType.name(), start, end)
-                .stream()
-                .collect(Collectors.groupingBy(Appointment::getPractitioner));
+    /**
+     * Returns the earliest spot that can be booked, within the next {@link AvailabilityConfig#nextAvailableHorizonDays()}.
+     * <p>
+     * The search runs over the {@link FreeIntervals} of each practitioner, so it takes logarithmic time in the number of
+     * free intervals instead of generating the time slots of every day until one is found.
+     *
+     * @param appointmentType the appointment type, or {@code null} to search for the shortest one.
+     * @param practitioner    the practitioner, or {@code null} to search through every practitioner.
+     * @param after           the instant the spot should not start before, or {@code null} to search from now.
+     *                        Spots within the notice hours are never returned.
+     * @param window          the time of the day the spot should be in, or {@code null} for the whole business hours.
+     * @return the earliest available spot. Ties between practitioners are broken by practitioner order.
+     * @throws AppointmentValidationException if the time window is invalid or no spot is available within the horizon
+     */
+    public NextAvailableSpot getNextAvailableSpot(final AppointmentType appointmentType, final Practitioner practitioner,
+                                                  final Instant after, final DailyTimeWindow window) {
+        if (window != null && ! window.from().isBefore(window.to())) {
+            throw new AppointmentValidationException("The time window should start before it ends");
+        }
+        AppointmentType searchType = appointmentType != null ? appointmentType : Arrays.stream(AppointmentType.values())
+                .min(Comparator.comparing(DayOccupancy::slotsOf))
+                .orElseThrow();
+        long length = Duration.of(searchType.amount(), searchType.unit()).toMinutes();
+
+        // One extra minute keeps the spot clear of the notice hours by the time it is booked
+        Instant noticeStart = Instant.ofEpochMilli(clinicCalendar.noticeCutoffMillis()).plus(1, ChronoUnit.MINUTES);
+        long searchStart = toEpochMinute(after != null && after.isAfter(noticeStart) ? after : noticeStart);
+
+        FreeIntervals freeIntervals = getFreeIntervals();
+        List<Practitioner> practitioners = practitioner != null ? List.of(practitioner) : practitionerService.getAllPractitioners();
+        Practitioner earliestPractitioner = null;
+        long earliestStart = - 1;
+        for (Practitioner candidate : practitioners) {
+            long start = findFirstFit(freeIntervals.of(candidate.getId()), searchStart, length, window);
+            if (start != - 1 && (earliestStart == - 1 || start < earliestStart)) {
+                earliestPractitioner = candidate;
+                earliestStart = start;
+            }
+        }
+
+        if (earliestPractitioner == null) {
+            logger.error("No spot available for type: {}, practitioner: {}, after: {} and window: {}",
+                    searchType, practitioner != null ? practitioner.getId() : null, after, window);
+            throw new AppointmentValidationException(String.format(
+                    "No appointments available within the next %d days", availabilityConfig.nextAvailableHorizonDays()
+            ));
+        }
+        Instant start = Instant.ofEpochSecond(earliestStart * 60);
+        return new NextAvailableSpot(earliestPractitioner, searchType, new TimeSlot(start, start.plus(length, ChronoUnit.MINUTES)));
     }
 
-    private Map<Practitioner, List<PractitionerUnavailability>> getPractitionersUnavailability(final Instant start,
-                                                                                               final Instant end) {
-        return practitionerUnavailabilityRepository
-                .findUnavailabilityForTimeRange(start, end).stream()
-                .collect(Collectors.groupingBy(PractitionerUnavailability::getPractitioner));
+    /**
+     * Returns the free intervals of the business hours within the search horizon, taken from the {@link FreeIntervalCache}
+     * when possible. Otherwise, every appointment and unavailability of the horizon is loaded with a single query each.
+     */
+    private FreeIntervals getFreeIntervals() {
+        FreeIntervals cached = freeIntervalCache.getIfPresent();
+        if (cached != null) {
+            return cached;
+        }
+
+        long cacheVersion = freeIntervalCache.version();
+        LocalDate today = clinicCalendar.today().date();
+        int horizonDays = availabilityConfig.nextAvailableHorizonDays();
+        List<ClinicDay> openDays = new ArrayList<>(horizonDays);
+        for (LocalDate date = today; date.isBefore(today.plusDays(horizonDays)); date = date.plusDays(1)) {
+            ClinicDay day = clinicCalendar.day(date);
+            if (! day.closed() && ! clinicClosures.isClosed(date)) {
+                openDays.add(day);
+            }
+        }
+        long[] windowStarts = openDays.stream().mapToLong(day -> toEpochMinute(day.open())).toArray();
+        long[] windowEnds = openDays.stream().mapToLong(day -> toEpochMinute(day.close())).toArray();
+
+        Instant start = clinicCalendar.day(today).open();
+        Instant end = Instant.ofEpochSecond(clinicCalendar.day(today.plusDays(horizonDays)).startSecond());
+        List<PractitionerInterval> busyIntervals = new ArrayList<>(appointmentRepository.findPractitionerIntervalsByRange(start, end));
+        busyIntervals.addAll(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(start, end));
+        busyIntervals.addAll(unavailabilityRules.expand(start, end));
+        Map<Long, List<PractitionerInterval>> busyByPractitioner = busyIntervals.stream()
+                .collect(Collectors.groupingBy(PractitionerInterval::practitionerId));
+
+        Set<Long> practitionerIds = new HashSet<>(busyByPractitioner.keySet());
+        practitionerIds.addAll(workingHours.practitionerIds());
+        Map<Long, FreeIntervalIndex> indexByPractitioner = new HashMap<>();
+        for (Long practitionerId : practitionerIds) {
+            List<PractitionerInterval> busy = busyByPractitioner.getOrDefault(practitionerId, List.of());
+            long[] busyStarts = busy.stream().mapToLong(interval -> toEpochMinute(interval.startAt())).toArray();
+            long[] busyEnds = busy.stream().mapToLong(interval -> toEpochMinute(interval.endAt())).toArray();
+            long[][] windows = workingHours.practitionerIds().contains(practitionerId)
+                    ? getWorkingWindows(openDays, practitionerId)
+                    : new long[][]{windowStarts, windowEnds};
+            indexByPractitioner.put(practitionerId, FreeIntervalIndex.of(windows[0], windows[1], busyStarts, busyEnds));
+        }
+        FreeIntervals freeIntervals = new FreeIntervals(
+                FreeIntervalIndex.of(windowStarts, windowEnds, new long[0], new long[0]), indexByPractitioner
+        );
+        freeIntervalCache.put(freeIntervals, cacheVersion);
+        return freeIntervals;
     }
 
-    private List<TimeSlot> generateTimeSlots(final Instant start, final Instant end, List<TimeSlot> unavailableSlots,
-                                             final AppointmentType appointmentType) {
-        List<TimeSlot> slots = new ArrayList<>();
-        Instant incrementedStart = roundMinutes(start);
-        Instant newEnd = roundMinutes(end);
-        while (! (incrementedStart.equals(newEnd) || incrementedStart.isAfter(newEnd))) {
-            Instant nextSlot = incrementedStart.plus(appointmentType.amount(), appointmentType.unit());
-            TimeSlot currentSlot = new TimeSlot(incrementedStart, nextSlot);
+    /**
+     * @return the start and end epoch minutes of each run of slots the practitioner works within the given days.
+     */
+    private long[][] getWorkingWindows(final List<ClinicDay> days, final long practitionerId) {
+        long[] starts = new long[days.size() * DayOccupancy.MAX_SLOTS / 2];
+        long[] ends = new long[starts.length];
+        int windows = 0;
+        for (ClinicDay day : days) {
+            long daySlots = DayOccupancy.mark(0L, day.openSecond(), day.openSecond(), day.closeSecond());
+            long working = ~ workingHours.offHours(practitionerId, day.date().getDayOfWeek()) & daySlots;
+            while (working != 0L) {
+                int first = Long.numberOfTrailingZeros(working);
+                int last = Long.numberOfTrailingZeros(~ (working >>> first)) + first;
+                starts[windows] = toEpochMinute(Instant.ofEpochSecond(day.openSecond() + first * DayOccupancy.SLOT_SECONDS));
+                ends[windows] = toEpochMinute(Instant.ofEpochSecond(day.openSecond() + last * DayOccupancy.SLOT_SECONDS));
+                windows++;
+                working &= last == DayOccupancy.MAX_SLOTS ? 0L : - 1L << last;
+            }
+        }
+        return new long[][]{Arrays.copyOf(starts, windows), Arrays.copyOf(ends, windows)};
+    }
 
-            boolean isUnavailable = unavailableSlots.stream().anyMatch(slot -> slot.overlapsWith(currentSlot));
-            if (! isUnavailable) {
-                slots.add(new TimeSlot(incrementedStart, nextSlot));
+    /**
+     * @return the first grid-aligned epoch minute, not before {@code searchStart}, starting a free run of {@code length}
+     * minutes within the time window, or {@code -1} if there is none.
+     */
+    private long findFirstFit(final FreeIntervalIndex index, final long searchStart, final long length, final DailyTimeWindow window) {
+        if (window == null) {
+            return index.firstFit(searchStart, length);
+        }
+        int interval = index.firstEndingAfter(searchStart);
+        while (interval != - 1 && interval < index.size()) {
+            long intervalStart = Math.max(index.start(interval), FreeIntervalIndex.ceilToGrid(searchStart));
+            long intervalEnd = index.end(interval);
+            // An interval may span two days of the window time zone
+            LocalDate lastDate = Instant.ofEpochSecond(intervalEnd * 60).atZone(window.zoneId()).toLocalDate();
+            for (LocalDate date = Instant.ofEpochSecond(intervalStart * 60).atZone(window.zoneId()).toLocalDate();
+                 ! date.isAfter(lastDate); date = date.plusDays(1)) {
+                long start = Math.max(intervalStart, FreeIntervalIndex.ceilToGrid(
+                        toEpochMinute(date.atTime(window.from()).atZone(window.zoneId()).toInstant())));
+                long end = Math.min(intervalEnd, FreeIntervalIndex.floorToGrid(
+                        toEpochMinute(date.atTime(window.to()).atZone(window.zoneId()).toInstant())));
+                if (end - start >= length) {
+                    return start;
+                }
             }
-            incrementedStart = nextSlot;
+            interval = index.firstAtLeast(interval + 1, length);
         }
-        return slots;
+        return - 1;
+    }
+
+    private long toEpochMinute(final Instant time) {
+        return - Math.floorDiv(- time.getEpochSecond(), 60L);
     }
 
     /**
@@ -135,7 +562,13 @@ public class AppointmentService {
      *     <li>Appointments start on the hour or half-hour.</li>
      *     <li>Bookings can only be made for appointments that start and end within the clinic hours.</li>
      *     <li>Bookings cannot be made within a configured number of hours of the appointment start time.</li>
+     *     <li>Bookings cannot be made outside of the practitioner {@link WorkingHours} or during their {@link UnavailabilityRules}.</li>
      * </ul>
+     * The appointment is then written by the {@link BookingStrategy} of the configured {@link BookingConfig.Mode}, which
+     * reserves and verifies its time against the other appointments and the practitioner unavailability.
+     * <p>
+     * Bookings of the same practitioner are serialized in memory by {@link PractitionerBookingLocks} before a transaction
+     * is opened, and rejected right away when the cached availability already shows the requested time as taken.
      *
      * @param appointment the appointment details.
      *                    Make sure to inform {@link Appointment#startAt} and {@link Appointment#endAt} in UTC date.
@@ -143,29 +576,261 @@ public class AppointmentService {
      * @throws AppointmentValidationException if any validation fails
      * @see BusinessHoursConfig for details regarding configuration
      */
-    @Transactional
     public Appointment addAppointment(final Appointment appointment) {
+        return addAppointment(appointment, null);
+    }
+
+    /**
+     * Same as {@link #addAppointment(Appointment)}, storing the given idempotency key with the created appointment.
+     * <p>
+     * Retries are expected to be answered from the {@link IdempotencyStore} before reaching this method. A retry racing
+     * with its first attempt gets the appointment created by the first attempt instead of a conflict: on this node it
+     * finds the key once the practitioner lock is released, and on other nodes storing the key fails once the first attempt has committed.
+     * A key already used by a different request fails with an {@link IdempotencyKeyReusedException}.
+     *
+     * @param appointment    the appointment details, in UTC date.
+     * @param idempotencyKey the key informed by the client, or {@code null}.
+     */
+    public Appointment addAppointment(final Appointment appointment, final String idempotencyKey) {
         validateScheduleTime(appointment.getStartAt(), appointment.getEndAt());
+        validateWorkingHours(appointment);
+        validateUnavailabilityRules(appointment);
+        String fingerprint = idempotencyKey != null ? IdempotencyStore.fingerprint(appointment) : null;
+        Lock lock = bookingLocks.acquire(appointment.getPractitioner().getId());
         try {
-            validatePractitionerAvailability(appointment.getStartAt(), appointment.getPractitioner());
+            Optional<Appointment> replayed = findIdempotent(idempotencyKey, key -> idempotencyStore.findRecent(key, fingerprint));
+            if (replayed.isPresent()) {
+                return replayed.get();
+            }
+            if (isHeldForAnother(appointment)) {
+                throw new AppointmentValidationException("The requested time is on hold");
+            }
+            if (isKnownUnavailable(appointment)) {
+                bookingLocks.rejectedAsUnavailable();
+                throw new AppointmentValidationException("The requested time is not available");
+            }
 
-            Appointment saveAppointment = appointmentRepository.save(appointment);
+            // The lock is released once the transaction has completed, so the next booking sees this one in the cache
+            Appointment saveAppointment = bookingStrategy().book(appointment, saved -> completeBooking(appointment, saved, idempotencyKey));
+            releaseHold(appointment);
             logger.info("Appointment created successfully. Id: {}", saveAppointment.getId());
             return saveAppointment;
 
         } catch (DataIntegrityViolationException e) {
-            throw new AppointmentValidationException("The requested time is not available", e);
+            return findIdempotent(idempotencyKey, key -> idempotencyStore.find(key, fingerprint))
+                    .orElseThrow(() -> new AppointmentValidationException("The requested time is not available", e));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the {@link BookingStrategy} of the configured {@link BookingConfig#mode()}.
+     */
+    private BookingStrategy bookingStrategy() {
+        return bookingStrategies.stream()
+                .filter(strategy -> strategy.mode() == bookingConfig.mode())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No booking strategy for mode " + bookingConfig.mode()));
+    }
+
+    /**
+     * Records what comes with a booking, within the transaction inserting the appointment.
+     */
+    private void completeBooking(final Appointment appointment, final Appointment saved, final String idempotencyKey) {
+        if (idempotencyKey != null) {
+            idempotencyStore.save(idempotencyKey, IdempotencyStore.fingerprint(appointment), saved.getId());
+        }
+        publishBooked(appointment);
+    }
+
+    private Optional<Appointment> findIdempotent(final String idempotencyKey, final Function<String, Optional<Long>> lookup) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
         }
+        Optional<Appointment> appointment = lookup.apply(idempotencyKey).flatMap(appointmentRepository::findById);
+        appointment.ifPresent(a -> logger.info("Appointment already created with the same idempotency key. Id: {}", a.getId()));
+        return appointment;
     }
 
-    private void validatePractitionerAvailability(final Instant requestedStartTime, final Practitioner practitioner) {
-        if (appointmentRepository.existsAppointmentInTimeRange(requestedStartTime, practitioner) ||
-                practitionerUnavailabilityRepository.existsUnavailabilityForTimeRange(requestedStartTime, practitioner)) {
-            throw new DataIntegrityViolationException(String.format("Practitioner %s not available on %s", practitioner.fullName(), requestedStartTime));
+    /**
+     * Holds the time of the appointment for its patient, so that the slot is neither offered by the availability nor
+     * booked by other patients until the hold expires or the patient books it.
+     *
+     * @param appointment the appointment to be booked, in UTC date.
+     * @param ttl         how long the slot is held.
+     * @return the hold.
+     * @throws AppointmentValidationException if the time is invalid, known as unavailable or already held by another patient
+     */
+    public SlotHold holdSlot(final Appointment appointment, final Duration ttl) {
+        validateScheduleTime(appointment.getStartAt(), appointment.getEndAt());
+        validateWorkingHours(appointment);
+        validateUnavailabilityRules(appointment);
+        if (isKnownUnavailable(appointment)) {
+            throw new AppointmentValidationException("The requested time is not available");
         }
+        return slotHolds.hold(appointment.getPractitioner().getId(), appointment.getPatient().getId(),
+                appointment.getStartAt(), appointment.getEndAt(), ttl);
     }
 
-    private Instant roundMinutes(Instant time) {
+    /**
+     * Releases the hold of the patient before it expires.
+     *
+     * @throws NoSuchElementException if the hold does not exist, has expired or is held for another patient, which
+     *                                is not told apart so that hold ids cannot be probed.
+     */
+    public void releaseHold(final String holdId, final Long patientId) {
+        SlotHold hold = slotHolds.findById(holdId)
+                .filter(found -> found.patientId().equals(patientId))
+                .orElseThrow(() -> new NoSuchElementException("Hold not found"));
+        slotHolds.release(hold);
+    }
+
+    private boolean isHeldForAnother(final Appointment appointment) {
+        return slotHolds.isHeldForAnother(appointment.getPractitioner().getId(), appointment.getPatient().getId(),
+                appointment.getStartAt(), appointment.getEndAt());
+    }
+
+    private void releaseHold(final Appointment appointment) {
+        slotHolds.release(appointment.getPractitioner().getId(), appointment.getPatient().getId(),
+                appointment.getStartAt(), appointment.getEndAt());
+    }
+
+    /**
+     * @return whether the cached availability already shows the appointment time as taken. A day that is not cached
+     * is never known as unavailable, leaving the decision to the database.
+     */
+    private boolean isKnownUnavailable(final Appointment appointment) {
+        LocalDate clinicDate = clinicCalendar.dayOf(appointment.getStartAt()).date();
+        ClinicDayOccupancy occupancy = availabilityCache.peek(clinicDate);
+        return occupancy != null && occupancy.isTaken(appointment.getPractitioner().getId(), appointment.getStartAt(), appointment.getEndAt());
+    }
+
+    /**
+     * Adds several appointments at once, validating each of them against the same rules as {@link #addAppointment(Appointment)}.
+     * <p>
+     * The {@link PractitionerBookingLocks} of every practitioner of the batch are held until the appointments are
+     * written, like for a single booking. Conflicts are checked for the whole batch with a single query per table,
+     * including conflicts between appointments of the batch itself, and the accepted appointments are inserted in JDBC
+     * batches within one transaction, after the reservation steps of the {@link BookingStrategy} of the mode. If the insert fails because of a booking made through another node,
+     * the accepted appointments are inserted again one transaction each, so that only the conflicting ones are reported
+     * as not available.
+     *
+     * @param appointments the appointments details, in UTC date.
+     * @return one result per appointment, in the same order.
+     */
+    public List<BookingResult> addAppointments(final List<Appointment> appointments) {
+        BookingResult[] results = new BookingResult[appointments.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < appointments.size(); i++) {
+            try {
+                validateScheduleTime(appointments.get(i).getStartAt(), appointments.get(i).getEndAt());
+                validateWorkingHours(appointments.get(i));
+                candidates.add(i);
+            } catch (AppointmentValidationException e) {
+                results[i] = BookingResult.rejected(e.getMessage());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<Lock> locks;
+        try {
+            locks = bookingLocks.acquireAll(candidates.stream().map(i -> appointments.get(i).getPractitioner().getId()).toList());
+        } catch (AppointmentValidationException e) {
+            candidates.forEach(i -> results[i] = BookingResult.rejected(e.getMessage()));
+            return Arrays.asList(results);
+        }
+        try {
+            Map<Long, List<PractitionerInterval>> busyIntervals = findBusyIntervals(candidates.stream().map(appointments::get).toList());
+            List<Integer> accepted = new ArrayList<>();
+            for (int i : candidates) {
+                Appointment appointment = appointments.get(i);
+                List<PractitionerInterval> practitionerBusyIntervals = busyIntervals.get(appointment.getPractitioner().getId());
+                if (overlaps(practitionerBusyIntervals, appointment)) {
+                    results[i] = BookingResult.rejected("The requested time is not available");
+                } else if (isHeldForAnother(appointment)) {
+                    results[i] = BookingResult.rejected("The requested time is on hold");
+                } else {
+                    practitionerBusyIntervals.add(new PractitionerInterval(appointment.getPractitioner().getId(), appointment.getStartAt(), appointment.getEndAt()));
+                    accepted.add(i);
+                }
+            }
+
+            List<Appointment> acceptedAppointments = accepted.stream().map(appointments::get).toList();
+            try {
+                List<Appointment> saved = bookingStrategy().bookAll(acceptedAppointments, this::publishBooked);
+                saved.forEach(this::releaseHold);
+                for (int i = 0; i < accepted.size(); i++) {
+                    results[accepted.get(i)] = BookingResult.booked(saved.get(i));
+                }
+                logger.info("Batch of {} appointments created successfully", acceptedAppointments.size());
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Batch of {} appointments conflicted with a concurrent booking", acceptedAppointments.size(), e);
+                for (int i : accepted) {
+                    results[i] = accepted.size() > 1
+                            ? addAppointmentOfRejectedBatch(appointments.get(i))
+                            : BookingResult.rejected("The requested time is not available");
+                }
+            }
+            return Arrays.asList(results);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Inserts the appointment of a batch rejected by the database on its own, in a new transaction.
+     */
+    private BookingResult addAppointmentOfRejectedBatch(final Appointment appointment) {
+        // The id and version were set by the rolled back insert, the appointment has to be inserted as new again
+        appointment.setId(null);
+        appointment.setVersion(null);
+        try {
+            Appointment saved = bookingStrategy().bookAll(List.of(appointment), this::publishBooked).get(0);
+            releaseHold(saved);
+            return BookingResult.booked(saved);
+        } catch (DataIntegrityViolationException e) {
+            return BookingResult.rejected("The requested time is not available");
+        }
+    }
+
+    private Map<Long, List<PractitionerInterval>> findBusyIntervals(final List<Appointment> appointments) {
+        Set<Long> practitionerIds = new HashSet<>();
+        Instant start = Instant.MAX;
+        Instant end = Instant.MIN;
+        for (Appointment appointment : appointments) {
+            practitionerIds.add(appointment.getPractitioner().getId());
+            start = appointment.getStartAt().isBefore(start) ? appointment.getStartAt() : start;
+            end = appointment.getEndAt().isAfter(end) ? appointment.getEndAt() : end;
+        }
+
+        Map<Long, List<PractitionerInterval>> busyIntervals = new HashMap<>();
+        practitionerIds.forEach(id -> busyIntervals.put(id, new ArrayList<>()));
+        appointmentRepository.findPractitionerIntervalsByRange(start, end, practitionerIds)
+                .forEach(interval -> busyIntervals.get(interval.practitionerId()).add(interval));
+        practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(start, end, practitionerIds)
+                .forEach(interval -> busyIntervals.get(interval.practitionerId()).add(interval));
+        unavailabilityRules.expand(start, end, practitionerIds)
+                .forEach(interval -> busyIntervals.get(interval.practitionerId()).add(interval));
+        return busyIntervals;
+    }
+
+    private boolean overlaps(final List<PractitionerInterval> intervals, final Appointment appointment) {
+        return intervals.stream().anyMatch(interval ->
+                interval.startAt().isBefore(appointment.getEndAt()) && interval.endAt().isAfter(appointment.getStartAt()));
+    }
+
+    private void publishBooked(final Appointment appointment) {
+        eventPublisher.publishEvent(new AppointmentBookedEvent(
+                appointment.getPractitioner().getId(), appointment.getType(),
+                clinicCalendar.dayOf(appointment.getStartAt()).date(),
+                appointment.getStartAt(), appointment.getEndAt()
+        ));
+    }
+
+    Instant roundMinutes(Instant time) {
         ZoneOffset utc = ZoneOffset.UTC;
         LocalDateTime dateTime = time.atZone(utc).toLocalDateTime();
         int newMinutes = dateTime.getMinute() < 30 ? 0 : 30;
@@ -178,30 +843,33 @@ public class AppointmentService {
         return roundedDateTime.atZone(utc).toInstant();
     }
 
-    private void validateScheduleTime(final Instant requestedStartTime, final Instant requestedEndTime) {
-        ZoneId clinicZoneId = ZoneId.of(config.timezone());
-        ZonedDateTime requestedStartTimeZoned = requestedStartTime.atZone(clinicZoneId);
-        ZonedDateTime requestedEndTimeZoned = requestedEndTime.atZone(clinicZoneId);
+    /**
+     * Checks the appointment time against the {@link ClinicDay} it starts on, with long comparisons on its epoch seconds.
+     */
+    void validateScheduleTime(final Instant requestedStartTime, final Instant requestedEndTime) {
+        long startSecond = requestedStartTime.getEpochSecond();
+        ClinicDay day = clinicCalendar.dayOf(startSecond);
 
-        DayOfWeek dayOfWeek = requestedStartTimeZoned.getDayOfWeek();
-        if (! config.weekends() && (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY)) {
+        if (day.closed()) {
             throw new AppointmentValidationException("Bookings cannot be made for weekends");
         }
 
-        Instant now = Instant.now()
-                .plus(5, ChronoUnit.SECONDS); // Extend 5 seconds to avoid edge cases for when now is only milliseconds behind the time range
-        if (Duration.between(now, requestedStartTime).toHours() < config.appointmentNoticeHours()) {
+        if (clinicClosures.isClosed(day.date())) {
+            throw new AppointmentValidationException("Bookings cannot be made for days the clinic is closed");
+        }
+
+        // Extend 5 seconds to avoid edge cases for when now is only milliseconds behind the time range
+        if (requestedStartTime.toEpochMilli() < clinicCalendar.noticeCutoffMillis() + NOTICE_MARGIN_MILLIS) {
             throw new AppointmentValidationException(String.format(
                     "Bookings cannot be made within %d hours of the appointment start time", config.appointmentNoticeHours()
             ));
         }
 
-        int minute = requestedStartTimeZoned.getMinute();
-        if (minute != 0 && minute != 30) {
+        if (! day.isOnHalfHour(startSecond)) {
             throw new AppointmentValidationException("Appointments start on the hour or half-hour");
         }
 
-        if (isStartTimeOutOfRange(clinicZoneId, requestedStartTimeZoned) || isEndTimeOutOfRange(clinicZoneId, requestedEndTimeZoned)) {
+        if (! day.isWithinHours(startSecond, requestedEndTime.getEpochSecond())) {
             throw new AppointmentValidationException(String.format(
                     "Bookings can only be made for appointments that start and end within the clinic hours (%d am to %d pm)",
                     config.ampmStart(), config.hhEnd()
@@ -209,26 +877,25 @@ public class AppointmentService {
         }
     }
 
-    private boolean isStartTimeOutOfRange(final ZoneId clinicZoneId, final ZonedDateTime requestedStartTime) {
-        ZonedDateTime clinicTimeZoneNow = ZonedDateTime.now(clinicZoneId);
-        LocalTime appointmentStartTime = extractTimeFromDate(requestedStartTime);
-        LocalTime startTimeConstraint = extractTimeFromDate(
-                clinicTimeZoneNow.withHour(config.ampmStart()).truncatedTo(ChronoUnit.HOURS)
-        );
-        return appointmentStartTime.isBefore(startTimeConstraint);
-    }
-
-    private boolean isEndTimeOutOfRange(final ZoneId clinicZoneId, final ZonedDateTime requestedEndTimeZoned) {
-        ZonedDateTime clinicTimeZoneNow = ZonedDateTime.now(clinicZoneId);
-        LocalTime appointmentEndTime = extractTimeFromDate(requestedEndTimeZoned);
-        LocalTime endTimeConstraint = extractTimeFromDate(
-                clinicTimeZoneNow.withHour(config.ampmEnd()).truncatedTo(ChronoUnit.HOURS)
-        );
-        return appointmentEndTime.isAfter(endTimeConstraint);
+    /**
+     * Checks the appointment time against the {@link WorkingHours} of the practitioner on its weekday.
+     */
+    private void validateWorkingHours(final Appointment appointment) {
+        ClinicDay day = clinicCalendar.dayOf(appointment.getStartAt());
+        long slots = DayOccupancy.mark(0L, day.openSecond(), appointment.getStartAt().getEpochSecond(), appointment.getEndAt().getEpochSecond());
+        if ((slots & workingHours.offHours(appointment.getPractitioner().getId(), day.date().getDayOfWeek())) != 0L) {
+            throw new AppointmentValidationException("The practitioner does not work at the requested time");
+        }
     }
 
-    private LocalTime extractTimeFromDate(final ZonedDateTime dateTime) {
-        return dateTime.toLocalTime().truncatedTo(ChronoUnit.MINUTES);
+    /**
+     * Checks the appointment time against the recurring unavailability of the practitioner, which is not enforced by
+     * the database.
+     */
+    private void validateUnavailabilityRules(final Appointment appointment) {
+        if (unavailabilityRules.overlaps(appointment.getPractitioner().getId(), appointment.getStartAt(), appointment.getEndAt())) {
+            throw new AppointmentValidationException("The requested time is not available");
+        }
     }
 
 }
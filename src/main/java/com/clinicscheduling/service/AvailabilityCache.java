@@ -0,0 +1,140 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, versioned cache of {@link ClinicDayOccupancy} keyed by clinic date. The occupancy does not depend on the
+ * appointment type, so a single entry serves the availability of every type.
+ * <p>
+ * Entries are evicted in least recently used order once {@link AvailabilityConfig#cacheMaxEntries()} is reached, and
+ * expire after {@link AvailabilityConfig#cacheTtl()} so that changes made outside the application are eventually seen.
+ * <p>
+ * Bookings are written through: once the booking transaction commits, the booked interval is marked into the cached
+ * occupancy of the affected practitioner-day only, and the cache version is bumped. Loaders read the version before
+ * querying the database and only store their result if no booking happened in the meantime, so a load racing with a
+ * booking never caches stale availability.
+ */
+@Component
+public class AvailabilityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityCache.class);
+
+    @Autowired
+    private AvailabilityConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Clock clock = Clock.systemUTC();
+
+    private final Map<LocalDate, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<LocalDate, Entry> eldest) {
+            boolean evict = size() > config.cacheMaxEntries();
+            if (evict) {
+                evictions.incrementAndGet();
+            }
+            return evict;
+        }
+    };
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("availability.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("availability.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("availability.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("availability.cache.size", this, AvailabilityCache::size).register(meterRegistry);
+    }
+
+    /**
+     * @return the current version, to be passed to {@link #put(LocalDate, ClinicDayOccupancy, long)}
+     * after loading the occupancy from the database.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @return the cached occupancy, or {@code null} if the day is not cached or its entry has expired.
+     */
+    public synchronized ClinicDayOccupancy getIfPresent(final LocalDate date) {
+        Entry entry = entries.get(date);
+        if (entry != null && entry.expiresAt() <= clock.millis()) {
+            entries.remove(date);
+            evictions.incrementAndGet();
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.occupancy();
+    }
+
+    /**
+     * Same as {@link #getIfPresent(LocalDate)}, without counting hits and misses nor evicting expired entries.
+     * Meant for lookups that are not serving availability, such as rejecting bookings early.
+     */
+    public synchronized ClinicDayOccupancy peek(final LocalDate date) {
+        Entry entry = entries.get(date);
+        return entry != null && entry.expiresAt() > clock.millis() ? entry.occupancy() : null;
+    }
+
+    /**
+     * Caches the occupancy loaded for the given day, unless a booking happened since {@code loadedVersion} was read.
+     */
+    public synchronized void put(final LocalDate date, final ClinicDayOccupancy occupancy, final long loadedVersion) {
+        if (loadedVersion != version.get()) {
+            logger.debug("Skipping stale availability for date {}", date);
+            return;
+        }
+        entries.put(date, new Entry(occupancy, clock.millis() + config.cacheTtl().toMillis()));
+    }
+
+    @TransactionalEventListener
+    public synchronized void onAppointmentBooked(final AppointmentBookedEvent event) {
+        version.incrementAndGet();
+        Entry entry = entries.get(event.clinicDate());
+        if (entry != null) {
+            entry.occupancy().mark(event.practitionerId(), event.startAt(), event.endAt());
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(ClinicDayOccupancy occupancy, long expiresAt) {
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.Appointment;
+
+/**
+ * Outcome of booking one appointment of a batch: either the stored appointment or the reason it was rejected.
+ */
+public record BookingResult(Appointment appointment, String error) {
+
+    public static BookingResult booked(final Appointment appointment) {
+        return new BookingResult(appointment, null);
+    }
+
+    public static BookingResult rejected(final String error) {
+        return new BookingResult(null, error);
+    }
+
+    public boolean isBooked() {
+        return error == null;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * How the appointments are written in a {@link BookingConfig.Mode}, once validated by the {@link AppointmentService}.
+ * <p>
+ * There is one bean per mode, and the service books through the one of {@link BookingConfig#mode()}.
+ */
+public interface BookingStrategy {
+
+    BookingConfig.Mode mode();
+
+    /**
+     * Books a single appointment, running {@code inTransaction} with the stored appointment before the commit.
+     *
+     * @return the stored appointment.
+     * @throws DataIntegrityViolationException if the time of the appointment is not available.
+     */
+    Appointment book(Appointment appointment, Consumer<Appointment> inTransaction);
+
+    /**
+     * Books the appointments of a batch in one transaction, running {@code inTransaction} with each stored appointment
+     * before the commit. They are expected to be checked together against the stored appointments and unavailability
+     * beforehand.
+     *
+     * @return the stored appointments, in the same order.
+     * @throws DataIntegrityViolationException if the time of any appointment is not available, in which case none is booked.
+     */
+    List<Appointment> bookAll(List<Appointment> appointments, Consumer<Appointment> inTransaction);
+
+}
@@ -0,0 +1,135 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clinic dates around today with their {@link ClinicDay} boundaries, computed once from the {@link BusinessHoursConfig}.
+ * <p>
+ * Dates from {@value #PAST_DAYS} days before today to {@value #FUTURE_DAYS} days after it are kept in an immutable table,
+ * rebuilt on the first lookup of each new clinic date. Looking up an instant is a binary search over the start of
+ * each date, and looking up a date is an index, so neither touches the time zone rules. Dates out of the table are
+ * computed on every lookup.
+ * <p>
+ * Boundaries follow the clinic time zone rules, so the opening and closing times are the same wall-clock times on the
+ * days daylight saving time starts or ends.
+ */
+@Component
+public class ClinicCalendar {
+
+    static final int PAST_DAYS = 7;
+
+    static final int FUTURE_DAYS = 400;
+
+    @Autowired
+    private BusinessHoursConfig config;
+
+    private final Clock clock;
+
+    private volatile Table table;
+
+    public ClinicCalendar() {
+        this.clock = Clock.systemUTC();
+    }
+
+    ClinicCalendar(final BusinessHoursConfig config, final Clock clock) {
+        this.config = config;
+        this.clock = clock;
+    }
+
+    public ZoneId zone() {
+        return table().zone();
+    }
+
+    /**
+     * @return the clinic date of the instant.
+     */
+    public ClinicDay dayOf(final Instant instant) {
+        return dayOf(instant.getEpochSecond());
+    }
+
+    public ClinicDay dayOf(final long epochSecond) {
+        Table current = table();
+        int index = Arrays.binarySearch(current.startSeconds(), epochSecond);
+        index = index >= 0 ? index : - index - 2;
+        if (index >= 0 && current.days()[index].contains(epochSecond)) {
+            return current.days()[index];
+        }
+        return compute(LocalDate.ofInstant(Instant.ofEpochSecond(epochSecond), current.zone()), current.zone());
+    }
+
+    public ClinicDay day(final LocalDate date) {
+        Table current = table();
+        long index = date.toEpochDay() - current.days()[0].date().toEpochDay();
+        if (index >= 0 && index < current.days().length) {
+            return current.days()[(int) index];
+        }
+        return compute(date, current.zone());
+    }
+
+    public ClinicDay today() {
+        return dayOf(TimeUnit.MILLISECONDS.toSeconds(clock.millis()));
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * @return the epoch millisecond appointments should not start before, {@link BusinessHoursConfig#appointmentNoticeHours()}
+     * from now.
+     */
+    public long noticeCutoffMillis() {
+        return clock.millis() + table().noticeMillis();
+    }
+
+    private Table table() {
+        Table current = table;
+        long now = TimeUnit.MILLISECONDS.toSeconds(clock.millis());
+        if (current == null || now < current.todayStartSecond() || now >= current.todayEndSecond()) {
+            // Concurrent rebuilds produce the same table, the last one is kept
+            current = build(ZoneId.of(config.timezone()), now);
+            table = current;
+        }
+        return current;
+    }
+
+    private Table build(final ZoneId zone, final long now) {
+        LocalDate today = LocalDate.ofInstant(Instant.ofEpochSecond(now), zone);
+        ClinicDay[] days = new ClinicDay[PAST_DAYS + 1 + FUTURE_DAYS];
+        long[] startSeconds = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = compute(today.plusDays(i - PAST_DAYS), zone);
+            startSeconds[i] = days[i].startSecond();
+        }
+        ClinicDay todayDay = days[PAST_DAYS];
+        return new Table(zone, days, startSeconds, todayDay.startSecond(), todayDay.endSecond(),
+                TimeUnit.HOURS.toMillis(config.appointmentNoticeHours()));
+    }
+
+    private ClinicDay compute(final LocalDate date, final ZoneId zone) {
+        ZonedDateTime open = date.atTime(config.ampmStart(), 0).atZone(zone);
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+        return new ClinicDay(
+                date,
+                date.atStartOfDay(zone).toEpochSecond(),
+                date.plusDays(1).atStartOfDay(zone).toEpochSecond(),
+                open.toEpochSecond(),
+                date.atTime(config.ampmEnd(), 0).atZone(zone).toEpochSecond(),
+                open.getOffset().getTotalSeconds(),
+                weekend,
+                weekend && ! config.weekends()
+        );
+    }
+
+    private record Table(ZoneId zone, ClinicDay[] days, long[] startSeconds, long todayStartSecond, long todayEndSecond,
+                         long noticeMillis) {
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.ClinicClosure;
+import com.janeapp.clinicscheduling.repository.ClinicClosureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dates the whole clinic is closed on, such as statutory holidays.
+ * <p>
+ * Closures are persisted, and kept in memory as one bitset of days per year, so checking a date is an array lookup and
+ * a bit test without any query. Like the {@link PractitionerDirectory}, the bitsets are an immutable snapshot swapped
+ * atomically, loaded on first use and refreshed every {@code app.clinic-closures.refresh-interval}. Closures changed
+ * through this node are visible right away.
+ */
+@Component
+public class ClinicClosures {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicClosures.class);
+
+    @Autowired
+    private ClinicClosureRepository clinicClosureRepository;
+
+    @Autowired
+    private FreeIntervalCache freeIntervalCache;
+
+    private final AtomicReference<ClosedDays> snapshot = new AtomicReference<>();
+
+    public boolean isClosed(final LocalDate date) {
+        return current().contains(date);
+    }
+
+    public List<ClinicClosure> getClosures(final LocalDate from, final LocalDate to) {
+        return clinicClosureRepository.findByDateBetweenOrderByDate(from, to);
+    }
+
+    /**
+     * Closes the clinic on the date, or updates the reason of an existing closure. Appointments already booked on the
+     * date are kept.
+     */
+    public ClinicClosure close(final LocalDate date, final String reason) {
+        ClinicClosure closure = clinicClosureRepository.save(new ClinicClosure(date, reason));
+        changed();
+        logger.info("Clinic closed on {}", date);
+        return closure;
+    }
+
+    /**
+     * @throws NoSuchElementException if the clinic is not closed on the date.
+     */
+    public void reopen(final LocalDate date) {
+        if (! clinicClosureRepository.existsById(date)) {
+            throw new NoSuchElementException("Closure not found");
+        }
+        clinicClosureRepository.deleteById(date);
+        changed();
+        logger.info("Clinic reopened on {}", date);
+    }
+
+    @Scheduled( fixedDelayString = "${app.clinic-closures.refresh-interval}",
+            initialDelayString = "${app.clinic-closures.refresh-interval}" )
+    public void refresh() {
+        snapshot.set(load());
+    }
+
+    private void changed() {
+        refresh();
+        // The free intervals of the next-available search only cover the days the clinic is open
+        freeIntervalCache.invalidateAll();
+    }
+
+    private ClosedDays current() {
+        ClosedDays current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        ClosedDays loaded = load();
+        return snapshot.compareAndSet(null, loaded) ? loaded : current();
+    }
+
+    private ClosedDays load() {
+        List<LocalDate> dates = clinicClosureRepository.findAll().stream().map(ClinicClosure::getDate).toList();
+        logger.debug("{} clinic closures loaded", dates.size());
+        return ClosedDays.of(dates);
+    }
+
+    /**
+     * One bitset of 366 bits per year from the first to the last year with a closure, indexed by day of year.
+     */
+    private record ClosedDays(int firstYear, long[][] years) {
+
+        private static final int WORDS_PER_YEAR = (366 + Long.SIZE - 1) / Long.SIZE;
+
+        static ClosedDays of(final List<LocalDate> dates) {
+            int firstYear = dates.stream().mapToInt(LocalDate::getYear).min().orElse(0);
+            int lastYear = dates.stream().mapToInt(LocalDate::getYear).max().orElse(- 1);
+            long[][] years = new long[lastYear - firstYear + 1][];
+            for (LocalDate date : dates) {
+                int year = date.getYear() - firstYear;
+                if (years[year] == null) {
+                    years[year] = new long[WORDS_PER_YEAR];
+                }
+                int day = date.getDayOfYear() - 1;
+                years[year][day >>> 6] |= 1L << day;
+            }
+            return new ClosedDays(firstYear, years);
+        }
+
+        boolean contains(final LocalDate date) {
+            int year = date.getYear() - firstYear;
+            if (year < 0 || year >= years.length || years[year] == null) {
+                return false;
+            }
+            int day = date.getDayOfYear() - 1;
+            return (years[year][day >>> 6] & (1L << day)) != 0;
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A clinic date with its boundaries precomputed in epoch seconds, so that checking an instant against it takes a few
+ * long comparisons.
+ *
+ * @param startSecond   first second of the date in the clinic time zone.
+ * @param endSecond     first second of the next date in the clinic time zone.
+ * @param openSecond    opening time of the clinic on the date.
+ * @param closeSecond   closing time of the clinic on the date.
+ * @param offsetSeconds offset of the clinic time zone from UTC at the opening time.
+ * @param weekend       whether the date is on a weekend.
+ * @param closed        whether bookings cannot be made for the date, being a weekend the clinic is closed on.
+ * @see ClinicCalendar
+ */
+public record ClinicDay(LocalDate date, long startSecond, long endSecond, long openSecond, long closeSecond,
+                        int offsetSeconds, boolean weekend, boolean closed) {
+
+    private static final int HALF_HOUR_SECONDS = 30 * 60;
+
+    public boolean contains(final long epochSecond) {
+        return epochSecond >= startSecond && epochSecond < endSecond;
+    }
+
+    /**
+     * @return whether the instant is on the hour or half-hour of the clinic time, seconds aside.
+     */
+    public boolean isOnHalfHour(final long epochSecond) {
+        return Math.floorMod(epochSecond + offsetSeconds, HALF_HOUR_SECONDS) < 60;
+    }
+
+    /**
+     * @return whether the interval starts and ends within the clinic hours, seconds aside.
+     */
+    public boolean isWithinHours(final long startSecond, final long endSecond) {
+        return startSecond >= openSecond && endSecond < closeSecond + 60;
+    }
+
+    public Instant open() {
+        return Instant.ofEpochSecond(openSecond);
+    }
+
+    public Instant close() {
+        return Instant.ofEpochSecond(closeSecond);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Occupancy bitmaps of every practitioner for a clinic day.
+ * <p>
+ * The bitmaps use the (rounded) clinic opening time as their origin, so they do not depend on the moment the day is
+ * searched and can be shared between requests. Practitioners without any appointment or unavailability are not stored.
+ *
+ * @see DayOccupancy
+ */
+public final class ClinicDayOccupancy {
+
+    private final long origin;
+
+    private final ConcurrentMap<Long, Long> occupancyByPractitioner = new ConcurrentHashMap<>();
+
+    public ClinicDayOccupancy(final long origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * @return epoch second of the start of slot {@code 0}.
+     */
+    public long origin() {
+        return origin;
+    }
+
+    public long occupancy(final long practitionerId) {
+        return occupancyByPractitioner.getOrDefault(practitionerId, 0L);
+    }
+
+    /**
+     * @return whether any slot touched by the interval is taken for the practitioner.
+     */
+    public boolean isTaken(final long practitionerId, final Instant start, final Instant end) {
+        return (DayOccupancy.mark(0L, origin, start.getEpochSecond(), end.getEpochSecond()) & occupancy(practitionerId)) != 0L;
+    }
+
+    public void mark(final long practitionerId, final Instant start, final Instant end) {
+        mark(practitionerId, DayOccupancy.mark(0L, origin, start.getEpochSecond(), end.getEpochSecond()));
+    }
+
+    /**
+     * Marks the slots of a bitmap sharing the same origin.
+     */
+    public void mark(final long practitionerId, final long slots) {
+        if (slots != 0L) {
+            occupancyByPractitioner.merge(practitionerId, slots, (current, added) -> current | added);
+        }
+    }
+
+}
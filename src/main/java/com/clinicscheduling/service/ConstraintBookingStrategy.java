@@ -0,0 +1,42 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * {@link BookingConfig.Mode#CONSTRAINT} mode: nothing is reserved nor queried, overlaps are rejected by the database
+ * constraints on the insert itself. Single bookings wait for the {@link GroupCommitBookingWriter} to insert them with
+ * the next batch when it is enabled.
+ */
+@Component
+public class ConstraintBookingStrategy extends TransactionalBookingStrategy {
+
+    @Autowired
+    private GroupCommitBookingWriter groupCommitWriter;
+
+    @Override
+    public BookingConfig.Mode mode() {
+        return BookingConfig.Mode.CONSTRAINT;
+    }
+
+    @Override
+    public Appointment book(final Appointment appointment, final Consumer<Appointment> inTransaction) {
+        if (! groupCommitWriter.isEnabled()) {
+            return super.book(appointment, inTransaction);
+        }
+        try {
+            return groupCommitWriter.submit(appointment, inTransaction).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
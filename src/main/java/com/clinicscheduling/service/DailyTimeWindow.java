@@ -0,0 +1,13 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Time-of-day window, such as "mornings only", in the given time zone.
+ *
+ * @param from start of the window (inclusive).
+ * @param to   end of the window (exclusive); appointments have to end by then.
+ */
+public record DailyTimeWindow(LocalTime from, LocalTime to, ZoneId zoneId) {
+}
@@ -0,0 +1,131 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Availability engine that represents the occupancy of a practitioner-day as a primitive bitmap.
+ * <p>
+ * Bit {@code i} of the bitmap stands for the half-hour slot that starts {@code i * 30} minutes after the bitmap origin.
+ * Appointments and unavailability are marked into the bitmap once, and the free slots for any {@link AppointmentType}
+ * are derived with shifts and masks instead of testing every candidate slot against every busy interval.
+ * <p>
+ * All the operations work on epoch seconds and {@code long} values, so marking and deriving free starts do not allocate.
+ */
+public final class DayOccupancy {
+
+    public static final int SLOT_MINUTES = 30;
+
+    public static final long SLOT_SECONDS = SLOT_MINUTES * 60L;
+
+    public static final int MAX_SLOTS = Long.SIZE;
+
+    private static final int[] SLOTS_BY_TYPE = new int[AppointmentType.values().length];
+
+    static {
+        for (AppointmentType type : AppointmentType.values()) {
+            long minutes = Duration.of(type.amount(), type.unit()).toMinutes();
+            if (minutes % SLOT_MINUTES != 0) {
+                throw new IllegalStateException(String.format("Appointment type %s is not a multiple of %d minutes", type, SLOT_MINUTES));
+            }
+            SLOTS_BY_TYPE[type.ordinal()] = (int) (minutes / SLOT_MINUTES);
+        }
+    }
+
+    private DayOccupancy() {
+    }
+
+    /**
+     * @return how many half-hour slots an appointment of the given type takes.
+     */
+    public static int slotsOf(final AppointmentType appointmentType) {
+        return SLOTS_BY_TYPE[appointmentType.ordinal()];
+    }
+
+    /**
+     * Marks the interval {@code [start, end)} as taken. Any slot partially covered by the interval is marked,
+     * and the parts of the interval outside the bitmap are ignored.
+     *
+     * @param occupancy the current bitmap.
+     * @param origin    epoch second of the start of slot {@code 0}.
+     * @param start     epoch second of the interval start.
+     * @param end       epoch second of the interval end.
+     * @return the bitmap with the interval marked.
+     */
+    public static long mark(final long occupancy, final long origin, final long start, final long end) {
+        long first = Math.max(Math.floorDiv(start - origin, SLOT_SECONDS), 0);
+        long last = Math.min(- Math.floorDiv(origin - end, SLOT_SECONDS), MAX_SLOTS); // ceiling division
+        if (first >= last) {
+            return occupancy;
+        }
+        return occupancy | range((int) first, (int) last);
+    }
+
+    /**
+     * Derives the start slots that can accommodate an appointment of {@code length} slots.
+     * <p>
+     * Candidate starts are laid out back to back from {@code fromSlot}, one appointment length apart, as long as they
+     * start before {@code toSlot}. A candidate is free when none of the slots it covers is taken.
+     *
+     * @param occupancy the bitmap of taken slots.
+     * @param fromSlot  first candidate slot.
+     * @param toSlot    slot (exclusive) before which candidates have to start.
+     * @param length    appointment length in slots.
+     * @return a bitmap where bit {@code i} is set when an appointment can start on slot {@code i}.
+     */
+    public static long freeStarts(final long occupancy, final int fromSlot, final int toSlot, final int length) {
+        if (fromSlot < 0 || length <= 0 || (toSlot > fromSlot && toSlot - 1 + length > MAX_SLOTS)) {
+            throw new IllegalArgumentException(String.format(
+                    "Slots [%d, %d) with length %d do not fit in a day of %d slots", fromSlot, toSlot, length, MAX_SLOTS
+            ));
+        }
+        long free = ~ occupancy;
+        long run = free;
+        for (int i = 1; i < length; i++) {
+            run &= free >>> i;
+        }
+
+        long candidates = 0L;
+        for (int slot = fromSlot; slot < toSlot; slot += length) {
+            candidates |= 1L << slot;
+        }
+        return run & candidates;
+    }
+
+    /**
+     * Moves the origin of the bitmap by the given number of slots. Moving it forward drops the slots before the new origin,
+     * and moving it backward adds free slots before the current origin.
+     */
+    public static long rebase(final long occupancy, final int slots) {
+        if (Math.abs(slots) >= MAX_SLOTS) {
+            return 0L;
+        }
+        return slots >= 0 ? occupancy >>> slots : occupancy << - slots;
+    }
+
+    /**
+     * Converts the bits set by {@link #freeStarts(long, int, int, int)} into time slots.
+     */
+    public static List<TimeSlot> toTimeSlots(final long starts, final long origin, final int length) {
+        List<TimeSlot> slots = new ArrayList<>(Long.bitCount(starts));
+        long remaining = starts;
+        while (remaining != 0) {
+            int slot = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+
+            long start = origin + slot * SLOT_SECONDS;
+            slots.add(new TimeSlot(Instant.ofEpochSecond(start), Instant.ofEpochSecond(start + length * SLOT_SECONDS)));
+        }
+        return slots;
+    }
+
+    private static long range(final int first, final int last) {
+        long upTo = last == MAX_SLOTS ? - 1L : (1L << last) - 1;
+        return upTo & (- 1L << first);
+    }
+
+}
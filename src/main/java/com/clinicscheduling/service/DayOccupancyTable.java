@@ -0,0 +1,192 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.PractitionerDayOccupancy;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerDayOccupancyRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code practitioner_day_occupancy} table of {@link BookingConfig.Mode#OCCUPANCY_TABLE} mode.
+ * <p>
+ * Each row holds the booked and unavailable slots of a practitioner-day as {@link DayOccupancy} bitmaps, with the
+ * (rounded) clinic opening time as their origin like the {@link ClinicDayOccupancy}. A booking sets its slots with a
+ * single conditional upsert within the booking transaction, which leaves the row unchanged when any of them is taken,
+ * so the same row is the conflict check of the bookings and the availability of the day.
+ * <p>
+ * Unavailability is only written outside of the application, so its slots are set by the {@link #rebuild()}, which
+ * regenerates the rows of the next {@code app.booking.occupancy-table.rebuild-days} dates every
+ * {@code app.booking.occupancy-table.rebuild-interval} and writes the ones that drifted. Until then, bookings during new unavailability are still
+ * rejected by the database trigger on the appointment insert.
+ */
+@Component
+public class DayOccupancyTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DayOccupancyTable.class);
+
+    @Autowired
+    private PractitionerDayOccupancyRepository dayOccupancyRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PractitionerUnavailabilityRepository practitionerUnavailabilityRepository;
+
+    @Autowired
+    private BookingConfig bookingConfig;
+
+    @Autowired
+    private ClinicCalendar clinicCalendar;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    /**
+     * Sets the slots of the appointment as booked, within the current transaction.
+     *
+     * @throws DataIntegrityViolationException if any of the slots is already booked or unavailable.
+     */
+    public void book(final Appointment appointment) {
+        ClinicDay day = clinicCalendar.dayOf(appointment.getStartAt());
+        long slots = DayOccupancy.mark(0L, origin(day), appointment.getStartAt().getEpochSecond(), appointment.getEndAt().getEpochSecond());
+        if (dayOccupancyRepository.book(day.date(), appointment.getPractitioner().getId(), slots) == 0) {
+            throw new DataIntegrityViolationException(String.format("Practitioner %s not available on %s",
+                    appointment.getPractitioner().getId(), appointment.getStartAt()));
+        }
+    }
+
+    /**
+     * @return the occupancy of every date from {@code from} to {@code to}, with the booked and unavailable slots of
+     * the practitioners having a row on the date.
+     */
+    public Map<LocalDate, ClinicDayOccupancy> load(final LocalDate from, final LocalDate to) {
+        Map<LocalDate, ClinicDayOccupancy> occupancyByDate = new HashMap<>();
+        for (LocalDate date = from; ! date.isAfter(to); date = date.plusDays(1)) {
+            occupancyByDate.put(date, new ClinicDayOccupancy(origin(clinicCalendar.day(date))));
+        }
+        for (PractitionerDayOccupancy row : dayOccupancyRepository.findByClinicDateBetween(from, to)) {
+            occupancyByDate.get(row.getClinicDate()).mark(row.getPractitionerId(), row.getBooked() | row.getUnavailable());
+        }
+        return occupancyByDate;
+    }
+
+    /**
+     * Regenerates the rows from today on out of the appointments and unavailability, and writes the ones that drifted
+     * from the stored rows. Each drifted practitioner-day is regenerated again in its own transaction, under the lock
+     * of its row, so that no booking of the day is lost between reading the appointments and writing the row, while
+     * the bookings of the other days go on.
+     */
+    @Scheduled( fixedDelayString = "${app.booking.occupancy-table.rebuild-interval}" )
+    public void rebuild() {
+        if (bookingConfig.mode() != BookingConfig.Mode.OCCUPANCY_TABLE) {
+            return;
+        }
+        LocalDate from = clinicCalendar.today().date();
+        LocalDate to = from.plusDays(bookingConfig.occupancyTable().rebuildDays());
+        Instant start = clinicCalendar.day(from).open();
+        Instant end = clinicCalendar.day(to).close();
+        Map<PractitionerDayOccupancy.Key, PractitionerDayOccupancy> drifted = regenerate(from, to,
+                appointmentRepository.findPractitionerIntervalsByRange(start, end),
+                practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(start, end));
+        for (PractitionerDayOccupancy stored : dayOccupancyRepository.findByClinicDateBetween(from, to)) {
+            PractitionerDayOccupancy row = drifted.get(stored.getId());
+            if (row == null && (stored.getBooked() | stored.getUnavailable()) != 0L) {
+                drifted.put(stored.getId(), new PractitionerDayOccupancy(stored.getClinicDate(), stored.getPractitionerId()));
+            } else if (row != null && row.getBooked() == stored.getBooked() && row.getUnavailable() == stored.getUnavailable()) {
+                drifted.remove(stored.getId());
+            }
+        }
+
+        for (PractitionerDayOccupancy row : drifted.values()) {
+            transactionTemplate.executeWithoutResult(status -> rebuildDay(row.getClinicDate(), row.getPractitionerId()));
+        }
+        if (! drifted.isEmpty()) {
+            availabilityCache.invalidateAll();
+        }
+        logger.info("Occupancy of {} drifted practitioner-days rebuilt from {} to {}", drifted.size(), from, to);
+    }
+
+    /**
+     * Regenerates the row of the practitioner-day within the current transaction, once its lock is granted.
+     */
+    private void rebuildDay(final LocalDate clinicDate, final long practitionerId) {
+        dayOccupancyRepository.lockDay(clinicDate, practitionerId);
+        ClinicDay day = clinicCalendar.day(clinicDate);
+        Set<Long> practitionerIds = Set.of(practitionerId);
+        PractitionerDayOccupancy row = regenerate(clinicDate, clinicDate,
+                appointmentRepository.findPractitionerIntervalsByRange(day.open(), day.close(), practitionerIds),
+                practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(day.open(), day.close(), practitionerIds))
+                .getOrDefault(new PractitionerDayOccupancy.Key(clinicDate, practitionerId), new PractitionerDayOccupancy(clinicDate, practitionerId));
+        dayOccupancyRepository.updateDay(clinicDate, practitionerId, row.getBooked(), row.getUnavailable());
+    }
+
+    /**
+     * @return the rows of the practitioner-days from {@code from} to {@code to} touched by the intervals.
+     */
+    private Map<PractitionerDayOccupancy.Key, PractitionerDayOccupancy> regenerate(final LocalDate from, final LocalDate to,
+                                                                                  final List<PractitionerInterval> appointments,
+                                                                                  final List<PractitionerInterval> unavailability) {
+        Map<PractitionerDayOccupancy.Key, PractitionerDayOccupancy> rows = new HashMap<>();
+        for (PractitionerInterval interval : appointments) {
+            markDays(rows, interval, from, to, true);
+        }
+        for (PractitionerInterval interval : unavailability) {
+            markDays(rows, interval, from, to, false);
+        }
+        return rows;
+    }
+
+    /**
+     * Marks the interval on every clinic day it touches between {@code from} and {@code to}.
+     */
+    private void markDays(final Map<PractitionerDayOccupancy.Key, PractitionerDayOccupancy> rows, final PractitionerInterval interval,
+                          final LocalDate from, final LocalDate to, final boolean booked) {
+        LocalDate firstDate = clinicCalendar.dayOf(interval.startAt()).date();
+        LocalDate lastDate = clinicCalendar.dayOf(interval.endAt()).date();
+        firstDate = firstDate.isBefore(from) ? from : firstDate;
+        lastDate = lastDate.isAfter(to) ? to : lastDate;
+        for (LocalDate date = firstDate; ! date.isAfter(lastDate); date = date.plusDays(1)) {
+            long slots = DayOccupancy.mark(0L, origin(clinicCalendar.day(date)),
+                    interval.startAt().getEpochSecond(), interval.endAt().getEpochSecond());
+            if (slots == 0L) {
+                continue;
+            }
+            LocalDate clinicDate = date;
+            PractitionerDayOccupancy row = rows.computeIfAbsent(new PractitionerDayOccupancy.Key(clinicDate, interval.practitionerId()),
+                    key -> new PractitionerDayOccupancy(clinicDate, interval.practitionerId()));
+            if (booked) {
+                row.setBooked(row.getBooked() | slots);
+            } else {
+                row.setUnavailable(row.getUnavailable() | slots);
+            }
+        }
+    }
+
+    /**
+     * @return the clinic opening time of the day rounded down to the half-hour, the origin of the bitmaps.
+     */
+    private static long origin(final ClinicDay day) {
+        return day.openSecond() - Math.floorMod(day.openSecond(), DayOccupancy.SLOT_SECONDS);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+
+/**
+ * Versioned cache of the {@link FreeIntervals} used by the next-available search.
+ * <p>
+ * The cached intervals expire after {@link AvailabilityConfig#cacheTtl()}, which also rolls the search horizon forward.
+ * Bookings are written through like in {@link AvailabilityCache}: once the booking transaction commits, the booked
+ * interval is removed from the free intervals of its practitioner only.
+ */
+@Component
+public class FreeIntervalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FreeIntervalCache.class);
+
+    @Autowired
+    private AvailabilityConfig config;
+
+    private final Clock clock = Clock.systemUTC();
+
+    private long version;
+
+    private FreeIntervals freeIntervals;
+
+    private long expiresAt;
+
+    /**
+     * @return the current version, to be passed to {@link #put(FreeIntervals, long)} after loading the free intervals.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * @return the cached free intervals, or {@code null} if they are not cached or have expired.
+     */
+    public synchronized FreeIntervals getIfPresent() {
+        if (freeIntervals != null && expiresAt <= clock.millis()) {
+            freeIntervals = null;
+        }
+        return freeIntervals;
+    }
+
+    /**
+     * Caches the loaded free intervals, unless a booking happened since {@code loadedVersion} was read.
+     */
+    public synchronized void put(final FreeIntervals loaded, final long loadedVersion) {
+        if (loadedVersion != version) {
+            logger.debug("Skipping stale free intervals");
+            return;
+        }
+        freeIntervals = loaded;
+        expiresAt = clock.millis() + config.cacheTtl().toMillis();
+    }
+
+    @TransactionalEventListener
+    public synchronized void onAppointmentBooked(final AppointmentBookedEvent event) {
+        version++;
+        if (freeIntervals != null) {
+            freeIntervals = freeIntervals.without(event.practitionerId(),
+                    event.startAt().getEpochSecond() / 60, - Math.floorDiv(- event.endAt().getEpochSecond(), 60L));
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        version++;
+        freeIntervals = null;
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable index of the free intervals of a practitioner, over epoch minutes.
+ * <p>
+ * Free intervals are kept sorted and aligned to the half-hour grid, together with a max segment tree over their lengths.
+ * Finding the first interval that can fit an appointment after a given interval takes logarithmic time, without
+ * materializing the time slots of every day in between.
+ */
+public final class FreeIntervalIndex {
+
+    public static final long GRID_MINUTES = DayOccupancy.SLOT_MINUTES;
+
+    private static final FreeIntervalIndex EMPTY = new FreeIntervalIndex(new long[0], new long[0]);
+
+    private final long[] starts;
+
+    private final long[] ends;
+
+    private final long[] maxLength;
+
+    private FreeIntervalIndex(final long[] starts, final long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        this.maxLength = new long[Math.max(4 * starts.length, 1)];
+        if (starts.length > 0) {
+            build(1, 0, starts.length - 1);
+        }
+    }
+
+    /**
+     * Builds the index of the free time within the given windows.
+     *
+     * @param windowStarts start of each window the practitioner can be booked in, sorted and non-overlapping.
+     * @param windowEnds   end of each window.
+     * @param busyStarts   start of each busy interval (appointments, unavailability), in any order and possibly overlapping.
+     * @param busyEnds     end of each busy interval.
+     */
+    public static FreeIntervalIndex of(final long[] windowStarts, final long[] windowEnds,
+                                       final long[] busyStarts, final long[] busyEnds) {
+        long[][] busy = merge(busyStarts, busyEnds);
+        long[] freeStarts = new long[windowStarts.length + busy[0].length];
+        long[] freeEnds = new long[freeStarts.length];
+        int size = 0;
+        int next = 0;
+        for (int w = 0; w < windowStarts.length; w++) {
+            long cursor = windowStarts[w];
+            while (next < busy[0].length && busy[1][next] <= cursor) {
+                next++;
+            }
+            for (int b = next; b < busy[0].length && busy[0][b] < windowEnds[w]; b++) {
+                size = add(freeStarts, freeEnds, size, cursor, Math.min(busy[0][b], windowEnds[w]));
+                cursor = Math.max(cursor, busy[1][b]);
+            }
+            size = add(freeStarts, freeEnds, size, cursor, windowEnds[w]);
+        }
+        return size == 0 ? EMPTY : new FreeIntervalIndex(Arrays.copyOf(freeStarts, size), Arrays.copyOf(freeEnds, size));
+    }
+
+    /**
+     * @return a new index without the interval {@code [start, end)}.
+     */
+    public FreeIntervalIndex without(final long start, final long end) {
+        return of(starts, ends, new long[]{start}, new long[]{end});
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public long start(final int index) {
+        return starts[index];
+    }
+
+    public long end(final int index) {
+        return ends[index];
+    }
+
+    /**
+     * @return the index of the first interval ending after the given minute, or {@link #size()} if there is none.
+     */
+    public int firstEndingAfter(final long minute) {
+        int position = Arrays.binarySearch(ends, minute);
+        return position >= 0 ? position + 1 : - position - 1;
+    }
+
+    /**
+     * @return the index of the first interval, from {@code from} on, that is at least {@code length} minutes long,
+     * or {@code -1} if there is none.
+     */
+    public int firstAtLeast(final int from, final long length) {
+        if (from >= starts.length) {
+            return - 1;
+        }
+        return firstAtLeast(1, 0, starts.length - 1, from, length);
+    }
+
+    /**
+     * @return the first grid-aligned minute, not before {@code after}, starting a free run of at least {@code length}
+     * minutes, or {@code -1} if there is none.
+     */
+    public long firstFit(final long after, final long length) {
+        int index = firstEndingAfter(after);
+        if (index < starts.length) {
+            long start = Math.max(starts[index], ceilToGrid(after));
+            if (ends[index] - start >= length) {
+                return start;
+            }
+            index = firstAtLeast(index + 1, length);
+        }
+        return index >= 0 && index < starts.length ? starts[index] : - 1;
+    }
+
+    public static long ceilToGrid(final long minute) {
+        return - Math.floorDiv(- minute, GRID_MINUTES) * GRID_MINUTES;
+    }
+
+    public static long floorToGrid(final long minute) {
+        return Math.floorDiv(minute, GRID_MINUTES) * GRID_MINUTES;
+    }
+
+    private static int add(final long[] starts, final long[] ends, final int size, final long start, final long end) {
+        long alignedStart = ceilToGrid(start);
+        long alignedEnd = floorToGrid(end);
+        if (alignedEnd - alignedStart < GRID_MINUTES) {
+            return size;
+        }
+        starts[size] = alignedStart;
+        ends[size] = alignedEnd;
+        return size + 1;
+    }
+
+    private static long[][] merge(final long[] starts, final long[] ends) {
+        Integer[] order = new Integer[starts.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+
+        long[] mergedStarts = new long[starts.length];
+        long[] mergedEnds = new long[starts.length];
+        int size = 0;
+        for (int i : order) {
+            if (ends[i] <= starts[i]) {
+                continue;
+            }
+            if (size > 0 && starts[i] <= mergedEnds[size - 1]) {
+                mergedEnds[size - 1] = Math.max(mergedEnds[size - 1], ends[i]);
+            } else {
+                mergedStarts[size] = starts[i];
+                mergedEnds[size] = ends[i];
+                size++;
+            }
+        }
+        return new long[][]{Arrays.copyOf(mergedStarts, size), Arrays.copyOf(mergedEnds, size)};
+    }
+
+    private void build(final int node, final int low, final int high) {
+        if (low == high) {
+            maxLength[node] = ends[low] - starts[low];
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        build(2 * node, low, middle);
+        build(2 * node + 1, middle + 1, high);
+        maxLength[node] = Math.max(maxLength[2 * node], maxLength[2 * node + 1]);
+    }
+
+    private int firstAtLeast(final int node, final int low, final int high, final int from, final long length) {
+        if (high < from || maxLength[node] < length) {
+            return - 1;
+        }
+        if (low == high) {
+            return low;
+        }
+        int middle = (low + high) >>> 1;
+        int left = firstAtLeast(2 * node, low, middle, from, length);
+        return left != - 1 ? left : firstAtLeast(2 * node + 1, middle + 1, high, from, length);
+    }
+
+}
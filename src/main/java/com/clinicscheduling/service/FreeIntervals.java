@@ -0,0 +1,28 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Free intervals of every practitioner within the next-available search horizon.
+ *
+ * @param clinic        free intervals of a practitioner without any appointment or unavailability, i.e. the business hours.
+ * @param practitioners free intervals of the practitioners that are busy at some point of the horizon, by practitioner id.
+ * @see FreeIntervalIndex
+ */
+public record FreeIntervals(FreeIntervalIndex clinic, Map<Long, FreeIntervalIndex> practitioners) {
+
+    public FreeIntervalIndex of(final Long practitionerId) {
+        return practitioners.getOrDefault(practitionerId, clinic);
+    }
+
+    /**
+     * @return a copy where the interval {@code [start, end)}, in epoch minutes, is no longer free for the given practitioner.
+     */
+    public FreeIntervals without(final Long practitionerId, final long start, final long end) {
+        Map<Long, FreeIntervalIndex> updated = new HashMap<>(practitioners);
+        updated.put(practitionerId, of(practitionerId).without(start, end));
+        return new FreeIntervals(clinic, updated);
+    }
+
+}
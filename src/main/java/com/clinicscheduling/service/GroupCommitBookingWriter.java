@@ -0,0 +1,177 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes bookings in micro-batches, so that concurrent bookings share a transaction and its commit instead of paying
+ * for one each.
+ * <p>
+ * Bookings are queued up to {@link BookingConfig.GroupCommit#queueCapacity()}. A single writer thread takes the first
+ * queued booking, waits up to {@link BookingConfig.GroupCommit#maxLinger()} for others to join it, and inserts up to
+ * {@link BookingConfig.GroupCommit#maxBatchSize()} of them with one multi-row insert in one transaction. When the batch
+ * is rejected by the database, its bookings are written again one transaction each, so that only the conflicting ones
+ * fail. Each caller gets the outcome of its own booking through its future.
+ * <p>
+ * The queue depth seen by each batch and the batch sizes are exposed as the {@code booking.group-commit.queue-depth}
+ * and {@code booking.group-commit.batch-size} histograms.
+ */
+@Component
+public class GroupCommitBookingWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitBookingWriter.class);
+
+    @Autowired
+    private BookingConfig bookingConfig;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingBooking> queue;
+
+    private DistributionSummary queueDepth;
+
+    private DistributionSummary batchSize;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        BookingConfig.GroupCommit config = bookingConfig.groupCommit();
+        if (config == null || ! config.enabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(config.queueCapacity());
+        queueDepth = DistributionSummary.builder("booking.group-commit.queue-depth").publishPercentileHistogram().register(meterRegistry);
+        batchSize = DistributionSummary.builder("booking.group-commit.batch-size").publishPercentileHistogram().register(meterRegistry);
+        running = true;
+        writer = new Thread(this::run, "booking-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Queues the appointment to be inserted with the next batch.
+     *
+     * @param inTransaction called with each saved appointment within the transaction inserting it.
+     * @return the saved appointment, or a {@link DataIntegrityViolationException} if the database rejected it.
+     * @throws AppointmentValidationException if the queue is full.
+     */
+    public CompletableFuture<Appointment> submit(final Appointment appointment, final Consumer<Appointment> inTransaction) {
+        PendingBooking booking = new PendingBooking(appointment, inTransaction, new CompletableFuture<>());
+        if (! running || ! queue.offer(booking)) {
+            throw new AppointmentValidationException("There are too many bookings in progress, please try again");
+        }
+        return booking.result();
+    }
+
+    private void run() {
+        int maxBatchSize = bookingConfig.groupCommit().maxBatchSize();
+        long lingerNanos = bookingConfig.groupCommit().maxLinger().toNanos();
+        List<PendingBooking> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingBooking next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queueDepth.record(queue.size() + batch.size());
+                batchSize.record(batch.size());
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Stopped while lingering, the bookings taken from the queue were not written
+                batch.forEach(this::abandon);
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        PendingBooking pending;
+        while ((pending = queue.poll()) != null) {
+            abandon(pending);
+        }
+    }
+
+    private void abandon(final PendingBooking booking) {
+        booking.result().completeExceptionally(new AppointmentValidationException("The booking could not be completed, please try again"));
+    }
+
+    private void write(final List<PendingBooking> batch) {
+        try {
+            List<Appointment> saved = transactionTemplate.execute(status -> {
+                List<Appointment> appointments = appointmentRepository.saveAllAndFlush(batch.stream().map(PendingBooking::appointment).toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).inTransaction().accept(appointments.get(i));
+                }
+                return appointments;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(saved.get(i));
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            logger.debug("Batch of {} bookings rejected, writing them one by one", batch.size());
+            for (PendingBooking booking : batch) {
+                // The id was taken by the rolled back insert, the appointment has to be inserted as new again
+                booking.appointment().setId(null);
+                write(List.of(booking));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error writing a batch of {} bookings", batch.size(), e);
+            batch.forEach(booking -> booking.result().completeExceptionally(e));
+        }
+    }
+
+    private record PendingBooking(Appointment appointment, Consumer<Appointment> inTransaction, CompletableFuture<Appointment> result) {
+    }
+
+}
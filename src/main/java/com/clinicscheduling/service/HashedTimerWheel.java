@@ -0,0 +1,80 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel, expiring items in constant time per tick regardless of how many items are scheduled.
+ * <p>
+ * Time is divided in ticks of {@code tickMillis}, and an item is placed in the bucket of the tick of its deadline, modulo
+ * the number of buckets. Advancing the wheel only visits the buckets of the elapsed ticks, and an item whose deadline is
+ * one or more rounds ahead stays in its bucket until then. Items are not removed when cancelled: the owner is expected
+ * to ignore the items it no longer holds once they expire.
+ * <p>
+ * Not thread-safe, the owner has to synchronize its accesses.
+ *
+ * @param <T> the scheduled items.
+ */
+public final class HashedTimerWheel<T> {
+
+    private final long tickMillis;
+
+    private final List<Timeout<T>>[] buckets;
+
+    private final int mask;
+
+    private long currentTick;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two.
+     * @param nowMillis current time, the wheel starts at its tick.
+     */
+    @SuppressWarnings( "unchecked" )
+    public HashedTimerWheel(final long tickMillis, final int wheelSize, final long nowMillis) {
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = size - 1;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules the item to expire on the first advance after its deadline. Deadlines in the past expire on the next advance.
+     */
+    public void schedule(final T item, final long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis, tickMillis), currentTick);
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, deadlineMillis));
+    }
+
+    /**
+     * Moves the wheel up to the given time.
+     *
+     * @return the items whose deadline is not after {@code nowMillis}.
+     */
+    public List<T> advance(final long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        // A full turn visits every bucket, so there is no need to go round more than once after a long pause
+        long fromTick = Math.max(currentTick, targetTick - mask);
+        for (long tick = fromTick; tick <= targetTick; tick++) {
+            Iterator<Timeout<T>> timeouts = buckets[(int) (tick & mask)].iterator();
+            while (timeouts.hasNext()) {
+                Timeout<T> timeout = timeouts.next();
+                if (timeout.deadlineMillis() <= nowMillis) {
+                    expired.add(timeout.item());
+                    timeouts.remove();
+                }
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    private record Timeout<T>(T item, long deadlineMillis) {
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.janeapp.clinicscheduling.service;
+
+/**
+ * Thrown when an idempotency key already used by a request is informed with a different request.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+
+}
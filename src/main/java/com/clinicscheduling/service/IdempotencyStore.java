@@ -0,0 +1,173 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.IdempotencyConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.repository.AppointmentIdempotencyKeyRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idempotency keys of the created appointments, so that a retried request returns the appointment created by the first
+ * attempt instead of booking again.
+ * <p>
+ * Keys are persisted in the booking transaction, which makes them visible to every node, and the most recent ones are
+ * also kept in memory, bounded by {@link IdempotencyConfig#maxEntries()} in least recently used order. Keys older than
+ * {@link IdempotencyConfig#ttl()} are ignored, and purged from the database every {@link IdempotencyConfig#purgeInterval()}.
+ * <p>
+ * Every key is stored with the {@link #fingerprint(Appointment) fingerprint} of its request, and looking a key up with
+ * another fingerprint fails with an {@link IdempotencyKeyReusedException} rather than replaying another appointment.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    @Autowired
+    private IdempotencyConfig config;
+
+    @Autowired
+    private AppointmentIdempotencyKeyRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong replays = new AtomicLong();
+
+    private final Clock clock = Clock.systemUTC();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > config.maxEntries();
+        }
+    };
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("booking.idempotent.replays", replays, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * @return the fingerprint of the request booking the appointment, made of its patient, practitioner, type and start.
+     */
+    public static String fingerprint(final Appointment appointment) {
+        return fingerprint(appointment.getPatient().getId(), appointment.getPractitioner().getId(), appointment.getType(), appointment.getStartAt());
+    }
+
+    /**
+     * Same as {@link #fingerprint(Appointment)}, for a request not mapped to an appointment yet.
+     */
+    public static String fingerprint(final long patientId, final long practitionerId, final AppointmentType type, final Instant startAt) {
+        try {
+            byte[] request = String.join("|", Long.toString(patientId), Long.toString(practitionerId), type.name(), startAt.toString())
+                    .getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the id of the appointment created with the given key, if it has not expired.
+     * @throws IdempotencyKeyReusedException if the key was stored with another request fingerprint.
+     */
+    public Optional<Long> find(final String key, final String fingerprint) {
+        Instant now = clock.instant();
+        Optional<Entry> entry = findInMemory(key, now);
+        if (entry.isEmpty()) {
+            entry = repository.findByKeyCreatedAfter(key, now.minus(config.ttl()))
+                    .map(stored -> remember(key, stored.getRequestFingerprint(), stored.getAppointmentId(), stored.getCreatedAt()));
+        }
+        return replay(entry, fingerprint);
+    }
+
+    /**
+     * Same as {@link #find(String, String)}, without reading the database. Meant for keys just stored by this node.
+     */
+    public Optional<Long> findRecent(final String key, final String fingerprint) {
+        return replay(findInMemory(key, clock.instant()), fingerprint);
+    }
+
+    /**
+     * Stores the key of the created appointment within the current transaction, replacing it if it has expired but
+     * was not purged yet. It is only kept in memory once the transaction commits.
+     *
+     * @throws DataIntegrityViolationException if the key is stored and has not expired, as when a concurrent request
+     *                                         with the same key has committed first.
+     */
+    public void save(final String key, final String fingerprint, final Long appointmentId) {
+        Instant createdAt = clock.instant();
+        if (repository.insertOrReplaceExpired(key, fingerprint, appointmentId, createdAt, createdAt.minus(config.ttl())) == 0) {
+            throw new DataIntegrityViolationException(String.format("Idempotency key %s is already stored", key));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(key, fingerprint, appointmentId, createdAt);
+                }
+            });
+        } else {
+            remember(key, fingerprint, appointmentId, createdAt);
+        }
+    }
+
+    @Scheduled( fixedDelayString = "${app.idempotency.purge-interval}",
+            initialDelayString = "${app.idempotency.purge-interval}" )
+    public void purge() {
+        int purged = repository.deleteCreatedBefore(clock.instant().minus(config.ttl()));
+        logger.debug("{} expired idempotency keys purged", purged);
+    }
+
+    private Optional<Long> replay(final Optional<Entry> entry, final String fingerprint) {
+        if (entry.isPresent() && entry.get().fingerprint() != null && ! Objects.equals(entry.get().fingerprint(), fingerprint)) {
+            throw new IdempotencyKeyReusedException("The Idempotency-Key was already used with a different request");
+        }
+        entry.ifPresent(e -> replays.incrementAndGet());
+        return entry.map(Entry::appointmentId);
+    }
+
+    private synchronized Optional<Entry> findInMemory(final String key, final Instant now) {
+        Entry entry = entries.get(key);
+        if (entry != null && ! entry.expiresAt().isAfter(now)) {
+            entries.remove(key);
+            entry = null;
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    private synchronized Entry remember(final String key, final String fingerprint, final Long appointmentId, final Instant createdAt) {
+        Entry entry = new Entry(fingerprint, appointmentId, createdAt.plus(config.ttl()));
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * @param fingerprint the fingerprint of the request, {@code null} for keys stored before it was recorded.
+     */
+    private record Entry(String fingerprint, Long appointmentId, Instant expiresAt) {
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+
+public record NextAvailableSpot(Practitioner practitioner, AppointmentType appointmentType, TimeSlot timeSlot) {
+}
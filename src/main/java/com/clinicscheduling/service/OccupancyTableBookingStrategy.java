@@ -0,0 +1,30 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@link BookingConfig.Mode#OCCUPANCY_TABLE} mode: the slots of the appointments are set in their practitioner-day row
+ * of the {@link DayOccupancyTable} before inserting them, which fails when any of them is taken.
+ */
+@Component
+public class OccupancyTableBookingStrategy extends TransactionalBookingStrategy {
+
+    @Autowired
+    private DayOccupancyTable dayOccupancyTable;
+
+    @Override
+    public BookingConfig.Mode mode() {
+        return BookingConfig.Mode.OCCUPANCY_TABLE;
+    }
+
+    @Override
+    protected void reserve(final List<Appointment> appointments) {
+        appointments.forEach(dayOccupancyTable::book);
+    }
+
+}
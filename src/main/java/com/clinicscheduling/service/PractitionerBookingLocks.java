@@ -0,0 +1,119 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks serializing the bookings of a practitioner within this node.
+ * <p>
+ * Practitioners are spread over {@link BookingConfig#lockStripes()} fair locks, so concurrent bookings of the same
+ * practitioner are handled one at a time and in arrival order, while bookings of other practitioners rarely wait.
+ * Bookings waiting longer than {@link BookingConfig#lockTimeout()} are rejected before opening a transaction.
+ * <p>
+ * Lock wait time is exposed as the {@code booking.lock.wait} timer, and bookings rejected without reaching the database
+ * as the {@code booking.rejected.early} counter, tagged by reason.
+ */
+@Component
+public class PractitionerBookingLocks {
+
+    @Autowired
+    private BookingConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ReentrantLock[] stripes;
+
+    private Timer lockWait;
+
+    private Counter lockTimeouts;
+
+    private Counter knownUnavailable;
+
+    @PostConstruct
+    public void init() {
+        stripes = new ReentrantLock[config.lockStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        lockWait = Timer.builder("booking.lock.wait").register(meterRegistry);
+        lockTimeouts = Counter.builder("booking.rejected.early").tag("reason", "lock-timeout").register(meterRegistry);
+        knownUnavailable = Counter.builder("booking.rejected.early").tag("reason", "unavailable").register(meterRegistry);
+    }
+
+    /**
+     * Waits for the lock of the practitioner. The caller has to unlock it once the booking is committed or rolled back.
+     *
+     * @throws AppointmentValidationException if the lock could not be acquired within {@link BookingConfig#lockTimeout()}.
+     */
+    public Lock acquire(final long practitionerId) {
+        return acquireStripe(stripeOf(practitionerId));
+    }
+
+    /**
+     * Waits for the locks of every practitioner, taken in stripe order so that concurrent batches cannot deadlock. The
+     * caller has to unlock them once the bookings are committed or rolled back.
+     *
+     * @throws AppointmentValidationException if any lock could not be acquired within {@link BookingConfig#lockTimeout()},
+     *                                        in which case none of them is held.
+     */
+    public List<Lock> acquireAll(final Collection<Long> practitionerIds) {
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        practitionerIds.forEach(practitionerId -> stripeIndexes.add(stripeOf(practitionerId)));
+        List<Lock> locks = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int stripe : stripeIndexes) {
+                locks.add(acquireStripe(stripe));
+            }
+        } catch (AppointmentValidationException e) {
+            locks.forEach(Lock::unlock);
+            throw e;
+        }
+        return locks;
+    }
+
+    private int stripeOf(final long practitionerId) {
+        return Math.floorMod(Long.hashCode(practitionerId), stripes.length);
+    }
+
+    private Lock acquireStripe(final int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(config.lockTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (! acquired) {
+            lockTimeouts.increment();
+            throw new AppointmentValidationException("The practitioner is receiving too many bookings, please try again");
+        }
+        return lock;
+    }
+
+    /**
+     * Records a booking rejected from the in-memory availability, without reaching the database.
+     */
+    public void rejectedAsUnavailable() {
+        knownUnavailable.increment();
+    }
+
+}
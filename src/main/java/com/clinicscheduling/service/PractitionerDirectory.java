@@ -0,0 +1,88 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read-mostly, in-memory directory of the clinic practitioners.
+ * <p>
+ * The practitioners are kept in an immutable snapshot that is swapped atomically, so readers never lock nor see a
+ * partially loaded roster. The snapshot is loaded on first use and refreshed every
+ * {@code app.practitioner-directory.refresh-interval}. Changes can be made visible right away with {@link #refresh()}
+ * or {@link #invalidate()}, and a practitioner missing from the snapshot is looked up in the database before being
+ * reported as not found.
+ */
+@Component
+public class PractitionerDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PractitionerDirectory.class);
+
+    @Autowired
+    private PractitionerRepository practitionerRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public List<Practitioner> getAll() {
+        return current().practitioners();
+    }
+
+    public Optional<Practitioner> findById(final Long id) {
+        Practitioner practitioner = current().practitionersById().get(id);
+        if (practitioner != null) {
+            return Optional.of(practitioner);
+        }
+
+        // The practitioner may have been added after the snapshot was taken
+        Optional<Practitioner> storedPractitioner = practitionerRepository.findById(id);
+        storedPractitioner.ifPresent(p -> invalidate());
+        return storedPractitioner;
+    }
+
+    @Scheduled( fixedDelayString = "${app.practitioner-directory.refresh-interval}",
+            initialDelayString = "${app.practitioner-directory.refresh-interval}" )
+    public void refresh() {
+        snapshot.set(load());
+    }
+
+    /**
+     * Drops the current snapshot, so that the next read loads the practitioners again.
+     */
+    public void invalidate() {
+        snapshot.set(null);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        Snapshot loaded = load();
+        return snapshot.compareAndSet(null, loaded) ? loaded : current();
+    }
+
+    private Snapshot load() {
+        List<Practitioner> practitioners = List.copyOf(practitionerRepository.findAll());
+        Map<Long, Practitioner> practitionersById = new HashMap<>();
+        for (Practitioner practitioner : practitioners) {
+            practitionersById.put(practitioner.getId(), practitioner);
+        }
+        logger.debug("{} practitioners loaded into the directory", practitioners.size());
+        return new Snapshot(practitioners, Collections.unmodifiableMap(practitionersById));
+    }
+
+    private record Snapshot(List<Practitioner> practitioners, Map<Long, Practitioner> practitionersById) {
+    }
+
+}
@@ -2,8 +2,8 @@ package com.janeapp.clinicscheduling.service;
 
 import com.janeapp.clinicscheduling.entity.Appointment;
 import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
 import com.janeapp.clinicscheduling.repository.AppointmentRepository;
-import com.janeapp.clinicscheduling.repository.PractitionerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,13 +21,16 @@ public class PractitionerService {
     private static final Logger logger = LoggerFactory.getLogger(PractitionerService.class);
 
     @Autowired
-    private PractitionerRepository practitionerRepository;
+    private PractitionerDirectory practitionerDirectory;
 
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private WorkingHours workingHours;
+
     public List<Practitioner> getAllPractitioners() {
-        return practitionerRepository.findAll();
+        return practitionerDirectory.getAll();
     }
 
     public List<Appointment> getCurrentDayAppointmentsByPractitioner(final Practitioner practitioner) {
@@ -43,4 +46,13 @@ public class PractitionerService {
         return appointments;
     }
 
+    public List<PractitionerWorkingHours> getWorkingHours(final Practitioner practitioner) {
+        return workingHours.getTemplate(practitioner);
+    }
+
+    public List<PractitionerWorkingHours> replaceWorkingHours(final Practitioner practitioner,
+                                                              final List<PractitionerWorkingHours> template) {
+        return workingHours.replace(practitioner, template);
+    }
+
 }
@@ -0,0 +1,33 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link BookingConfig.Mode#QUERY} mode: the availability of a single appointment is queried before inserting it.
+ */
+@Component
+public class QueryBookingStrategy extends TransactionalBookingStrategy {
+
+    @Autowired
+    private PractitionerUnavailabilityRepository practitionerUnavailabilityRepository;
+
+    @Override
+    public BookingConfig.Mode mode() {
+        return BookingConfig.Mode.QUERY;
+    }
+
+    @Override
+    protected void verify(final Appointment appointment) {
+        if (appointmentRepository.existsAppointmentInTimeRange(appointment.getStartAt(), appointment.getPractitioner()) ||
+                practitionerUnavailabilityRepository.existsUnavailabilityForTimeRange(appointment.getStartAt(), appointment.getPractitioner())) {
+            throw new DataIntegrityViolationException(String.format("Practitioner %s not available on %s",
+                    appointment.getPractitioner().fullName(), appointment.getStartAt()));
+        }
+    }
+
+}
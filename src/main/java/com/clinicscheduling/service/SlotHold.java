@@ -0,0 +1,17 @@
+package com.janeapp.clinicscheduling.service;
+
+import java.time.Instant;
+
+/**
+ * Temporary reservation of a practitioner interval for a patient, until {@code expiresAt}.
+ */
+public record SlotHold(String id, Long practitionerId, Long patientId, Instant startAt, Instant endAt, Instant expiresAt) {
+
+    boolean overlaps(final Instant start, final Instant end) {
+        return startAt.isBefore(end) && endAt.isAfter(start);
+    }
+
+    boolean isActive(final Instant now) {
+        return expiresAt.isAfter(now);
+    }
+}
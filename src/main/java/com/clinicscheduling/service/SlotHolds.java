@@ -0,0 +1,162 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.SlotHoldConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory holds of practitioner intervals, letting a patient claim a slot between picking it and booking it.
+ * <p>
+ * Holds of each practitioner are kept in an immutable list replaced on every change, so availability reads never lock.
+ * Claims of the same practitioner are atomic, and an interval can only be held by one patient at a time.
+ * <p>
+ * Holds expire through a {@link HashedTimerWheel} advanced every {@link SlotHoldConfig#tick()}, so expiring them does
+ * not scan every hold. Expired holds are also ignored by reads until the wheel removes them. Holds are not shared
+ * between nodes, which only makes a hold not respected by bookings handled by another node.
+ */
+@Component
+public class SlotHolds {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotHolds.class);
+
+    @Autowired
+    private SlotHoldConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Clock clock = Clock.systemUTC();
+
+    private final Map<Long, List<SlotHold>> holdsByPractitioner = new ConcurrentHashMap<>();
+
+    private final Map<String, SlotHold> holdsById = new ConcurrentHashMap<>();
+
+    private HashedTimerWheel<SlotHold> expirations;
+
+    @PostConstruct
+    public void init() {
+        expirations = new HashedTimerWheel<>(config.tick().toMillis(), config.wheelSize(), clock.millis());
+        Gauge.builder("slot.holds.active", holdsById, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Holds the interval of the practitioner for the patient. Holds of the same patient overlapping the interval are
+     * replaced, so picking another slot releases the previous one.
+     *
+     * @throws AppointmentValidationException if the interval is held by another patient.
+     */
+    public SlotHold hold(final Long practitionerId, final Long patientId, final Instant start, final Instant end, final Duration ttl) {
+        Instant now = clock.instant();
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), practitionerId, patientId, start, end, now.plus(ttl));
+        List<SlotHold> replaced = new ArrayList<>();
+        holdsByPractitioner.compute(practitionerId, (id, holds) -> {
+            List<SlotHold> updated = new ArrayList<>();
+            replaced.clear();
+            for (SlotHold other : holds != null ? holds : List.<SlotHold>of()) {
+                if (! other.isActive(now)) {
+                    continue;
+                }
+                if (other.overlaps(start, end)) {
+                    if (! other.patientId().equals(patientId)) {
+                        throw new AppointmentValidationException("The requested time is on hold");
+                    }
+                    replaced.add(other);
+                    continue;
+                }
+                updated.add(other);
+            }
+            updated.add(hold);
+            return List.copyOf(updated);
+        });
+        replaced.forEach(other -> holdsById.remove(other.id()));
+        holdsById.put(hold.id(), hold);
+        synchronized (this) {
+            expirations.schedule(hold, hold.expiresAt().toEpochMilli());
+        }
+        logger.debug("Slot held. Id: {}, practitioner: {}, {} - {}", hold.id(), practitionerId, start, end);
+        return hold;
+    }
+
+    /**
+     * @return whether the interval overlaps an active hold of another patient.
+     */
+    public boolean isHeldForAnother(final Long practitionerId, final Long patientId, final Instant start, final Instant end) {
+        Instant now = clock.instant();
+        for (SlotHold hold : holdsByPractitioner.getOrDefault(practitionerId, List.of())) {
+            if (! hold.patientId().equals(patientId) && hold.isActive(now) && hold.overlaps(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the active holds of the practitioner, in no particular order.
+     */
+    public List<SlotHold> getActiveHolds(final Long practitionerId) {
+        List<SlotHold> holds = holdsByPractitioner.getOrDefault(practitionerId, List.of());
+        if (holds.isEmpty()) {
+            return holds;
+        }
+        Instant now = clock.instant();
+        return holds.stream().filter(hold -> hold.isActive(now)).toList();
+    }
+
+    public boolean isEmpty() {
+        return holdsById.isEmpty();
+    }
+
+    public Optional<SlotHold> findById(final String id) {
+        return Optional.ofNullable(holdsById.get(id)).filter(hold -> hold.isActive(clock.instant()));
+    }
+
+    /**
+     * Releases the holds of the patient overlapping the interval, once it has been booked.
+     */
+    public void release(final Long practitionerId, final Long patientId, final Instant start, final Instant end) {
+        List<SlotHold> holds = holdsByPractitioner.getOrDefault(practitionerId, List.of());
+        for (SlotHold hold : holds) {
+            if (hold.patientId().equals(patientId) && hold.overlaps(start, end)) {
+                release(hold);
+            }
+        }
+    }
+
+    public void release(final SlotHold hold) {
+        holdsById.remove(hold.id());
+        holdsByPractitioner.computeIfPresent(hold.practitionerId(), (id, holds) -> {
+            List<SlotHold> updated = holds.stream().filter(other -> ! other.id().equals(hold.id())).toList();
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    @Scheduled( fixedRateString = "${app.slot-hold.tick}" )
+    public void expire() {
+        List<SlotHold> expired;
+        synchronized (this) {
+            expired = expirations.advance(clock.millis());
+        }
+        // Holds released or replaced in the meantime are no longer referenced, releasing them again is harmless
+        expired.forEach(this::release);
+        if (! expired.isEmpty()) {
+            logger.debug("{} slot holds expired", expired.size());
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.repository.FreeSlotStart;
+import com.janeapp.clinicscheduling.repository.InventorySlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * The {@code slot_inventory} table of {@link BookingConfig.Mode#SLOT_INVENTORY} mode: one row per practitioner,
+ * appointment type and half-hour start, generated ahead for the next {@code app.booking.slot-inventory.horizon-days}
+ * days the clinic is open.
+ * <p>
+ * A booking claims the row of its slot and blocks the free rows overlapping it, with {@code FOR UPDATE SKIP LOCKED},
+ * so it never waits for another booking: a slot held by a booking in progress is reported as not available right
+ * away. Bookings of overlapping slots of different types are still told apart by the appointment exclusion
+ * constraint.
+ * <p>
+ * The appointments stay the source of truth. Every {@code app.booking.slot-inventory.check-interval}, the rows are
+ * checked against the appointments and unavailability, so unavailability written outside of the application and
+ * rows missed while held by other bookings are fixed. {@link WorkingHours} and {@link UnavailabilityRules} only live in
+ * memory, so they are not part of the rows and are applied on top of them.
+ */
+@Component
+public class SlotInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotInventory.class);
+
+    @Autowired
+    private InventorySlotRepository inventorySlotRepository;
+
+    @Autowired
+    private BookingConfig bookingConfig;
+
+    @Autowired
+    private ClinicCalendar clinicCalendar;
+
+    @Autowired
+    private ClinicClosures clinicClosures;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Claims the slot of the appointment and blocks the slots overlapping it, within the current transaction.
+     *
+     * @throws DataIntegrityViolationException if the slot is not free or is held by another booking.
+     */
+    public void claim(final Appointment appointment) {
+        long practitionerId = appointment.getPractitioner().getId();
+        // Appointments may start a few seconds past the half-hour
+        Instant slotStart = appointment.getStartAt().truncatedTo(ChronoUnit.MINUTES);
+        if (inventorySlotRepository.claim(practitionerId, appointment.getType().name(), slotStart) == 0) {
+            throw new DataIntegrityViolationException(String.format("Slot of practitioner %s on %s not available", practitionerId, slotStart));
+        }
+        inventorySlotRepository.blockOverlapping(practitionerId, appointment.getStartAt(), appointment.getEndAt());
+    }
+
+    /**
+     * @return the free slots of the type laid out back to back from {@code firstStart} to {@code lastStart}, one
+     * appointment length apart, in start order.
+     */
+    public List<FreeSlotStart> getFreeSlotStarts(final AppointmentType appointmentType, final Instant firstStart, final Instant lastStart) {
+        long lengthSeconds = DayOccupancy.slotsOf(appointmentType) * DayOccupancy.SLOT_SECONDS;
+        return inventorySlotRepository.findFreeSlotStarts(appointmentType.name(), firstStart, lastStart).stream()
+                .filter(freeStart -> (freeStart.startAt().getEpochSecond() - firstStart.getEpochSecond()) % lengthSeconds == 0)
+                .toList();
+    }
+
+    /**
+     * Generates the slots of the days the clinic is open up to the horizon, for the practitioners and days that do not
+     * have them yet, and deletes the slots of the past days.
+     */
+    @Scheduled( fixedDelayString = "${app.booking.slot-inventory.generate-interval}" )
+    public void generate() {
+        if (bookingConfig.mode() != BookingConfig.Mode.SLOT_INVENTORY) {
+            return;
+        }
+        ClinicDay today = clinicCalendar.today();
+        int generated = 0;
+        for (int days = 0; days <= bookingConfig.slotInventory().horizonDays(); days++) {
+            ClinicDay day = clinicCalendar.day(today.date().plusDays(days));
+            if (day.closed() || clinicClosures.isClosed(day.date())) {
+                continue;
+            }
+            for (AppointmentType appointmentType : AppointmentType.values()) {
+                int length = DayOccupancy.slotsOf(appointmentType);
+                long lastStart = day.closeSecond() - length * DayOccupancy.SLOT_SECONDS;
+                if (lastStart >= day.openSecond()) {
+                    generated += inventorySlotRepository.generate(appointmentType.name(), day.open(), Instant.ofEpochSecond(lastStart),
+                            length * DayOccupancy.SLOT_MINUTES);
+                }
+            }
+        }
+        int deleted = inventorySlotRepository.deleteStartingBefore(today.open());
+        logger.info("Slot inventory generated: {} slots added, {} past slots deleted", generated, deleted);
+    }
+
+    /**
+     * Blocks the free slots overlapping an appointment or an unavailability, and frees the other ones.
+     * <p>
+     * Runs in a repeatable read transaction, so that a slot booked after the check started fails the check instead of
+     * being freed before its appointment is visible. A failed check is retried on the next run.
+     */
+    @Scheduled( fixedDelayString = "${app.booking.slot-inventory.check-interval}" )
+    public void check() {
+        if (bookingConfig.mode() != BookingConfig.Mode.SLOT_INVENTORY) {
+            return;
+        }
+        Instant from = clinicCalendar.today().open();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        try {
+            int[] fixed = transactionTemplate.execute(status -> new int[] {
+                    inventorySlotRepository.blockTaken(from),
+                    inventorySlotRepository.freeReleased(from)
+            });
+            if (fixed[0] > 0 || fixed[1] > 0) {
+                logger.warn("Slot inventory out of date: {} slots blocked, {} slots freed", fixed[0], fixed[1]);
+            }
+        } catch (ConcurrencyFailureException e) {
+            logger.info("Slot inventory check conflicted with a booking, retried on the next run", e);
+        }
+    }
+
+}
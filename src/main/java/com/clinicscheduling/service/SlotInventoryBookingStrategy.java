@@ -0,0 +1,30 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@link BookingConfig.Mode#SLOT_INVENTORY} mode: the slot rows of the appointments are claimed in the
+ * {@link SlotInventory} before inserting them, which fails when a slot is not free or another booking holds it.
+ */
+@Component
+public class SlotInventoryBookingStrategy extends TransactionalBookingStrategy {
+
+    @Autowired
+    private SlotInventory slotInventory;
+
+    @Override
+    public BookingConfig.Mode mode() {
+        return BookingConfig.Mode.SLOT_INVENTORY;
+    }
+
+    @Override
+    protected void reserve(final List<Appointment> appointments) {
+        appointments.forEach(slotInventory::claim);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link BookingStrategy} reserving the time of the appointments, verifying it and inserting the appointments within
+ * one transaction. Whatever a mode reserves, locks or rows, is released when that transaction commits or rolls back.
+ */
+public abstract class TransactionalBookingStrategy implements BookingStrategy {
+
+    @Autowired
+    protected AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public Appointment book(final Appointment appointment, final Consumer<Appointment> inTransaction) {
+        return transactionTemplate.execute(status -> {
+            reserve(List.of(appointment));
+            verify(appointment);
+            Appointment saved = appointmentRepository.saveAndFlush(appointment); // The insert is deferred until flush, surface conflicts here
+            inTransaction.accept(saved);
+            return saved;
+        });
+    }
+
+    /**
+     * Reserves the time of the batch and inserts it in JDBC batches. The batch is not verified again, it is expected to
+     * be checked beforehand.
+     */
+    @Override
+    public List<Appointment> bookAll(final List<Appointment> appointments, final Consumer<Appointment> inTransaction) {
+        return transactionTemplate.execute(status -> {
+            reserve(appointments);
+            List<Appointment> saved = appointmentRepository.saveAllAndFlush(appointments);
+            saved.forEach(inTransaction);
+            return saved;
+        });
+    }
+
+    /**
+     * Reserves the time of the appointments within the current transaction, before they are inserted.
+     *
+     * @throws DataIntegrityViolationException if the time of any of them is already taken.
+     */
+    protected void reserve(final List<Appointment> appointments) {
+    }
+
+    /**
+     * Checks the time of a single appointment against the stored appointments and unavailability within the current
+     * transaction, once reserved.
+     *
+     * @throws DataIntegrityViolationException if the time is not available.
+     */
+    protected void verify(final Appointment appointment) {
+    }
+
+}
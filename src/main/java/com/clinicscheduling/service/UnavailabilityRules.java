@@ -0,0 +1,173 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRuleRepository;
+import com.janeapp.clinicscheduling.repository.RecurringUnavailability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring unavailability of the practitioners, expanded into {@link PractitionerInterval}s for the queried window only.
+ * <p>
+ * A weekly or monthly rule replaces the unavailability rows that would be stored for every occurrence, so the
+ * availability queries do not scan them. Each rule jumps straight to its first occurrence within the window, so
+ * expanding costs one step per occurrence regardless of how long ago the rule started.
+ * <p>
+ * Like the {@link PractitionerDirectory}, the rules are an immutable snapshot swapped atomically, loaded on first use
+ * and refreshed every {@code app.unavailability-rules.refresh-interval}. A refresh that finds the rules changed
+ * invalidates the {@link AvailabilityCache} and the {@link FreeIntervalCache}, which hold their expanded occurrences.
+ */
+@Component
+public class UnavailabilityRules {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnavailabilityRules.class);
+
+    @Autowired
+    private PractitionerUnavailabilityRuleRepository ruleRepository;
+
+    @Autowired
+    private ClinicCalendar clinicCalendar;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private FreeIntervalCache freeIntervalCache;
+
+    private final AtomicReference<Map<Long, List<RecurringUnavailability>>> snapshot = new AtomicReference<>();
+
+    /**
+     * @return the occurrences of every practitioner's rules overlapping the range.
+     */
+    public List<PractitionerInterval> expand(final Instant start, final Instant end) {
+        List<PractitionerInterval> intervals = new ArrayList<>();
+        current().values().forEach(rules -> expand(rules, start, end, intervals::add));
+        return intervals;
+    }
+
+    /**
+     * @return the occurrences of the given practitioners' rules overlapping the range.
+     */
+    public List<PractitionerInterval> expand(final Instant start, final Instant end, final Collection<Long> practitionerIds) {
+        Map<Long, List<RecurringUnavailability>> rulesByPractitioner = current();
+        List<PractitionerInterval> intervals = new ArrayList<>();
+        for (Long practitionerId : practitionerIds) {
+            expand(rulesByPractitioner.getOrDefault(practitionerId, List.of()), start, end, intervals::add);
+        }
+        return intervals;
+    }
+
+    /**
+     * @return whether any occurrence of the practitioner's rules overlaps the range.
+     */
+    public boolean overlaps(final long practitionerId, final Instant start, final Instant end) {
+        List<RecurringUnavailability> rules = current().getOrDefault(practitionerId, List.of());
+        if (rules.isEmpty()) {
+            return false;
+        }
+        List<PractitionerInterval> intervals = new ArrayList<>(1);
+        expand(rules, start, end, intervals::add);
+        return ! intervals.isEmpty();
+    }
+
+    @Scheduled( fixedDelayString = "${app.unavailability-rules.refresh-interval}",
+            initialDelayString = "${app.unavailability-rules.refresh-interval}" )
+    public void refresh() {
+        Map<Long, List<RecurringUnavailability>> loaded = load();
+        Map<Long, List<RecurringUnavailability>> previous = snapshot.getAndSet(loaded);
+        if (previous != null && ! previous.equals(loaded)) {
+            // Occurrences of the previous rules are part of the cached occupancy and free intervals
+            availabilityCache.invalidateAll();
+            freeIntervalCache.invalidateAll();
+            logger.info("Unavailability rules changed, availability caches invalidated");
+        }
+    }
+
+    private void expand(final List<RecurringUnavailability> rules, final Instant start, final Instant end,
+                        final Consumer<PractitionerInterval> action) {
+        if (rules.isEmpty() || ! start.isBefore(end)) {
+            return;
+        }
+        ZoneId zone = clinicCalendar.zone();
+        LocalDate from = clinicCalendar.dayOf(start).date();
+        LocalDate to = clinicCalendar.dayOf(end.getEpochSecond() - 1).date();
+        for (RecurringUnavailability rule : rules) {
+            occurrences(rule, from, to, date -> {
+                Instant startAt = date.atTime(rule.startTime()).atZone(zone).toInstant();
+                Instant endAt = date.atTime(rule.endTime()).atZone(zone).toInstant();
+                if (startAt.isBefore(end) && endAt.isAfter(start)) {
+                    action.accept(new PractitionerInterval(rule.practitionerId(), startAt, endAt));
+                }
+            });
+        }
+    }
+
+    /**
+     * Calls the action with each date the rule occurs on between {@code from} and {@code to}, both inclusive.
+     */
+    static void occurrences(final RecurringUnavailability rule, final LocalDate from, final LocalDate to,
+                            final Consumer<LocalDate> action) {
+        LocalDate first = rule.startsOn().isAfter(from) ? rule.startsOn() : from;
+        LocalDate last = rule.endsOn() != null && rule.endsOn().isBefore(to) ? rule.endsOn() : to;
+        if (first.isAfter(last)) {
+            return;
+        }
+
+        switch (rule.frequency()) {
+            case WEEKLY -> {
+                LocalDate date = rule.startsOn().with(TemporalAdjusters.nextOrSame(rule.dayOfWeek()));
+                long step = 7L * rule.repeatInterval();
+                long behind = ChronoUnit.DAYS.between(date, first);
+                if (behind > 0) {
+                    date = date.plusDays((behind + step - 1) / step * step);
+                }
+                for (; ! date.isAfter(last); date = date.plusDays(step)) {
+                    action.accept(date);
+                }
+            }
+            case MONTHLY -> {
+                YearMonth month = YearMonth.from(rule.startsOn());
+                long behind = ChronoUnit.MONTHS.between(month, YearMonth.from(first));
+                month = month.plusMonths((behind + rule.repeatInterval() - 1) / rule.repeatInterval() * rule.repeatInterval());
+                for (; ! month.atDay(1).isAfter(last); month = month.plusMonths(rule.repeatInterval())) {
+                    if (rule.dayOfMonth() > month.lengthOfMonth()) {
+                        continue;
+                    }
+                    LocalDate date = month.atDay(rule.dayOfMonth());
+                    if (! date.isBefore(first) && ! date.isAfter(last)) {
+                        action.accept(date);
+                    }
+                }
+            }
+        }
+    }
+
+    private Map<Long, List<RecurringUnavailability>> current() {
+        Map<Long, List<RecurringUnavailability>> current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        Map<Long, List<RecurringUnavailability>> loaded = load();
+        return snapshot.compareAndSet(null, loaded) ? loaded : current();
+    }
+
+    private Map<Long, List<RecurringUnavailability>> load() {
+        List<RecurringUnavailability> rules = ruleRepository.findRulesEndingFrom(clinicCalendar.today().date());
+        logger.debug("{} unavailability rules loaded", rules.size());
+        return rules.stream().collect(Collectors.collectingAndThen(
+                Collectors.groupingBy(RecurringUnavailability::practitionerId, Collectors.toUnmodifiableList()),
+                Collections::unmodifiableMap));
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
+import com.janeapp.clinicscheduling.repository.PractitionerWorkingHoursRepository;
+import com.janeapp.clinicscheduling.repository.WorkingHoursInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Weekly working hours of the practitioners who do not work the whole clinic hours.
+ * <p>
+ * Templates are stored once per practitioner and compiled into one {@link DayOccupancy} bitmap per weekday, with the
+ * slots the practitioner does not work set. The bitmaps use the clinic opening time as their origin, like the
+ * {@link ClinicDayOccupancy}, so they are combined with the occupancy of any date with a single {@code OR}. Practitioners
+ * without a template work the whole clinic hours, and one with a template does not work the weekdays it leaves out.
+ * <p>
+ * Like the {@link PractitionerDirectory}, the bitmaps are an immutable snapshot swapped atomically, loaded on first use
+ * and refreshed every {@code app.working-hours.refresh-interval}. Templates changed through this node are visible right away.
+ */
+@Component
+public class WorkingHours {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkingHours.class);
+
+    private static final int DAYS_OF_WEEK = DayOfWeek.values().length;
+
+    @Autowired
+    private PractitionerWorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private BusinessHoursConfig config;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private FreeIntervalCache freeIntervalCache;
+
+    private final AtomicReference<Map<Long, long[]>> snapshot = new AtomicReference<>();
+
+    /**
+     * @return the bitmap of the slots of the weekday the practitioner does not work, bit {@code i} standing for the
+     * half-hour slot starting {@code i * 30} minutes after the clinic opening. Empty for practitioners without a template.
+     */
+    public long offHours(final long practitionerId, final DayOfWeek dayOfWeek) {
+        long[] offHours = current().get(practitionerId);
+        return offHours != null ? offHours[dayOfWeek.ordinal()] : 0L;
+    }
+
+    /**
+     * @return the ids of the practitioners with a template.
+     */
+    public Set<Long> practitionerIds() {
+        return current().keySet();
+    }
+
+    public List<PractitionerWorkingHours> getTemplate(final Practitioner practitioner) {
+        return workingHoursRepository.findByPractitioner(practitioner).stream()
+                .sorted(Comparator.comparing(PractitionerWorkingHours::getDayOfWeek).thenComparing(PractitionerWorkingHours::getStartTime))
+                .toList();
+    }
+
+    /**
+     * Replaces the template of the practitioner. An empty template makes the practitioner work the whole clinic hours
+     * again. Appointments already booked out of the new working hours are kept.
+     *
+     * @throws AppointmentValidationException if any working hours do not start before they end, on the hour or
+     *                                        half-hour, within the clinic hours.
+     */
+    public List<PractitionerWorkingHours> replace(final Practitioner practitioner, final List<PractitionerWorkingHours> template) {
+        LocalTime opening = LocalTime.of(config.ampmStart(), 0);
+        LocalTime closing = LocalTime.of(config.ampmEnd(), 0);
+        for (PractitionerWorkingHours workingHours : template) {
+            if (! workingHours.getStartTime().isBefore(workingHours.getEndTime())) {
+                throw new AppointmentValidationException("Working hours should start before they end");
+            }
+            if (! isOnHalfHour(workingHours.getStartTime()) || ! isOnHalfHour(workingHours.getEndTime())
+                    || workingHours.getStartTime().isBefore(opening) || workingHours.getEndTime().isAfter(closing)) {
+                throw new AppointmentValidationException(String.format(
+                        "Working hours should be on the hour or half-hour, within the clinic hours (%d am to %d pm)",
+                        config.ampmStart(), config.hhEnd()
+                ));
+            }
+            workingHours.setPractitioner(practitioner);
+        }
+
+        List<PractitionerWorkingHours> saved = transactionTemplate.execute(status -> {
+            workingHoursRepository.deleteByPractitioner(practitioner);
+            return workingHoursRepository.saveAll(template);
+        });
+        refresh();
+        // The free intervals of the next-available search only cover the working hours
+        freeIntervalCache.invalidateAll();
+        logger.info("Working hours of practitioner {} replaced by {} intervals", practitioner.getId(), template.size());
+        return saved;
+    }
+
+    @Scheduled( fixedDelayString = "${app.working-hours.refresh-interval}",
+            initialDelayString = "${app.working-hours.refresh-interval}" )
+    public void refresh() {
+        snapshot.set(load());
+    }
+
+    private Map<Long, long[]> current() {
+        Map<Long, long[]> current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        Map<Long, long[]> loaded = load();
+        return snapshot.compareAndSet(null, loaded) ? loaded : current();
+    }
+
+    private Map<Long, long[]> load() {
+        long opening = LocalTime.of(config.ampmStart(), 0).toSecondOfDay();
+        Map<Long, long[]> workingByPractitioner = new HashMap<>();
+        for (WorkingHoursInterval interval : workingHoursRepository.findAllIntervals()) {
+            long[] working = workingByPractitioner.computeIfAbsent(interval.practitionerId(), id -> new long[DAYS_OF_WEEK]);
+            working[interval.dayOfWeek().ordinal()] = DayOccupancy.mark(working[interval.dayOfWeek().ordinal()], opening,
+                    interval.startTime().toSecondOfDay(), interval.endTime().toSecondOfDay());
+        }
+
+        Map<Long, long[]> offHoursByPractitioner = new HashMap<>();
+        workingByPractitioner.forEach((practitionerId, working) -> {
+            long[] offHours = new long[DAYS_OF_WEEK];
+            for (int day = 0; day < DAYS_OF_WEEK; day++) {
+                offHours[day] = ~ working[day];
+            }
+            offHoursByPractitioner.put(practitionerId, offHours);
+        });
+        logger.debug("Working hours of {} practitioners loaded", offHoursByPractitioner.size());
+        return Collections.unmodifiableMap(offHoursByPractitioner);
+    }
+
+    private boolean isOnHalfHour(final LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && time.getMinute() % DayOccupancy.SLOT_MINUTES == 0;
+    }
+
+}
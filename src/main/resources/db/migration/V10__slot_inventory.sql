@@ -0,0 +1,20 @@
+-- Bookable slots of every practitioner generated ahead, one row per appointment type and half-hour start, for the
+-- slot-inventory booking mode. A booking claims its row and blocks the free rows overlapping it with FOR UPDATE SKIP
+-- LOCKED, so it never waits for another booking, and the availability of a type is an index-only scan of its free rows.
+-- The appointments stay the source of truth: rows are checked against them and the unavailability by a job.
+
+CREATE TABLE slot_inventory (
+    practitioner_id BIGINT NOT NULL,
+    appointment_type appointment_type_enum NOT NULL,
+    start_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    end_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    status VARCHAR(10) NOT NULL DEFAULT 'FREE',
+    CONSTRAINT pk_slot_inventory PRIMARY KEY (practitioner_id, appointment_type, start_at),
+    CONSTRAINT check_slot_inventory_status CHECK (status IN ('FREE', 'BOOKED', 'BLOCKED')),
+    CONSTRAINT fk_slot_inventory_practitioner FOREIGN KEY (practitioner_id) REFERENCES practitioner(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_slot_inventory_free ON slot_inventory (appointment_type, start_at) INCLUDE (practitioner_id) WHERE status = 'FREE';
+
+CREATE INDEX idx_slot_inventory_practitioner_id_tstzrange ON slot_inventory
+    USING gist (practitioner_id, tstzrange(start_at, end_at, '[)'));
@@ -0,0 +1,161 @@
+-- Appointments are partitioned by month of start_at, so availability and schedule queries only touch the indexes of
+-- the recent months, and old months are archived by detaching their partition instead of deleting rows. Partitions are
+-- bounded by midnight in the clinic time zone: appointments never cross it, so the overlap exclusion constraint, which
+-- Postgres only accepts per partition, still sees every appointment a new one could overlap.
+-- Unique constraints have to include the partition key, so the primary key becomes (id, start_at); ids stay unique
+-- through appointment_seq. Nothing references appointment(id) with a foreign key.
+-- Partitions of the coming months are created by the application (create_appointment_partition), appointments of
+-- months without a partition go to the default partition, and old months are moved to the appointment_archive table.
+
+ALTER TABLE appointment RENAME TO appointment_unpartitioned;
+ALTER TABLE appointment_unpartitioned
+    DROP CONSTRAINT appointment_pkey,
+    DROP CONSTRAINT unique_practitioner_schedule,
+    DROP CONSTRAINT exclude_practitioner_appointment_overlap;
+DROP INDEX idx_appointment_practitioner_id_time_range;
+DROP INDEX idx_appointment_id_time_range;
+ALTER SEQUENCE appointment_seq OWNED BY NONE;
+
+CREATE TABLE appointment (
+    id BIGINT NOT NULL DEFAULT nextval('appointment_seq'),
+    appointment_type appointment_type_enum NOT NULL,
+    patient_id BIGINT NOT NULL,
+    practitioner_id BIGINT NOT NULL,
+    start_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    end_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    comment TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT appointment_pkey PRIMARY KEY (id, start_at),
+    CONSTRAINT unique_practitioner_schedule UNIQUE (practitioner_id, start_at, end_at),
+    CONSTRAINT fk_appointment_patient FOREIGN KEY (patient_id) REFERENCES patient(id),
+    CONSTRAINT fk_appointment_practitioner FOREIGN KEY (practitioner_id) REFERENCES practitioner(id)
+) PARTITION BY RANGE (start_at);
+
+CREATE INDEX idx_appointment_practitioner_id_time_range ON appointment (practitioner_id, start_at, end_at);
+CREATE INDEX idx_appointment_id_time_range ON appointment (appointment_type, start_at, end_at);
+
+ALTER SEQUENCE appointment_seq OWNED BY appointment.id;
+
+CREATE TABLE appointment_default PARTITION OF appointment DEFAULT;
+ALTER TABLE appointment_default
+    ADD CONSTRAINT exclude_practitioner_appointment_overlap_default
+    EXCLUDE USING gist (practitioner_id WITH =, tstzrange(start_at, end_at, '[)') WITH &&);
+
+-- Creates the partition of the month unless it exists, moving the appointments of the month out of the default
+-- partition. Returns whether the partition was created.
+CREATE FUNCTION create_appointment_partition(p_month DATE, p_zone TEXT) RETURNS BOOLEAN AS $$
+DECLARE
+    month_start DATE := date_trunc('month', p_month::timestamp)::date;
+    suffix TEXT := to_char(month_start, 'YYYY_MM');
+    partition_name TEXT := 'appointment_' || suffix;
+    from_at TIMESTAMPTZ := month_start::timestamp AT TIME ZONE p_zone;
+    to_at TIMESTAMPTZ := (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE p_zone;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    -- Give up rather than queue bookings behind the locks, the next run retries
+    PERFORM set_config('lock_timeout', '5s', true);
+    EXECUTE format('CREATE TABLE %I (LIKE appointment)', partition_name);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                   '(practitioner_id WITH =, tstzrange(start_at, end_at, ''[)'') WITH &&)',
+                   partition_name, 'exclude_practitioner_appointment_overlap_' || suffix);
+    EXECUTE format('WITH moved AS (DELETE FROM appointment_default WHERE start_at >= $1 AND start_at < $2 RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM moved', partition_name)
+        USING from_at, to_at;
+    EXECUTE format('ALTER TABLE appointment ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', partition_name, from_at, to_at);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches the partitions of the months before p_before. No row is moved, so the lock taken on appointment is brief.
+-- Returns the number of partitions detached.
+CREATE FUNCTION detach_appointment_partitions(p_before DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT;
+    detached INTEGER := 0;
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    FOR partition_name IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'appointment'::regclass
+          AND CASE WHEN c.relname ~ '^appointment_[0-9]{4}_[0-9]{2}$'
+                   THEN to_date(substring(c.relname FROM 13), 'YYYY_MM') < p_before
+                   ELSE FALSE END
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE appointment DETACH PARTITION %I', partition_name);
+        detached := detached + 1;
+    END LOOP;
+    RETURN detached;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Attaches the detached monthly partitions to appointment_archive, without their overlap exclusion constraint and
+-- foreign keys, and moves the appointments before p_before left in the default partition to the archive.
+-- Returns the number of partitions archived.
+CREATE FUNCTION archive_detached_appointment_partitions(p_before DATE, p_zone TEXT) RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT;
+    suffix TEXT;
+    month_start DATE;
+    archived INTEGER := 0;
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    FOR partition_name IN
+        SELECT c.relname FROM pg_class c
+        WHERE c.relnamespace = (SELECT relnamespace FROM pg_class WHERE oid = 'appointment'::regclass)
+          AND c.relkind = 'r' AND NOT c.relispartition
+          AND c.relname ~ '^appointment_[0-9]{4}_[0-9]{2}$'
+        ORDER BY c.relname
+    LOOP
+        suffix := substring(partition_name FROM 13);
+        month_start := to_date(suffix, 'YYYY_MM');
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS %I, DROP CONSTRAINT IF EXISTS fk_appointment_patient, '
+                       'DROP CONSTRAINT IF EXISTS fk_appointment_practitioner',
+                       partition_name, 'exclude_practitioner_appointment_overlap_' || suffix);
+        EXECUTE format('ALTER TABLE appointment_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', partition_name,
+                       month_start::timestamp AT TIME ZONE p_zone, (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE p_zone);
+        archived := archived + 1;
+    END LOOP;
+    WITH moved AS (
+        DELETE FROM appointment_default WHERE start_at < p_before::timestamp AT TIME ZONE p_zone RETURNING *
+    )
+    INSERT INTO appointment_archive SELECT * FROM moved;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions from the month of the first appointment to three months ahead; later appointments go to the default
+-- partition until their month is created.
+DO $$
+DECLARE
+    partition_month DATE;
+BEGIN
+    FOR partition_month IN
+        SELECT generate_series(
+                   date_trunc('month', LEAST(COALESCE(r.first_start, now()), now()) AT TIME ZONE '${clinic-timezone}'),
+                   date_trunc('month', (now() + INTERVAL '3 months') AT TIME ZONE '${clinic-timezone}'),
+                   INTERVAL '1 month')::date
+        FROM (SELECT MIN(start_at) AS first_start FROM appointment_unpartitioned) r
+    LOOP
+        PERFORM create_appointment_partition(partition_month, '${clinic-timezone}');
+    END LOOP;
+END $$;
+
+INSERT INTO appointment SELECT * FROM appointment_unpartitioned;
+DROP TABLE appointment_unpartitioned;
+
+-- Row triggers of a partitioned table are cloned to every partition
+CREATE TRIGGER check_appointment_practitioner_availability
+    BEFORE INSERT OR UPDATE OF practitioner_id, start_at, end_at ON appointment
+    FOR EACH ROW EXECUTE FUNCTION check_appointment_practitioner_availability();
+
+-- Cold storage of the archived months, read by nothing but reports and audits: no overlap constraint nor foreign keys,
+-- so patients and practitioners can be removed while their history is kept.
+CREATE TABLE appointment_archive (LIKE appointment) PARTITION BY RANGE (start_at);
+ALTER TABLE appointment_archive ADD CONSTRAINT pk_appointment_archive PRIMARY KEY (id, start_at);
+CREATE INDEX idx_appointment_archive_practitioner_id_time_range ON appointment_archive (practitioner_id, start_at, end_at);
+CREATE TABLE appointment_archive_default PARTITION OF appointment_archive DEFAULT;
@@ -0,0 +1,5 @@
+-- Fingerprint of the request which created the appointment of an idempotency key, so that a key reused with another
+-- request is rejected instead of answered with an appointment the client did not ask for. Keys stored before this
+-- migration have no fingerprint and are replayed as before until they expire.
+
+ALTER TABLE appointment_idempotency_key ADD COLUMN request_fingerprint VARCHAR(64);
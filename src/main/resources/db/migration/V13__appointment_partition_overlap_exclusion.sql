@@ -0,0 +1,29 @@
+-- Since V11, each partition of appointment carries its own overlap exclusion constraint. A partition attached without
+-- it, such as a month restored from appointment_archive, lets overlapping appointments in: the constraint is added to
+-- every partition missing it, and the migration fails naming the overlapping appointments when some have to be
+-- removed first, rather than with the bare constraint creation error.
+
+DO $$
+DECLARE
+    overlapping TEXT;
+    partition_name TEXT;
+BEGIN
+    SELECT string_agg(format('%s and %s', a.id, b.id), ', ' ORDER BY a.id, b.id) INTO overlapping
+    FROM appointment a
+    JOIN appointment b ON b.practitioner_id = a.practitioner_id AND b.id > a.id
+                      AND b.start_at < a.end_at AND b.end_at > a.start_at;
+    IF overlapping IS NOT NULL THEN
+        RAISE EXCEPTION 'Overlapping appointments have to be removed before adding the overlap exclusion constraint: %', overlapping;
+    END IF;
+
+    FOR partition_name IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'appointment'::regclass
+          AND NOT EXISTS (SELECT 1 FROM pg_constraint con WHERE con.conrelid = c.oid AND con.contype = 'x')
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                       '(practitioner_id WITH =, tstzrange(start_at, end_at, ''[)'') WITH &&)',
+                       partition_name, 'exclude_practitioner_appointment_overlap_' || substring(partition_name FROM 13));
+    END LOOP;
+END $$;
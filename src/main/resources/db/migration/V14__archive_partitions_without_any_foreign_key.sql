@@ -0,0 +1,36 @@
+-- Archived partitions have to drop every foreign key and exclusion constraint they inherited, whatever its name: a
+-- foreign key left on an archived month keeps its patients and practitioners from being deleted. V11 only dropped the
+-- constraints by the names it declared them with.
+CREATE OR REPLACE FUNCTION archive_detached_appointment_partitions(p_before DATE, p_zone TEXT) RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT;
+    constraint_name TEXT;
+    month_start DATE;
+    archived INTEGER := 0;
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    FOR partition_name IN
+        SELECT c.relname FROM pg_class c
+        WHERE c.relnamespace = (SELECT relnamespace FROM pg_class WHERE oid = 'appointment'::regclass)
+          AND c.relkind = 'r' AND NOT c.relispartition
+          AND c.relname ~ '^appointment_[0-9]{4}_[0-9]{2}$'
+        ORDER BY c.relname
+    LOOP
+        month_start := to_date(substring(partition_name FROM 13), 'YYYY_MM');
+        FOR constraint_name IN
+            SELECT conname FROM pg_constraint
+            WHERE conrelid = quote_ident(partition_name)::regclass AND contype IN ('f', 'x')
+        LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, constraint_name);
+        END LOOP;
+        EXECUTE format('ALTER TABLE appointment_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', partition_name,
+                       month_start::timestamp AT TIME ZONE p_zone, (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE p_zone);
+        archived := archived + 1;
+    END LOOP;
+    WITH moved AS (
+        DELETE FROM appointment_default WHERE start_at < p_before::timestamp AT TIME ZONE p_zone RETURNING *
+    )
+    INSERT INTO appointment_archive SELECT * FROM moved;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,27 @@
+-- Identity columns prevent Hibernate from batching inserts, as every row has to be flushed on its own to learn its id.
+-- Ids are taken from sequences instead, allocated in blocks of 50 (pooled optimizer) so a block can be assigned
+-- in memory and the rows inserted in JDBC batches. Plain SQL inserts keep working through the column defaults.
+
+CREATE SEQUENCE patient_seq INCREMENT BY 50;
+SELECT setval('patient_seq', COALESCE((SELECT MAX(id) FROM patient), 0) + 50);
+ALTER TABLE patient ALTER COLUMN id SET DEFAULT nextval('patient_seq');
+ALTER SEQUENCE patient_seq OWNED BY patient.id;
+DROP SEQUENCE patient_id_seq;
+
+CREATE SEQUENCE practitioner_seq INCREMENT BY 50;
+SELECT setval('practitioner_seq', COALESCE((SELECT MAX(id) FROM practitioner), 0) + 50);
+ALTER TABLE practitioner ALTER COLUMN id SET DEFAULT nextval('practitioner_seq');
+ALTER SEQUENCE practitioner_seq OWNED BY practitioner.id;
+DROP SEQUENCE practitioner_id_seq;
+
+CREATE SEQUENCE practitioner_unavailability_seq INCREMENT BY 50;
+SELECT setval('practitioner_unavailability_seq', COALESCE((SELECT MAX(id) FROM practitioner_unavailability), 0) + 50);
+ALTER TABLE practitioner_unavailability ALTER COLUMN id SET DEFAULT nextval('practitioner_unavailability_seq');
+ALTER SEQUENCE practitioner_unavailability_seq OWNED BY practitioner_unavailability.id;
+DROP SEQUENCE practitioner_unavailability_id_seq;
+
+CREATE SEQUENCE appointment_seq INCREMENT BY 50;
+SELECT setval('appointment_seq', COALESCE((SELECT MAX(id) FROM appointment), 0) + 50);
+ALTER TABLE appointment ALTER COLUMN id SET DEFAULT nextval('appointment_seq');
+ALTER SEQUENCE appointment_seq OWNED BY appointment.id;
+DROP SEQUENCE appointment_id_seq;
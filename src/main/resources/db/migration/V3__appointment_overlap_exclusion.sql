@@ -0,0 +1,28 @@
+-- Overlapping appointments of a practitioner are rejected by the database itself, so a booking can be a single INSERT.
+-- The unique constraint only caught identical intervals, while this one catches any overlap, back-to-back bookings excluded.
+-- Existing overlapping appointments have to be removed before running this migration.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE appointment
+    ADD CONSTRAINT exclude_practitioner_appointment_overlap
+    EXCLUDE USING gist (practitioner_id WITH =, tstzrange(start_at, end_at, '[)') WITH &&);
+
+-- Unavailability lives in another table, which an exclusion constraint cannot reach: it is checked by a trigger
+-- running within the same INSERT, reported with the same error code as the exclusion constraint.
+CREATE FUNCTION check_appointment_practitioner_availability() RETURNS trigger AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM practitioner_unavailability pu
+               WHERE pu.practitioner_id = NEW.practitioner_id
+                 AND pu.start_at < NEW.end_at
+                 AND pu.end_at > NEW.start_at) THEN
+        RAISE EXCEPTION 'Practitioner % not available between % and %', NEW.practitioner_id, NEW.start_at, NEW.end_at
+            USING ERRCODE = 'exclusion_violation', CONSTRAINT = 'exclude_practitioner_unavailability_overlap';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER check_appointment_practitioner_availability
+    BEFORE INSERT OR UPDATE OF practitioner_id, start_at, end_at ON appointment
+    FOR EACH ROW EXECUTE FUNCTION check_appointment_practitioner_availability();
@@ -0,0 +1,11 @@
+-- Idempotency keys of the appointments created through POST /appointments, so that retried requests return the
+-- original appointment instead of booking again. Rows are written in the booking transaction and purged after their TTL.
+-- There is no foreign key to appointment, so keys can be purged and appointments removed independently.
+
+CREATE TABLE appointment_idempotency_key (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    appointment_id BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_appointment_idempotency_key_created_at ON appointment_idempotency_key (created_at);
@@ -0,0 +1,7 @@
+-- Dates the whole clinic is closed on (e.g. statutory holidays), instead of one practitioner_unavailability row per
+-- practitioner. Closures are loaded in memory by every node and checked before any availability or booking query.
+
+CREATE TABLE clinic_closure (
+    closure_date DATE PRIMARY KEY,
+    reason VARCHAR(255)
+);
@@ -0,0 +1,21 @@
+-- Weekly working hours of the practitioners who do not work the whole clinic hours, replacing the unavailability rows
+-- that were inserted for every day they are off. A practitioner without rows works the whole clinic hours, and one with
+-- rows only works within them. Templates are compiled into in-memory weekday masks by every node.
+
+CREATE TABLE practitioner_working_hours (
+    id BIGINT PRIMARY KEY,
+    practitioner_id BIGINT NOT NULL,
+    day_of_week VARCHAR(9) NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT check_practitioner_working_hours_range CHECK (start_time < end_time),
+    CONSTRAINT fk_practitioner_working_hours_practitioner FOREIGN KEY (practitioner_id) REFERENCES practitioner(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_practitioner_working_hours_practitioner_id ON practitioner_working_hours (practitioner_id);
+
+CREATE SEQUENCE practitioner_working_hours_seq INCREMENT BY 50;
+ALTER TABLE practitioner_working_hours ALTER COLUMN id SET DEFAULT nextval('practitioner_working_hours_seq');
+ALTER SEQUENCE practitioner_working_hours_seq OWNED BY practitioner_working_hours.id;
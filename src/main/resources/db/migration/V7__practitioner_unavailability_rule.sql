@@ -0,0 +1,34 @@
+-- Recurring unavailability of the practitioners, such as an admin block every Tuesday, replacing the unavailability
+-- rows that were inserted for every occurrence. Times are in the clinic time zone. Weekly rules repeat on day_of_week
+-- and monthly ones on day_of_month, skipping the months without that day, every repeat_interval weeks or months from
+-- starts_on until ends_on, or forever. Rules are expanded in memory for the queried window only.
+
+CREATE TABLE practitioner_unavailability_rule (
+    id BIGINT PRIMARY KEY,
+    practitioner_id BIGINT NOT NULL,
+    frequency VARCHAR(7) NOT NULL,
+    repeat_interval INT NOT NULL DEFAULT 1,
+    day_of_week VARCHAR(9),
+    day_of_month SMALLINT,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    starts_on DATE NOT NULL,
+    ends_on DATE,
+    reason VARCHAR(255),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT check_practitioner_unavailability_rule_recurrence CHECK (
+        (frequency = 'WEEKLY' AND day_of_week IS NOT NULL AND day_of_month IS NULL)
+        OR (frequency = 'MONTHLY' AND day_of_month BETWEEN 1 AND 31 AND day_of_week IS NULL)
+    ),
+    CONSTRAINT check_practitioner_unavailability_rule_interval CHECK (repeat_interval > 0),
+    CONSTRAINT check_practitioner_unavailability_rule_time_range CHECK (start_time < end_time),
+    CONSTRAINT check_practitioner_unavailability_rule_date_range CHECK (ends_on IS NULL OR starts_on <= ends_on),
+    CONSTRAINT fk_practitioner_unavailability_rule_practitioner FOREIGN KEY (practitioner_id) REFERENCES practitioner(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_practitioner_unavailability_rule_practitioner_id ON practitioner_unavailability_rule (practitioner_id);
+
+CREATE SEQUENCE practitioner_unavailability_rule_seq INCREMENT BY 50;
+ALTER TABLE practitioner_unavailability_rule ALTER COLUMN id SET DEFAULT nextval('practitioner_unavailability_rule_seq');
+ALTER SEQUENCE practitioner_unavailability_rule_seq OWNED BY practitioner_unavailability_rule.id;
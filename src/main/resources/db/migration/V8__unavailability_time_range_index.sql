@@ -0,0 +1,23 @@
+-- Unavailability overlapping a time range is looked up with the range overlap operator, served by GiST indexes on the
+-- same tstzrange(start_at, end_at, '[)') expression as the appointment exclusion constraint. The B-tree on
+-- (start_at, end_at) could only bound one side of an overlap, scanning every earlier row of a multi-year history.
+
+CREATE INDEX idx_unavailability_time_range ON practitioner_unavailability
+    USING gist (tstzrange(start_at, end_at, '[)'));
+
+CREATE INDEX idx_unavailability_practitioner_id_tstzrange ON practitioner_unavailability
+    USING gist (practitioner_id, tstzrange(start_at, end_at, '[)'));
+
+DROP INDEX idx_unavailability_practitioners_time_range;
+
+CREATE OR REPLACE FUNCTION check_appointment_practitioner_availability() RETURNS trigger AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM practitioner_unavailability pu
+               WHERE pu.practitioner_id = NEW.practitioner_id
+                 AND tstzrange(pu.start_at, pu.end_at, '[)') && tstzrange(NEW.start_at, NEW.end_at, '[)')) THEN
+        RAISE EXCEPTION 'Practitioner % not available between % and %', NEW.practitioner_id, NEW.start_at, NEW.end_at
+            USING ERRCODE = 'exclusion_violation', CONSTRAINT = 'exclude_practitioner_unavailability_overlap';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
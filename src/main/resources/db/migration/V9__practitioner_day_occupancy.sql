@@ -0,0 +1,13 @@
+-- Booked and unavailable half-hour slots of each practitioner-day, as bitmaps whose bit i stands for the slot starting
+-- i * 30 minutes after the clinic opening of the date, so the availability of a day is one narrow row per practitioner.
+-- Bookings set their slots with a single conditional upsert, which fails to update the row when any of them is taken.
+-- Rows are regenerated from appointment and practitioner_unavailability by a job, since the bits depend on the clinic hours.
+
+CREATE TABLE practitioner_day_occupancy (
+    clinic_date DATE NOT NULL,
+    practitioner_id BIGINT NOT NULL,
+    booked BIGINT NOT NULL DEFAULT 0,
+    unavailable BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_practitioner_day_occupancy PRIMARY KEY (clinic_date, practitioner_id),
+    CONSTRAINT fk_practitioner_day_occupancy_practitioner FOREIGN KEY (practitioner_id) REFERENCES practitioner(id) ON DELETE CASCADE
+);
@@ -1,7 +1,10 @@
 package com.janeapp.clinicscheduling.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.config.SlotHoldConfig;
 import com.janeapp.clinicscheduling.controller.json.AppointmentRequest;
+import com.janeapp.clinicscheduling.controller.json.SlotHoldRequest;
 import com.janeapp.clinicscheduling.controller.mapper.AppointmentMapper;
 import com.janeapp.clinicscheduling.controller.mapper.AppointmentTypeMapper;
 import com.janeapp.clinicscheduling.controller.mapper.PractitionerMapper;
@@ -14,6 +17,13 @@ import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
 import com.janeapp.clinicscheduling.repository.PatientRepository;
 import com.janeapp.clinicscheduling.repository.PractitionerRepository;
 import com.janeapp.clinicscheduling.service.AppointmentService;
+import com.janeapp.clinicscheduling.service.BookingResult;
+import com.janeapp.clinicscheduling.service.DailyTimeWindow;
+import com.janeapp.clinicscheduling.service.IdempotencyKeyReusedException;
+import com.janeapp.clinicscheduling.service.IdempotencyStore;
+import com.janeapp.clinicscheduling.service.NextAvailableSpot;
+import com.janeapp.clinicscheduling.service.PractitionerDirectory;
+import com.janeapp.clinicscheduling.service.SlotHold;
 import com.janeapp.clinicscheduling.service.TimeSlot;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -26,20 +36,29 @@ import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -48,11 +67,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @RunWith( SpringRunner.class )
 @WebMvcTest( AppointmentController.class )
-@Import( value = {PractitionerMapper.class, AppointmentTypeMapper.class, AppointmentMapper.class, ObjectMapper.class} )
+@Import( value = {PractitionerDirectory.class, PractitionerMapper.class, AppointmentTypeMapper.class, AppointmentMapper.class, ObjectMapper.class} )
 public class AppointmentControllerTest {
 
     private static final String HEADER_TIME_ZONE = "UTC";
 
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final String IDEMPOTENCY_KEY = "3f6c1a52-6d1e-4c5e-9a70-1b2f1de0b7a4";
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -65,6 +88,15 @@ public class AppointmentControllerTest {
     @MockitoBean
     private PatientRepository patientRepository;
 
+    @MockitoBean
+    private BookingConfig bookingConfig;
+
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockitoBean
+    private SlotHoldConfig slotHoldConfig;
+
     @MockitoSpyBean
     private AppointmentMapper mapper;
 
@@ -125,6 +157,111 @@ public class AppointmentControllerTest {
                 .andExpect(jsonPath("$.status", equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value())));
     }
 
+    @Test
+    public void shouldGetAvailableSpotsOfAllTypesSuccessfully() throws Exception {
+        // Given
+        LocalDate date = LocalDate.now();
+        Long practitionerId = 1l;
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(practitionerId);
+        Instant startTime = Instant.now().plus(1, ChronoUnit.DAYS);
+        Instant endTime = startTime.plus(AppointmentType.CHECK_IN.amount(), AppointmentType.CHECK_IN.unit());
+        Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> availableSpots = new EnumMap<>(AppointmentType.class);
+        availableSpots.put(AppointmentType.INITIAL, Map.of(practitioner, List.of()));
+        availableSpots.put(AppointmentType.STANDARD, Map.of(practitioner, List.of()));
+        availableSpots.put(AppointmentType.CHECK_IN, Map.of(practitioner, List.of(new TimeSlot(startTime, endTime))));
+
+        // Prepare
+        when(appointmentService.getAvailableSpotsByDate(date)).thenReturn(availableSpots);
+
+        // When a request happens, then
+        mockMvc.perform(get(String.format("/appointments?date=%s", date.format(DateTimeFormatter.ISO_DATE)))
+                        .contentType(APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(AppointmentType.values().length)))
+                .andExpect(jsonPath("$[0].type", equalTo(AppointmentType.INITIAL.name())))
+                .andExpect(jsonPath("$[0].availability[0].availableSlots", hasSize(0)))
+                .andExpect(jsonPath("$[2].type", equalTo(AppointmentType.CHECK_IN.name())))
+                .andExpect(jsonPath("$[2].availability[0].practitioner.id", is(practitionerId.intValue())))
+                .andExpect(jsonPath("$[2].availability[0].availableSlots[0].start", equalTo(mapper.formatDateTime(startTime, HEADER_TIME_ZONE))));
+        verify(appointmentService, never()).getAvailableSpotsByTypeAndDate(any(), any());
+    }
+
+    @Test
+    public void shouldGetAvailableSpotsByDateRangeSuccessfully() throws Exception {
+        // Given
+        AppointmentType appointmentType = AppointmentType.CHECK_IN;
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plus(1, ChronoUnit.DAYS);
+        Long practitionerId = 1l;
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(practitionerId);
+        Instant startTime = Instant.now().plus(1, ChronoUnit.DAYS);
+        Instant endTime = startTime.plus(appointmentType.amount(), appointmentType.unit());
+        SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> availableSpots = new TreeMap<>();
+        availableSpots.put(from, Map.of(practitioner, List.of()));
+        availableSpots.put(to, Map.of(practitioner, List.of(new TimeSlot(startTime, endTime))));
+
+        // Prepare
+        when(appointmentService.getAvailableSpotsByTypeAndDateRange(appointmentType, from, to)).thenReturn(availableSpots);
+
+        // When a request happens, then
+        mockMvc.perform(get(String.format("/appointments?type=%s&from=%s&to=%s", appointmentType.name(),
+                                from.format(DateTimeFormatter.ISO_DATE), to.format(DateTimeFormatter.ISO_DATE)))
+                        .contentType(APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(availableSpots.size())))
+                .andExpect(jsonPath("$[0].date", equalTo(from.format(DateTimeFormatter.ISO_DATE))))
+                .andExpect(jsonPath("$[0].availability[0].practitioner.id", is(practitionerId.intValue())))
+                .andExpect(jsonPath("$[0].availability[0].availableSlots", hasSize(0)))
+                .andExpect(jsonPath("$[1].date", equalTo(to.format(DateTimeFormatter.ISO_DATE))))
+                .andExpect(jsonPath("$[1].availability[0].availableSlots[0].start", equalTo(mapper.formatDateTime(startTime, HEADER_TIME_ZONE))))
+                .andExpect(jsonPath("$[1].availability[0].availableSlots[0].end", equalTo(mapper.formatDateTime(endTime, HEADER_TIME_ZONE))));
+        verify(appointmentService, never()).getAvailableSpotsByTypeAndDate(any(), any());
+    }
+
+    @Test
+    public void shouldGetNextAvailableSpotSuccessfully() throws Exception {
+        // Given
+        AppointmentType appointmentType = AppointmentType.STANDARD;
+        Long practitionerId = 1l;
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(practitionerId);
+        Instant after = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Instant startTime = after.plus(2, ChronoUnit.HOURS);
+        Instant endTime = startTime.plus(appointmentType.amount(), appointmentType.unit());
+        DailyTimeWindow window = new DailyTimeWindow(LocalTime.of(9, 0), LocalTime.of(12, 0), ZoneId.of(HEADER_TIME_ZONE));
+
+        // Prepare
+        when(practitionerRepository.findById(practitionerId)).thenReturn(Optional.of(practitioner));
+        when(appointmentService.getNextAvailableSpot(appointmentType, practitioner, after, window))
+                .thenReturn(new NextAvailableSpot(practitioner, appointmentType, new TimeSlot(startTime, endTime)));
+
+        // When a request happens, then
+        mockMvc.perform(get(String.format("/appointments/next-available?type=%s&practitionerId=%d&after=%s&fromTime=09:00&toTime=12:00",
+                                appointmentType.name(), practitionerId, after))
+                        .contentType(APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.practitioner.id", is(practitionerId.intValue())))
+                .andExpect(jsonPath("$.type", equalTo(appointmentType.name())))
+                .andExpect(jsonPath("$.slot.start", equalTo(mapper.formatDateTime(startTime, HEADER_TIME_ZONE))))
+                .andExpect(jsonPath("$.slot.end", equalTo(mapper.formatDateTime(endTime, HEADER_TIME_ZONE))));
+    }
+
+    @Test
+    public void shouldRequireBothEndsOfTheNextAvailableTimeWindow() throws Exception {
+        // When a request happens, then
+        mockMvc.perform(get("/appointments/next-available?fromTime=09:00")
+                        .contentType(APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("Both fromTime and toTime should be informed")));
+        verify(appointmentService, never()).getNextAvailableSpot(any(), any(), any(), any());
+    }
+
     @Test
     public void shouldCreateAppointmentSuccessfully() throws Exception {
         // Given
@@ -138,7 +275,7 @@ public class AppointmentControllerTest {
         when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
         Long appointmentId = 1l;
         Appointment mock = mock(Appointment.class);
-        when(appointmentService.addAppointment(any())).thenReturn(mock);
+        when(appointmentService.addAppointment(any(), isNull())).thenReturn(mock);
         when(mock.getId()).thenReturn(appointmentId);
 
         // When a request happens, then
@@ -148,6 +285,85 @@ public class AppointmentControllerTest {
                 .andExpect(jsonPath("$.id", is(appointmentId.intValue())));
     }
 
+    @Test
+    public void shouldReturnAppointmentCreatedWithTheSameIdempotencyKey() throws Exception {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        Patient patient = PatientFixture.randomPatient();
+        AppointmentRequest request = createRequest(practitioner, patient);
+        String requestBody = objectMapper.writeValueAsString(request);
+        Long appointmentId = 1L;
+
+        // Prepare
+        when(idempotencyStore.find(eq(IDEMPOTENCY_KEY), any())).thenReturn(Optional.of(appointmentId));
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments").contentType(APPLICATION_JSON).header("Idempotency-Key", IDEMPOTENCY_KEY).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(appointmentId.intValue())));
+        verify(appointmentService, never()).addAppointment(any(), any());
+        verify(patientRepository, never()).findById(any());
+    }
+
+    @Test
+    public void shouldCreateAppointmentWithNewIdempotencyKey() throws Exception {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        Patient patient = PatientFixture.randomPatient();
+        AppointmentRequest request = createRequest(practitioner, patient);
+        String requestBody = objectMapper.writeValueAsString(request);
+        Appointment appointment = new Appointment();
+        appointment.setId(1L);
+
+        // Prepare
+        when(idempotencyStore.find(eq(IDEMPOTENCY_KEY), any())).thenReturn(Optional.empty());
+        when(practitionerRepository.findById(request.practitionerId())).thenReturn(Optional.of(practitioner));
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        when(appointmentService.addAppointment(any(), eq(IDEMPOTENCY_KEY))).thenReturn(appointment);
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments").contentType(APPLICATION_JSON).header("Idempotency-Key", IDEMPOTENCY_KEY).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    public void shouldRejectIdempotencyKeyReusedWithAnotherRequest() throws Exception {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        Patient patient = PatientFixture.randomPatient();
+        AppointmentRequest request = createRequest(practitioner, patient);
+        String requestBody = objectMapper.writeValueAsString(request);
+
+        // Prepare
+        when(idempotencyStore.find(IDEMPOTENCY_KEY, mapper.fingerprintOf(request, HEADER_TIME_ZONE)))
+                .thenThrow(new IdempotencyKeyReusedException("The Idempotency-Key was already used with a different request"));
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments").contentType(APPLICATION_JSON).header("Idempotency-Key", IDEMPOTENCY_KEY).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message", equalTo("The Idempotency-Key was already used with a different request")));
+        verify(appointmentService, never()).addAppointment(any(), any());
+    }
+
+    @Test
+    public void shouldValidateIdempotencyKeyLength() throws Exception {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        Patient patient = PatientFixture.randomPatient();
+        String requestBody = objectMapper.writeValueAsString(createRequest(practitioner, patient));
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments").contentType(APPLICATION_JSON).header("Idempotency-Key", "k".repeat(256)).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("The Idempotency-Key should have between 1 and 255 characters")));
+        verify(idempotencyStore, never()).find(any(), any());
+    }
+
     @Test
     public void shouldValidateInvalidAppointmentType() throws Exception {
         // Given
@@ -241,6 +457,125 @@ public class AppointmentControllerTest {
                 .andExpect(jsonPath("$.status", equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value())));
     }
 
+    @Test
+    public void shouldHoldSlotSuccessfully() throws Exception {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Patient patient = PatientFixture.randomPatient();
+        patient.setId(2L);
+        SlotHoldRequest request = new SlotHoldRequest(patient.getId(), practitioner.getId(), "2025-02-24T09:00:00Z", AppointmentType.INITIAL.name(), null);
+        String requestBody = objectMapper.writeValueAsString(request);
+        Instant start = Instant.parse("2025-02-24T09:00:00Z");
+        SlotHold hold = new SlotHold("hold-1", practitioner.getId(), patient.getId(), start, start.plus(90, ChronoUnit.MINUTES),
+                Instant.parse("2025-02-24T08:05:00Z"));
+
+        // Prepare
+        when(slotHoldConfig.defaultTtl()).thenReturn(Duration.ofMinutes(5));
+        when(slotHoldConfig.maxTtl()).thenReturn(Duration.ofMinutes(15));
+        when(practitionerRepository.findById(request.practitionerId())).thenReturn(Optional.of(practitioner));
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        when(appointmentService.holdSlot(any(), eq(Duration.ofMinutes(5)))).thenReturn(hold);
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments/holds").contentType(APPLICATION_JSON).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", equalTo("hold-1")))
+                .andExpect(jsonPath("$.slot.start", equalTo("2025-02-24 09:00")))
+                .andExpect(jsonPath("$.slot.end", equalTo("2025-02-24 10:30")))
+                .andExpect(jsonPath("$.expiresAt", equalTo("2025-02-24T08:05:00Z")));
+    }
+
+    @Test
+    public void shouldValidateHoldDuration() throws Exception {
+        // Given
+        SlotHoldRequest request = new SlotHoldRequest(1L, 1L, "2025-02-24T09:00:00Z", AppointmentType.INITIAL.name(), 60);
+        String requestBody = objectMapper.writeValueAsString(request);
+
+        // Prepare
+        when(slotHoldConfig.maxTtl()).thenReturn(Duration.ofMinutes(15));
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments/holds").contentType(APPLICATION_JSON).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("A slot can be held between 1 and 15 minutes")));
+        verify(appointmentService, never()).holdSlot(any(), any());
+    }
+
+    @Test
+    public void shouldReleaseHold() throws Exception {
+        // Prepare
+        doThrow(new NoSuchElementException("Hold not found")).when(appointmentService).releaseHold("expired", 1L);
+
+        // When a request happens, then
+        mockMvc.perform(delete("/appointments/holds/hold-1").param("patientId", "1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/appointments/holds/expired").param("patientId", "1"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", equalTo("Hold not found")));
+        verify(appointmentService, times(1)).releaseHold("hold-1", 1L);
+    }
+
+    @Test
+    public void shouldRequirePatientToReleaseHold() throws Exception {
+        // When a request happens, then
+        mockMvc.perform(delete("/appointments/holds/hold-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("The patientId of the hold should be informed")));
+        verify(appointmentService, never()).releaseHold(any(), any());
+    }
+
+    @Test
+    public void shouldAddAppointmentsInBatchSuccessfully() throws Exception {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        Patient patient = PatientFixture.randomPatient();
+        AppointmentRequest request = createRequest(practitioner, patient);
+        AppointmentRequest unknownPatientRequest = new AppointmentRequest(2L, practitioner.getId(), createDate(), AppointmentType.INITIAL.name(), null);
+        String requestBody = objectMapper.writeValueAsString(List.of(request, unknownPatientRequest, request));
+        Appointment appointment = new Appointment();
+        appointment.setId(10L);
+
+        // Prepare
+        when(bookingConfig.maxBatchSize()).thenReturn(MAX_BATCH_SIZE);
+        when(practitionerRepository.findAll()).thenReturn(List.of(practitioner));
+        when(patientRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(patient));
+        when(appointmentService.addAppointments(anyList())).thenReturn(List.of(
+                BookingResult.booked(appointment), BookingResult.rejected("The requested time is not available")
+        ));
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments/batch").contentType(APPLICATION_JSON).content(requestBody))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].index", is(0)))
+                .andExpect(jsonPath("$[0].id", is(10)))
+                .andExpect(jsonPath("$[0].error", nullValue()))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].id", nullValue()))
+                .andExpect(jsonPath("$[1].error", equalTo("Patient not found")))
+                .andExpect(jsonPath("$[2].index", is(2)))
+                .andExpect(jsonPath("$[2].id", nullValue()))
+                .andExpect(jsonPath("$[2].error", equalTo("The requested time is not available")));
+        verify(patientRepository, never()).findById(any());
+    }
+
+    @Test
+    public void shouldValidateEmptyBatch() throws Exception {
+        // Prepare
+        when(bookingConfig.maxBatchSize()).thenReturn(MAX_BATCH_SIZE);
+
+        // When a request happens, then
+        mockMvc.perform(post("/appointments/batch").contentType(APPLICATION_JSON).content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo(String.format("A batch should have between 1 and %d appointments", MAX_BATCH_SIZE))));
+        verify(appointmentService, never()).addAppointments(any());
+    }
+
     private AppointmentRequest createRequest(Practitioner practitioner, Patient patient) {
         return createRequest(practitioner, patient, createDate(), AppointmentType.INITIAL.name());
     }
@@ -0,0 +1,105 @@
+package com.janeapp.clinicscheduling.controller;
+
+import com.janeapp.clinicscheduling.controller.mapper.ClinicClosureMapper;
+import com.janeapp.clinicscheduling.entity.ClinicClosure;
+import com.janeapp.clinicscheduling.service.ClinicClosures;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith( SpringRunner.class )
+@WebMvcTest( ClinicClosureController.class )
+@Import( value = {ClinicClosureMapper.class} )
+public class ClinicClosureControllerTest {
+
+    private static final LocalDate CHRISTMAS = LocalDate.of(2026, 12, 25);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ClinicClosures clinicClosures;
+
+    @Test
+    public void shouldGetClosuresOfTheRange() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(2026, 12, 1);
+        LocalDate to = LocalDate.of(2026, 12, 31);
+
+        // Prepare
+        when(clinicClosures.getClosures(from, to)).thenReturn(List.of(new ClinicClosure(CHRISTMAS, "Christmas Day")));
+
+        // When a request happens, then
+        mockMvc.perform(get("/closures")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .contentType(APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].date", equalTo("2026-12-25")))
+                .andExpect(jsonPath("$[0].reason", equalTo("Christmas Day")));
+    }
+
+    @Test
+    public void shouldCloseTheClinic() throws Exception {
+        // Prepare
+        when(clinicClosures.close(CHRISTMAS, "Christmas Day")).thenReturn(new ClinicClosure(CHRISTMAS, "Christmas Day"));
+
+        // When a request happens, then
+        mockMvc.perform(put("/closures/" + CHRISTMAS)
+                        .content("{\"reason\": \"Christmas Day\"}")
+                        .contentType(APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date", equalTo("2026-12-25")))
+                .andExpect(jsonPath("$.reason", equalTo("Christmas Day")));
+    }
+
+    @Test
+    public void shouldValidateClosureReasonLength() throws Exception {
+        // When a request happens, then
+        mockMvc.perform(put("/closures/" + CHRISTMAS)
+                        .content("{\"reason\": \"" + "a".repeat(256) + "\"}")
+                        .contentType(APPLICATION_JSON)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("The reason should have up to 255 characters")))
+                .andExpect(jsonPath("$.status", equalTo(HttpStatus.BAD_REQUEST.value())));
+        verify(clinicClosures, never()).close(any(), any());
+    }
+
+    @Test
+    public void shouldNotReopenDateThatIsNotClosed() throws Exception {
+        // Prepare
+        doThrow(new NoSuchElementException("Closure not found")).when(clinicClosures).reopen(CHRISTMAS);
+
+        // When a request happens, then
+        mockMvc.perform(delete("/closures/" + CHRISTMAS))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", equalTo("Closure not found")))
+                .andExpect(jsonPath("$.status", equalTo(HttpStatus.NOT_FOUND.value())));
+    }
+
+}
@@ -7,11 +7,13 @@ import com.janeapp.clinicscheduling.entity.Appointment;
 import com.janeapp.clinicscheduling.entity.AppointmentType;
 import com.janeapp.clinicscheduling.entity.Patient;
 import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
 import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
 import com.janeapp.clinicscheduling.entity.fixture.PatientFixture;
 import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
 import com.janeapp.clinicscheduling.repository.PatientRepository;
 import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import com.janeapp.clinicscheduling.service.PractitionerDirectory;
 import com.janeapp.clinicscheduling.service.PractitionerService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,22 +25,29 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.DayOfWeek;
 import java.time.Instant;
+import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith( SpringRunner.class )
 @WebMvcTest( PractitionerController.class )
-@Import( value = {PractitionerMapper.class, AppointmentTypeMapper.class, AppointmentMapper.class} )
+@Import( value = {PractitionerDirectory.class, PractitionerMapper.class, AppointmentTypeMapper.class, AppointmentMapper.class} )
 public class PractitionerControllerTest {
 
     private static final String HEADER_TIME_ZONE = "America/Los_Angeles";
@@ -142,4 +151,55 @@ public class PractitionerControllerTest {
                 .andExpect(jsonPath("$.status", equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value())));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldReplaceWorkingHoursSuccessfully() throws Exception {
+        // Given
+        Long practitionerId = 1l;
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(practitionerId);
+        PractitionerWorkingHours morning = new PractitionerWorkingHours();
+        morning.setDayOfWeek(DayOfWeek.MONDAY);
+        morning.setStartTime(LocalTime.of(9, 0));
+        morning.setEndTime(LocalTime.of(12, 30));
+
+        // Prepare
+        when(practitionerRepository.findById(practitionerId))
+                .thenReturn(Optional.of(practitioner));
+        when(practitionerService.replaceWorkingHours(any(Practitioner.class), anyList()))
+                .thenReturn(List.of(morning));
+
+        // When a request happens, then
+        mockMvc.perform(put("/practitioners/" + practitionerId + "/working-hours")
+                        .contentType(APPLICATION_JSON)
+                        .content("[{\"dayOfWeek\": \"MONDAY\", \"start\": \"09:00\", \"end\": \"12:30\"}]")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].dayOfWeek", equalTo("MONDAY")))
+                .andExpect(jsonPath("$[0].start", equalTo("09:00")))
+                .andExpect(jsonPath("$[0].end", equalTo("12:30")));
+    }
+
+    @Test
+    public void shouldValidateInvalidWorkingHours() throws Exception {
+        // Given
+        Long practitionerId = 1l;
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(practitionerId);
+
+        // Prepare
+        when(practitionerRepository.findById(practitionerId))
+                .thenReturn(Optional.of(practitioner));
+
+        // When a request happens, then
+        mockMvc.perform(put("/practitioners/" + practitionerId + "/working-hours")
+                        .contentType(APPLICATION_JSON)
+                        .content("[{\"dayOfWeek\": \"MONDAY\", \"start\": \"9am\", \"end\": \"12:30\"}]")
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("Working hours should have a day of week and times as HH:mm")))
+                .andExpect(jsonPath("$.status", equalTo(HttpStatus.BAD_REQUEST.value())));
+        verify(practitionerService, never()).replaceWorkingHours(any(), anyList());
+    }
+
+}
@@ -26,12 +26,14 @@ public class AppointmentFixture {
     public static Appointment withTimeAndPractitioner(final Instant time, final Practitioner practitioner) {
         Appointment appointment = withTimeAndType(time, AppointmentType.STANDARD);
         appointment.setPractitioner(practitioner);
+        appointment.setPatient(PatientFixture.randomPatient());
         return appointment;
     }
 
     public static Appointment withTimeAndPractitionerAndType(final Instant time, final Practitioner practitioner, AppointmentType appointmentType) {
         Appointment appointment = withTimeAndType(time, appointmentType);
         appointment.setPractitioner(practitioner);
+        appointment.setPatient(PatientFixture.randomPatient());
         return appointment;
     }
 
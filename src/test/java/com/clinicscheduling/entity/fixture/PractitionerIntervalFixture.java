@@ -0,0 +1,24 @@
+package com.janeapp.clinicscheduling.entity.fixture;
+
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.PractitionerUnavailability;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class PractitionerIntervalFixture {
+
+    public static List<PractitionerInterval> of(final Appointment... appointments) {
+        return Arrays.stream(appointments)
+                .map(a -> new PractitionerInterval(a.getPractitioner().getId(), a.getStartAt(), a.getEndAt()))
+                .toList();
+    }
+
+    public static List<PractitionerInterval> of(final PractitionerUnavailability... unavailability) {
+        return Arrays.stream(unavailability)
+                .map(pu -> new PractitionerInterval(pu.getPractitioner().getId(), pu.getStartAt(), pu.getEndAt()))
+                .toList();
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.entity.AppointmentIdempotencyKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AppointmentIdempotencyKeyRepositoryIntTest extends BaseIntTest {
+
+    private static final String FINGERPRINT = "0b5e8f5c3a1d4e7f9a2b6c8d0e1f3a5b7c9d1e3f5a7b9c1d3e5f7a9b1c3d5e7f";
+
+    @Autowired
+    private AppointmentIdempotencyKeyRepository appointmentIdempotencyKeyRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        // Keys are always new to Spring Data, which makes deleteAll skip them
+        appointmentIdempotencyKeyRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void shouldFindKeyCreatedWithinTheGivenTime() {
+        // Given
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 10L, now));
+
+        // When
+        Optional<AppointmentIdempotencyKey> found = appointmentIdempotencyKeyRepository.findByKeyCreatedAfter("key-1", now.minus(1, ChronoUnit.HOURS));
+        Optional<AppointmentIdempotencyKey> expired = appointmentIdempotencyKeyRepository.findByKeyCreatedAfter("key-1", now);
+
+        // Then
+        assertThat(found.isPresent(), is(true));
+        assertThat(found.get().getAppointmentId(), equalTo(10L));
+        assertThat(found.get().getRequestFingerprint(), equalTo(FINGERPRINT));
+        assertThat(expired.isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldNotOverwriteExistingKey() {
+        // Given
+        appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 10L, Instant.now()));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 20L, Instant.now())));
+
+        // Then
+        assertThat(exception, instanceOf(DataIntegrityViolationException.class));
+    }
+
+    @Test
+    public void shouldReplaceExpiredKeyNotPurgedYet() {
+        // Given
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 10L, now.minus(2, ChronoUnit.DAYS)));
+
+        // When
+        int stored = appointmentIdempotencyKeyRepository.insertOrReplaceExpired("key-1", FINGERPRINT, 20L, now, now.minus(1, ChronoUnit.DAYS));
+
+        // Then
+        assertThat(stored, equalTo(1));
+        AppointmentIdempotencyKey key = appointmentIdempotencyKeyRepository.findById("key-1").orElseThrow();
+        assertThat(key.getAppointmentId(), equalTo(20L));
+        assertThat(key.getCreatedAt(), equalTo(now));
+    }
+
+    @Test
+    public void shouldNotReplaceKeyThatHasNotExpired() {
+        // Given
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 10L, now));
+
+        // When
+        int stored = appointmentIdempotencyKeyRepository.insertOrReplaceExpired("key-1", FINGERPRINT, 20L, now, now.minus(1, ChronoUnit.DAYS));
+
+        // Then
+        assertThat(stored, equalTo(0));
+        assertThat(appointmentIdempotencyKeyRepository.findById("key-1").orElseThrow().getAppointmentId(), equalTo(10L));
+    }
+
+    @Test
+    public void shouldDeleteExpiredKeys() {
+        // Given
+        Instant now = Instant.now();
+        appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("expired", FINGERPRINT, 10L, now.minus(2, ChronoUnit.DAYS)));
+        appointmentIdempotencyKeyRepository.saveAndFlush(new AppointmentIdempotencyKey("recent", FINGERPRINT, 20L, now));
+
+        // When
+        int deleted = appointmentIdempotencyKeyRepository.deleteCreatedBefore(now.minus(1, ChronoUnit.DAYS));
+
+        // Then
+        assertThat(deleted, equalTo(1));
+        assertThat(appointmentIdempotencyKeyRepository.findById("expired").isPresent(), is(false));
+        assertThat(appointmentIdempotencyKeyRepository.findById("recent").isPresent(), is(true));
+    }
+
+}
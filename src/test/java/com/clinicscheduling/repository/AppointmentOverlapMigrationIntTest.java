@@ -0,0 +1,99 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the migrations up to the overlap exclusion constraint of the partitions (V13) against appointments of a
+ * separate schema, whose default partition lost its constraint like a partition attached without it.
+ */
+public class AppointmentOverlapMigrationIntTest extends BaseIntTest {
+
+    private static final String SCHEMA = "overlap_migration";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BusinessHoursConfig businessHoursConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        flyway("12").migrate();
+        // The appointments below are of a month without partition, so they go to the default one
+        jdbcTemplate.execute("ALTER TABLE " + SCHEMA + ".appointment_default DROP CONSTRAINT exclude_practitioner_appointment_overlap_default");
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".patient (id, first_name, last_name, email, phone, street, city, country, created_at, updated_at) " +
+                "VALUES (1, 'Jane', 'Doe', 'jane@doe.com', '555-0100', '1 Main St', 'Vancouver', 'Canada', now(), now())");
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".practitioner (id, first_name, last_name, email, phone, created_at, updated_at) " +
+                "VALUES (1, 'John', 'Smith', 'john@smith.com', '555-0101', now(), now())");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    public void shouldFailNamingTheOverlappingAppointments() {
+        // Given
+        insertAppointment(10, "2025-02-24T17:00:00Z", "2025-02-24T18:00:00Z");
+        insertAppointment(20, "2025-02-24T17:30:00Z", "2025-02-24T18:30:00Z");
+        insertAppointment(30, "2025-02-24T18:30:00Z", "2025-02-24T19:00:00Z");
+
+        // When
+        FlywayException exception = assertThrows(FlywayException.class, () -> flyway("13").migrate());
+
+        // Then
+        assertThat(exception.getMessage(), containsString(
+                "Overlapping appointments have to be removed before adding the overlap exclusion constraint: 10 and 20"));
+        assertThat(exception.getMessage(), not(containsString("20 and 30")));
+    }
+
+    @Test
+    public void shouldAddTheConstraintWhenAppointmentsDoNotOverlap() {
+        // Given
+        insertAppointment(10, "2025-02-24T17:00:00Z", "2025-02-24T18:00:00Z");
+        insertAppointment(20, "2025-02-24T18:00:00Z", "2025-02-24T18:30:00Z");
+
+        // When
+        flyway("13").migrate();
+
+        // Then
+        Integer constraints = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint " +
+                "WHERE conname = 'exclude_practitioner_appointment_overlap_default' AND connamespace = ?::regnamespace", Integer.class, SCHEMA);
+        assertThat(constraints, equalTo(1));
+    }
+
+    private Flyway flyway(final String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .target(target)
+                .placeholders(Map.of("clinic-timezone", businessHoursConfig.timezone()))
+                .load();
+    }
+
+    private void insertAppointment(final long id, final String startAt, final String endAt) {
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".appointment (id, appointment_type, patient_id, practitioner_id, start_at, end_at, created_at, updated_at) " +
+                "VALUES (?, 'STANDARD', 1, 1, ?::timestamptz, ?::timestamptz, now(), now())", id, startAt, endAt);
+    }
+
+}
@@ -8,16 +8,27 @@ import com.janeapp.clinicscheduling.entity.Practitioner;
 import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
 import com.janeapp.clinicscheduling.entity.fixture.PatientFixture;
 import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerUnavailabilityFixture;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -25,6 +36,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class AppointmentRepositoryIntTest extends BaseIntTest {
 
+    private static final String ARCHIVED_PARTITION = "appointment_2001_01";
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -34,11 +47,26 @@ public class AppointmentRepositoryIntTest extends BaseIntTest {
     @Autowired
     private PractitionerRepository practitionerRepository;
 
+    @Autowired
+    private PractitionerUnavailabilityRepository practitionerUnavailabilityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @AfterEach
     public void cleanUp() {
         appointmentRepository.deleteAll();
+        practitionerUnavailabilityRepository.deleteAll();
         patientRepository.deleteAll();
         practitionerRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createNativeQuery("DROP TABLE IF EXISTS " + ARCHIVED_PARTITION).executeUpdate());
     }
 
     @Test
@@ -155,6 +183,69 @@ public class AppointmentRepositoryIntTest extends BaseIntTest {
         assertThat(appointments, hasSize(0));
     }
 
+    @Test
+    public void shouldFindAppointmentsOfEveryTypeOverlappingAGivenTimeRange() {
+        // Given
+        Instant startAt1 = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Appointment appointment1 = appointmentRepository.save(createAppointmentDetails(startAt1, AppointmentType.INITIAL, null));
+        Appointment appointment2 = appointmentRepository.save(createAppointmentDetails(startAt1.plus(2, ChronoUnit.HOURS), AppointmentType.CHECK_IN, null));
+        appointmentRepository.save(createAppointmentDetails(startAt1.plus(5, ChronoUnit.HOURS), AppointmentType.STANDARD, null));
+
+        // When
+        Instant startSearch = startAt1.plus(1, ChronoUnit.HOURS); // Starts in the middle of the first appointment
+        Instant endSearch = startAt1.plus(5, ChronoUnit.HOURS); // Ends right when the third appointment starts
+        List<PractitionerInterval> intervals = appointmentRepository.findPractitionerIntervalsByRange(startSearch, endSearch);
+
+        // Then
+        assertThat(intervals, containsInAnyOrder(
+                new PractitionerInterval(appointment1.getPractitioner().getId(), appointment1.getStartAt(), appointment1.getEndAt()),
+                new PractitionerInterval(appointment2.getPractitioner().getId(), appointment2.getStartAt(), appointment2.getEndAt())
+        ));
+    }
+
+    @Test
+    public void shouldFindIntervalsOfTheGivenPractitionersOverlappingAGivenTimeRange() {
+        // Given
+        Practitioner practitioner1 = saveRandomPractitioner();
+        Practitioner practitioner2 = saveRandomPractitioner();
+        Instant startAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Appointment appointment1 = appointmentRepository.save(createAppointmentDetails(saveRandomPatient(), practitioner1, startAt));
+        appointmentRepository.save(createAppointmentDetails(saveRandomPatient(), practitioner2, startAt));
+        appointmentRepository.save(createAppointmentDetails(saveRandomPatient(), practitioner1, startAt.plus(5, ChronoUnit.HOURS)));
+
+        // When
+        List<PractitionerInterval> intervals = appointmentRepository.findPractitionerIntervalsByRange(
+                startAt, startAt.plus(5, ChronoUnit.HOURS), List.of(practitioner1.getId()));
+
+        // Then
+        assertThat(intervals, contains(
+                new PractitionerInterval(practitioner1.getId(), appointment1.getStartAt(), appointment1.getEndAt())
+        ));
+    }
+
+    @Test
+    public void shouldFindFreeSlotStartsOfEveryPractitioner() {
+        // Given
+        Practitioner practitioner1 = saveRandomPractitioner();
+        Practitioner practitioner2 = saveRandomPractitioner();
+        Instant startAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        appointmentRepository.save(AppointmentFixture.withAllDetails(startAt.plus(30, ChronoUnit.MINUTES), AppointmentType.STANDARD,
+                saveRandomPatient(), practitioner1));
+        practitionerUnavailabilityRepository.save(PractitionerUnavailabilityFixture.withTime(
+                practitioner2, startAt.minus(3, ChronoUnit.DAYS), startAt.plus(2, ChronoUnit.HOURS)));
+
+        // When
+        List<FreeSlotStart> freeStarts = appointmentRepository.findFreeSlotStarts(startAt, startAt.plus(3, ChronoUnit.HOURS), 60);
+
+        // Then
+        assertThat(freeStarts, contains(
+                new FreeSlotStart(practitioner1.getId(), startAt.plus(2, ChronoUnit.HOURS)),
+                new FreeSlotStart(practitioner1.getId(), startAt.plus(3, ChronoUnit.HOURS)),
+                new FreeSlotStart(practitioner2.getId(), startAt.plus(2, ChronoUnit.HOURS)),
+                new FreeSlotStart(practitioner2.getId(), startAt.plus(3, ChronoUnit.HOURS))
+        ));
+    }
+
     @Test
     public void shouldFindFindAppointmentForAGivenPractitionerAndTime() {
         // Given
@@ -187,6 +278,27 @@ public class AppointmentRepositoryIntTest extends BaseIntTest {
     }
 
 
+    @Test
+    public void shouldFindAppointmentsOfAPractitionerWithPatientsInASingleStatement() {
+        // Given
+        Practitioner practitioner = saveRandomPractitioner();
+        Instant startAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < 3; i++) {
+            appointmentRepository.save(createAppointmentDetails(saveRandomPatient(), practitioner, startAt.plus(2L * i, ChronoUnit.HOURS)));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<Appointment> appointments = appointmentRepository.findPractitionerAppointmentsByTimeRange(
+                startAt, startAt.plus(1, ChronoUnit.DAYS), practitioner);
+        List<String> patientNames = appointments.stream().map(a -> a.getPatient().fullName()).toList(); // As done by the response mapping
+
+        // Then
+        assertThat(patientNames, hasSize(3));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
     @Test
     public void shouldNotAllowAppointmentCreationForSamePractitionerAndScheduleTime() {
         // Given
@@ -203,10 +315,122 @@ public class AppointmentRepositoryIntTest extends BaseIntTest {
 
         // Then
         assertThat(firstAttempt, not(nullValue()));
-        assertThat(secondAttempt.getMessage(), containsString("ERROR: duplicate key value violates unique constraint \"unique_practitioner_schedule\""));
+        // A month partition checks its overlap exclusion constraint before the unique index it gets once attached, the
+        // default partition the other way round
+        assertThat(secondAttempt.getMessage(), anyOf(
+                containsString("ERROR: duplicate key value violates unique constraint"),
+                containsString("ERROR: conflicting key value violates exclusion constraint \"exclude_practitioner_appointment_overlap_")));
         assertThat(secondAttempt, instanceOf(DataIntegrityViolationException.class));
     }
 
+    @Test
+    public void shouldNotAllowOverlappingAppointmentsForSamePractitioner() {
+        // Given
+        Practitioner practitioner = saveRandomPractitioner();
+        Instant schedule = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Appointment appointment1 = createAppointmentDetails(saveRandomPatient(), practitioner, schedule);
+        Appointment appointment2 = createAppointmentDetails(saveRandomPatient(), practitioner, schedule.plus(1, ChronoUnit.HOURS)); // INITIAL lasts 90 minutes
+        Appointment appointment3 = createAppointmentDetails(saveRandomPatient(), practitioner, appointment1.getEndAt());
+
+        // When
+        Appointment firstAttempt = appointmentRepository.save(appointment1);
+        RuntimeException overlappingAttempt = assertThrows(RuntimeException.class, () -> appointmentRepository.save(appointment2));
+        Appointment backToBackAttempt = appointmentRepository.save(appointment3);
+
+        // Then
+        assertThat(firstAttempt.getId(), not(nullValue()));
+        assertThat(overlappingAttempt.getMessage(), containsString("exclude_practitioner_appointment_overlap"));
+        assertThat(overlappingAttempt, instanceOf(DataIntegrityViolationException.class));
+        assertThat(backToBackAttempt.getId(), not(nullValue()));
+    }
+
+    @Test
+    public void shouldNotAllowAppointmentCreationDuringPractitionerUnavailability() {
+        // Given
+        Practitioner practitioner = saveRandomPractitioner();
+        Instant schedule = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        practitionerUnavailabilityRepository.save(PractitionerUnavailabilityFixture.withTime(
+                practitioner, schedule.plus(1, ChronoUnit.HOURS), schedule.plus(2, ChronoUnit.HOURS)));
+        Appointment appointment = createAppointmentDetails(saveRandomPatient(), practitioner, schedule);
+
+        // When
+        RuntimeException attempt = assertThrows(RuntimeException.class, () -> appointmentRepository.save(appointment));
+
+        // Then
+        // Inserts are sent in JDBC batches, which leave the constraint named by the trigger out of the message
+        assertThat(attempt.getMessage(), containsString(String.format("ERROR: Practitioner %s not available between", practitioner.getId())));
+        assertThat(attempt, instanceOf(DataIntegrityViolationException.class));
+    }
+
+    @Test
+    public void shouldLockPractitionerDayUntilTheTransactionCompletes() {
+        // Given
+        int practitionerKey = Long.hashCode(saveRandomPractitioner().getId());
+        int dayKey = (int) LocalDate.now().toEpochDay();
+
+        // When
+        Boolean lockedByOtherTransaction = transactionTemplate.execute(status -> {
+            appointmentRepository.lockPractitionerDay(practitionerKey, dayKey);
+            return CompletableFuture.supplyAsync(() -> tryLockPractitionerDay(practitionerKey, dayKey)).join();
+        });
+        Boolean lockedAfterCommit = CompletableFuture.supplyAsync(() -> tryLockPractitionerDay(practitionerKey, dayKey)).join();
+
+        // Then
+        assertThat(lockedByOtherTransaction, is(false));
+        assertThat(lockedAfterCommit, is(true));
+    }
+
+    @Test
+    public void shouldWaitForTheLockOfTheSamePractitionerDayOnly() throws Exception {
+        // Given
+        int practitionerKey = Long.hashCode(saveRandomPractitioner().getId());
+        int dayKey = (int) LocalDate.now().toEpochDay();
+        AtomicReference<CompletableFuture<Integer>> sameDay = new AtomicReference<>();
+
+        // When
+        Integer otherDay = transactionTemplate.execute(status -> {
+            appointmentRepository.lockPractitionerDay(practitionerKey, dayKey);
+            sameDay.set(CompletableFuture.supplyAsync(() -> lockPractitionerDayInNewTransaction(practitionerKey, dayKey)));
+            assertThrows(TimeoutException.class, () -> sameDay.get().get(1, TimeUnit.SECONDS));
+            return CompletableFuture.supplyAsync(() -> lockPractitionerDayInNewTransaction(practitionerKey, dayKey + 1)).join();
+        });
+
+        // Then
+        assertThat(otherDay, equalTo(1));
+        assertThat(sameDay.get().get(10, TimeUnit.SECONDS), equalTo(1));
+    }
+
+    @Test
+    public void shouldMoveAppointmentsToTheirMonthPartitionAndArchiveOldMonths() {
+        // Given
+        ZoneId zone = ZoneId.of("America/Vancouver");
+        LocalDate month = LocalDate.of(2001, 1, 1);
+        Appointment appointment = appointmentRepository.save(
+                createAppointmentDetails(month.atTime(10, 0).atZone(zone).toInstant(), AppointmentType.STANDARD, null));
+
+        // When
+        boolean created = appointmentRepository.createPartition(month, zone.getId());
+        boolean createdAgain = appointmentRepository.createPartition(month, zone.getId());
+        boolean foundInPartition = appointmentRepository.findById(appointment.getId()).isPresent();
+        int detached = appointmentRepository.detachPartitionsBefore(month.plusMonths(1));
+        int archived = appointmentRepository.archiveDetachedPartitions(month.plusMonths(1), zone.getId());
+
+        // Then
+        assertThat(List.of(created, createdAgain, foundInPartition), contains(true, false, true));
+        assertThat(List.of(detached, archived), contains(1, 1));
+        assertThat(appointmentRepository.findById(appointment.getId()).isPresent(), is(false));
+        Object archivedPartition = entityManager
+                .createNativeQuery("SELECT CAST(CAST(tableoid AS regclass) AS text) FROM appointment_archive WHERE id = :id")
+                .setParameter("id", appointment.getId())
+                .getSingleResult();
+        assertThat(archivedPartition, equalTo(ARCHIVED_PARTITION));
+        Object archivedForeignKeys = entityManager
+                .createNativeQuery("SELECT COUNT(*) FROM pg_constraint WHERE conrelid = CAST(:partition AS regclass) AND contype = 'f'")
+                .setParameter("partition", ARCHIVED_PARTITION)
+                .getSingleResult();
+        assertThat(((Number) archivedForeignKeys).intValue(), equalTo(0));
+    }
+
     @Test
     public void shouldNotUpdateStaledAppointmentInformation() {
         // Given
@@ -251,6 +475,18 @@ public class AppointmentRepositoryIntTest extends BaseIntTest {
         return appointment;
     }
 
+    private Integer lockPractitionerDayInNewTransaction(final int practitionerKey, final int dayKey) {
+        return transactionTemplate.execute(status -> appointmentRepository.lockPractitionerDay(practitionerKey, dayKey));
+    }
+
+    private Boolean tryLockPractitionerDay(final int practitionerKey, final int dayKey) {
+        return transactionTemplate.execute(status -> (Boolean) entityManager
+                .createNativeQuery("SELECT pg_try_advisory_xact_lock(:practitionerKey, :dayKey)")
+                .setParameter("practitionerKey", practitionerKey)
+                .setParameter("dayKey", dayKey)
+                .getSingleResult());
+    }
+
     public Practitioner saveRandomPractitioner() {
         return practitionerRepository.save(PractitionerFixture.randomPractitioner());
     }
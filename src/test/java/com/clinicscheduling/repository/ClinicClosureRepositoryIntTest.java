@@ -0,0 +1,53 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.entity.ClinicClosure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ClinicClosureRepositoryIntTest extends BaseIntTest {
+
+    @Autowired
+    private ClinicClosureRepository clinicClosureRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        clinicClosureRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldFindClosuresWithinTheRangeInDateOrder() {
+        // Given
+        clinicClosureRepository.saveAndFlush(new ClinicClosure(LocalDate.of(2027, 1, 1), "New Year's Day"));
+        clinicClosureRepository.saveAndFlush(new ClinicClosure(LocalDate.of(2026, 12, 25), "Christmas Day"));
+        clinicClosureRepository.saveAndFlush(new ClinicClosure(LocalDate.of(2026, 11, 11), "Remembrance Day"));
+
+        // When
+        List<ClinicClosure> closures = clinicClosureRepository.findByDateBetweenOrderByDate(LocalDate.of(2026, 12, 1), LocalDate.of(2027, 1, 1));
+
+        // Then
+        assertThat(closures.stream().map(ClinicClosure::getDate).toList(),
+                contains(LocalDate.of(2026, 12, 25), LocalDate.of(2027, 1, 1)));
+    }
+
+    @Test
+    public void shouldUpdateTheReasonOfAnExistingClosure() {
+        // Given
+        clinicClosureRepository.saveAndFlush(new ClinicClosure(LocalDate.of(2026, 12, 25), "Holiday"));
+
+        // When
+        clinicClosureRepository.saveAndFlush(new ClinicClosure(LocalDate.of(2026, 12, 25), "Christmas Day"));
+
+        // Then
+        assertThat(clinicClosureRepository.count(), equalTo(1L));
+        assertThat(clinicClosureRepository.findById(LocalDate.of(2026, 12, 25)).orElseThrow().getReason(), equalTo("Christmas Day"));
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.InventorySlot;
+import com.janeapp.clinicscheduling.entity.Patient;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PatientFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InventorySlotRepositoryIntTest extends BaseIntTest {
+
+    private static final Instant OPENING = Instant.parse("2026-12-01T17:00:00Z");
+
+    @Autowired
+    private InventorySlotRepository inventorySlotRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PractitionerRepository practitionerRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanUp() {
+        inventorySlotRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        practitionerRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldGenerateSlotsOnceBlockingTheTakenOnes() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        Patient patient = patientRepository.save(PatientFixture.randomPatient());
+        appointmentRepository.save(AppointmentFixture.withAllDetails(OPENING.plus(1, ChronoUnit.HOURS), AppointmentType.STANDARD, patient, practitioner));
+
+        // When
+        int generated = inventorySlotRepository.generate("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS), 60);
+        int regenerated = inventorySlotRepository.generate("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS), 60);
+
+        // Then
+        // Slots are generated for every practitioner, including the ones other tests left
+        long practitionerSlots = inventorySlotRepository.findAll().stream()
+                .filter(slot -> slot.getPractitionerId().equals(practitioner.getId()))
+                .count();
+        assertThat(practitionerSlots, equalTo(5L));
+        assertThat(generated, greaterThanOrEqualTo(5));
+        assertThat(regenerated, equalTo(0));
+        List<FreeSlotStart> freeStarts = inventorySlotRepository.findFreeSlotStarts("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS)).stream()
+                .filter(freeStart -> freeStart.practitionerId().equals(practitioner.getId()))
+                .toList();
+        assertThat(freeStarts, contains(
+                new FreeSlotStart(practitioner.getId(), OPENING),
+                new FreeSlotStart(practitioner.getId(), OPENING.plus(2, ChronoUnit.HOURS))));
+    }
+
+    @Test
+    public void shouldClaimFreeSlotsOnceAndKeepThemInLineWithTheAppointments() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        inventorySlotRepository.generate("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS), 60);
+
+        // When
+        int first = inventorySlotRepository.claim(practitioner.getId(), "STANDARD", OPENING);
+        int second = inventorySlotRepository.claim(practitioner.getId(), "STANDARD", OPENING);
+        int blocked = inventorySlotRepository.blockOverlapping(practitioner.getId(), OPENING, OPENING.plus(1, ChronoUnit.HOURS));
+        // The claim was rolled back with its appointment, so the checker frees it again
+        int freed = inventorySlotRepository.freeReleased(OPENING);
+
+        // Then
+        assertThat(List.of(first, second, blocked, freed), contains(1, 0, 1, 2));
+        assertThat(inventorySlotRepository.findAll().stream().map(InventorySlot::getStatus).toList(),
+                everyItem(equalTo(InventorySlot.Status.FREE)));
+        assertThat(inventorySlotRepository.findById(new InventorySlot.Key(practitioner.getId(), AppointmentType.STANDARD, OPENING)).isPresent(),
+                equalTo(true));
+    }
+
+    @Test
+    public void shouldSkipTheSlotHeldByAnotherBookingUntilItRollsBack() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        inventorySlotRepository.generate("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS), 60);
+
+        // When
+        List<Integer> claims = transactionTemplate.execute(status -> {
+            int held = inventorySlotRepository.claim(practitioner.getId(), "STANDARD", OPENING);
+            // Waiting for the row lock instead of skipping it would never complete
+            int skipped = CompletableFuture.supplyAsync(() -> inventorySlotRepository.claim(practitioner.getId(), "STANDARD", OPENING)).join();
+            status.setRollbackOnly();
+            return List.of(held, skipped);
+        });
+        int claimedAfterRollback = inventorySlotRepository.claim(practitioner.getId(), "STANDARD", OPENING);
+
+        // Then
+        assertThat(claims, contains(1, 0));
+        assertThat(claimedAfterRollback, equalTo(1));
+    }
+
+    @Test
+    public void shouldFailTheRepeatableReadCheckOfSlotsBookedAfterItStarted() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        Patient patient = patientRepository.save(PatientFixture.randomPatient());
+        inventorySlotRepository.generate("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS), 60);
+        // Written outside of the application, so the overlapping slots are still free
+        appointmentRepository.save(AppointmentFixture.withAllDetails(OPENING, AppointmentType.STANDARD, patient, practitioner));
+        TransactionTemplate check = new TransactionTemplate(transactionManager);
+        check.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        // When
+        ConcurrencyFailureException exception = assertThrows(ConcurrencyFailureException.class, () -> check.execute(status -> {
+            inventorySlotRepository.findFreeSlotStarts("STANDARD", OPENING, OPENING.plus(2, ChronoUnit.HOURS));
+            CompletableFuture.runAsync(() -> inventorySlotRepository.claim(practitioner.getId(), "STANDARD", OPENING)).join();
+            return inventorySlotRepository.blockTaken(OPENING);
+        }));
+
+        // Then
+        assertThat(exception.getMessage(), containsString("could not serialize access due to concurrent update"));
+        assertThat(inventorySlotRepository.findById(new InventorySlot.Key(practitioner.getId(), AppointmentType.STANDARD, OPENING))
+                .map(InventorySlot::getStatus).orElseThrow(), equalTo(InventorySlot.Status.BOOKED));
+    }
+
+}
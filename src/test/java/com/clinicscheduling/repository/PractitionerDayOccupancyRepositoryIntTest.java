@@ -0,0 +1,88 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerDayOccupancy;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PractitionerDayOccupancyRepositoryIntTest extends BaseIntTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 12, 1);
+
+    @Autowired
+    private PractitionerDayOccupancyRepository dayOccupancyRepository;
+
+    @Autowired
+    private PractitionerRepository practitionerRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        // Rows are always new to Spring Data, which makes deleteAll skip them
+        dayOccupancyRepository.deleteAllInBatch();
+        practitionerRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldBookSlotsUnlessAnyOfThemIsTaken() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        PractitionerDayOccupancy unavailable = new PractitionerDayOccupancy(DATE, practitioner.getId());
+        unavailable.setUnavailable(0b1L << 10);
+        dayOccupancyRepository.saveAndFlush(unavailable);
+
+        // When
+        int first = dayOccupancyRepository.book(DATE, practitioner.getId(), 0b11L);
+        int overlapping = dayOccupancyRepository.book(DATE, practitioner.getId(), 0b110L);
+        int duringUnavailability = dayOccupancyRepository.book(DATE, practitioner.getId(), 0b11L << 9);
+        int backToBack = dayOccupancyRepository.book(DATE, practitioner.getId(), 0b11L << 2);
+
+        // Then
+        assertThat(List.of(first, overlapping, duringUnavailability, backToBack), contains(1, 0, 0, 1));
+        PractitionerDayOccupancy row = dayOccupancyRepository.findByClinicDateBetween(DATE, DATE).get(0);
+        assertThat(row.getBooked(), equalTo(0b1111L));
+        assertThat(row.getUnavailable(), equalTo(0b1L << 10));
+    }
+
+    @Test
+    public void shouldCreateTheRowOfThePractitionerDayOnTheFirstBooking() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+
+        // When
+        int booked = dayOccupancyRepository.book(DATE.plusDays(1), practitioner.getId(), 0b11L << 4);
+
+        // Then
+        assertThat(booked, equalTo(1));
+        assertThat(dayOccupancyRepository.findByClinicDateBetween(DATE, DATE), empty());
+        assertThat(dayOccupancyRepository.findByClinicDateBetween(DATE.plusDays(1), DATE.plusDays(1)).get(0).getBooked(), equalTo(0b11L << 4));
+    }
+
+    @Test
+    public void shouldLockTheRowOfThePractitionerDayBeforeReplacingItsSlots() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        dayOccupancyRepository.book(DATE, practitioner.getId(), 0b11L);
+
+        // When
+        int existing = dayOccupancyRepository.lockDay(DATE, practitioner.getId());
+        int missing = dayOccupancyRepository.lockDay(DATE.plusDays(1), practitioner.getId());
+        int updated = dayOccupancyRepository.updateDay(DATE.plusDays(1), practitioner.getId(), 0b11L << 2, 0b1L);
+
+        // Then
+        assertThat(List.of(existing, missing, updated), contains(1, 1, 1));
+        assertThat(dayOccupancyRepository.findByClinicDateBetween(DATE, DATE).get(0).getBooked(), equalTo(0b11L));
+        PractitionerDayOccupancy row = dayOccupancyRepository.findByClinicDateBetween(DATE.plusDays(1), DATE.plusDays(1)).get(0);
+        assertThat(row.getBooked(), equalTo(0b11L << 2));
+        assertThat(row.getUnavailable(), equalTo(0b1L));
+    }
+
+}
@@ -162,4 +162,31 @@ public class PractitionerUnavailabilityRepositoryIntTest extends BaseIntTest {
         assertThat(unavailabilityList, hasSize(0));
     }
 
+    @Test
+    public void shouldFindPractitionerIntervalsOverlappingAGivenTimeRange() {
+        // Given
+        Instant startSearch = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        Instant endSearch = startSearch.plus(8, ChronoUnit.HOURS);
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        Practitioner otherPractitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        // A leave started the day before, one within the range, one ending as the range starts and one of another practitioner
+        Instant leaveStart = startSearch.minus(1, ChronoUnit.DAYS);
+        practitionerUnavailabilityRepository.save(PractitionerUnavailabilityFixture.withTime(practitioner, leaveStart, startSearch.plus(1, ChronoUnit.HOURS)));
+        practitionerUnavailabilityRepository.save(PractitionerUnavailabilityFixture.withTime(practitioner, startSearch.plus(3, ChronoUnit.HOURS), startSearch.plus(4, ChronoUnit.HOURS)));
+        practitionerUnavailabilityRepository.save(PractitionerUnavailabilityFixture.withTime(practitioner, startSearch.minus(2, ChronoUnit.HOURS), startSearch));
+        practitionerUnavailabilityRepository.save(PractitionerUnavailabilityFixture.withTime(otherPractitioner, startSearch, endSearch));
+
+        // When
+        List<PractitionerInterval> overlapping = practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(startSearch, endSearch);
+        List<PractitionerInterval> overlappingForPractitioner = practitionerUnavailabilityRepository
+                .findPractitionerIntervalsOverlappingByPractitioners(startSearch, endSearch, List.of(practitioner.getId()));
+
+        // Then
+        assertThat(overlapping, containsInAnyOrder(
+                new PractitionerInterval(practitioner.getId(), leaveStart, startSearch.plus(1, ChronoUnit.HOURS)),
+                new PractitionerInterval(practitioner.getId(), startSearch.plus(3, ChronoUnit.HOURS), startSearch.plus(4, ChronoUnit.HOURS)),
+                new PractitionerInterval(otherPractitioner.getId(), startSearch, endSearch)));
+        assertThat(overlappingForPractitioner, hasSize(2));
+    }
+
 }
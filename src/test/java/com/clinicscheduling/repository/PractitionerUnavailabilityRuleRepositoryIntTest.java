@@ -0,0 +1,78 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerUnavailabilityRule;
+import com.janeapp.clinicscheduling.entity.PractitionerUnavailabilityRule.Frequency;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PractitionerUnavailabilityRuleRepositoryIntTest extends BaseIntTest {
+
+    @Autowired
+    private PractitionerRepository practitionerRepository;
+
+    @Autowired
+    private PractitionerUnavailabilityRuleRepository ruleRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        ruleRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldFindRulesNotEndedBeforeTheDate() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        ruleRepository.saveAndFlush(weeklyRule(practitioner, LocalDate.of(2026, 1, 1), null));
+        ruleRepository.saveAndFlush(weeklyRule(practitioner, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)));
+
+        // When
+        List<RecurringUnavailability> rules = ruleRepository.findRulesEndingFrom(LocalDate.of(2026, 3, 1));
+
+        // Then
+        assertThat(rules, contains(new RecurringUnavailability(practitioner.getId(), Frequency.WEEKLY, 1, DayOfWeek.TUESDAY,
+                null, LocalTime.of(12, 0), LocalTime.of(13, 0), LocalDate.of(2026, 1, 1), null)));
+    }
+
+    @Test
+    public void shouldNotAllowWeeklyRuleWithoutDayOfWeek() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        PractitionerUnavailabilityRule rule = weeklyRule(practitioner, LocalDate.of(2026, 1, 1), null);
+        rule.setDayOfWeek(null);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> ruleRepository.saveAndFlush(rule));
+
+        // Then
+        assertThat(exception.getMessage(), containsString("check_practitioner_unavailability_rule_recurrence"));
+        assertThat(exception.getCause(), instanceOf(ConstraintViolationException.class));
+    }
+
+    private PractitionerUnavailabilityRule weeklyRule(final Practitioner practitioner, final LocalDate startsOn, final LocalDate endsOn) {
+        PractitionerUnavailabilityRule rule = new PractitionerUnavailabilityRule();
+        rule.setPractitioner(practitioner);
+        rule.setFrequency(Frequency.WEEKLY);
+        rule.setDayOfWeek(DayOfWeek.TUESDAY);
+        rule.setStartTime(LocalTime.of(12, 0));
+        rule.setEndTime(LocalTime.of(13, 0));
+        rule.setStartsOn(startsOn);
+        rule.setEndsOn(endsOn);
+        rule.setReason("Admin block");
+        return rule;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.janeapp.clinicscheduling.repository;
+
+import com.janeapp.clinicscheduling.BaseIntTest;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PractitionerWorkingHoursRepositoryIntTest extends BaseIntTest {
+
+    @Autowired
+    private PractitionerRepository practitionerRepository;
+
+    @Autowired
+    private PractitionerWorkingHoursRepository workingHoursRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        workingHoursRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldFindIntervalsOfAllPractitioners() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        workingHoursRepository.saveAndFlush(workingHours(practitioner, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0)));
+        workingHoursRepository.saveAndFlush(workingHours(practitioner, DayOfWeek.TUESDAY, LocalTime.of(13, 30), LocalTime.of(17, 0)));
+
+        // When
+        List<WorkingHoursInterval> intervals = workingHoursRepository.findAllIntervals();
+
+        // Then
+        assertThat(intervals, containsInAnyOrder(
+                new WorkingHoursInterval(practitioner.getId(), DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                new WorkingHoursInterval(practitioner.getId(), DayOfWeek.TUESDAY, LocalTime.of(13, 30), LocalTime.of(17, 0))));
+        assertThat(workingHoursRepository.findByPractitioner(practitioner), hasSize(2));
+    }
+
+    @Test
+    public void shouldNotAllowWorkingHoursEndingBeforeTheyStart() {
+        // Given
+        Practitioner practitioner = practitionerRepository.save(PractitionerFixture.randomPractitioner());
+        PractitionerWorkingHours workingHours = workingHours(practitioner, DayOfWeek.MONDAY, LocalTime.of(12, 0), LocalTime.of(9, 0));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> workingHoursRepository.saveAndFlush(workingHours));
+
+        // Then
+        assertThat(exception.getCause(), instanceOf(ConstraintViolationException.class));
+    }
+
+    private PractitionerWorkingHours workingHours(final Practitioner practitioner, final DayOfWeek dayOfWeek,
+                                                  final LocalTime start, final LocalTime end) {
+        PractitionerWorkingHours workingHours = new PractitionerWorkingHours();
+        workingHours.setPractitioner(practitioner);
+        workingHours.setDayOfWeek(dayOfWeek);
+        workingHours.setStartTime(start);
+        workingHours.setEndTime(end);
+        return workingHours;
+    }
+
+}
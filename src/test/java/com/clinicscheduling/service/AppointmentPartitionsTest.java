@@ -0,0 +1,77 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.AppointmentPartitionsConfig;
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.*;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class AppointmentPartitionsTest {
+
+    private static final String CLINIC_ZONE = "America/Vancouver";
+
+    private static final BusinessHoursConfig CONFIG = new BusinessHoursConfig(CLINIC_ZONE, 9, 17, 5, false, 2);
+
+    // Still February 28th in the clinic time zone
+    private static final Instant NOW = Instant.parse("2026-03-01T05:00:00Z");
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentPartitionsConfig config;
+
+    @InjectMocks
+    private AppointmentPartitions appointmentPartitions;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(appointmentPartitions, "clinicCalendar", new ClinicCalendar(CONFIG, Clock.fixed(NOW, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void shouldCreateTheComingMonthsAndArchiveTheOnesPastTheRetention() {
+        // Prepare
+        when(config.monthsAhead()).thenReturn(2);
+        when(config.retentionMonths()).thenReturn(12);
+        when(appointmentRepository.createPartition(any(LocalDate.class), eq(CLINIC_ZONE))).thenReturn(false, false, true);
+
+        // When
+        appointmentPartitions.maintain();
+
+        // Then
+        verify(appointmentRepository).createPartition(LocalDate.of(2026, 2, 1), CLINIC_ZONE);
+        verify(appointmentRepository).createPartition(LocalDate.of(2026, 3, 1), CLINIC_ZONE);
+        verify(appointmentRepository).createPartition(LocalDate.of(2026, 4, 1), CLINIC_ZONE);
+        verify(appointmentRepository).detachPartitionsBefore(LocalDate.of(2025, 2, 1));
+        verify(appointmentRepository).archiveDetachedPartitions(LocalDate.of(2025, 2, 1), CLINIC_ZONE);
+        verifyNoMoreInteractions(appointmentRepository);
+    }
+
+    @Test
+    void shouldLeaveThePartitionsToTheNextRunWhenTheyCannotBeLocked() {
+        // Prepare
+        when(config.monthsAhead()).thenReturn(0);
+        when(config.retentionMonths()).thenReturn(12);
+        when(appointmentRepository.detachPartitionsBefore(any(LocalDate.class))).thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // When
+        appointmentPartitions.maintain();
+
+        // Then
+        verify(appointmentRepository, never()).archiveDetachedPartitions(any(LocalDate.class), any());
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.janeapp.clinicscheduling.service;
 
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import com.janeapp.clinicscheduling.config.BookingConfig;
 import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
 import com.janeapp.clinicscheduling.entity.Appointment;
 import com.janeapp.clinicscheduling.entity.AppointmentType;
@@ -7,20 +9,37 @@ import com.janeapp.clinicscheduling.entity.Practitioner;
 import com.janeapp.clinicscheduling.entity.PractitionerUnavailability;
 import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
 import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerIntervalFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerUnavailabilityFixture;
 import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.FreeSlotStart;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
 import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.*;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -53,277 +72,1767 @@ public class AppointmentServiceTest {
 
     private static final String SPOTS_AVAILABILITY_ERROR_MSG = "No appointments available for the given date";
 
+    private static final int MAX_RANGE_DAYS = 31;
+
+    private static final String SPOTS_RANGE_ERROR_MSG = "The date range should have between 1 and %d days";
+
+    private static final int NEXT_AVAILABLE_HORIZON_DAYS = 90;
+
+    private static final String NEXT_AVAILABLE_ERROR_MSG = "No appointments available within the next %d days";
+
+    private static final String SLOT_HELD_MSG = "The requested time is on hold";
+
+    private static final String IDEMPOTENCY_KEY = "3f6c1a52-6d1e-4c5e-9a70-1b2f1de0b7a4";
+
+    private static final String TIME_WINDOW_ERROR_MSG = "The time window should start before it ends";
+
+    private static final String CLINIC_CLOSED_MSG = "Bookings cannot be made for days the clinic is closed";
+
+    private static final String WORKING_HOURS_MSG = "The practitioner does not work at the requested time";
+
     @Mock
     private AppointmentRepository appointmentRepository;
 
     @Mock
     private PractitionerUnavailabilityRepository practitionerUnavailabilityRepository;
 
-    @Mock
-    private BusinessHoursConfig businessHoursConfig;
+    @Mock
+    private BusinessHoursConfig businessHoursConfig;
+
+    @Mock
+    private PractitionerService practitionerService;
+
+    @Mock
+    private AvailabilityConfig availabilityConfig;
+
+    @Mock
+    private BookingConfig bookingConfig;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private FreeIntervalCache freeIntervalCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PractitionerBookingLocks bookingLocks;
+
+    @Mock
+    private Lock lock;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private SlotHolds slotHolds;
+
+    @Mock
+    private GroupCommitBookingWriter groupCommitWriter;
+
+    @Mock
+    private ClinicClosures clinicClosures;
+
+    @Mock
+    private WorkingHours workingHours;
+
+    @Mock
+    private UnavailabilityRules unavailabilityRules;
+
+    @Mock
+    private DayOccupancyTable dayOccupancyTable;
+
+    @Mock
+    private SlotInventory slotInventory;
+
+    @InjectMocks
+    private AppointmentService appointmentService;
+
+    @InjectMocks
+    private QueryBookingStrategy queryBookingStrategy;
+
+    @InjectMocks
+    private ConstraintBookingStrategy constraintBookingStrategy;
+
+    @InjectMocks
+    private AdvisoryLockBookingStrategy advisoryLockBookingStrategy;
+
+    @InjectMocks
+    private OccupancyTableBookingStrategy occupancyTableBookingStrategy;
+
+    @InjectMocks
+    private SlotInventoryBookingStrategy slotInventoryBookingStrategy;
+
+    @BeforeEach
+    public void setUp() {
+        // The clinic calendar only reads the time zone when a date is looked up
+        lenient().when(businessHoursConfig.timezone()).thenReturn(CLINIC_PST_TIMEZONE);
+        lenient().when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        ClinicCalendar clinicCalendar = new ClinicCalendar(businessHoursConfig, Clock.systemUTC());
+        ReflectionTestUtils.setField(appointmentService, "clinicCalendar", clinicCalendar);
+        ReflectionTestUtils.setField(advisoryLockBookingStrategy, "clinicCalendar", clinicCalendar);
+        ReflectionTestUtils.setField(appointmentService, "bookingStrategies", List.of(queryBookingStrategy, constraintBookingStrategy,
+                advisoryLockBookingStrategy, occupancyTableBookingStrategy, slotInventoryBookingStrategy));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsWithCompleteAvailability() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.size(), equalTo(practitioners.size()));
+        assertThat(availableSpots.get(practitioner1), hasSize(8));
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsByTypeAndDateConsideringPractitionersAppointments() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        Practitioner practitioner3 = PractitionerFixture.randomPractitioner();
+        practitioner3.setId(3l);
+        Instant appointment1Time = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment1 = AppointmentFixture.withTimeAndPractitionerAndType(appointment1Time, practitioner1, initialAppointmentType);
+        Instant appointment2Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 3, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment2 = AppointmentFixture.withTimeAndPractitionerAndType(appointment2Time, practitioner3, initialAppointmentType);
+        Instant appointment3Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 4, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment3 = AppointmentFixture.withTimeAndPractitionerAndType(appointment3Time, practitioner3, initialAppointmentType);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2, practitioner3);
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(PractitionerIntervalFixture.of(appointment1, appointment2, appointment3));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.size(), equalTo(practitioners.size()));
+        assertThat(availableSpots.get(practitioner1), hasSize(7));
+        assertThat(availableSpots.get(practitioner1), not(hasItem(
+                new TimeSlot(appointment1.getStartAt(), appointment1.getEndAt())))
+        );
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+        assertThat(availableSpots.get(practitioner3), hasSize(6));
+        assertThat(availableSpots.get(practitioner3), not(hasItems(
+                new TimeSlot(appointment2.getStartAt(), appointment2.getEndAt()),
+                new TimeSlot(appointment3.getStartAt(), appointment3.getEndAt())
+        )));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsByTypeAndDateConsideringPractitionersUnavailability() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+
+        Instant practitioner1UnavailabilityTime = date.atTime(CLINIC_PST_AMPM_START_HOUR + 3, 30).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        PractitionerUnavailability practitioner1Unavailability = new PractitionerUnavailability();
+        practitioner1Unavailability.setPractitioner(practitioner1);
+        practitioner1Unavailability.setStartAt(practitioner1UnavailabilityTime);
+        practitioner1Unavailability.setEndAt(practitioner1UnavailabilityTime.plus(1, ChronoUnit.HOURS));
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(PractitionerIntervalFixture.of(practitioner1Unavailability));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.size(), equalTo(practitioners.size()));
+        assertThat(availableSpots.get(practitioner1), hasSize(6));
+        assertThat(availableSpots.get(practitioner1), not(hasItems(
+                // The practitioner is unavailability for 30 min and given that the appointment is Standard, this will block 2 lots
+                new TimeSlot(practitioner1Unavailability.getStartAt(), practitioner1Unavailability.getEndAt()),
+                new TimeSlot(practitioner1Unavailability.getStartAt().plus(1, ChronoUnit.HOURS), practitioner1Unavailability.getEndAt().plus(1, ChronoUnit.HOURS))
+        )));
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsWithinPractitionersWorkingHours() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+
+        // The first practitioner only works the first 3 hours of the day
+        long morning = DayOccupancy.mark(0L, 0, 0, Duration.ofHours(3).toSeconds());
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(workingHours.offHours(1l, date.getDayOfWeek())).thenReturn(~ morning);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        assertThat(availableSpots.get(practitioner1), hasSize(3));
+        assertThat(availableSpots.get(practitioner1).get(0), equalTo(new TimeSlot(opening, opening.plus(1, ChronoUnit.HOURS))));
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsConsideringUnavailabilityStartedOnPreviousDays() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+        // A leave of several years, ending at noon of the searched date
+        Instant leaveStart = date.minusYears(3).atStartOfDay(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Instant leaveEnd = date.atTime(12, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(new PractitionerInterval(1l, leaveStart, leaveEnd)));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.get(practitioner1), hasSize(5));
+        assertThat(availableSpots.get(practitioner1).get(0), equalTo(new TimeSlot(leaveEnd, leaveEnd.plus(1, ChronoUnit.HOURS))));
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsConsideringRecurringUnavailability() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+        Instant adminBlock = date.atTime(12, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(unavailabilityRules.expand(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(new PractitionerInterval(1l, adminBlock, adminBlock.plus(1, ChronoUnit.HOURS))));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.get(practitioner), hasSize(7));
+        assertThat(availableSpots.get(practitioner), not(hasItem(new TimeSlot(adminBlock, adminBlock.plus(1, ChronoUnit.HOURS)))));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsFromTheOccupancyTableInOccupancyTableMode() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        ClinicDayOccupancy storedOccupancy = new ClinicDayOccupancy(opening.getEpochSecond());
+        storedOccupancy.mark(1l, DayOccupancy.mark(0L, 0, 0, Duration.ofHours(2).toSeconds()));
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.OCCUPANCY_TABLE);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner1, practitioner2));
+        when(dayOccupancyTable.load(date, date)).thenReturn(Map.of(date, storedOccupancy));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.get(practitioner1), hasSize(6));
+        assertThat(availableSpots.get(practitioner1).get(0), equalTo(new TimeSlot(opening.plus(2, ChronoUnit.HOURS), opening.plus(3, ChronoUnit.HOURS))));
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class));
+        verifyNoInteractions(practitionerUnavailabilityRepository);
+    }
+
+    @Test
+    void shouldGetAvailableSpotsFromTheDatabaseEngine() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+
+        // The first practitioner only works the first 3 hours of the day
+        long morning = DayOccupancy.mark(0L, 0, 0, Duration.ofHours(3).toSeconds());
+
+        // Prepare
+        when(availabilityConfig.engine()).thenReturn(AvailabilityConfig.Engine.DATABASE);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(workingHours.offHours(1l, date.getDayOfWeek())).thenReturn(~ morning);
+        when(appointmentRepository.findFreeSlotStarts(opening, opening.plus(7, ChronoUnit.HOURS), 60))
+                .thenReturn(List.of(
+                        new FreeSlotStart(1l, opening),
+                        new FreeSlotStart(1l, opening.plus(4, ChronoUnit.HOURS)),
+                        new FreeSlotStart(2l, opening.plus(1, ChronoUnit.HOURS)),
+                        new FreeSlotStart(2l, opening.plus(3, ChronoUnit.HOURS))
+                ));
+        // The second practitioner has a recurring unavailability 3 hours after the opening
+        when(unavailabilityRules.overlaps(anyLong(), any(Instant.class), any(Instant.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(2l)
+                        && invocation.getArgument(1).equals(opening.plus(3, ChronoUnit.HOURS)));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.get(practitioner1), contains(new TimeSlot(opening, opening.plus(1, ChronoUnit.HOURS))));
+        assertThat(availableSpots.get(practitioner2), contains(new TimeSlot(opening.plus(1, ChronoUnit.HOURS), opening.plus(2, ChronoUnit.HOURS))));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class));
+        verifyNoInteractions(practitionerUnavailabilityRepository, availabilityCache);
+    }
+
+    @Test
+    void shouldGetAvailableSpotsFromTheSlotInventoryInSlotInventoryMode() {
+        // Given
+        AppointmentType appointmentType = AppointmentType.CHECK_IN;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.SLOT_INVENTORY);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(slotInventory.getFreeSlotStarts(appointmentType, opening, opening.plus(450, ChronoUnit.MINUTES)))
+                .thenReturn(List.of(new FreeSlotStart(1l, opening.plus(30, ChronoUnit.MINUTES))));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(appointmentType, date);
+
+        // Then
+        assertThat(availableSpots.get(practitioner), contains(new TimeSlot(opening.plus(30, ChronoUnit.MINUTES), opening.plus(1, ChronoUnit.HOURS))));
+        verify(appointmentRepository, never()).findFreeSlotStarts(any(Instant.class), any(Instant.class), anyInt());
+        verifyNoInteractions(practitionerUnavailabilityRepository, availabilityCache);
+    }
+
+    @Test
+    void shouldNotReturnAvailabilityForPastDate() {
+        // Given
+        AppointmentType appointmentType = mock(AppointmentType.class);
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).minus(2, ChronoUnit.DAYS);
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.getAvailableSpotsByTypeAndDate(appointmentType, date));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(SPOTS_AVAILABILITY_ERROR_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).findPractitionerIntervalsOverlapping(any(), any());
+        verify(practitionerService, never()).getAllPractitioners();
+    }
+
+    @Test
+    void shouldNotReturnAvailabilityForClinicClosure() {
+        // Given
+        AppointmentType appointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(clinicClosures.isClosed(date)).thenReturn(true);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.getAvailableSpotsByTypeAndDate(appointmentType, date));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(SPOTS_AVAILABILITY_ERROR_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(availabilityCache, never()).getIfPresent(any());
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).findPractitionerIntervalsOverlapping(any(), any());
+        verify(practitionerService, never()).getAllPractitioners();
+    }
+
+    @Test
+    void shouldNotReturnAvailabilityWhenTimeIsOutOfBusinessNoticeRange() {
+        // Given
+        AppointmentType appointmentType = mock(AppointmentType.class);
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE));
+
+        // Prepare
+        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        ZonedDateTime zdt = ZonedDateTime.of(date, LocalTime.of(CLINIC_PST_AMPM_END_HOUR - APPOINTMENT_NOTICE_HOURS, 0), ZoneId.of(CLINIC_PST_TIMEZONE));
+        ReflectionTestUtils.setField(appointmentService, "clinicCalendar",
+                new ClinicCalendar(businessHoursConfig, Clock.fixed(zdt.toInstant(), ZoneOffset.UTC)));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.getAvailableSpotsByTypeAndDate(appointmentType, date));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(SPOTS_AVAILABILITY_ERROR_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).findPractitionerIntervalsOverlapping(any(), any());
+        verify(practitionerService, never()).getAllPractitioners();
+    }
+
+    @Test
+    void shouldGetAvailableSpotsByTypeAndDateConsideringPractitionersUnavailabilityAndAppointments() {
+        // Given
+        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        Practitioner practitioner3 = PractitionerFixture.randomPractitioner();
+        practitioner3.setId(3l);
+        Instant appointment1Time = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment1 = AppointmentFixture.withTimeAndPractitionerAndType(appointment1Time, practitioner1, initialAppointmentType);
+        Instant appointment2Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 3, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment2 = AppointmentFixture.withTimeAndPractitionerAndType(appointment2Time, practitioner3, initialAppointmentType);
+        Instant appointment3Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 4, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment3 = AppointmentFixture.withTimeAndPractitionerAndType(appointment3Time, practitioner3, initialAppointmentType);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2, practitioner3);
+
+        Instant practitioner3UnavailabilityTime = date.atTime(CLINIC_PST_AMPM_START_HOUR + 5, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        PractitionerUnavailability practitioner3Unavailability = new PractitionerUnavailability();
+        practitioner3Unavailability.setPractitioner(practitioner3);
+        practitioner3Unavailability.setStartAt(practitioner3UnavailabilityTime);
+        practitioner3Unavailability.setEndAt(practitioner3UnavailabilityTime.plus(1, ChronoUnit.HOURS));
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(PractitionerIntervalFixture.of(appointment1, appointment2, appointment3));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.size(), equalTo(practitioners.size()));
+        assertThat(availableSpots.get(practitioner1), hasSize(7));
+        assertThat(availableSpots.get(practitioner1), not(hasItem(
+                new TimeSlot(appointment1.getStartAt(), appointment1.getEndAt())))
+        );
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+        assertThat(availableSpots.get(practitioner3), hasSize(6));
+        assertThat(availableSpots.get(practitioner3), not(hasItems(
+                new TimeSlot(appointment2.getStartAt(), appointment2.getEndAt()),
+                new TimeSlot(appointment3.getStartAt(), appointment3.getEndAt()),
+                new TimeSlot(practitioner3Unavailability.getStartAt(), practitioner3Unavailability.getEndAt())
+        )));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsFromCachedOccupancy() {
+        // Given
+        AppointmentType standardAppointmentType = AppointmentType.STANDARD;
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate date = LocalDate.now(clinicZoneId).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+        ClinicDayOccupancy occupancy = new ClinicDayOccupancy(opening.getEpochSecond());
+        occupancy.mark(practitioner1.getId(), opening.plus(1, ChronoUnit.HOURS), opening.plus(3, ChronoUnit.HOURS));
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner1, practitioner2));
+        when(availabilityCache.getIfPresent(date)).thenReturn(occupancy);
+
+        // When
+        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(standardAppointmentType, date);
+
+        // Then
+        assertThat(availableSpots.get(practitioner1), hasSize(6));
+        assertThat(availableSpots.get(practitioner1), not(hasItem(
+                new TimeSlot(opening.plus(1, ChronoUnit.HOURS), opening.plus(2, ChronoUnit.HOURS))))
+        );
+        assertThat(availableSpots.get(practitioner2), hasSize(8));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).findPractitionerIntervalsOverlapping(any(), any());
+        verify(availabilityCache, never()).put(any(), any(), anyLong());
+    }
+
+    @Test
+    void shouldCacheOccupancyLoadedForMissingDays() {
+        // Given
+        AppointmentType standardAppointmentType = AppointmentType.STANDARD;
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        long cacheVersion = 7l;
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of());
+        when(availabilityCache.version()).thenReturn(cacheVersion);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // When
+        appointmentService.getAvailableSpotsByTypeAndDate(standardAppointmentType, date);
+
+        // Then
+        verify(availabilityCache, times(1)).put(eq(date), any(ClinicDayOccupancy.class), eq(cacheVersion));
+    }
+
+    @Test
+    void shouldGetAvailableSpotsOfEveryTypeFromASingleLoad() {
+        // Given
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate date = LocalDate.now(clinicZoneId).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+
+        // A STANDARD appointment from 9 am to 10 am blocks the slots of every type
+        Instant appointmentTime = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(appointmentTime, practitioner, AppointmentType.STANDARD);
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class))).thenReturn(PractitionerIntervalFixture.of(appointment));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // When
+        Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> availableSpots = appointmentService.getAvailableSpotsByDate(date);
+
+        // Then
+        assertThat(availableSpots.keySet(), contains(AppointmentType.values()));
+        assertThat(availableSpots.get(AppointmentType.INITIAL).get(practitioner), hasSize(5));
+        assertThat(availableSpots.get(AppointmentType.STANDARD).get(practitioner), hasSize(7));
+        assertThat(availableSpots.get(AppointmentType.CHECK_IN).get(practitioner), hasSize(14));
+        assertThat(availableSpots.get(AppointmentType.CHECK_IN).get(practitioner).get(0).start(),
+                equalTo(appointmentTime.plus(1, ChronoUnit.HOURS)));
+        verify(appointmentRepository, times(1)).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, times(1)).findPractitionerIntervalsOverlapping(any(), any());
+        verify(practitionerService, times(1)).getAllPractitioners();
+    }
+
+    @Test
+    void shouldGetAvailableSpotsOfEveryTypeFromTheSlotInventoryInSlotInventoryMode() {
+        // Given
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.SLOT_INVENTORY);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(slotInventory.getFreeSlotStarts(any(AppointmentType.class), eq(opening), any(Instant.class)))
+                .thenReturn(List.of(new FreeSlotStart(1l, opening)));
+
+        // When
+        Map<AppointmentType, Map<Practitioner, List<TimeSlot>>> availableSpots = appointmentService.getAvailableSpotsByDate(date);
+
+        // Then
+        for (AppointmentType appointmentType : AppointmentType.values()) {
+            assertThat(availableSpots.get(appointmentType).get(practitioner),
+                    contains(new TimeSlot(opening, opening.plus(appointmentType.amount(), appointmentType.unit()))));
+            verify(slotInventory, times(1)).getFreeSlotStarts(eq(appointmentType), eq(opening), any(Instant.class));
+        }
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class));
+        verifyNoInteractions(practitionerUnavailabilityRepository, availabilityCache);
+    }
+
+    @Test
+    void shouldGetAvailableSpotsByTypeAndDateRange() {
+        // Given
+        AppointmentType standardAppointmentType = AppointmentType.STANDARD;
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate from = LocalDate.now(clinicZoneId).plus(2, ChronoUnit.DAYS);
+        LocalDate to = from.plus(2, ChronoUnit.DAYS);
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+
+        Instant appointmentTime = from.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(appointmentTime, practitioner1, standardAppointmentType);
+
+        // Practitioner 2 is unavailable from 10 am of the second day until noon of the third day
+        PractitionerUnavailability practitioner2Unavailability = new PractitionerUnavailability();
+        practitioner2Unavailability.setPractitioner(practitioner2);
+        practitioner2Unavailability.setStartAt(from.plusDays(1).atTime(CLINIC_PST_AMPM_START_HOUR + 1, 0).atZone(clinicZoneId).toInstant());
+        practitioner2Unavailability.setEndAt(to.atTime(12, 0).atZone(clinicZoneId).toInstant());
+
+        // Prepare
+        when(availabilityConfig.maxRangeDays()).thenReturn(MAX_RANGE_DAYS);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(PractitionerIntervalFixture.of(appointment));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class)))
+                .thenReturn(PractitionerIntervalFixture.of(practitioner2Unavailability));
+
+        // When
+        SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> availableSpots = appointmentService
+                .getAvailableSpotsByTypeAndDateRange(standardAppointmentType, from, to);
+
+        // Then
+        assertThat(availableSpots.keySet(), contains(from, from.plusDays(1), to));
+        assertThat(availableSpots.get(from).get(practitioner1), hasSize(7));
+        assertThat(availableSpots.get(from).get(practitioner2), hasSize(8));
+        assertThat(availableSpots.get(from.plusDays(1)).get(practitioner1), hasSize(8));
+        assertThat(availableSpots.get(from.plusDays(1)).get(practitioner2), hasSize(1));
+        assertThat(availableSpots.get(to).get(practitioner1), hasSize(8));
+        assertThat(availableSpots.get(to).get(practitioner2), hasSize(5));
+        verify(appointmentRepository, times(1)).findPractitionerIntervalsByRange(
+                from.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant(),
+                to.atTime(CLINIC_PST_AMPM_END_HOUR, 0).atZone(clinicZoneId).toInstant());
+        verify(practitionerService, times(1)).getAllPractitioners();
+    }
+
+    @Test
+    void shouldGetAvailableSpotsByTypeAndDateRangeFromTheDatabaseEngine() {
+        // Given
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate from = LocalDate.now(clinicZoneId).plus(2, ChronoUnit.DAYS);
+        LocalDate to = from.plusDays(1);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+        Instant firstOpening = from.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+        Instant secondOpening = to.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+
+        // Prepare
+        when(availabilityConfig.maxRangeDays()).thenReturn(MAX_RANGE_DAYS);
+        when(availabilityConfig.engine()).thenReturn(AvailabilityConfig.Engine.DATABASE);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(appointmentRepository.findFreeSlotStarts(firstOpening, firstOpening.plus(7, ChronoUnit.HOURS), 60))
+                .thenReturn(List.of(new FreeSlotStart(1l, firstOpening)));
+        when(appointmentRepository.findFreeSlotStarts(secondOpening, secondOpening.plus(7, ChronoUnit.HOURS), 60))
+                .thenReturn(List.of());
+
+        // When
+        SortedMap<LocalDate, Map<Practitioner, List<TimeSlot>>> availableSpots = appointmentService
+                .getAvailableSpotsByTypeAndDateRange(AppointmentType.STANDARD, from, to);
+
+        // Then
+        assertThat(availableSpots.keySet(), contains(from, to));
+        assertThat(availableSpots.get(from).get(practitioner), contains(new TimeSlot(firstOpening, firstOpening.plus(1, ChronoUnit.HOURS))));
+        assertThat(availableSpots.get(to).get(practitioner), hasSize(0));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class));
+        verifyNoInteractions(practitionerUnavailabilityRepository, availabilityCache);
+    }
+
+    @Test
+    void shouldNotReturnAvailabilityForDateRangeLongerThanConfigured() {
+        // Given
+        LocalDate from = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE));
+        LocalDate to = from.plus(MAX_RANGE_DAYS, ChronoUnit.DAYS);
+
+        // Prepare
+        when(availabilityConfig.maxRangeDays()).thenReturn(MAX_RANGE_DAYS);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> appointmentService.getAvailableSpotsByTypeAndDateRange(AppointmentType.STANDARD, from, to));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(String.format(SPOTS_RANGE_ERROR_MSG, MAX_RANGE_DAYS)));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).findPractitionerIntervalsOverlapping(any(), any());
+        verify(practitionerService, never()).getAllPractitioners();
+    }
+
+    @Test
+    void shouldGetNextAvailableSpotAcrossPractitioners() {
+        // Given
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate date = LocalDate.now(clinicZoneId).plusWeeks(2).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        Instant after = date.atStartOfDay(clinicZoneId).toInstant();
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1l);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2l);
+
+        // Practitioner 1 is booked from 9 am to noon, and practitioner 2 is unavailable from 9 am to 10 am
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+        List<PractitionerInterval> appointments = PractitionerIntervalFixture.of(
+                AppointmentFixture.withTimeAndPractitionerAndType(opening, practitioner1, AppointmentType.INITIAL),
+                AppointmentFixture.withTimeAndPractitionerAndType(opening.plus(90, ChronoUnit.MINUTES), practitioner1, AppointmentType.INITIAL)
+        );
+        PractitionerUnavailability unavailability = PractitionerUnavailabilityFixture.withTime(practitioner2, opening, opening.plus(1, ChronoUnit.HOURS));
+
+        // Prepare
+        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(businessHoursConfig.weekends()).thenReturn(false);
+        when(availabilityConfig.nextAvailableHorizonDays()).thenReturn(NEXT_AVAILABLE_HORIZON_DAYS);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner1, practitioner2));
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class))).thenReturn(appointments);
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class))).thenReturn(PractitionerIntervalFixture.of(unavailability));
+
+        // When
+        NextAvailableSpot spot = appointmentService.getNextAvailableSpot(AppointmentType.STANDARD, null, after, null);
+
+        // Then
+        assertThat(spot.practitioner(), equalTo(practitioner2));
+        assertThat(spot.appointmentType(), equalTo(AppointmentType.STANDARD));
+        assertThat(spot.timeSlot(), equalTo(new TimeSlot(opening.plus(1, ChronoUnit.HOURS), opening.plus(2, ChronoUnit.HOURS))));
+        verify(freeIntervalCache, times(1)).put(any(FreeIntervals.class), eq(0l));
+    }
+
+    @Test
+    void shouldGetNextAvailableSpotForPractitionerWithinTimeWindow() {
+        // Given
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate date = LocalDate.now(clinicZoneId).plusWeeks(2).with(TemporalAdjusters.next(DayOfWeek.FRIDAY));
+        Instant after = date.atStartOfDay(clinicZoneId).toInstant();
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+
+        // The practitioner is booked on Friday afternoon, so the next afternoon spot is on Monday
+        Instant afternoon = date.atTime(13, 0).atZone(clinicZoneId).toInstant();
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(afternoon.plus(30, ChronoUnit.MINUTES), practitioner, AppointmentType.STANDARD);
+        DailyTimeWindow window = new DailyTimeWindow(LocalTime.of(13, 0), LocalTime.of(15, 0), clinicZoneId);
+
+        // Prepare
+        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(businessHoursConfig.weekends()).thenReturn(false);
+        when(availabilityConfig.nextAvailableHorizonDays()).thenReturn(NEXT_AVAILABLE_HORIZON_DAYS);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class))).thenReturn(PractitionerIntervalFixture.of(appointment));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class))).thenReturn(List.of());
+
+        // When
+        NextAvailableSpot spot = appointmentService.getNextAvailableSpot(AppointmentType.INITIAL, practitioner, after, window);
+
+        // Then
+        Instant expectedStart = date.plusDays(3).atTime(13, 0).atZone(clinicZoneId).toInstant();
+        assertThat(spot.practitioner(), equalTo(practitioner));
+        assertThat(spot.timeSlot(), equalTo(new TimeSlot(expectedStart, expectedStart.plus(90, ChronoUnit.MINUTES))));
+        verify(practitionerService, never()).getAllPractitioners();
+    }
+
+    @Test
+    void shouldGetNextAvailableSpotWithinPractitionersWorkingHours() {
+        // Given
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate date = LocalDate.now(clinicZoneId).plusWeeks(2).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        Instant after = date.atStartOfDay(clinicZoneId).toInstant();
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+
+        // The practitioner only works on afternoons, from 1 pm
+        long afternoon = DayOccupancy.mark(0L, 0, Duration.ofHours(13 - CLINIC_PST_AMPM_START_HOUR).toSeconds(),
+                Duration.ofHours(CLINIC_PST_AMPM_END_HOUR - CLINIC_PST_AMPM_START_HOUR).toSeconds());
+
+        // Prepare
+        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(businessHoursConfig.weekends()).thenReturn(false);
+        when(availabilityConfig.nextAvailableHorizonDays()).thenReturn(NEXT_AVAILABLE_HORIZON_DAYS);
+        when(workingHours.practitionerIds()).thenReturn(Set.of(1l));
+        when(workingHours.offHours(eq(1l), any(DayOfWeek.class))).thenReturn(~ afternoon);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class))).thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class))).thenReturn(List.of());
+
+        // When
+        NextAvailableSpot spot = appointmentService.getNextAvailableSpot(AppointmentType.STANDARD, practitioner, after, null);
+
+        // Then
+        Instant expectedStart = date.atTime(13, 0).atZone(clinicZoneId).toInstant();
+        assertThat(spot.timeSlot(), equalTo(new TimeSlot(expectedStart, expectedStart.plus(60, ChronoUnit.MINUTES))));
+    }
+
+    @Test
+    void shouldGetNextAvailableSpotFromCachedFreeIntervals() {
+        // Given
+        ZoneId clinicZoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
+        LocalDate date = LocalDate.now(clinicZoneId).plusWeeks(2);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(clinicZoneId).toInstant();
+        Instant closing = date.atTime(CLINIC_PST_AMPM_END_HOUR, 0).atZone(clinicZoneId).toInstant();
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+        FreeIntervalIndex clinic = FreeIntervalIndex.of(new long[]{opening.getEpochSecond() / 60}, new long[]{closing.getEpochSecond() / 60},
+                new long[0], new long[0]);
+
+        // Prepare
+        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(freeIntervalCache.getIfPresent()).thenReturn(new FreeIntervals(clinic, Map.of()));
+
+        // When
+        NextAvailableSpot spot = appointmentService.getNextAvailableSpot(null, null, null, null);
+
+        // Then
+        assertThat(spot.appointmentType(), equalTo(AppointmentType.CHECK_IN));
+        assertThat(spot.timeSlot(), equalTo(new TimeSlot(opening, opening.plus(30, ChronoUnit.MINUTES))));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).findPractitionerIntervalsOverlapping(any(), any());
+        verify(freeIntervalCache, never()).put(any(), anyLong());
+    }
+
+    @Test
+    void shouldNotReturnNextAvailableSpotWhenPractitionerIsUnavailableForTheWholeHorizon() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1l);
+        PractitionerUnavailability unavailability = PractitionerUnavailabilityFixture.withTime(practitioner,
+                Instant.now().minus(1, ChronoUnit.DAYS), Instant.now().plus(NEXT_AVAILABLE_HORIZON_DAYS + 1, ChronoUnit.DAYS));
+
+        // Prepare
+        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(businessHoursConfig.weekends()).thenReturn(false);
+        when(availabilityConfig.nextAvailableHorizonDays()).thenReturn(NEXT_AVAILABLE_HORIZON_DAYS);
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class))).thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class))).thenReturn(PractitionerIntervalFixture.of(unavailability));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> appointmentService.getNextAvailableSpot(AppointmentType.CHECK_IN, practitioner, null, null));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(String.format(NEXT_AVAILABLE_ERROR_MSG, NEXT_AVAILABLE_HORIZON_DAYS)));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+    }
+
+    @Test
+    void shouldValidateNextAvailableTimeWindow() {
+        // Given
+        DailyTimeWindow window = new DailyTimeWindow(LocalTime.of(15, 0), LocalTime.of(13, 0), ZoneId.of(CLINIC_PST_TIMEZONE));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> appointmentService.getNextAvailableSpot(AppointmentType.STANDARD, null, null, window));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(TIME_WINDOW_ERROR_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(freeIntervalCache, never()).getIfPresent();
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any());
+    }
+
+    @Test
+    void shouldCreateAppointmentSuccessfully() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.QUERY);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.existsAppointmentInTimeRange(appointment.getStartAt(), practitioner)).thenReturn(false);
+        when(practitionerUnavailabilityRepository.existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner)).thenReturn(false);
+        Appointment mockAppointment = mock(Appointment.class);
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(mockAppointment);
+
+        // When
+        Appointment savedAppointment = appointmentService.addAppointment(appointment);
+
+        // Then
+        assertThat(savedAppointment, not(nullValue()));
+        assertThat(savedAppointment, equalTo(mockAppointment));
+        verify(appointmentRepository, times(1)).existsAppointmentInTimeRange(appointment.getStartAt(), practitioner);
+        verify(practitionerUnavailabilityRepository, times(1)).existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner);
+        verify(appointmentRepository, times(1)).saveAndFlush(appointment);
+        verify(eventPublisher, times(1)).publishEvent(new AppointmentBookedEvent(practitioner.getId(), appointment.getType(),
+                appointment.getStartAt().atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toLocalDate(), appointment.getStartAt(), appointment.getEndAt()));
+    }
+
+    @Test
+    void shouldCreateAppointmentWithASingleInsertInConstraintMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        Appointment mockAppointment = mock(Appointment.class);
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(mockAppointment);
+
+        // When
+        Appointment savedAppointment = appointmentService.addAppointment(appointment);
+
+        // Then
+        assertThat(savedAppointment, equalTo(mockAppointment));
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).existsUnavailabilityForTimeRange(any(), any());
+        verify(appointmentRepository, times(1)).saveAndFlush(appointment);
+        verify(eventPublisher, times(1)).publishEvent(any(AppointmentBookedEvent.class));
+    }
+
+    @Test
+    void shouldValidateAppointmentOverlapRejectedByConstraintInConstraintMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.saveAndFlush(appointment))
+                .thenThrow(new DataIntegrityViolationException("exclude_practitioner_appointment_overlap"));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(APPOINTMENT_OVERLAP_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldBookSlotsOfTheOccupancyTableBeforeInsertingInOccupancyTableMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.OCCUPANCY_TABLE);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        Appointment mockAppointment = mock(Appointment.class);
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(mockAppointment);
+
+        // When
+        Appointment savedAppointment = appointmentService.addAppointment(appointment);
+
+        // Then
+        assertThat(savedAppointment, equalTo(mockAppointment));
+        InOrder inOrder = inOrder(dayOccupancyTable, appointmentRepository);
+        inOrder.verify(dayOccupancyTable).book(appointment);
+        inOrder.verify(appointmentRepository).saveAndFlush(appointment);
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+    }
+
+    @Test
+    void shouldValidateAppointmentOverlapRejectedByOccupancyTableInOccupancyTableMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.OCCUPANCY_TABLE);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        doThrow(new DataIntegrityViolationException("Practitioner 1 not available")).when(dayOccupancyTable).book(appointment);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(APPOINTMENT_OVERLAP_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(appointmentRepository, never()).saveAndFlush(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldClaimTheInventorySlotBeforeInsertingInSlotInventoryMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.SLOT_INVENTORY);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        Appointment mockAppointment = mock(Appointment.class);
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(mockAppointment);
+
+        // When
+        Appointment savedAppointment = appointmentService.addAppointment(appointment);
+
+        // Then
+        assertThat(savedAppointment, equalTo(mockAppointment));
+        InOrder inOrder = inOrder(slotInventory, appointmentRepository);
+        inOrder.verify(slotInventory).claim(appointment);
+        inOrder.verify(appointmentRepository).saveAndFlush(appointment);
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+        verifyNoInteractions(dayOccupancyTable);
+    }
+
+    @Test
+    void shouldValidateAppointmentSlotNotClaimedInSlotInventoryMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.SLOT_INVENTORY);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        doThrow(new DataIntegrityViolationException("Slot of practitioner 1 not available")).when(slotInventory).claim(appointment);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(APPOINTMENT_OVERLAP_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(appointmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldLockPractitionerDayBeforeCheckingAvailabilityInAdvisoryLockMode() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        LocalDate clinicDate = appointment.getStartAt().atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toLocalDate();
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.ADVISORY_LOCK);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.existsAppointmentInTimeRange(appointment.getStartAt(), practitioner)).thenReturn(false);
+        when(practitionerUnavailabilityRepository.existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner)).thenReturn(false);
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(appointment);
+
+        // When
+        Appointment savedAppointment = appointmentService.addAppointment(appointment);
+
+        // Then
+        assertThat(savedAppointment, equalTo(appointment));
+        InOrder inOrder = inOrder(appointmentRepository);
+        inOrder.verify(appointmentRepository).lockPractitionerDay(Long.hashCode(practitioner.getId()), (int) clinicDate.toEpochDay());
+        inOrder.verify(appointmentRepository).existsAppointmentInTimeRange(appointment.getStartAt(), practitioner);
+        inOrder.verify(appointmentRepository).saveAndFlush(appointment);
+    }
+
+    @Test
+    void shouldRejectAppointmentKnownAsUnavailableBeforeOpeningATransaction() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        LocalDate clinicDate = appointment.getStartAt().atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toLocalDate();
+        ClinicDayOccupancy occupancy = new ClinicDayOccupancy(appointment.getStartAt().minus(2, ChronoUnit.HOURS).getEpochSecond());
+        occupancy.mark(practitioner.getId(), appointment.getStartAt().minus(30, ChronoUnit.MINUTES), appointment.getStartAt().plus(30, ChronoUnit.MINUTES));
+
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(bookingLocks.acquire(practitioner.getId())).thenReturn(lock);
+        when(availabilityCache.peek(clinicDate)).thenReturn(occupancy);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(APPOINTMENT_OVERLAP_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(bookingLocks, times(1)).rejectedAsUnavailable();
+        verify(transactionTemplate, never()).execute(any());
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    void shouldReleasePractitionerLockWhenBookingFails() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.saveAndFlush(appointment)).thenThrow(new DataIntegrityViolationException("exclude_practitioner_appointment_overlap"));
+
+        // When
+        assertThrows(AppointmentValidationException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        verify(lock, times(1)).unlock();
+        verify(bookingLocks, never()).rejectedAsUnavailable();
+    }
+
+    @Test
+    void shouldStoreIdempotencyKeyWithinTheBookingTransaction() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        appointment.getPatient().setId(2L);
+        String fingerprint = IdempotencyStore.fingerprint(appointment);
+        Appointment savedAppointment = AppointmentFixture.withTimeAndPractitioner(appointment.getStartAt(), practitioner);
+        savedAppointment.setId(10L);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(idempotencyStore.findRecent(IDEMPOTENCY_KEY, fingerprint)).thenReturn(Optional.empty());
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(savedAppointment);
+
+        // When
+        Appointment result = appointmentService.addAppointment(appointment, IDEMPOTENCY_KEY);
+
+        // Then
+        assertThat(result, equalTo(savedAppointment));
+        InOrder inOrder = inOrder(transactionTemplate, appointmentRepository, idempotencyStore);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(appointmentRepository).saveAndFlush(appointment);
+        inOrder.verify(idempotencyStore).save(IDEMPOTENCY_KEY, fingerprint, 10L);
+    }
+
+    @Test
+    void shouldReturnAppointmentCreatedWithTheSameKeyWhileWaitingForThePractitionerLock() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        appointment.getPatient().setId(2L);
+        String fingerprint = IdempotencyStore.fingerprint(appointment);
+        Appointment existingAppointment = AppointmentFixture.withTimeAndPractitioner(appointment.getStartAt(), practitioner);
+
+        // Prepare
+        when(bookingLocks.acquire(anyLong())).thenReturn(lock);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(idempotencyStore.findRecent(IDEMPOTENCY_KEY, fingerprint)).thenReturn(Optional.of(10L));
+        when(appointmentRepository.findById(10L)).thenReturn(Optional.of(existingAppointment));
+
+        // When
+        Appointment result = appointmentService.addAppointment(appointment, IDEMPOTENCY_KEY);
+
+        // Then
+        assertThat(result, equalTo(existingAppointment));
+        verify(transactionTemplate, never()).execute(any());
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedWithAnotherRequestWhileWaitingForThePractitionerLock() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        appointment.getPatient().setId(2L);
+        String fingerprint = IdempotencyStore.fingerprint(appointment);
+
+        // Prepare
+        when(bookingLocks.acquire(anyLong())).thenReturn(lock);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(idempotencyStore.findRecent(IDEMPOTENCY_KEY, fingerprint))
+                .thenThrow(new IdempotencyKeyReusedException("The Idempotency-Key was already used with a different request"));
+
+        // When
+        IdempotencyKeyReusedException exception = assertThrows(IdempotencyKeyReusedException.class,
+                () -> appointmentService.addAppointment(appointment, IDEMPOTENCY_KEY));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("The Idempotency-Key was already used with a different request"));
+        verify(transactionTemplate, never()).execute(any());
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    void shouldReturnAppointmentCreatedWithTheSameKeyByAnotherNodeOnConflict() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        appointment.getPatient().setId(2L);
+        String fingerprint = IdempotencyStore.fingerprint(appointment);
+        Appointment existingAppointment = AppointmentFixture.withTimeAndPractitioner(appointment.getStartAt(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(idempotencyStore.findRecent(IDEMPOTENCY_KEY, fingerprint)).thenReturn(Optional.empty());
+        when(appointmentRepository.saveAndFlush(appointment)).thenThrow(new DataIntegrityViolationException("exclude_practitioner_appointment_overlap"));
+        when(idempotencyStore.find(IDEMPOTENCY_KEY, fingerprint)).thenReturn(Optional.of(10L));
+        when(appointmentRepository.findById(10L)).thenReturn(Optional.of(existingAppointment));
+
+        // When
+        Appointment result = appointmentService.addAppointment(appointment, IDEMPOTENCY_KEY);
+
+        // Then
+        assertThat(result, equalTo(existingAppointment));
+        verify(idempotencyStore, never()).save(any(), any(), any());
+    }
+
+    @Test
+    void shouldRejectAppointmentHeldForAnotherPatient() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        when(bookingLocks.acquire(anyLong())).thenReturn(lock);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(slotHolds.isHeldForAnother(practitioner.getId(), appointment.getPatient().getId(), appointment.getStartAt(), appointment.getEndAt()))
+                .thenReturn(true);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(SLOT_HELD_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(transactionTemplate, never()).execute(any());
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    void shouldReleasePatientHoldOnceBooked() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(appointment);
+
+        // When
+        appointmentService.addAppointment(appointment);
+
+        // Then
+        verify(slotHolds, times(1)).release(practitioner.getId(), appointment.getPatient().getId(), appointment.getStartAt(), appointment.getEndAt());
+    }
+
+    @Test
+    void shouldHoldSlotForPatient() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+        Duration ttl = Duration.ofMinutes(5);
+        SlotHold hold = new SlotHold("hold-1", practitioner.getId(), 2L, appointment.getStartAt(), appointment.getEndAt(), Instant.now().plus(ttl));
+
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(slotHolds.hold(practitioner.getId(), appointment.getPatient().getId(), appointment.getStartAt(), appointment.getEndAt(), ttl))
+                .thenReturn(hold);
+
+        // When
+        SlotHold result = appointmentService.holdSlot(appointment, ttl);
+
+        // Then
+        assertThat(result, equalTo(hold));
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+    }
+
+    @Test
+    void shouldNotOfferSlotsHeldByPatients() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plusDays(2);
+        Instant opening = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        ClinicDayOccupancy occupancy = new ClinicDayOccupancy(opening.getEpochSecond());
+        SlotHold hold = new SlotHold("hold-1", practitioner.getId(), 2L, opening, opening.plus(1, ChronoUnit.HOURS), Instant.now().plus(5, ChronoUnit.MINUTES));
+
+        // Prepare
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(availabilityCache.getIfPresent(date)).thenReturn(occupancy);
+        when(practitionerService.getAllPractitioners()).thenReturn(List.of(practitioner));
+        when(slotHolds.getActiveHolds(practitioner.getId())).thenReturn(List.of(hold));
+
+        // When
+        Map<Practitioner, List<TimeSlot>> result = appointmentService.getAvailableSpotsByTypeAndDate(AppointmentType.STANDARD, date);
+
+        // Then
+        List<TimeSlot> slots = result.get(practitioner);
+        assertThat(slots, hasSize(CLINIC_PST_AMPM_END_HOUR - CLINIC_PST_AMPM_START_HOUR - 1));
+        assertThat(slots.get(0).start(), equalTo(opening.plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    void shouldReleaseHoldOfThePatient() {
+        // Given
+        SlotHold hold = new SlotHold("hold-1", 1L, 2L, createValidStartTime(), createValidStartTime().plus(1, ChronoUnit.HOURS), Instant.now().plus(5, ChronoUnit.MINUTES));
+
+        // Prepare
+        when(slotHolds.findById("hold-1")).thenReturn(Optional.of(hold));
+
+        // When
+        appointmentService.releaseHold("hold-1", 2L);
+
+        // Then
+        verify(slotHolds, times(1)).release(hold);
+    }
+
+    @Test
+    void shouldNotReleaseHoldOfAnotherPatient() {
+        // Given
+        SlotHold hold = new SlotHold("hold-1", 1L, 2L, createValidStartTime(), createValidStartTime().plus(1, ChronoUnit.HOURS), Instant.now().plus(5, ChronoUnit.MINUTES));
 
-    @Mock
-    private PractitionerService practitionerService;
+        // Prepare
+        when(slotHolds.findById("hold-1")).thenReturn(Optional.of(hold));
 
-    @InjectMocks
-    private AppointmentService appointmentService;
+        // When
+        NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> appointmentService.releaseHold("hold-1", 3L));
 
-    @BeforeEach
-    public void setUp() {
-        when(businessHoursConfig.timezone()).thenReturn(CLINIC_PST_TIMEZONE);
+        // Then
+        assertThat(exception.getMessage(), equalTo("Hold not found"));
+        verify(slotHolds, never()).release(any(SlotHold.class));
     }
 
     @Test
-    void shouldGetAvailableSpotsWithCompleteAvailability() {
+    void shouldCreateAppointmentThroughGroupCommitInConstraintMode() {
         // Given
-        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
-        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
-        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
-        practitioner1.setId(1l);
-        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
-        practitioner2.setId(2l);
-        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
 
         // Prepare
+        when(bookingLocks.acquire(anyLong())).thenReturn(lock);
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
-        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
-        when(appointmentRepository.findAppointmentsByRangeAndType(eq(initialAppointmentType.name()), any(Instant.class), any(Instant.class)))
-                .thenReturn(List.of());
-        when(practitionerUnavailabilityRepository.findUnavailabilityForTimeRange(any(Instant.class), any(Instant.class)))
-                .thenReturn(List.of());
+        when(groupCommitWriter.isEnabled()).thenReturn(true);
+        when(groupCommitWriter.submit(eq(appointment), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Appointment>>getArgument(1).accept(appointment);
+            return CompletableFuture.completedFuture(appointment);
+        });
 
         // When
-        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+        Appointment savedAppointment = appointmentService.addAppointment(appointment);
 
         // Then
-        assertThat(availableSpots.size(), equalTo(practitioners.size()));
-        assertThat(availableSpots.get(practitioner1), hasSize(8));
-        assertThat(availableSpots.get(practitioner2), hasSize(8));
+        assertThat(savedAppointment, equalTo(appointment));
+        verify(transactionTemplate, never()).execute(any());
+        verify(appointmentRepository, never()).saveAndFlush(any());
+        verify(eventPublisher, times(1)).publishEvent(any(AppointmentBookedEvent.class));
+        verify(lock, times(1)).unlock();
     }
 
     @Test
-    void shouldGetAvailableSpotsByTypeAndDateConsideringPractitionersAppointments() {
+    void shouldValidateAppointmentOverlapRejectedByGroupCommit() {
         // Given
-        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
-        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
-        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
-        practitioner1.setId(1l);
-        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
-        practitioner2.setId(2l);
-        Practitioner practitioner3 = PractitionerFixture.randomPractitioner();
-        practitioner3.setId(3l);
-        Instant appointment1Time = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        Appointment appointment1 = AppointmentFixture.withTimeAndPractitionerAndType(appointment1Time, practitioner1, initialAppointmentType);
-        Instant appointment2Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 3, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        Appointment appointment2 = AppointmentFixture.withTimeAndPractitionerAndType(appointment2Time, practitioner3, initialAppointmentType);
-        Instant appointment3Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 4, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        Appointment appointment3 = AppointmentFixture.withTimeAndPractitionerAndType(appointment3Time, practitioner3, initialAppointmentType);
-        List<Practitioner> practitioners = List.of(practitioner1, practitioner2, practitioner3);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
 
         // Prepare
+        when(bookingLocks.acquire(anyLong())).thenReturn(lock);
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+        when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
-        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
-        when(appointmentRepository.findAppointmentsByRangeAndType(eq(initialAppointmentType.name()), any(Instant.class), any(Instant.class)))
-                .thenReturn(List.of(appointment1, appointment2, appointment3));
-        when(practitionerUnavailabilityRepository.findUnavailabilityForTimeRange(any(Instant.class), any(Instant.class)))
-                .thenReturn(List.of());
+        when(groupCommitWriter.isEnabled()).thenReturn(true);
+        when(groupCommitWriter.submit(eq(appointment), any()))
+                .thenReturn(CompletableFuture.failedFuture(new DataIntegrityViolationException("exclude_practitioner_appointment_overlap")));
 
         // When
-        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
 
         // Then
-        assertThat(availableSpots.size(), equalTo(practitioners.size()));
-        assertThat(availableSpots.get(practitioner1), hasSize(7));
-        assertThat(availableSpots.get(practitioner1), not(hasItem(
-                new TimeSlot(appointment1.getStartAt(), appointment1.getEndAt())))
-        );
-        assertThat(availableSpots.get(practitioner2), hasSize(8));
-        assertThat(availableSpots.get(practitioner3), hasSize(6));
-        assertThat(availableSpots.get(practitioner3), not(hasItems(
-                new TimeSlot(appointment2.getStartAt(), appointment2.getEndAt()),
-                new TimeSlot(appointment3.getStartAt(), appointment3.getEndAt())
-        )));
+        assertThat(exception.getMessage(), equalTo(APPOINTMENT_OVERLAP_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(lock, times(1)).unlock();
     }
 
     @Test
-    void shouldGetAvailableSpotsByTypeAndDateConsideringPractitionersUnavailability() {
+    void shouldCreateAppointmentsInBatchSuccessfully() {
         // Given
-        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
-        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
         Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
-        practitioner1.setId(1l);
+        practitioner1.setId(1L);
         Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
-        practitioner2.setId(2l);
-        List<Practitioner> practitioners = List.of(practitioner1, practitioner2);
-
-        Instant practitioner1UnavailabilityTime = date.atTime(CLINIC_PST_AMPM_START_HOUR + 3, 30).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        PractitionerUnavailability practitioner1Unavailability = new PractitionerUnavailability();
-        practitioner1Unavailability.setPractitioner(practitioner1);
-        practitioner1Unavailability.setStartAt(practitioner1UnavailabilityTime);
-        practitioner1Unavailability.setEndAt(practitioner1UnavailabilityTime.plus(1, ChronoUnit.HOURS));
+        practitioner2.setId(2L);
+        Appointment appointment1 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner1);
+        Appointment appointment2 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner2);
+        Appointment appointment3 = AppointmentFixture.withTimeAndPractitioner(appointment1.getEndAt(), practitioner1);
+        List<Appointment> appointments = List.of(appointment1, appointment2, appointment3);
 
         // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
-        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
-        when(appointmentRepository.findAppointmentsByRangeAndType(eq(initialAppointmentType.name()), any(Instant.class), any(Instant.class)))
+        when(appointmentRepository.findPractitionerIntervalsByRange(appointment1.getStartAt(), appointment3.getEndAt(), Set.of(1L, 2L)))
                 .thenReturn(List.of());
-        when(practitionerUnavailabilityRepository.findUnavailabilityForTimeRange(any(Instant.class), any(Instant.class)))
-                .thenReturn(List.of(practitioner1Unavailability));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(appointment1.getStartAt(), appointment3.getEndAt(), Set.of(1L, 2L)))
+                .thenReturn(List.of());
+        runTransactionCallback();
+        saveAppointments();
 
         // When
-        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+        List<BookingResult> results = appointmentService.addAppointments(appointments);
 
         // Then
-        assertThat(availableSpots.size(), equalTo(practitioners.size()));
-        assertThat(availableSpots.get(practitioner1), hasSize(6));
-        assertThat(availableSpots.get(practitioner1), not(hasItems(
-                // The practitioner is unavailability for 30 min and given that the appointment is Standard, this will block 2 lots
-                new TimeSlot(practitioner1Unavailability.getStartAt(), practitioner1Unavailability.getEndAt()),
-                new TimeSlot(practitioner1Unavailability.getStartAt().plus(1, ChronoUnit.HOURS), practitioner1Unavailability.getEndAt().plus(1, ChronoUnit.HOURS))
-        )));
-        assertThat(availableSpots.get(practitioner2), hasSize(8));
+        assertThat(results, contains(BookingResult.booked(appointment1), BookingResult.booked(appointment2), BookingResult.booked(appointment3)));
+        verify(appointmentRepository, times(1)).saveAllAndFlush(appointments);
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+        verify(practitionerUnavailabilityRepository, never()).existsUnavailabilityForTimeRange(any(), any());
+        verify(eventPublisher, times(3)).publishEvent(any(AppointmentBookedEvent.class));
     }
 
     @Test
-    void shouldNotReturnAvailabilityForPastDate() {
+    void shouldRejectInvalidAndConflictingAppointmentsOfBatch() {
         // Given
-        AppointmentType appointmentType = mock(AppointmentType.class);
-        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).minus(2, ChronoUnit.DAYS);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Instant startTime = createValidStartTime();
+        Appointment invalidSlot = AppointmentFixture.withTimeAndPractitioner(startTime.plus(14, ChronoUnit.MINUTES), practitioner);
+        Appointment booked = AppointmentFixture.withTimeAndPractitioner(startTime, practitioner);
+        Appointment conflictingWithBooked = AppointmentFixture.withTimeAndPractitioner(startTime.minus(30, ChronoUnit.MINUTES), practitioner);
+        Appointment conflictingWithBatch = AppointmentFixture.withTimeAndPractitioner(startTime.plus(2, ChronoUnit.HOURS), practitioner);
+        Appointment accepted = AppointmentFixture.withTimeAndPractitioner(startTime.plus(90, ChronoUnit.MINUTES), practitioner);
+        Appointment unavailable = AppointmentFixture.withTimeAndPractitioner(startTime.plus(4, ChronoUnit.HOURS), practitioner);
+        PractitionerUnavailability unavailability = PractitionerUnavailabilityFixture.withTime(practitioner,
+                unavailable.getStartAt(), unavailable.getEndAt());
 
         // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.findPractitionerIntervalsByRange(conflictingWithBooked.getStartAt(), unavailable.getEndAt(), Set.of(1L)))
+                .thenReturn(PractitionerIntervalFixture.of(booked));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(conflictingWithBooked.getStartAt(), unavailable.getEndAt(), Set.of(1L)))
+                .thenReturn(PractitionerIntervalFixture.of(unavailability));
+        runTransactionCallback();
+        saveAppointments();
 
         // When
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.getAvailableSpotsByTypeAndDate(appointmentType, date));
+        List<BookingResult> results = appointmentService.addAppointments(List.of(
+                invalidSlot, conflictingWithBooked, accepted, conflictingWithBatch, unavailable
+        ));
 
         // Then
-        assertThat(exception.getMessage(), equalTo(SPOTS_AVAILABILITY_ERROR_MSG));
-        assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).findAppointmentsByRangeAndType(any(), any(), any());
-        verify(practitionerUnavailabilityRepository, never()).findUnavailabilityForTimeRange(any(), any());
-        verify(practitionerService, never()).getAllPractitioners();
+        assertThat(results, contains(
+                BookingResult.rejected(CLINIC_SLOT_TIME_MSG),
+                BookingResult.rejected(APPOINTMENT_OVERLAP_MSG),
+                BookingResult.booked(accepted),
+                BookingResult.rejected(APPOINTMENT_OVERLAP_MSG),
+                BookingResult.rejected(APPOINTMENT_OVERLAP_MSG)
+        ));
+        verify(appointmentRepository, times(1)).saveAllAndFlush(List.of(accepted));
+        verify(eventPublisher, times(1)).publishEvent(any(AppointmentBookedEvent.class));
     }
 
     @Test
-    void shouldNotReturnAvailabilityWhenTimeIsOutOfBusinessNoticeRange() {
+    void shouldRejectBatchConflictingWithConcurrentBooking() {
         // Given
-        AppointmentType appointmentType = mock(AppointmentType.class);
-        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE));
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
 
         // Prepare
-        when(businessHoursConfig.appointmentNoticeHours()).thenReturn(APPOINTMENT_NOTICE_HOURS);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
-        ZonedDateTime zdt = ZonedDateTime.of(date, LocalTime.of(CLINIC_PST_AMPM_END_HOUR - APPOINTMENT_NOTICE_HOURS, 0), ZoneId.of(CLINIC_PST_TIMEZONE));
-        ZonedDateTime zdtStart = zdt.plus(businessHoursConfig.appointmentNoticeHours(), ChronoUnit.HOURS);
-        ZonedDateTime zdtEnd = ZonedDateTime.of(date, LocalTime.of(businessHoursConfig.ampmEnd(), 0), ZoneId.of(CLINIC_PST_TIMEZONE));
-        ZoneId zoneId = ZoneId.of(CLINIC_PST_TIMEZONE);
-
-        try (MockedStatic<ZonedDateTime> mockedStatic = mockStatic(ZonedDateTime.class)) {
-            mockedStatic.when(() -> ZonedDateTime.now(zoneId)).thenReturn(zdt);
-            mockedStatic.when(() -> zdt.plus(businessHoursConfig.appointmentNoticeHours(), ChronoUnit.HOURS)).thenReturn(zdtStart);
-            mockedStatic.when(() -> zdt.withHour(businessHoursConfig.ampmEnd())).thenReturn(zdtEnd);
-
-            // When
-            RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.getAvailableSpotsByTypeAndDate(appointmentType, date));
-
-            // Then
-            assertThat(exception.getMessage(), equalTo(SPOTS_AVAILABILITY_ERROR_MSG));
-            assertThat(exception, instanceOf(AppointmentValidationException.class));
-            verify(appointmentRepository, never()).findAppointmentsByRangeAndType(any(), any(), any());
-            verify(practitionerUnavailabilityRepository, never()).findUnavailabilityForTimeRange(any(), any());
-            verify(practitionerService, never()).getAllPractitioners();
-        }
+        when(appointmentRepository.findPractitionerIntervalsByRange(appointment.getStartAt(), appointment.getEndAt(), Set.of(1L)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(appointment.getStartAt(), appointment.getEndAt(), Set.of(1L)))
+                .thenReturn(List.of());
+        runTransactionCallback();
+        when(appointmentRepository.saveAllAndFlush(List.of(appointment))).thenThrow(new DataIntegrityViolationException("unique_practitioner_schedule"));
+
+        // When
+        List<BookingResult> results = appointmentService.addAppointments(List.of(appointment));
+
+        // Then
+        assertThat(results, contains(BookingResult.rejected(APPOINTMENT_OVERLAP_MSG)));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    void shouldGetAvailableSpotsByTypeAndDateConsideringPractitionersUnavailabilityAndAppointments() {
+    void shouldInsertAppointmentsOfBatchOneByOneWhenTheBatchConflicts() {
         // Given
-        AppointmentType initialAppointmentType = AppointmentType.STANDARD;
-        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
         Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
-        practitioner1.setId(1l);
+        practitioner1.setId(1L);
         Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
-        practitioner2.setId(2l);
-        Practitioner practitioner3 = PractitionerFixture.randomPractitioner();
-        practitioner3.setId(3l);
-        Instant appointment1Time = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        Appointment appointment1 = AppointmentFixture.withTimeAndPractitionerAndType(appointment1Time, practitioner1, initialAppointmentType);
-        Instant appointment2Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 3, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        Appointment appointment2 = AppointmentFixture.withTimeAndPractitionerAndType(appointment2Time, practitioner3, initialAppointmentType);
-        Instant appointment3Time = date.atTime(CLINIC_PST_AMPM_START_HOUR + 4, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        Appointment appointment3 = AppointmentFixture.withTimeAndPractitionerAndType(appointment3Time, practitioner3, initialAppointmentType);
-        List<Practitioner> practitioners = List.of(practitioner1, practitioner2, practitioner3);
+        practitioner2.setId(2L);
+        Appointment appointment1 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner1);
+        Appointment appointment2 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner2);
 
-        Instant practitioner3UnavailabilityTime = date.atTime(CLINIC_PST_AMPM_START_HOUR + 5, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
-        PractitionerUnavailability practitioner3Unavailability = new PractitionerUnavailability();
-        practitioner3Unavailability.setPractitioner(practitioner3);
-        practitioner3Unavailability.setStartAt(practitioner3UnavailabilityTime);
-        practitioner3Unavailability.setEndAt(practitioner3UnavailabilityTime.plus(1, ChronoUnit.HOURS));
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(bookingLocks.acquireAll(List.of(1L, 2L))).thenReturn(List.of(lock, lock));
+        when(appointmentRepository.findPractitionerIntervalsByRange(appointment1.getStartAt(), appointment1.getEndAt(), Set.of(1L, 2L)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(appointment1.getStartAt(), appointment1.getEndAt(), Set.of(1L, 2L)))
+                .thenReturn(List.of());
+        runTransactionCallback();
+        when(appointmentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            if (invocation.<List<Appointment>>getArgument(0).contains(appointment2)) {
+                throw new DataIntegrityViolationException("unique_practitioner_schedule");
+            }
+            return invocation.getArgument(0);
+        });
+
+        // When
+        List<BookingResult> results = appointmentService.addAppointments(List.of(appointment1, appointment2));
+
+        // Then
+        assertThat(results, contains(BookingResult.booked(appointment1), BookingResult.rejected(APPOINTMENT_OVERLAP_MSG)));
+        verify(appointmentRepository, times(1)).saveAllAndFlush(List.of(appointment1));
+        verify(eventPublisher, times(1)).publishEvent(any(AppointmentBookedEvent.class));
+        verify(lock, times(2)).unlock();
+    }
+
+    @Test
+    void shouldBookTheStoredAppointmentWhenInsertedAgainAfterTheBatchConflicts() {
+        // Given
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1L);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2L);
+        Appointment appointment1 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner1);
+        Appointment appointment2 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner2);
 
         // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
-        when(practitionerService.getAllPractitioners()).thenReturn(practitioners);
-        when(appointmentRepository.findAppointmentsByRangeAndType(eq(initialAppointmentType.name()), any(Instant.class), any(Instant.class)))
-                .thenReturn(List.of(appointment1, appointment2, appointment3));
-        when(practitionerUnavailabilityRepository.findUnavailabilityForTimeRange(any(Instant.class), any(Instant.class)))
+        when(appointmentRepository.findPractitionerIntervalsByRange(appointment1.getStartAt(), appointment1.getEndAt(), Set.of(1L, 2L)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(appointment1.getStartAt(), appointment1.getEndAt(), Set.of(1L, 2L)))
                 .thenReturn(List.of());
+        runTransactionCallback();
+        when(appointmentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Appointment> batch = invocation.getArgument(0);
+            if (batch.size() > 1) {
+                // The rolled back insert leaves the generated id and version on the appointments
+                batch.forEach(appointment -> {
+                    appointment.setId(10L);
+                    appointment.setVersion(0L);
+                });
+                throw new DataIntegrityViolationException("unique_practitioner_schedule");
+            }
+            // An appointment with a version would be merged into a copy, leaving the given one without id
+            return batch.stream().map(appointment -> {
+                Appointment stored = appointment.getVersion() == null ? appointment : AppointmentFixture.withTimeAndPractitioner(
+                        appointment.getStartAt(), appointment.getPractitioner());
+                stored.setId(appointment.getPractitioner().getId() * 100);
+                stored.setVersion(0L);
+                return stored;
+            }).toList();
+        });
 
         // When
-        Map<Practitioner, List<TimeSlot>> availableSpots = appointmentService.getAvailableSpotsByTypeAndDate(initialAppointmentType, date);
+        List<BookingResult> results = appointmentService.addAppointments(List.of(appointment1, appointment2));
 
         // Then
-        assertThat(availableSpots.size(), equalTo(practitioners.size()));
-        assertThat(availableSpots.get(practitioner1), hasSize(7));
-        assertThat(availableSpots.get(practitioner1), not(hasItem(
-                new TimeSlot(appointment1.getStartAt(), appointment1.getEndAt())))
-        );
-        assertThat(availableSpots.get(practitioner2), hasSize(8));
-        assertThat(availableSpots.get(practitioner3), hasSize(6));
-        assertThat(availableSpots.get(practitioner3), not(hasItems(
-                new TimeSlot(appointment2.getStartAt(), appointment2.getEndAt()),
-                new TimeSlot(appointment3.getStartAt(), appointment3.getEndAt()),
-                new TimeSlot(practitioner3Unavailability.getStartAt(), practitioner3Unavailability.getEndAt())
-        )));
+        assertThat(results.get(0).appointment().getId(), equalTo(100L));
+        assertThat(results.get(1).appointment().getId(), equalTo(200L));
+        verify(appointmentRepository, times(3)).saveAllAndFlush(anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(AppointmentBookedEvent.class));
     }
 
     @Test
-    void shouldCreateAppointmentSuccessfully() {
+    void shouldRejectBatchWhenPractitionerLocksAreNotAcquired() {
         // Given
         Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
         Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
 
         // Prepare
         when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
-        when(appointmentRepository.existsAppointmentInTimeRange(appointment.getStartAt(), practitioner)).thenReturn(false);
-        when(practitionerUnavailabilityRepository.existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner)).thenReturn(false);
-        Appointment mockAppointment = mock(Appointment.class);
-        when(appointmentRepository.save(appointment)).thenReturn(mockAppointment);
+        when(bookingLocks.acquireAll(List.of(1L))).thenThrow(new AppointmentValidationException("The practitioner is busy, please try again"));
 
         // When
-        Appointment savedAppointment = appointmentService.addAppointment(appointment);
+        List<BookingResult> results = appointmentService.addAppointments(List.of(appointment));
 
         // Then
-        assertThat(savedAppointment, not(nullValue()));
-        assertThat(savedAppointment, equalTo(mockAppointment));
-        verify(appointmentRepository, times(1)).existsAppointmentInTimeRange(appointment.getStartAt(), practitioner);
-        verify(practitionerUnavailabilityRepository, times(1)).existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner);
-        verify(appointmentRepository, times(1)).save(appointment);
+        assertThat(results, contains(BookingResult.rejected("The practitioner is busy, please try again")));
+        verify(appointmentRepository, never()).findPractitionerIntervalsByRange(any(), any(), any());
+        verify(appointmentRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void shouldLockPractitionerDaysOfBatchOnceInAdvisoryLockMode() {
+        // Given
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        practitioner1.setId(1L);
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        practitioner2.setId(2L);
+        Appointment appointment1 = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner2);
+        Appointment appointment2 = AppointmentFixture.withTimeAndPractitioner(appointment1.getStartAt(), practitioner1);
+        Appointment appointment3 = AppointmentFixture.withTimeAndPractitioner(appointment1.getEndAt(), practitioner1);
+        List<Appointment> appointments = List.of(appointment1, appointment2, appointment3);
+        int clinicDay = (int) appointment1.getStartAt().atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toLocalDate().toEpochDay();
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.ADVISORY_LOCK);
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(appointmentRepository.findPractitionerIntervalsByRange(appointment1.getStartAt(), appointment3.getEndAt(), Set.of(1L, 2L)))
+                .thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(appointment1.getStartAt(), appointment3.getEndAt(), Set.of(1L, 2L)))
+                .thenReturn(List.of());
+        runTransactionCallback();
+        saveAppointments();
+
+        // When
+        List<BookingResult> results = appointmentService.addAppointments(appointments);
+
+        // Then
+        assertThat(results, contains(BookingResult.booked(appointment1), BookingResult.booked(appointment2), BookingResult.booked(appointment3)));
+        InOrder inOrder = inOrder(appointmentRepository);
+        inOrder.verify(appointmentRepository).lockPractitionerDay(Long.hashCode(1L), clinicDay);
+        inOrder.verify(appointmentRepository).lockPractitionerDay(Long.hashCode(2L), clinicDay);
+        inOrder.verify(appointmentRepository).saveAllAndFlush(appointments);
+        verify(appointmentRepository, times(2)).lockPractitionerDay(anyInt(), anyInt());
     }
 
     @Test
     void shouldValidateAppointmentOverlap() {
         // Given
         Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
         Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
 
         // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.QUERY);
         when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
@@ -337,16 +1846,19 @@ public class AppointmentServiceTest {
         assertThat(exception, instanceOf(AppointmentValidationException.class));
         verify(appointmentRepository, times(1)).existsAppointmentInTimeRange(appointment.getStartAt(), practitioner);
         verify(practitionerUnavailabilityRepository, never()).existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner);
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
     }
 
     @Test
     void shouldValidatePractitionerUnavailability() {
         // Given
         Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
         Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
 
         // Prepare
+        acquirePractitionerLock();
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.QUERY);
         when(businessHoursConfig.weekends()).thenReturn(true);
         when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
         when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
@@ -361,7 +1873,8 @@ public class AppointmentServiceTest {
         assertThat(exception, instanceOf(AppointmentValidationException.class));
         verify(appointmentRepository, times(1)).existsAppointmentInTimeRange(appointment.getStartAt(), practitioner);
         verify(practitionerUnavailabilityRepository, times(1)).existsUnavailabilityForTimeRange(appointment.getStartAt(), practitioner);
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -380,7 +1893,7 @@ public class AppointmentServiceTest {
         // Then
         assertThat(exception.getMessage(), equalTo(String.format(CLINIC_NOTICE_HOURS_MSG, APPOINTMENT_NOTICE_HOURS)));
         assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
         verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
     }
 
@@ -398,10 +1911,78 @@ public class AppointmentServiceTest {
         // Then
         assertThat(exception.getMessage(), equalTo(CLINIC_WEEKENDS_MSG));
         assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
+        verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
+    }
+
+    @Test
+    void shouldValidateScheduleOnClinicClosures() {
+        // Given
+        LocalDate date = LocalDate.now(ZoneId.of(CLINIC_PST_TIMEZONE)).plus(2, ChronoUnit.DAYS);
+        Instant scheduleTime = date.atTime(CLINIC_PST_AMPM_START_HOUR, 0).atZone(ZoneId.of(CLINIC_PST_TIMEZONE)).toInstant();
+        Appointment appointment = AppointmentFixture.withTime(scheduleTime);
+
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(clinicClosures.isClosed(date)).thenReturn(true);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(CLINIC_CLOSED_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(bookingLocks, never()).acquire(anyLong());
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
         verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
     }
 
+    @Test
+    void shouldValidateScheduleOutOfPractitionerWorkingHours() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(workingHours.offHours(eq(1L), any(DayOfWeek.class))).thenReturn(- 1L);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(WORKING_HOURS_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(bookingLocks, never()).acquire(anyLong());
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
+    }
+
+    @Test
+    void shouldValidateScheduleDuringRecurringUnavailability() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitioner(createValidStartTime(), practitioner);
+
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+        when(businessHoursConfig.ampmStart()).thenReturn(CLINIC_PST_AMPM_START_HOUR);
+        when(businessHoursConfig.ampmEnd()).thenReturn(CLINIC_PST_AMPM_END_HOUR);
+        when(unavailabilityRules.overlaps(1L, appointment.getStartAt(), appointment.getEndAt())).thenReturn(true);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo(APPOINTMENT_OVERLAP_MSG));
+        assertThat(exception, instanceOf(AppointmentValidationException.class));
+        verify(bookingLocks, never()).acquire(anyLong());
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
+    }
+
     @Test
     void shouldValidateScheduleTimeWhenClinicIsNotOpen() {
         // Prepare
@@ -426,7 +2007,7 @@ public class AppointmentServiceTest {
         // Then
         assertThat(exception.getMessage(), equalTo(String.format(CLINIC_HOURS_MSG, CLINIC_PST_AMPM_START_HOUR, CLINIC_PST_HH_END_HOUR)));
         assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
         verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
     }
 
@@ -454,7 +2035,7 @@ public class AppointmentServiceTest {
         // Then
         assertThat(exception.getMessage(), equalTo(String.format(CLINIC_HOURS_MSG, CLINIC_PST_AMPM_START_HOUR, CLINIC_PST_HH_END_HOUR)));
         assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
         verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
     }
 
@@ -484,7 +2065,7 @@ public class AppointmentServiceTest {
         // Then
         assertThat(exception.getMessage(), equalTo(String.format(CLINIC_HOURS_MSG, CLINIC_PST_AMPM_START_HOUR, CLINIC_PST_HH_END_HOUR)));
         assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
         verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
     }
 
@@ -501,16 +2082,34 @@ public class AppointmentServiceTest {
                 .toInstant();
         Appointment appointment = AppointmentFixture.withTimeAndType(scheduleTime, type);
 
+        // Prepare
+        when(businessHoursConfig.weekends()).thenReturn(true);
+
         // When
         RuntimeException exception = assertThrows(RuntimeException.class, () -> appointmentService.addAppointment(appointment));
 
         // Then
         assertThat(exception.getMessage(), equalTo(String.format(CLINIC_SLOT_TIME_MSG, CLINIC_PST_AMPM_START_HOUR, CLINIC_PST_HH_END_HOUR)));
         assertThat(exception, instanceOf(AppointmentValidationException.class));
-        verify(appointmentRepository, never()).save(appointment);
+        verify(appointmentRepository, never()).saveAndFlush(appointment);
         verify(appointmentRepository, never()).existsAppointmentInTimeRange(any(), any());
     }
 
+    private void acquirePractitionerLock() {
+        when(bookingLocks.acquire(anyLong())).thenReturn(lock);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void runTransactionCallback() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void saveAppointments() {
+        when(appointmentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
     private Instant createValidStartTime() {
         return ZonedDateTime.now(ZoneId.of(CLINIC_PST_TIMEZONE))
                 .withHour(CLINIC_PST_AMPM_START_HOUR + 2)
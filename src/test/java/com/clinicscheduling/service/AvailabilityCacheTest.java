@@ -0,0 +1,136 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.AvailabilityConfig;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith( MockitoExtension.class )
+public class AvailabilityCacheTest {
+
+    private static final int MAX_ENTRIES = 2;
+
+    private static final LocalDate DATE = LocalDate.of(2025, 2, 24);
+
+    private static final Instant OPENING = Instant.parse("2025-02-24T17:00:00Z");
+
+    @Mock
+    private AvailabilityConfig config;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private AvailabilityCache availabilityCache;
+
+    @BeforeEach
+    public void setUp() {
+        availabilityCache.registerMetrics();
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        // Prepare
+        when(config.cacheTtl()).thenReturn(Duration.ofMinutes(5));
+        when(config.cacheMaxEntries()).thenReturn(MAX_ENTRIES);
+
+        // Given
+        ClinicDayOccupancy occupancy = new ClinicDayOccupancy(OPENING.getEpochSecond());
+
+        // When
+        ClinicDayOccupancy miss = availabilityCache.getIfPresent(DATE);
+        availabilityCache.put(DATE, occupancy, availabilityCache.version());
+        ClinicDayOccupancy hit = availabilityCache.getIfPresent(DATE);
+        ClinicDayOccupancy otherDateMiss = availabilityCache.getIfPresent(DATE.plusDays(1));
+
+        // Then
+        assertThat(miss, nullValue());
+        assertThat(hit, sameInstance(occupancy));
+        assertThat(otherDateMiss, nullValue());
+        assertThat(meterRegistry.get("availability.cache.hits").functionCounter().count(), equalTo(1d));
+        assertThat(meterRegistry.get("availability.cache.misses").functionCounter().count(), equalTo(2d));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntries() {
+        // Prepare
+        when(config.cacheTtl()).thenReturn(Duration.ofMinutes(5));
+        when(config.cacheMaxEntries()).thenReturn(MAX_ENTRIES);
+
+        // When
+        availabilityCache.put(DATE, new ClinicDayOccupancy(OPENING.getEpochSecond()), availabilityCache.version());
+        availabilityCache.put(DATE.plusDays(1), new ClinicDayOccupancy(OPENING.getEpochSecond()), availabilityCache.version());
+        availabilityCache.getIfPresent(DATE);
+        availabilityCache.put(DATE.plusDays(2), new ClinicDayOccupancy(OPENING.getEpochSecond()), availabilityCache.version());
+
+        // Then
+        assertThat(availabilityCache.size(), equalTo(MAX_ENTRIES));
+        assertThat(availabilityCache.getIfPresent(DATE), not(nullValue()));
+        assertThat(availabilityCache.getIfPresent(DATE.plusDays(1)), nullValue());
+        assertThat(meterRegistry.get("availability.cache.evictions").functionCounter().count(), equalTo(1d));
+    }
+
+    @Test
+    void shouldExpireEntries() {
+        // Prepare
+        when(config.cacheTtl()).thenReturn(Duration.ZERO);
+
+        // When
+        availabilityCache.put(DATE, new ClinicDayOccupancy(OPENING.getEpochSecond()), availabilityCache.version());
+
+        // Then
+        assertThat(availabilityCache.getIfPresent(DATE), nullValue());
+        assertThat(meterRegistry.get("availability.cache.evictions").functionCounter().count(), equalTo(1d));
+    }
+
+    @Test
+    void shouldWriteBookingThroughToTheAffectedPractitionerDay() {
+        // Prepare
+        when(config.cacheTtl()).thenReturn(Duration.ofMinutes(5));
+        when(config.cacheMaxEntries()).thenReturn(MAX_ENTRIES);
+
+        // Given
+        ClinicDayOccupancy occupancy = new ClinicDayOccupancy(OPENING.getEpochSecond());
+        availabilityCache.put(DATE, occupancy, availabilityCache.version());
+        Instant startAt = OPENING.plus(1, ChronoUnit.HOURS);
+
+        // When
+        availabilityCache.onAppointmentBooked(new AppointmentBookedEvent(1l, AppointmentType.STANDARD, DATE, startAt, startAt.plus(1, ChronoUnit.HOURS)));
+
+        // Then
+        assertThat(availabilityCache.getIfPresent(DATE), sameInstance(occupancy));
+        assertThat(occupancy.occupancy(1l), equalTo(0b1100L));
+        assertThat(occupancy.occupancy(2l), equalTo(0L));
+    }
+
+    @Test
+    void shouldNotCacheOccupancyLoadedBeforeABooking() {
+        // Given
+        long loadedVersion = availabilityCache.version();
+        Instant startAt = OPENING.plus(1, ChronoUnit.HOURS);
+
+        // When
+        availabilityCache.onAppointmentBooked(new AppointmentBookedEvent(1l, AppointmentType.STANDARD, DATE, startAt, startAt.plus(1, ChronoUnit.HOURS)));
+        availabilityCache.put(DATE, new ClinicDayOccupancy(OPENING.getEpochSecond()), loadedVersion);
+
+        // Then
+        assertThat(availabilityCache.size(), equalTo(0));
+    }
+
+}
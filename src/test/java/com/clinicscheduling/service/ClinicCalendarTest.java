@@ -0,0 +1,91 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ClinicCalendarTest {
+
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("America/Vancouver");
+
+    private static final BusinessHoursConfig CONFIG = new BusinessHoursConfig("America/Vancouver", 9, 17, 5, false, 2);
+
+    private static final Instant NOW = Instant.parse("2026-03-05T20:00:00Z");
+
+    private final ClinicCalendar calendar = new ClinicCalendar(CONFIG, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void shouldKeepTheClinicHoursOnDaylightSavingTimeChanges() {
+        // Given
+        LocalDate springForward = LocalDate.of(2026, 3, 8);
+        LocalDate fallBack = LocalDate.of(2026, 11, 1);
+
+        // When
+        ClinicDay springForwardDay = calendar.day(springForward);
+        ClinicDay fallBackDay = calendar.day(fallBack);
+
+        // Then
+        assertThat(springForwardDay.open(), equalTo(springForward.atTime(9, 0).atZone(CLINIC_ZONE).toInstant()));
+        assertThat(springForwardDay.close(), equalTo(springForward.atTime(17, 0).atZone(CLINIC_ZONE).toInstant()));
+        assertThat(springForwardDay.endSecond() - springForwardDay.startSecond(), equalTo(23 * 3600L));
+        assertThat(fallBackDay.open(), equalTo(fallBack.atTime(9, 0).atZone(CLINIC_ZONE).toInstant()));
+        assertThat(fallBackDay.endSecond() - fallBackDay.startSecond(), equalTo(25 * 3600L));
+    }
+
+    @Test
+    void shouldFindTheClinicDateOfAnInstant() {
+        // Given
+        Instant lateEvening = LocalDateTime.of(2026, 3, 6, 23, 30).atZone(CLINIC_ZONE).toInstant();
+        Instant farAhead = LocalDateTime.of(2028, 1, 3, 23, 30).atZone(CLINIC_ZONE).toInstant();
+
+        // When
+        ClinicDay lateEveningDay = calendar.dayOf(lateEvening);
+        ClinicDay farAheadDay = calendar.dayOf(farAhead);
+
+        // Then
+        assertThat(calendar.today().date(), equalTo(LocalDate.of(2026, 3, 5)));
+        assertThat(lateEveningDay.date(), equalTo(LocalDate.of(2026, 3, 6)));
+        assertThat(farAheadDay, equalTo(calendar.day(LocalDate.of(2028, 1, 3))));
+    }
+
+    @Test
+    void shouldCloseOnWeekends() {
+        // When
+        ClinicDay saturday = calendar.day(LocalDate.of(2026, 3, 7));
+        ClinicDay monday = calendar.day(LocalDate.of(2026, 3, 9));
+
+        // Then
+        assertThat(saturday.weekend(), equalTo(true));
+        assertThat(saturday.closed(), equalTo(true));
+        assertThat(monday.weekend(), equalTo(false));
+        assertThat(monday.closed(), equalTo(false));
+    }
+
+    @Test
+    void shouldCheckTheTimeWithinTheClinicHours() {
+        // Given
+        ClinicDay day = calendar.day(LocalDate.of(2026, 3, 9));
+        long open = day.openSecond();
+        long close = day.closeSecond();
+
+        // Then
+        assertThat(day.isOnHalfHour(open + 30 * 60), equalTo(true));
+        assertThat(day.isOnHalfHour(open + 30 * 60 + 59), equalTo(true));
+        assertThat(day.isOnHalfHour(open + 14 * 60), equalTo(false));
+        assertThat(day.isWithinHours(open, close), equalTo(true));
+        assertThat(day.isWithinHours(open - 1, close), equalTo(false));
+        assertThat(day.isWithinHours(open, close + 60), equalTo(false));
+        assertThat(calendar.noticeCutoffMillis(), equalTo(NOW.plus(2, ChronoUnit.HOURS).toEpochMilli()));
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.ClinicClosure;
+import com.janeapp.clinicscheduling.repository.ClinicClosureRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class ClinicClosuresTest {
+
+    private static final LocalDate CHRISTMAS = LocalDate.of(2026, 12, 25);
+
+    private static final LocalDate NEW_YEAR = LocalDate.of(2027, 1, 1);
+
+    @Mock
+    private ClinicClosureRepository clinicClosureRepository;
+
+    @Mock
+    private FreeIntervalCache freeIntervalCache;
+
+    @InjectMocks
+    private ClinicClosures clinicClosures;
+
+    @Test
+    void shouldLoadClosuresOnceAndCheckThemFromMemory() {
+        // Prepare
+        when(clinicClosureRepository.findAll()).thenReturn(List.of(
+                new ClinicClosure(CHRISTMAS, "Christmas Day"), new ClinicClosure(NEW_YEAR, "New Year's Day")));
+
+        // When
+        boolean christmas = clinicClosures.isClosed(CHRISTMAS);
+        boolean newYear = clinicClosures.isClosed(NEW_YEAR);
+        boolean boxingDay = clinicClosures.isClosed(CHRISTMAS.plusDays(1));
+        boolean nextYear = clinicClosures.isClosed(CHRISTMAS.plusYears(1));
+        boolean previousYear = clinicClosures.isClosed(CHRISTMAS.minusYears(1));
+
+        // Then
+        assertThat(christmas, equalTo(true));
+        assertThat(newYear, equalTo(true));
+        assertThat(boxingDay, equalTo(false));
+        assertThat(nextYear, equalTo(false));
+        assertThat(previousYear, equalTo(false));
+        verify(clinicClosureRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldSeeClosureRightAfterClosing() {
+        // Given
+        ClinicClosure closure = new ClinicClosure(CHRISTMAS, "Christmas Day");
+
+        // Prepare
+        when(clinicClosureRepository.findAll()).thenReturn(List.of()).thenReturn(List.of(closure));
+        when(clinicClosureRepository.save(any(ClinicClosure.class))).thenReturn(closure);
+
+        // When
+        boolean beforeClosing = clinicClosures.isClosed(CHRISTMAS);
+        clinicClosures.close(CHRISTMAS, "Christmas Day");
+        boolean afterClosing = clinicClosures.isClosed(CHRISTMAS);
+
+        // Then
+        assertThat(beforeClosing, equalTo(false));
+        assertThat(afterClosing, equalTo(true));
+        verify(freeIntervalCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void shouldNotReopenDateThatIsNotClosed() {
+        // Prepare
+        when(clinicClosureRepository.existsById(CHRISTMAS)).thenReturn(false);
+
+        // When
+        NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> clinicClosures.reopen(CHRISTMAS));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("Closure not found"));
+        verify(clinicClosureRepository, never()).deleteById(any());
+        verify(freeIntervalCache, never()).invalidateAll();
+    }
+
+}
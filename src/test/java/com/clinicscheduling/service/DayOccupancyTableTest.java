@@ -0,0 +1,192 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerDayOccupancy;
+import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerDayOccupancyRepository;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class DayOccupancyTableTest {
+
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("America/Vancouver");
+
+    private static final BusinessHoursConfig CONFIG = new BusinessHoursConfig("America/Vancouver", 9, 17, 5, false, 2);
+
+    private static final Instant NOW = Instant.parse("2026-03-05T20:00:00Z");
+
+    @Mock
+    private PractitionerDayOccupancyRepository dayOccupancyRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PractitionerUnavailabilityRepository practitionerUnavailabilityRepository;
+
+    @Mock
+    private BookingConfig bookingConfig;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @InjectMocks
+    private DayOccupancyTable dayOccupancyTable;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(dayOccupancyTable, "clinicCalendar", new ClinicCalendar(CONFIG, Clock.fixed(NOW, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void shouldBookTheSlotsOfTheAppointmentFromTheClinicOpening() {
+        // Given
+        LocalDate date = LocalDate.of(2026, 3, 6);
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(
+                date.atTime(10, 0).atZone(CLINIC_ZONE).toInstant(), practitioner, AppointmentType.STANDARD);
+
+        // Prepare
+        when(dayOccupancyRepository.book(date, 1L, 0b11L << 2)).thenReturn(1);
+
+        // When
+        dayOccupancyTable.book(appointment);
+
+        // Then
+        verify(dayOccupancyRepository, times(1)).book(date, 1L, 0b11L << 2);
+    }
+
+    @Test
+    void shouldRejectBookingWhenTheSlotsAreTaken() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(
+                LocalDate.of(2026, 3, 6).atTime(10, 0).atZone(CLINIC_ZONE).toInstant(), practitioner, AppointmentType.STANDARD);
+
+        // Prepare
+        when(dayOccupancyRepository.book(any(LocalDate.class), anyLong(), anyLong())).thenReturn(0);
+
+        // When
+        assertThrows(DataIntegrityViolationException.class, () -> dayOccupancyTable.book(appointment));
+    }
+
+    @Test
+    void shouldRebuildTheDriftedRowsUnderTheirLock() {
+        // Given
+        LocalDate today = LocalDate.of(2026, 3, 5);
+        LocalDate tomorrow = today.plusDays(1);
+        Instant appointmentStart = tomorrow.atTime(10, 0).atZone(CLINIC_ZONE).toInstant();
+        PractitionerInterval appointment = new PractitionerInterval(1L, appointmentStart, appointmentStart.plus(Duration.ofHours(1)));
+        // A leave started weeks ago, until 10:30 am today
+        PractitionerInterval leave = new PractitionerInterval(2L, LocalDate.of(2026, 1, 1).atStartOfDay(CLINIC_ZONE).toInstant(),
+                today.atTime(10, 30).atZone(CLINIC_ZONE).toInstant());
+        PractitionerDayOccupancy upToDate = new PractitionerDayOccupancy(tomorrow, 1L);
+        upToDate.setBooked(0b11L << 2);
+        // Booked by an appointment removed since then
+        PractitionerDayOccupancy stale = new PractitionerDayOccupancy(today, 3L);
+        stale.setBooked(0b1L);
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.OCCUPANCY_TABLE);
+        when(bookingConfig.occupancyTable()).thenReturn(new BookingConfig.OccupancyTable(1, Duration.ofMinutes(10)));
+        runTransactionCallback();
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class))).thenReturn(List.of(appointment));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class))).thenReturn(List.of(leave));
+        when(dayOccupancyRepository.findByClinicDateBetween(today, tomorrow)).thenReturn(List.of(upToDate, stale));
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class), anySet())).thenReturn(List.of());
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(any(Instant.class), any(Instant.class), eq(Set.of(2L))))
+                .thenReturn(List.of(leave));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlappingByPractitioners(any(Instant.class), any(Instant.class), eq(Set.of(3L))))
+                .thenReturn(List.of());
+
+        // When
+        dayOccupancyTable.rebuild();
+
+        // Then
+        InOrder inOrder = inOrder(dayOccupancyRepository);
+        inOrder.verify(dayOccupancyRepository).lockDay(today, 2L);
+        inOrder.verify(dayOccupancyRepository).updateDay(today, 2L, 0L, 0b111L);
+        verify(dayOccupancyRepository).lockDay(today, 3L);
+        verify(dayOccupancyRepository).updateDay(today, 3L, 0L, 0L);
+        verify(dayOccupancyRepository, never()).lockDay(tomorrow, 1L);
+        verify(dayOccupancyRepository, never()).updateDay(eq(tomorrow), eq(1L), anyLong(), anyLong());
+        verify(availabilityCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void shouldNotWriteRowsWhenNoneDrifted() {
+        // Given
+        LocalDate tomorrow = LocalDate.of(2026, 3, 6);
+        Instant appointmentStart = tomorrow.atTime(10, 0).atZone(CLINIC_ZONE).toInstant();
+        PractitionerDayOccupancy upToDate = new PractitionerDayOccupancy(tomorrow, 1L);
+        upToDate.setBooked(0b11L << 2);
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.OCCUPANCY_TABLE);
+        when(bookingConfig.occupancyTable()).thenReturn(new BookingConfig.OccupancyTable(1, Duration.ofMinutes(10)));
+        when(appointmentRepository.findPractitionerIntervalsByRange(any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(new PractitionerInterval(1L, appointmentStart, appointmentStart.plus(Duration.ofHours(1)))));
+        when(practitionerUnavailabilityRepository.findPractitionerIntervalsOverlapping(any(Instant.class), any(Instant.class))).thenReturn(List.of());
+        when(dayOccupancyRepository.findByClinicDateBetween(tomorrow.minusDays(1), tomorrow)).thenReturn(List.of(upToDate));
+
+        // When
+        dayOccupancyTable.rebuild();
+
+        // Then
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(dayOccupancyRepository, never()).lockDay(any(LocalDate.class), anyLong());
+        verifyNoInteractions(availabilityCache);
+    }
+
+    @Test
+    void shouldNotRebuildInOtherModes() {
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+
+        // When
+        dayOccupancyTable.rebuild();
+
+        // Then
+        verifyNoInteractions(dayOccupancyRepository, appointmentRepository, availabilityCache);
+    }
+
+    private void runTransactionCallback() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+}
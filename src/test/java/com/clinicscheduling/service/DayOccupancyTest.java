@@ -0,0 +1,79 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DayOccupancyTest {
+
+    private static final long ORIGIN = Instant.parse("2025-02-24T17:00:00Z").getEpochSecond();
+
+    private static final long MINUTE = 60L;
+
+    @Test
+    void shouldMarkEverySlotTouchedByTheInterval() {
+        // When
+        long occupancy = DayOccupancy.mark(0L, ORIGIN, ORIGIN + 40 * MINUTE, ORIGIN + 70 * MINUTE);
+
+        // Then
+        assertThat(occupancy, equalTo(0b110L));
+    }
+
+    @Test
+    void shouldIgnoreTheIntervalPartsOutsideTheBitmap() {
+        // When
+        long beforeOrigin = DayOccupancy.mark(0L, ORIGIN, ORIGIN - 90 * MINUTE, ORIGIN + 30 * MINUTE);
+        long afterOrigin = DayOccupancy.mark(0L, ORIGIN, ORIGIN + 62 * 30 * MINUTE, ORIGIN + 80 * 30 * MINUTE);
+        long outside = DayOccupancy.mark(0L, ORIGIN, ORIGIN - 90 * MINUTE, ORIGIN);
+
+        // Then
+        assertThat(beforeOrigin, equalTo(0b1L));
+        assertThat(afterOrigin, equalTo(0b11L << 62));
+        assertThat(outside, equalTo(0L));
+    }
+
+    @Test
+    void shouldDeriveFreeStartsLaidOutByTheAppointmentLength() {
+        // Given
+        long occupancy = DayOccupancy.mark(0L, ORIGIN, ORIGIN + 90 * MINUTE, ORIGIN + 120 * MINUTE); // slot 3 taken
+
+        // When
+        long standardStarts = DayOccupancy.freeStarts(occupancy, 0, 16, DayOccupancy.slotsOf(AppointmentType.STANDARD));
+        long checkInStarts = DayOccupancy.freeStarts(occupancy, 0, 16, DayOccupancy.slotsOf(AppointmentType.CHECK_IN));
+
+        // Then
+        assertThat(Long.bitCount(standardStarts), equalTo(7));
+        assertThat(standardStarts & 0b1111L, equalTo(0b0001L)); // the 1-hour slot starting on slot 2 overlaps slot 3
+        assertThat(Long.bitCount(checkInStarts), equalTo(15));
+        assertThat(checkInStarts & 0b1000L, equalTo(0L));
+    }
+
+    @Test
+    void shouldConvertFreeStartsIntoTimeSlots() {
+        // Given
+        Instant origin = Instant.ofEpochSecond(ORIGIN);
+        int length = DayOccupancy.slotsOf(AppointmentType.INITIAL);
+
+        // When
+        List<TimeSlot> slots = DayOccupancy.toTimeSlots(0b1001L, ORIGIN, length);
+
+        // Then
+        assertThat(slots, contains(
+                new TimeSlot(origin, origin.plus(90, ChronoUnit.MINUTES)),
+                new TimeSlot(origin.plus(90, ChronoUnit.MINUTES), origin.plus(180, ChronoUnit.MINUTES))
+        ));
+    }
+
+    @Test
+    void shouldRejectRangesThatDoNotFitInTheBitmap() {
+        assertThrows(IllegalArgumentException.class, () -> DayOccupancy.freeStarts(0L, 0, 64, 2));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.janeapp.clinicscheduling.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FreeIntervalIndexTest {
+
+    private static final long DAY = 24 * 60L;
+
+    private static final long OPENING = 9 * 60L;
+
+    private static final long CLOSING = 17 * 60L;
+
+    private static final long[] WINDOW_STARTS = {OPENING, DAY + OPENING, 2 * DAY + OPENING};
+
+    private static final long[] WINDOW_ENDS = {CLOSING, DAY + CLOSING, 2 * DAY + CLOSING};
+
+    @Test
+    void shouldSubtractBusyIntervalsFromTheWindows() {
+        // Given
+        long[] busyStarts = {OPENING + 60, OPENING + 90, DAY + OPENING - 60};
+        long[] busyEnds = {OPENING + 120, OPENING + 100, DAY + CLOSING};
+
+        // When
+        FreeIntervalIndex index = FreeIntervalIndex.of(WINDOW_STARTS, WINDOW_ENDS, busyStarts, busyEnds);
+
+        // Then
+        assertThat(index.size(), equalTo(3));
+        assertThat(index.start(0), equalTo(OPENING));
+        assertThat(index.end(0), equalTo(OPENING + 60));
+        assertThat(index.start(1), equalTo(OPENING + 120));
+        assertThat(index.end(1), equalTo(CLOSING));
+        assertThat(index.start(2), equalTo(2 * DAY + OPENING));
+    }
+
+    @Test
+    void shouldAlignFreeIntervalsToTheHalfHourGrid() {
+        // Given
+        long[] busyStarts = {OPENING + 10, OPENING + 50};
+        long[] busyEnds = {OPENING + 20, OPENING + 70};
+
+        // When
+        FreeIntervalIndex index = FreeIntervalIndex.of(new long[]{OPENING}, new long[]{CLOSING}, busyStarts, busyEnds);
+
+        // Then
+        assertThat(index.size(), equalTo(1));
+        assertThat(index.start(0), equalTo(OPENING + 90));
+    }
+
+    @Test
+    void shouldFindTheFirstFreeRunLongEnough() {
+        // Given a morning with only short gaps on the first day
+        long[] busyStarts = {OPENING + 30, OPENING + 90, OPENING + 150};
+        long[] busyEnds = {OPENING + 60, OPENING + 120, CLOSING};
+        FreeIntervalIndex index = FreeIntervalIndex.of(WINDOW_STARTS, WINDOW_ENDS, busyStarts, busyEnds);
+
+        // When
+        long checkIn = index.firstFit(0, 30);
+        long initial = index.firstFit(0, 90);
+        long afterTheFirstGap = index.firstFit(OPENING + 10, 30);
+        long fromTheMiddleOfAGap = index.firstFit(DAY + OPENING + 40, 60);
+
+        // Then
+        assertThat(checkIn, equalTo(OPENING));
+        assertThat(initial, equalTo(DAY + OPENING));
+        assertThat(afterTheFirstGap, equalTo(OPENING + 60));
+        assertThat(fromTheMiddleOfAGap, equalTo(DAY + OPENING + 60));
+    }
+
+    @Test
+    void shouldNotFindAFreeRunAfterTheLastInterval() {
+        // Given
+        FreeIntervalIndex index = FreeIntervalIndex.of(WINDOW_STARTS, WINDOW_ENDS, new long[0], new long[0]);
+
+        // When
+        long longerThanADay = index.firstFit(0, CLOSING - OPENING + 30);
+        long afterTheHorizon = index.firstFit(2 * DAY + CLOSING, 30);
+
+        // Then
+        assertThat(longerThanADay, equalTo(- 1L));
+        assertThat(afterTheHorizon, equalTo(- 1L));
+    }
+
+    @Test
+    void shouldRemoveABookedInterval() {
+        // Given
+        FreeIntervalIndex index = FreeIntervalIndex.of(WINDOW_STARTS, WINDOW_ENDS, new long[0], new long[0]);
+
+        // When
+        FreeIntervalIndex booked = index.without(OPENING, CLOSING - 30);
+
+        // Then
+        assertThat(booked.firstFit(0, 30), equalTo(CLOSING - 30));
+        assertThat(booked.firstFit(0, 60), equalTo(DAY + OPENING));
+        assertThat(index.firstFit(0, 60), equalTo(OPENING));
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
+import com.janeapp.clinicscheduling.repository.AppointmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class GroupCommitBookingWriterTest {
+
+    private static final Instant START = Instant.parse("2025-02-24T17:00:00Z");
+
+    @Mock
+    private BookingConfig bookingConfig;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private GroupCommitBookingWriter writer;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void shouldWriteQueuedBookingsInOneTransaction() throws Exception {
+        // Given
+        List<Appointment> appointments = List.of(appointmentAt(0), appointmentAt(1), appointmentAt(2));
+        List<Appointment> completed = new ArrayList<>();
+
+        // Prepare
+        when(bookingConfig.groupCommit()).thenReturn(new BookingConfig.GroupCommit(true, 10, 10, Duration.ofMillis(200)));
+        runTransactionCallback();
+        when(appointmentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        writer.start();
+
+        // When
+        List<CompletableFuture<Appointment>> results = appointments.stream()
+                .map(appointment -> writer.submit(appointment, completed::add))
+                .toList();
+
+        // Then
+        for (int i = 0; i < appointments.size(); i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS), sameInstance(appointments.get(i)));
+        }
+        assertThat(completed, equalTo(appointments));
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(appointmentRepository, times(1)).saveAllAndFlush(appointments);
+        assertThat(meterRegistry.get("booking.group-commit.batch-size").summary().max(), equalTo(3d));
+    }
+
+    @Test
+    void shouldWriteBookingsOneByOneWhenTheBatchIsRejected() throws Exception {
+        // Given
+        Appointment available = appointmentAt(0);
+        Appointment conflicting = appointmentAt(1);
+
+        // Prepare
+        when(bookingConfig.groupCommit()).thenReturn(new BookingConfig.GroupCommit(true, 10, 10, Duration.ofMillis(200)));
+        runTransactionCallback();
+        when(appointmentRepository.saveAllAndFlush(List.of(available, conflicting)))
+                .thenThrow(new DataIntegrityViolationException("exclude_practitioner_appointment_overlap"));
+        when(appointmentRepository.saveAllAndFlush(List.of(available))).thenReturn(List.of(available));
+        when(appointmentRepository.saveAllAndFlush(List.of(conflicting)))
+                .thenThrow(new DataIntegrityViolationException("exclude_practitioner_appointment_overlap"));
+        writer.start();
+
+        // When
+        CompletableFuture<Appointment> availableResult = writer.submit(available, saved -> { });
+        CompletableFuture<Appointment> conflictingResult = writer.submit(conflicting, saved -> { });
+
+        // Then
+        assertThat(availableResult.get(5, TimeUnit.SECONDS), sameInstance(available));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> conflictingResult.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(DataIntegrityViolationException.class));
+    }
+
+    @Test
+    void shouldRejectBookingsWhenTheQueueIsFull() throws Exception {
+        // Prepare
+        when(bookingConfig.groupCommit()).thenReturn(new BookingConfig.GroupCommit(true, 1, 1, Duration.ZERO));
+        CountDownLatch writing = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.get(5, TimeUnit.SECONDS);
+            return List.of(appointmentAt(0));
+        });
+        writer.start();
+
+        // When
+        writer.submit(appointmentAt(0), saved -> { });
+        assertThat(writing.await(5, TimeUnit.SECONDS), equalTo(true));
+        writer.submit(appointmentAt(1), saved -> { });
+        AppointmentValidationException exception = assertThrows(AppointmentValidationException.class,
+                () -> writer.submit(appointmentAt(2), saved -> { }));
+        release.complete(null);
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("There are too many bookings in progress, please try again"));
+    }
+
+    @Test
+    void shouldFailBookingsTakenFromTheQueueWhenStoppedWhileLingering() throws Exception {
+        // Prepare
+        when(bookingConfig.groupCommit()).thenReturn(new BookingConfig.GroupCommit(true, 10, 10, Duration.ofMinutes(1)));
+        writer.start();
+        CompletableFuture<Appointment> result = writer.submit(appointmentAt(0), saved -> { });
+
+        // When
+        writer.stop();
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(AppointmentValidationException.class));
+        assertThat(exception.getCause().getMessage(), equalTo("The booking could not be completed, please try again"));
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    private void runTransactionCallback() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private Appointment appointmentAt(final int hour) {
+        return AppointmentFixture.withTime(START.plus(hour, ChronoUnit.HOURS));
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.janeapp.clinicscheduling.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class HashedTimerWheelTest {
+
+    private static final long TICK_MILLIS = 1000;
+
+    @Test
+    void shouldExpireItemsOnceTheirDeadlineHasPassed() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(TICK_MILLIS, 8, 0);
+        wheel.schedule("first", 1500);
+        wheel.schedule("second", 3000);
+
+        // When
+        List<String> beforeDeadline = wheel.advance(1000);
+        List<String> afterFirstDeadline = wheel.advance(2000);
+        List<String> afterSecondDeadline = wheel.advance(3000);
+
+        // Then
+        assertThat(beforeDeadline, empty());
+        assertThat(afterFirstDeadline, contains("first"));
+        assertThat(afterSecondDeadline, contains("second"));
+    }
+
+    @Test
+    void shouldKeepItemsScheduledRoundsAheadUntilTheirDeadline() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(TICK_MILLIS, 4, 0);
+        wheel.schedule("next-round", 6000);
+
+        // When
+        List<String> sameBucketPreviousRound = wheel.advance(2000);
+        List<String> deadline = wheel.advance(6000);
+
+        // Then
+        assertThat(sameBucketPreviousRound, empty());
+        assertThat(deadline, contains("next-round"));
+    }
+
+    @Test
+    void shouldExpireEveryPastItemAfterALongPause() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(TICK_MILLIS, 4, 0);
+        wheel.schedule("first", 1000);
+        wheel.schedule("second", 2000);
+        wheel.schedule("third", 7000);
+        wheel.schedule("late", 60_000);
+
+        // When
+        List<String> expired = wheel.advance(30_000);
+
+        // Then
+        assertThat(expired, containsInAnyOrder("first", "second", "third"));
+    }
+
+    @Test
+    void shouldExpirePastDeadlinesOnTheNextAdvance() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(TICK_MILLIS, 8, 5000);
+        wheel.schedule("past", 1000);
+
+        // When
+        List<String> expired = wheel.advance(5000);
+
+        // Then
+        assertThat(expired, contains("past"));
+    }
+
+}
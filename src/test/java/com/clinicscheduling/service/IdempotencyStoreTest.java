@@ -0,0 +1,194 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.IdempotencyConfig;
+import com.janeapp.clinicscheduling.entity.AppointmentIdempotencyKey;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.repository.AppointmentIdempotencyKeyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class IdempotencyStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(24);
+
+    private static final String FINGERPRINT = IdempotencyStore.fingerprint(1L, 2L, AppointmentType.STANDARD, Instant.parse("2025-02-24T17:00:00Z"));
+
+    @Mock
+    private IdempotencyConfig config;
+
+    @Mock
+    private AppointmentIdempotencyKeyRepository repository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyStore.registerMetrics();
+    }
+
+    @Test
+    void shouldFindSavedKeyWithoutReadingTheDatabase() {
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(config.maxEntries()).thenReturn(10);
+        when(repository.insertOrReplaceExpired(eq("key-1"), eq(FINGERPRINT), eq(10L), any(), any())).thenReturn(1);
+
+        // When
+        idempotencyStore.save("key-1", FINGERPRINT, 10L);
+        Optional<Long> appointmentId = idempotencyStore.find("key-1", FINGERPRINT);
+
+        // Then
+        assertThat(appointmentId, equalTo(Optional.of(10L)));
+        verify(repository, never()).findByKeyCreatedAfter(any(), any());
+        assertThat(meterRegistry.get("booking.idempotent.replays").functionCounter().count(), equalTo(1d));
+    }
+
+    @Test
+    void shouldFindKeyStoredByAnotherNodeInTheDatabase() {
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(config.maxEntries()).thenReturn(10);
+        when(repository.findByKeyCreatedAfter(eq("key-1"), any()))
+                .thenReturn(Optional.of(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 10L, Instant.now())));
+
+        // When
+        Optional<Long> first = idempotencyStore.find("key-1", FINGERPRINT);
+        Optional<Long> second = idempotencyStore.find("key-1", FINGERPRINT);
+
+        // Then
+        assertThat(first, equalTo(Optional.of(10L)));
+        assertThat(second, equalTo(Optional.of(10L)));
+        verify(repository, times(1)).findByKeyCreatedAfter(eq("key-1"), any());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedKeys() {
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(config.maxEntries()).thenReturn(2);
+        when(repository.insertOrReplaceExpired(any(), eq(FINGERPRINT), any(), any(), any())).thenReturn(1);
+
+        // When
+        idempotencyStore.save("key-1", FINGERPRINT, 10L);
+        idempotencyStore.save("key-2", FINGERPRINT, 20L);
+        idempotencyStore.findRecent("key-1", FINGERPRINT);
+        idempotencyStore.save("key-3", FINGERPRINT, 30L);
+
+        // Then
+        assertThat(idempotencyStore.findRecent("key-1", FINGERPRINT), equalTo(Optional.of(10L)));
+        assertThat(idempotencyStore.findRecent("key-2", FINGERPRINT), equalTo(Optional.empty()));
+        assertThat(idempotencyStore.findRecent("key-3", FINGERPRINT), equalTo(Optional.of(30L)));
+    }
+
+    @Test
+    void shouldNotFindExpiredKeys() {
+        // Prepare
+        when(config.ttl()).thenReturn(Duration.ZERO);
+        when(config.maxEntries()).thenReturn(10);
+        when(repository.insertOrReplaceExpired(eq("key-1"), eq(FINGERPRINT), eq(10L), any(), any())).thenReturn(1);
+
+        // When
+        idempotencyStore.save("key-1", FINGERPRINT, 10L);
+        Optional<Long> appointmentId = idempotencyStore.find("key-1", FINGERPRINT);
+
+        // Then
+        assertThat(appointmentId, equalTo(Optional.empty()));
+        verify(repository, times(1)).findByKeyCreatedAfter(eq("key-1"), any());
+    }
+
+    @Test
+    void shouldReplaceExpiredKeyNotPurgedYet() {
+        // Given
+        ArgumentCaptor<Instant> createdAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> expiredBefore = ArgumentCaptor.forClass(Instant.class);
+
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(config.maxEntries()).thenReturn(10);
+        when(repository.insertOrReplaceExpired(eq("key-1"), eq(FINGERPRINT), eq(10L), createdAt.capture(), expiredBefore.capture()))
+                .thenReturn(1);
+
+        // When
+        idempotencyStore.save("key-1", FINGERPRINT, 10L);
+
+        // Then
+        assertThat(expiredBefore.getValue(), equalTo(createdAt.getValue().minus(TTL)));
+        assertThat(idempotencyStore.findRecent("key-1", FINGERPRINT), equalTo(Optional.of(10L)));
+    }
+
+    @Test
+    void shouldFailSavingKeyThatHasNotExpired() {
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(repository.insertOrReplaceExpired(eq("key-1"), eq(FINGERPRINT), eq(20L), any(), any())).thenReturn(0);
+
+        // When
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> idempotencyStore.save("key-1", FINGERPRINT, 20L));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("Idempotency key key-1 is already stored"));
+        assertThat(idempotencyStore.findRecent("key-1", FINGERPRINT), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithAnotherRequest() {
+        // Given
+        String otherFingerprint = IdempotencyStore.fingerprint(1L, 2L, AppointmentType.INITIAL, Instant.parse("2025-02-24T17:00:00Z"));
+
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(config.maxEntries()).thenReturn(10);
+        when(repository.findByKeyCreatedAfter(eq("key-1"), any()))
+                .thenReturn(Optional.of(new AppointmentIdempotencyKey("key-1", FINGERPRINT, 10L, Instant.now())));
+
+        // When
+        IdempotencyKeyReusedException exception = assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.find("key-1", otherFingerprint));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("The Idempotency-Key was already used with a different request"));
+        assertThat(meterRegistry.get("booking.idempotent.replays").functionCounter().count(), equalTo(0d));
+    }
+
+    @Test
+    void shouldReplayKeyStoredWithoutFingerprint() {
+        // Prepare
+        when(config.ttl()).thenReturn(TTL);
+        when(config.maxEntries()).thenReturn(10);
+        when(repository.findByKeyCreatedAfter(eq("key-1"), any()))
+                .thenReturn(Optional.of(new AppointmentIdempotencyKey("key-1", null, 10L, Instant.now())));
+
+        // When
+        Optional<Long> appointmentId = idempotencyStore.find("key-1", FINGERPRINT);
+
+        // Then
+        assertThat(appointmentId, equalTo(Optional.of(10L)));
+    }
+
+}
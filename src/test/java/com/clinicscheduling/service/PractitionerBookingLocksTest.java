@@ -0,0 +1,116 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith( MockitoExtension.class )
+public class PractitionerBookingLocksTest {
+
+    private static final int LOCK_STRIPES = 4;
+
+    @Mock
+    private BookingConfig config;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private PractitionerBookingLocks bookingLocks;
+
+    @BeforeEach
+    public void setUp() {
+        when(config.lockStripes()).thenReturn(LOCK_STRIPES);
+        bookingLocks.init();
+    }
+
+    @Test
+    void shouldShareTheLockOfAPractitioner() {
+        // Prepare
+        when(config.lockTimeout()).thenReturn(Duration.ofSeconds(1));
+
+        // When
+        Lock lock1 = bookingLocks.acquire(1L);
+        lock1.unlock();
+        Lock lock2 = bookingLocks.acquire(1L);
+        lock2.unlock();
+        Lock otherStripeLock = bookingLocks.acquire(2L);
+        otherStripeLock.unlock();
+
+        // Then
+        assertThat(lock1, sameInstance(lock2));
+        assertThat(otherStripeLock, not(sameInstance(lock1)));
+        assertThat(meterRegistry.get("booking.lock.wait").timer().count(), equalTo(3L));
+    }
+
+    @Test
+    void shouldRejectBookingWaitingTooLongForThePractitionerLock() {
+        // Prepare
+        when(config.lockTimeout()).thenReturn(Duration.ofMillis(50));
+
+        // Given
+        Lock lock = bookingLocks.acquire(1L);
+
+        // When
+        RuntimeException exception = CompletableFuture.supplyAsync(() ->
+                assertThrows(AppointmentValidationException.class, () -> bookingLocks.acquire(1L + LOCK_STRIPES))
+        ).join();
+        lock.unlock();
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("The practitioner is receiving too many bookings, please try again"));
+        assertThat(meterRegistry.get("booking.rejected.early").tag("reason", "lock-timeout").counter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("booking.lock.wait").timer().count(), equalTo(2L));
+    }
+
+    @Test
+    void shouldAcquireTheLocksOfEveryPractitionerOnceOrNone() {
+        // Prepare
+        when(config.lockTimeout()).thenReturn(Duration.ofMillis(50));
+
+        // When
+        List<Lock> locks = bookingLocks.acquireAll(List.of(3L, 1L, 1L + LOCK_STRIPES));
+        Lock heldByAnother = CompletableFuture.supplyAsync(() -> bookingLocks.acquire(2L)).join();
+        RuntimeException exception = assertThrows(AppointmentValidationException.class, () -> bookingLocks.acquireAll(List.of(1L, 2L)));
+        locks.forEach(Lock::unlock);
+
+        // Then
+        assertThat(locks, hasSize(2));
+        assertThat(exception.getMessage(), equalTo("The practitioner is receiving too many bookings, please try again"));
+        // The lock of the first practitioner was released when the second one timed out
+        assertThat(CompletableFuture.supplyAsync(() -> {
+            Lock lock = bookingLocks.acquire(1L);
+            lock.unlock();
+            return lock;
+        }).join(), sameInstance(locks.get(0)));
+        assertThat(heldByAnother, not(sameInstance(locks.get(0))));
+    }
+
+    @Test
+    void shouldCountBookingsRejectedAsUnavailable() {
+        // When
+        bookingLocks.rejectedAsUnavailable();
+
+        // Then
+        assertThat(meterRegistry.get("booking.rejected.early").tag("reason", "unavailable").counter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("booking.rejected.early").tag("reason", "lock-timeout").counter().count(), equalTo(0.0));
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.repository.PractitionerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class PractitionerDirectoryTest {
+
+    @Mock
+    private PractitionerRepository practitionerRepository;
+
+    @InjectMocks
+    private PractitionerDirectory practitionerDirectory;
+
+    @Test
+    void shouldLoadPractitionersOnceAndServeThemFromMemory() {
+        // Given
+        Practitioner practitioner1 = withId(1l);
+        Practitioner practitioner2 = withId(2l);
+
+        // Prepare
+        when(practitionerRepository.findAll()).thenReturn(List.of(practitioner1, practitioner2));
+
+        // When
+        List<Practitioner> practitioners = practitionerDirectory.getAll();
+        Optional<Practitioner> practitioner = practitionerDirectory.findById(2l);
+
+        // Then
+        assertThat(practitioners, contains(practitioner1, practitioner2));
+        assertThat(practitioner, equalTo(Optional.of(practitioner2)));
+        verify(practitionerRepository, times(1)).findAll();
+        verify(practitionerRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldSwapTheSnapshotOnRefresh() {
+        // Given
+        Practitioner practitioner1 = withId(1l);
+        Practitioner practitioner2 = withId(2l);
+
+        // Prepare
+        when(practitionerRepository.findAll()).thenReturn(List.of(practitioner1), List.of(practitioner1, practitioner2));
+
+        // When
+        List<Practitioner> beforeRefresh = practitionerDirectory.getAll();
+        practitionerDirectory.refresh();
+        List<Practitioner> afterRefresh = practitionerDirectory.getAll();
+
+        // Then
+        assertThat(beforeRefresh, contains(practitioner1));
+        assertThat(afterRefresh, contains(practitioner1, practitioner2));
+        verify(practitionerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        // Prepare
+        when(practitionerRepository.findAll()).thenReturn(List.of(withId(1l)));
+
+        // When
+        practitionerDirectory.getAll();
+        practitionerDirectory.invalidate();
+        practitionerDirectory.getAll();
+
+        // Then
+        verify(practitionerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void shouldLookUpPractitionersMissingFromTheSnapshot() {
+        // Given
+        Practitioner newPractitioner = withId(2l);
+
+        // Prepare
+        when(practitionerRepository.findAll()).thenReturn(List.of(withId(1l)), List.of(withId(1l), newPractitioner));
+        when(practitionerRepository.findById(2l)).thenReturn(Optional.of(newPractitioner));
+        when(practitionerRepository.findById(3l)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Practitioner> added = practitionerDirectory.findById(2l);
+        Optional<Practitioner> unknown = practitionerDirectory.findById(3l);
+
+        // Then
+        assertThat(added, equalTo(Optional.of(newPractitioner)));
+        assertThat(unknown, equalTo(Optional.empty()));
+        assertThat(practitionerDirectory.getAll(), hasItem(newPractitioner));
+    }
+
+    private Practitioner withId(final Long id) {
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(id);
+        return practitioner;
+    }
+
+}
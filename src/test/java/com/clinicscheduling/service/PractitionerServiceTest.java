@@ -14,7 +14,7 @@ import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith( MockitoExtension.class )
 public class PractitionerServiceTest {
@@ -22,6 +22,9 @@ public class PractitionerServiceTest {
     @Mock
     private PractitionerRepository practitionerRepository;
 
+    @Mock
+    private PractitionerDirectory practitionerDirectory;
+
     @InjectMocks
     private PractitionerService practitionerService;
 
@@ -40,4 +43,19 @@ public class PractitionerServiceTest {
         assertThat(practitioners, containsInAnyOrder(practitioner1, practitioner2));
     }
 
+    @Test
+    void shouldGetAllPractitionersFromTheDirectory() {
+        // Given
+        Practitioner practitioner1 = PractitionerFixture.randomPractitioner();
+        Practitioner practitioner2 = PractitionerFixture.randomPractitioner();
+        when(practitionerDirectory.getAll()).thenReturn(List.of(practitioner1, practitioner2));
+
+        // When
+        List<Practitioner> practitioners = practitionerService.getAllPractitioners();
+
+        // Then
+        assertThat(practitioners, containsInAnyOrder(practitioner1, practitioner2));
+        verify(practitionerRepository, never()).findAll();
+    }
+
 }
@@ -0,0 +1,124 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.SlotHoldConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith( MockitoExtension.class )
+public class SlotHoldsTest {
+
+    private static final Long PRACTITIONER_ID = 1L;
+
+    private static final Long PATIENT_ID = 10L;
+
+    private static final Long OTHER_PATIENT_ID = 20L;
+
+    private static final Instant START = Instant.parse("2025-02-24T17:00:00Z");
+
+    private static final Instant END = START.plus(1, ChronoUnit.HOURS);
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Mock
+    private SlotHoldConfig config;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private SlotHolds slotHolds;
+
+    @BeforeEach
+    public void setUp() {
+        when(config.tick()).thenReturn(Duration.ofSeconds(1));
+        when(config.wheelSize()).thenReturn(16);
+        slotHolds.init();
+    }
+
+    @Test
+    void shouldHoldSlotForPatient() {
+        // When
+        SlotHold hold = slotHolds.hold(PRACTITIONER_ID, PATIENT_ID, START, END, TTL);
+
+        // Then
+        assertThat(slotHolds.isHeldForAnother(PRACTITIONER_ID, OTHER_PATIENT_ID, START.plus(30, ChronoUnit.MINUTES), END), is(true));
+        assertThat(slotHolds.isHeldForAnother(PRACTITIONER_ID, PATIENT_ID, START, END), is(false));
+        assertThat(slotHolds.isHeldForAnother(PRACTITIONER_ID, OTHER_PATIENT_ID, END, END.plus(1, ChronoUnit.HOURS)), is(false));
+        assertThat(slotHolds.getActiveHolds(PRACTITIONER_ID), contains(hold));
+        assertThat(slotHolds.findById(hold.id()).isPresent(), is(true));
+        assertThat(meterRegistry.get("slot.holds.active").gauge().value(), equalTo(1d));
+    }
+
+    @Test
+    void shouldNotHoldSlotHeldByAnotherPatient() {
+        // Given
+        slotHolds.hold(PRACTITIONER_ID, PATIENT_ID, START, END, TTL);
+
+        // When
+        AppointmentValidationException exception = assertThrows(AppointmentValidationException.class,
+                () -> slotHolds.hold(PRACTITIONER_ID, OTHER_PATIENT_ID, START.plus(30, ChronoUnit.MINUTES), END, TTL));
+
+        // Then
+        assertThat(exception.getMessage(), equalTo("The requested time is on hold"));
+        assertThat(slotHolds.getActiveHolds(PRACTITIONER_ID), hasSize(1));
+    }
+
+    @Test
+    void shouldReplaceOverlappingHoldOfTheSamePatient() {
+        // Given
+        SlotHold first = slotHolds.hold(PRACTITIONER_ID, PATIENT_ID, START, END, TTL);
+
+        // When
+        SlotHold second = slotHolds.hold(PRACTITIONER_ID, PATIENT_ID, START.plus(30, ChronoUnit.MINUTES), END.plus(30, ChronoUnit.MINUTES), TTL);
+
+        // Then
+        assertThat(slotHolds.getActiveHolds(PRACTITIONER_ID), contains(second));
+        assertThat(slotHolds.findById(first.id()).isPresent(), is(false));
+    }
+
+    @Test
+    void shouldReleaseHoldOnceBooked() {
+        // Given
+        SlotHold hold = slotHolds.hold(PRACTITIONER_ID, PATIENT_ID, START, END, TTL);
+
+        // When
+        slotHolds.release(PRACTITIONER_ID, PATIENT_ID, START, END);
+
+        // Then
+        assertThat(slotHolds.isEmpty(), is(true));
+        assertThat(slotHolds.getActiveHolds(PRACTITIONER_ID), empty());
+        assertThat(slotHolds.findById(hold.id()).isPresent(), is(false));
+    }
+
+    @Test
+    void shouldExpireHolds() {
+        // Given
+        SlotHold hold = slotHolds.hold(PRACTITIONER_ID, PATIENT_ID, START, END, Duration.ZERO);
+
+        // When
+        boolean heldBeforeExpiry = slotHolds.isHeldForAnother(PRACTITIONER_ID, OTHER_PATIENT_ID, START, END);
+        slotHolds.expire();
+
+        // Then
+        assertThat(heldBeforeExpiry, is(false));
+        assertThat(slotHolds.isEmpty(), is(true));
+        assertThat(slotHolds.findById(hold.id()).isPresent(), is(false));
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BookingConfig;
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.entity.Appointment;
+import com.janeapp.clinicscheduling.entity.AppointmentType;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.fixture.AppointmentFixture;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.repository.FreeSlotStart;
+import com.janeapp.clinicscheduling.repository.InventorySlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class SlotInventoryTest {
+
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("America/Vancouver");
+
+    private static final BusinessHoursConfig CONFIG = new BusinessHoursConfig("America/Vancouver", 9, 17, 5, false, 2);
+
+    private static final Instant NOW = Instant.parse("2026-03-05T20:00:00Z");
+
+    @Mock
+    private InventorySlotRepository inventorySlotRepository;
+
+    @Mock
+    private BookingConfig bookingConfig;
+
+    @Mock
+    private ClinicClosures clinicClosures;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SlotInventory slotInventory;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(slotInventory, "clinicCalendar", new ClinicCalendar(CONFIG, Clock.fixed(NOW, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void shouldClaimTheSlotAndBlockTheSlotsOverlappingIt() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Instant slotStart = LocalDate.of(2026, 3, 6).atTime(10, 0).atZone(CLINIC_ZONE).toInstant();
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(slotStart.plusSeconds(20), practitioner, AppointmentType.STANDARD);
+
+        // Prepare
+        when(inventorySlotRepository.claim(1L, "STANDARD", slotStart)).thenReturn(1);
+
+        // When
+        slotInventory.claim(appointment);
+
+        // Then
+        verify(inventorySlotRepository, times(1)).blockOverlapping(1L, appointment.getStartAt(), appointment.getEndAt());
+    }
+
+    @Test
+    void shouldRejectClaimWhenTheSlotIsNotFree() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        Appointment appointment = AppointmentFixture.withTimeAndPractitionerAndType(
+                LocalDate.of(2026, 3, 6).atTime(10, 0).atZone(CLINIC_ZONE).toInstant(), practitioner, AppointmentType.STANDARD);
+
+        // Prepare
+        when(inventorySlotRepository.claim(anyLong(), any(), any())).thenReturn(0);
+
+        // When
+        assertThrows(DataIntegrityViolationException.class, () -> slotInventory.claim(appointment));
+
+        // Then
+        verify(inventorySlotRepository, never()).blockOverlapping(anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldOnlyReturnTheFreeSlotsLaidOutBackToBack() {
+        // Given
+        Instant opening = LocalDate.of(2026, 3, 6).atTime(9, 0).atZone(CLINIC_ZONE).toInstant();
+        Instant lastStart = opening.plus(7, ChronoUnit.HOURS);
+
+        // Prepare
+        when(inventorySlotRepository.findFreeSlotStarts("STANDARD", opening, lastStart)).thenReturn(List.of(
+                new FreeSlotStart(1L, opening),
+                new FreeSlotStart(2L, opening.plus(30, ChronoUnit.MINUTES)),
+                new FreeSlotStart(2L, opening.plus(1, ChronoUnit.HOURS))
+        ));
+
+        // When
+        List<FreeSlotStart> freeStarts = slotInventory.getFreeSlotStarts(AppointmentType.STANDARD, opening, lastStart);
+
+        // Then
+        assertThat(freeStarts, contains(new FreeSlotStart(1L, opening), new FreeSlotStart(2L, opening.plus(1, ChronoUnit.HOURS))));
+    }
+
+    @Test
+    void shouldGenerateTheSlotsOfTheDaysTheClinicIsOpen() {
+        // Given
+        LocalDate today = LocalDate.of(2026, 3, 5);
+        LocalDate tomorrow = today.plusDays(1);
+        Instant tomorrowOpening = tomorrow.atTime(9, 0).atZone(CLINIC_ZONE).toInstant();
+
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.SLOT_INVENTORY);
+        // Today is closed, and the day after tomorrow is a Saturday
+        when(bookingConfig.slotInventory()).thenReturn(new BookingConfig.SlotInventory(2, Duration.ofHours(1), Duration.ofMinutes(10)));
+        when(clinicClosures.isClosed(any(LocalDate.class))).thenAnswer(invocation -> invocation.getArgument(0).equals(today));
+
+        // When
+        slotInventory.generate();
+
+        // Then
+        verify(inventorySlotRepository).generate("INITIAL", tomorrowOpening, tomorrowOpening.plus(390, ChronoUnit.MINUTES), 90);
+        verify(inventorySlotRepository).generate("STANDARD", tomorrowOpening, tomorrowOpening.plus(7, ChronoUnit.HOURS), 60);
+        verify(inventorySlotRepository).generate("CHECK_IN", tomorrowOpening, tomorrowOpening.plus(450, ChronoUnit.MINUTES), 30);
+        verify(inventorySlotRepository).deleteStartingBefore(today.atTime(9, 0).atZone(CLINIC_ZONE).toInstant());
+        verifyNoMoreInteractions(inventorySlotRepository);
+    }
+
+    @Test
+    void shouldNotGenerateNorCheckInOtherModes() {
+        // Prepare
+        when(bookingConfig.mode()).thenReturn(BookingConfig.Mode.CONSTRAINT);
+
+        // When
+        slotInventory.generate();
+        slotInventory.check();
+
+        // Then
+        verifyNoInteractions(inventorySlotRepository, clinicClosures, transactionManager);
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.entity.PractitionerUnavailabilityRule.Frequency;
+import com.janeapp.clinicscheduling.repository.PractitionerInterval;
+import com.janeapp.clinicscheduling.repository.PractitionerUnavailabilityRuleRepository;
+import com.janeapp.clinicscheduling.repository.RecurringUnavailability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class UnavailabilityRulesTest {
+
+    private static final ZoneId CLINIC_ZONE = ZoneId.of("America/Vancouver");
+
+    private static final BusinessHoursConfig CONFIG = new BusinessHoursConfig("America/Vancouver", 9, 17, 5, false, 2);
+
+    private static final Instant NOW = Instant.parse("2026-03-05T20:00:00Z");
+
+    @Mock
+    private PractitionerUnavailabilityRuleRepository ruleRepository;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private FreeIntervalCache freeIntervalCache;
+
+    @InjectMocks
+    private UnavailabilityRules unavailabilityRules;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(unavailabilityRules, "clinicCalendar", new ClinicCalendar(CONFIG, Clock.fixed(NOW, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void shouldExpandWeeklyRuleEveryOtherWeekWithinTheWindowOnly() {
+        // Given
+        RecurringUnavailability rule = new RecurringUnavailability(1L, Frequency.WEEKLY, 2, DayOfWeek.TUESDAY, null,
+                LocalTime.of(12, 0), LocalTime.of(13, 0), LocalDate.of(2024, 1, 1), null);
+
+        // When
+        List<LocalDate> dates = occurrences(rule, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        // Then
+        // The first Tuesday is 2024-01-02, so every other Tuesday of the window falls on 2026-03-10 and 03-24
+        assertThat(dates, contains(LocalDate.of(2026, 3, 10), LocalDate.of(2026, 3, 24)));
+    }
+
+    @Test
+    void shouldExpandMonthlyRuleSkippingMonthsWithoutTheDayUntilItEnds() {
+        // Given
+        RecurringUnavailability rule = new RecurringUnavailability(1L, Frequency.MONTHLY, 1, null, 31,
+                LocalTime.of(9, 0), LocalTime.of(10, 0), LocalDate.of(2026, 1, 15), LocalDate.of(2026, 7, 30));
+
+        // When
+        List<LocalDate> dates = occurrences(rule, LocalDate.of(2025, 12, 1), LocalDate.of(2026, 12, 31));
+
+        // Then
+        assertThat(dates, contains(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 31), LocalDate.of(2026, 5, 31)));
+    }
+
+    @Test
+    void shouldExpandRulesIntoClinicTimeIntervals() {
+        // Given
+        RecurringUnavailability adminBlock = new RecurringUnavailability(1L, Frequency.WEEKLY, 1, DayOfWeek.TUESDAY, null,
+                LocalTime.of(12, 0), LocalTime.of(13, 0), LocalDate.of(2026, 1, 1), null);
+        LocalDate tuesday = LocalDate.of(2026, 3, 10);
+        Instant blockStart = tuesday.atTime(12, 0).atZone(CLINIC_ZONE).toInstant();
+
+        // Prepare
+        when(ruleRepository.findRulesEndingFrom(LocalDate.of(2026, 3, 5))).thenReturn(List.of(adminBlock));
+
+        // When
+        List<PractitionerInterval> intervals = unavailabilityRules.expand(
+                tuesday.atTime(9, 0).atZone(CLINIC_ZONE).toInstant(), tuesday.atTime(17, 0).atZone(CLINIC_ZONE).toInstant());
+        boolean overlapsBlock = unavailabilityRules.overlaps(1L, blockStart.plusSeconds(1800), blockStart.plusSeconds(3600));
+        boolean overlapsAfterBlock = unavailabilityRules.overlaps(1L, blockStart.plusSeconds(3600), blockStart.plusSeconds(5400));
+        boolean overlapsOtherPractitioner = unavailabilityRules.overlaps(2L, blockStart, blockStart.plusSeconds(1800));
+
+        // Then
+        assertThat(intervals, contains(new PractitionerInterval(1L, blockStart, blockStart.plusSeconds(3600))));
+        assertThat(overlapsBlock, equalTo(true));
+        assertThat(overlapsAfterBlock, equalTo(false));
+        assertThat(overlapsOtherPractitioner, equalTo(false));
+        verify(ruleRepository, times(1)).findRulesEndingFrom(any());
+    }
+
+    @Test
+    void shouldInvalidateCachesWhenRefreshFindsRulesChanged() {
+        // Given
+        RecurringUnavailability rule = new RecurringUnavailability(1L, Frequency.WEEKLY, 1, DayOfWeek.TUESDAY, null,
+                LocalTime.of(12, 0), LocalTime.of(13, 0), LocalDate.of(2026, 1, 1), null);
+
+        // Prepare
+        when(ruleRepository.findRulesEndingFrom(any())).thenReturn(List.of(rule), List.of(rule), List.of());
+
+        // When
+        unavailabilityRules.refresh();
+        unavailabilityRules.refresh();
+        verify(availabilityCache, never()).invalidateAll();
+        unavailabilityRules.refresh();
+
+        // Then
+        verify(availabilityCache, times(1)).invalidateAll();
+        verify(freeIntervalCache, times(1)).invalidateAll();
+    }
+
+    private List<LocalDate> occurrences(final RecurringUnavailability rule, final LocalDate from, final LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        UnavailabilityRules.occurrences(rule, from, to, dates::add);
+        return dates;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.janeapp.clinicscheduling.service;
+
+import com.janeapp.clinicscheduling.config.BusinessHoursConfig;
+import com.janeapp.clinicscheduling.entity.Practitioner;
+import com.janeapp.clinicscheduling.entity.PractitionerWorkingHours;
+import com.janeapp.clinicscheduling.entity.fixture.PractitionerFixture;
+import com.janeapp.clinicscheduling.repository.PractitionerWorkingHoursRepository;
+import com.janeapp.clinicscheduling.repository.WorkingHoursInterval;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith( MockitoExtension.class )
+public class WorkingHoursTest {
+
+    private static final int CLINIC_AMPM_START_HOUR = 9;
+
+    private static final int CLINIC_AMPM_END_HOUR = 17;
+
+    private static final int CLINIC_HH_END_HOUR = 5;
+
+    private static final String WORKING_HOURS_RANGE_MSG = "Working hours should be on the hour or half-hour, within the clinic hours (%d am to %d pm)";
+
+    @Mock
+    private PractitionerWorkingHoursRepository workingHoursRepository;
+
+    @Mock
+    private BusinessHoursConfig config;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private FreeIntervalCache freeIntervalCache;
+
+    @InjectMocks
+    private WorkingHours workingHours;
+
+    @Test
+    void shouldCompileTemplatesIntoOffHoursPerWeekday() {
+        // Given
+        List<WorkingHoursInterval> intervals = List.of(
+                new WorkingHoursInterval(1L, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                new WorkingHoursInterval(1L, DayOfWeek.MONDAY, LocalTime.of(13, 30), LocalTime.of(17, 0)),
+                new WorkingHoursInterval(1L, DayOfWeek.TUESDAY, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+
+        // Prepare
+        when(config.ampmStart()).thenReturn(CLINIC_AMPM_START_HOUR);
+        when(workingHoursRepository.findAllIntervals()).thenReturn(intervals);
+
+        // When
+        long monday = workingHours.offHours(1L, DayOfWeek.MONDAY);
+        long tuesday = workingHours.offHours(1L, DayOfWeek.TUESDAY);
+        long wednesday = workingHours.offHours(1L, DayOfWeek.WEDNESDAY);
+        long otherPractitioner = workingHours.offHours(2L, DayOfWeek.MONDAY);
+
+        // Then
+        // Slot i starts i * 30 minutes after the clinic opens at 9 am
+        assertThat(monday, equalTo(~ (0b111111L | 0b1111111L << 9)));
+        assertThat(tuesday, equalTo(~ (0b11L << 2)));
+        assertThat(wednesday, equalTo(- 1L));
+        assertThat(otherPractitioner, equalTo(0L));
+        assertThat(workingHours.practitionerIds(), equalTo(Set.of(1L)));
+        verify(workingHoursRepository, times(1)).findAllIntervals();
+    }
+
+    @Test
+    void shouldSeeTemplateRightAfterReplacingIt() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        practitioner.setId(1L);
+        PractitionerWorkingHours morning = workingHours(DayOfWeek.FRIDAY, LocalTime.of(9, 0), LocalTime.of(12, 0));
+
+        // Prepare
+        when(config.ampmStart()).thenReturn(CLINIC_AMPM_START_HOUR);
+        when(config.ampmEnd()).thenReturn(CLINIC_AMPM_END_HOUR);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(workingHoursRepository.saveAll(List.of(morning))).thenReturn(List.of(morning));
+        when(workingHoursRepository.findAllIntervals()).thenReturn(List.of(), List.of(
+                new WorkingHoursInterval(1L, DayOfWeek.FRIDAY, LocalTime.of(9, 0), LocalTime.of(12, 0))));
+
+        // When
+        long beforeReplacing = workingHours.offHours(1L, DayOfWeek.FRIDAY);
+        workingHours.replace(practitioner, List.of(morning));
+        long afterReplacing = workingHours.offHours(1L, DayOfWeek.FRIDAY);
+
+        // Then
+        assertThat(beforeReplacing, equalTo(0L));
+        assertThat(afterReplacing, equalTo(~ 0b111111L));
+        assertThat(morning.getPractitioner(), equalTo(practitioner));
+        verify(workingHoursRepository, times(1)).deleteByPractitioner(practitioner);
+        verify(freeIntervalCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void shouldValidateWorkingHoursWithinTheClinicHours() {
+        // Given
+        Practitioner practitioner = PractitionerFixture.randomPractitioner();
+        PractitionerWorkingHours evening = workingHours(DayOfWeek.MONDAY, LocalTime.of(16, 0), LocalTime.of(18, 0));
+        PractitionerWorkingHours offGrid = workingHours(DayOfWeek.MONDAY, LocalTime.of(9, 15), LocalTime.of(10, 0));
+        PractitionerWorkingHours reversed = workingHours(DayOfWeek.MONDAY, LocalTime.of(12, 0), LocalTime.of(10, 0));
+
+        // Prepare
+        when(config.ampmStart()).thenReturn(CLINIC_AMPM_START_HOUR);
+        when(config.ampmEnd()).thenReturn(CLINIC_AMPM_END_HOUR);
+        when(config.hhEnd()).thenReturn(CLINIC_HH_END_HOUR);
+
+        // When
+        AppointmentValidationException eveningException = assertThrows(AppointmentValidationException.class,
+                () -> workingHours.replace(practitioner, List.of(evening)));
+        AppointmentValidationException offGridException = assertThrows(AppointmentValidationException.class,
+                () -> workingHours.replace(practitioner, List.of(offGrid)));
+        AppointmentValidationException reversedException = assertThrows(AppointmentValidationException.class,
+                () -> workingHours.replace(practitioner, List.of(reversed)));
+
+        // Then
+        String rangeMessage = String.format(WORKING_HOURS_RANGE_MSG, CLINIC_AMPM_START_HOUR, CLINIC_HH_END_HOUR);
+        assertThat(eveningException.getMessage(), equalTo(rangeMessage));
+        assertThat(offGridException.getMessage(), equalTo(rangeMessage));
+        assertThat(reversedException.getMessage(), equalTo("Working hours should start before they end"));
+        verify(workingHoursRepository, never()).deleteByPractitioner(any());
+        verify(freeIntervalCache, never()).invalidateAll();
+    }
+
+    private PractitionerWorkingHours workingHours(final DayOfWeek dayOfWeek, final LocalTime start, final LocalTime end) {
+        PractitionerWorkingHours workingHours = new PractitionerWorkingHours();
+        workingHours.setDayOfWeek(dayOfWeek);
+        workingHours.setStartTime(start);
+        workingHours.setEndTime(end);
+        return workingHours;
+    }
+
+}